@@ -28,6 +28,7 @@ public interface CustomerEventConstants {
   String INITIALIZE = "initialize";
 
   String POST_CUSTOMER = "post-customer";
+  String IMPORT_CUSTOMERS = "import-customers";
   String PUT_CUSTOMER = "put-customer";
   String PUT_ADDRESS = "put-address";
   String PUT_CONTACT_DETAILS = "put-contact-details";
@@ -43,6 +44,7 @@ public interface CustomerEventConstants {
   String UNLOCK_CUSTOMER = "unlock-customer";
   String CLOSE_CUSTOMER = "close-customer";
   String REOPEN_CUSTOMER = "reopen-customer";
+  String BULK_CUSTOMER_COMMAND = "bulk-customer-command";
 
   String POST_TASK = "post-task";
   String PUT_TASK = "put-task";
@@ -60,6 +62,7 @@ public interface CustomerEventConstants {
   String SELECTOR_INITIALIZE = SELECTOR_NAME + " = '" + INITIALIZE + "'";
 
   String SELECTOR_POST_CUSTOMER = SELECTOR_NAME + " = '" + POST_CUSTOMER + "'";
+  String SELECTOR_IMPORT_CUSTOMERS = SELECTOR_NAME + " = '" + IMPORT_CUSTOMERS + "'";
   String SELECTOR_PUT_CUSTOMER = SELECTOR_NAME + " = '" + PUT_CUSTOMER + "'";
   String SELECTOR_PUT_ADDRESS = SELECTOR_NAME + " = '" + PUT_ADDRESS + "'";
   String SELECTOR_PUT_CONTACT_DETAILS = SELECTOR_NAME + " = '" + PUT_CONTACT_DETAILS + "'";
@@ -76,6 +79,7 @@ public interface CustomerEventConstants {
   String SELECTOR_UNLOCK_CUSTOMER = SELECTOR_NAME + " = '" + UNLOCK_CUSTOMER + "'";
   String SELECTOR_CLOSE_CUSTOMER = SELECTOR_NAME + " = '" + CLOSE_CUSTOMER + "'";
   String SELECTOR_REOPEN_CUSTOMER = SELECTOR_NAME + " = '" + REOPEN_CUSTOMER + "'";
+  String SELECTOR_BULK_CUSTOMER_COMMAND = SELECTOR_NAME + " = '" + BULK_CUSTOMER_COMMAND + "'";
 
   String SELECTOR_POST_TASK = SELECTOR_NAME + " = '" + POST_TASK + "'";
   String SELECTOR_PUT_TASK = SELECTOR_NAME + " = '" + PUT_TASK + "'";
@@ -129,6 +129,24 @@ public interface CustomerDocumentsManager {
 
 
 
+  /**
+   * Fetches all pages of a completed document as one ZIP archive, one entry per page in page order.
+   */
+  @RequestMapping(
+      value = "/customers/{customeridentifier}/documents/{documentidentifier}/archive",
+      method = RequestMethod.GET,
+      produces = MediaType.ALL_VALUE,
+      consumes = MediaType.APPLICATION_JSON_VALUE
+  )
+  @ThrowsExceptions({
+      @ThrowsException(status = HttpStatus.BAD_REQUEST, exception = DocumentValidationException.class),
+  })
+  byte[] getDocumentArchive(
+      @PathVariable("customeridentifier") final String customerIdentifier,
+      @PathVariable("documentidentifier") final String documentIdentifier);
+
+
+
   @RequestMapping(
       value = "/customers/{customeridentifier}/documents/{documentidentifier}/pages",
       method = RequestMethod.GET,
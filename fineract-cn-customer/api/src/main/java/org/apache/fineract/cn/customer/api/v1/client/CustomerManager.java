@@ -23,6 +23,10 @@ import org.apache.fineract.cn.customer.api.v1.domain.Address;
 import org.apache.fineract.cn.customer.api.v1.domain.Command;
 import org.apache.fineract.cn.customer.api.v1.domain.ContactDetail;
 import org.apache.fineract.cn.customer.api.v1.domain.Customer;
+import org.apache.fineract.cn.customer.api.v1.domain.CustomerBatch;
+import org.apache.fineract.cn.customer.api.v1.domain.CustomerBulkCommand;
+import org.apache.fineract.cn.customer.api.v1.domain.CustomerBulkCommandResult;
+import org.apache.fineract.cn.customer.api.v1.domain.CustomerChanges;
 import org.apache.fineract.cn.customer.api.v1.domain.CustomerPage;
 import org.apache.fineract.cn.customer.api.v1.domain.IdentificationCard;
 import org.apache.fineract.cn.customer.api.v1.domain.IdentificationCardScan;
@@ -72,6 +76,22 @@ public interface CustomerManager {
                               @RequestParam(value = "sortColumn", required = false) final String sortColumn,
                               @RequestParam(value = "sortDirection", required = false) final String sortDirection);
 
+  @RequestMapping(
+      value = "/customers",
+      method = RequestMethod.GET,
+      produces = MediaType.ALL_VALUE,
+      consumes = MediaType.APPLICATION_JSON_VALUE
+  )
+  @ThrowsException(status = HttpStatus.BAD_REQUEST, exception = CustomerValidationException.class)
+  CustomerPage fetchCustomers(@RequestParam(value = "term", required = false) final String term,
+                              @RequestParam(value = "includeClosed", required = false) final Boolean includeClosed,
+                              @RequestParam(value = "pageIndex", required = false) final Integer pageIndex,
+                              @RequestParam(value = "size", required = false) final Integer size,
+                              @RequestParam(value = "sortColumn", required = false) final String sortColumn,
+                              @RequestParam(value = "sortDirection", required = false) final String sortDirection,
+                              @RequestParam(value = "continuationToken", required = false) final String continuationToken,
+                              @RequestParam(value = "includeTotals", required = false) final Boolean includeTotals);
+
   @RequestMapping(
       value = "/customers/{identifier}",
       method = RequestMethod.GET,
@@ -81,6 +101,35 @@ public interface CustomerManager {
   @ThrowsException(status = HttpStatus.NOT_FOUND, exception = CustomerNotFoundException.class)
   Customer findCustomer(@PathVariable("identifier") final String identifier);
 
+  @RequestMapping(
+      value = "/customers/_batch",
+      method = RequestMethod.POST,
+      produces = MediaType.APPLICATION_JSON_VALUE,
+      consumes = MediaType.APPLICATION_JSON_VALUE
+  )
+  @ThrowsException(status = HttpStatus.BAD_REQUEST, exception = CustomerValidationException.class)
+  CustomerBatch findCustomers(@RequestBody final List<String> identifiers);
+
+  @RequestMapping(
+      value = "/customers/_changes",
+      method = RequestMethod.GET,
+      produces = MediaType.ALL_VALUE,
+      consumes = MediaType.APPLICATION_JSON_VALUE
+  )
+  @ThrowsException(status = HttpStatus.BAD_REQUEST, exception = CustomerValidationException.class)
+  CustomerChanges fetchCustomerChanges(@RequestParam(value = "since", required = false) final String since,
+                                       @RequestParam(value = "size", required = false) final Integer size,
+                                       @RequestParam(value = "wait", required = false) final Integer wait);
+
+  @RequestMapping(
+      value = "/customers/_commands",
+      method = RequestMethod.POST,
+      produces = MediaType.APPLICATION_JSON_VALUE,
+      consumes = MediaType.APPLICATION_JSON_VALUE
+  )
+  @ThrowsException(status = HttpStatus.BAD_REQUEST, exception = CustomerValidationException.class)
+  CustomerBulkCommandResult customerBulkCommand(@RequestBody final CustomerBulkCommand customerBulkCommand);
+
   default boolean isCustomerInGoodStanding(final String customerIdentifier) {
     final Customer customer;
     try {
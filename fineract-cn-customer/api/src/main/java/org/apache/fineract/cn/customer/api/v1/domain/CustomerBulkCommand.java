@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.api.v1.domain;
+
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+/**
+ * Applies one action to many customers at once. Customers are selected by their identifiers, by a filter, or both;
+ * customers whose state does not allow the action, or which still have open mandatory tasks, are skipped.
+ */
+public class CustomerBulkCommand {
+
+  @NotNull
+  private String action;
+  private String comment;
+  private List<String> identifiers;
+  private String assignedOffice;
+  private String lastModifiedBefore;
+
+  public CustomerBulkCommand() {
+    super();
+  }
+
+  public String getAction() {
+    return this.action;
+  }
+
+  public void setAction(final String action) {
+    this.action = action;
+  }
+
+  public String getComment() {
+    return this.comment;
+  }
+
+  public void setComment(final String comment) {
+    this.comment = comment;
+  }
+
+  public List<String> getIdentifiers() {
+    return this.identifiers;
+  }
+
+  public void setIdentifiers(final List<String> identifiers) {
+    this.identifiers = identifiers;
+  }
+
+  public String getAssignedOffice() {
+    return this.assignedOffice;
+  }
+
+  public void setAssignedOffice(final String assignedOffice) {
+    this.assignedOffice = assignedOffice;
+  }
+
+  /**
+   * ISO 8601 date, selects customers not changed since the start of that day (UTC).
+   */
+  public String getLastModifiedBefore() {
+    return this.lastModifiedBefore;
+  }
+
+  public void setLastModifiedBefore(final String lastModifiedBefore) {
+    this.lastModifiedBefore = lastModifiedBefore;
+  }
+}
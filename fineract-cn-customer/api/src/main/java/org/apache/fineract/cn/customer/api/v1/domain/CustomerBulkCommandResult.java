@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.api.v1.domain;
+
+import java.util.List;
+
+public class CustomerBulkCommandResult {
+
+  private String action;
+  private Long applied;
+  private List<String> skipped;
+
+  public CustomerBulkCommandResult() {
+    super();
+  }
+
+  public String getAction() {
+    return this.action;
+  }
+
+  public void setAction(final String action) {
+    this.action = action;
+  }
+
+  public Long getApplied() {
+    return this.applied;
+  }
+
+  public void setApplied(final Long applied) {
+    this.applied = applied;
+  }
+
+  /**
+   * Identifiers of selected customers the action was not applied to, because they do not exist, their state does not
+   * allow it or they still have open mandatory tasks.
+   */
+  public List<String> getSkipped() {
+    return this.skipped;
+  }
+
+  public void setSkipped(final List<String> skipped) {
+    this.skipped = skipped;
+  }
+}
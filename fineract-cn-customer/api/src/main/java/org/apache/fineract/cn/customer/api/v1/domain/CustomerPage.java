@@ -25,6 +25,7 @@ public class CustomerPage {
   private List<Customer> customers;
   private Integer totalPages;
   private Long totalElements;
+  private String continuationToken;
 
   public CustomerPage() {
     super();
@@ -53,4 +54,12 @@ public class CustomerPage {
   public void setTotalElements(final Long totalElements) {
     this.totalElements = totalElements;
   }
+
+  public String getContinuationToken() {
+    return this.continuationToken;
+  }
+
+  public void setContinuationToken(final String continuationToken) {
+    this.continuationToken = continuationToken;
+  }
 }
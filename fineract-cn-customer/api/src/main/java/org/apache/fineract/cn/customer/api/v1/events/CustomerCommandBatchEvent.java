@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.api.v1.events;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Emitted once per batch of customers a bulk command was applied to.
+ */
+public class CustomerCommandBatchEvent {
+
+  private final String action;
+
+  private final List<String> identifiers;
+
+  public CustomerCommandBatchEvent(final String action, final List<String> identifiers) {
+    this.action = action;
+    this.identifiers = identifiers;
+  }
+
+  public String getAction() {
+    return action;
+  }
+
+  public List<String> getIdentifiers() {
+    return identifiers;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    CustomerCommandBatchEvent that = (CustomerCommandBatchEvent) o;
+    return Objects.equals(action, that.action) &&
+            Objects.equals(identifiers, that.identifiers);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(action, identifiers);
+  }
+
+  @Override
+  public String toString() {
+    return "CustomerCommandBatchEvent{" +
+            "action='" + action + '\'' +
+            ", identifiers=" + identifiers +
+            '}';
+  }
+}
@@ -22,6 +22,7 @@ import org.apache.fineract.cn.customer.api.v1.CustomerEventConstants;
 import org.apache.fineract.cn.customer.api.v1.client.CustomerDocumentsManager;
 import org.apache.fineract.cn.customer.api.v1.client.CustomerManager;
 import org.apache.fineract.cn.customer.rest.config.CustomerRestConfiguration;
+import org.apache.fineract.cn.customer.util.StatementRecorder;
 import org.apache.fineract.cn.anubis.test.v1.TenantApplicationSecurityEnvironmentTestRule;
 import org.apache.fineract.cn.api.context.AutoUserContext;
 import org.apache.fineract.cn.test.fixture.TenantDataStoreContextTestRule;
@@ -50,14 +51,16 @@ import org.springframework.test.context.junit4.SpringRunner;
  */
 @RunWith(SpringRunner.class)
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT,
-    classes = {AbstractCustomerTest.TestConfiguration.class})
+    classes = {AbstractCustomerTest.TestConfiguration.class},
+    properties = {"customer.changes.settleTimeInMillis=0"})
 public class AbstractCustomerTest extends SuiteTestEnvironment {
   static final String TEST_USER = "maatkare";
   private static final String LOGGER_NAME = "test-logger";
 
   @Configuration
   @EnableEventRecording
-  @EnableFeignClients(basePackages = {"org.apache.fineract.cn.customer.api.v1.client"})
+  @EnableFeignClients(basePackages = {"org.apache.fineract.cn.customer.api.v1.client",
+      "org.apache.fineract.cn.customer.catalog.api.v1.client"})
   @RibbonClient(name = APP_NAME)
   @ComponentScan(
       basePackages = {
@@ -74,6 +77,11 @@ public class AbstractCustomerTest extends SuiteTestEnvironment {
     public Logger logger() {
       return LoggerFactory.getLogger(LOGGER_NAME);
     }
+
+    @Bean
+    public static StatementRecorder statementRecorder() {
+      return new StatementRecorder();
+    }
   }
 
   @ClassRule
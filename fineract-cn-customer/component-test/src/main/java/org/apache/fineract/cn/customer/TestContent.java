@@ -0,0 +1,300 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer;
+
+import org.apache.commons.lang3.RandomStringUtils;
+import org.apache.fineract.cn.command.gateway.CommandGateway;
+import org.apache.fineract.cn.customer.api.v1.CustomerEventConstants;
+import org.apache.fineract.cn.customer.api.v1.domain.Customer;
+import org.apache.fineract.cn.customer.api.v1.domain.IdentificationCardScan;
+import org.apache.fineract.cn.customer.api.v1.events.ScanEvent;
+import org.apache.fineract.cn.customer.internal.command.CreateIdentificationCardScanCommand;
+import org.apache.fineract.cn.customer.internal.command.CreatePortraitCommand;
+import org.apache.fineract.cn.customer.internal.repository.ContentStore;
+import org.apache.fineract.cn.customer.internal.service.ContentMigration;
+import org.apache.fineract.cn.customer.internal.service.ContentReference;
+import org.apache.fineract.cn.customer.internal.service.ContentService;
+import org.apache.fineract.cn.customer.internal.service.ContentSweeper;
+import org.apache.fineract.cn.customer.internal.service.ImageVariant;
+import org.apache.fineract.cn.customer.util.CustomerGenerator;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.imageio.ImageIO;
+import javax.sql.DataSource;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class TestContent extends AbstractCustomerTest {
+
+  @Autowired
+  private WebApplicationContext context;
+
+  @Autowired
+  private DataSource dataSource;
+
+  @Autowired
+  private ContentStore contentStore;
+
+  @Autowired
+  private ContentSweeper contentSweeper;
+
+  @Autowired
+  private ContentMigration contentMigration;
+
+  @Autowired
+  private ContentService contentService;
+
+  @Autowired
+  private CommandGateway commandGateway;
+
+  private MockMvc mockMvc;
+  private JdbcTemplate jdbcTemplate;
+
+  public TestContent() {
+    super();
+  }
+
+  @Before
+  public void setUp() {
+    this.mockMvc = MockMvcBuilders.webAppContextSetup(this.context).build();
+    this.jdbcTemplate = new JdbcTemplate(this.dataSource);
+  }
+
+  @Test
+  public void shouldServePortraitRange() throws Exception {
+    final Customer customer = this.createCustomer();
+    final byte[] image = ("portrait " + RandomStringUtils.randomAlphanumeric(32)).getBytes(StandardCharsets.UTF_8);
+    this.postPortrait(customer, image);
+
+    this.mockMvc.perform(get("/customers/" + customer.getIdentifier() + "/portrait")
+        .header(HttpHeaders.RANGE, "bytes=2-5"))
+        .andExpect(status().isPartialContent())
+        .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/" + image.length))
+        .andExpect(content().bytes(Arrays.copyOfRange(image, 2, 6)));
+
+    this.mockMvc.perform(get("/customers/" + customer.getIdentifier() + "/portrait"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+        .andExpect(content().bytes(image));
+  }
+
+  @Test
+  public void shouldServePortraitVariants() throws Exception {
+    final Customer customer = this.createCustomer();
+    final BufferedImage original = new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_RGB);
+    final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    ImageIO.write(original, "png", outputStream);
+    final byte[] image = outputStream.toByteArray();
+    this.postPortrait(customer, image);
+
+    // variants are rendered after the upload committed
+    final String key = this.contentKey(customer);
+    for (int i = 0; i < 50 && !this.contentStore.findVariant(key, ImageVariant.WEB.identifier()).isPresent(); i++) {
+      Thread.sleep(100L);
+    }
+
+    final BufferedImage thumbnail = ImageIO.read(new ByteArrayInputStream(
+        this.mockMvc.perform(get("/customers/" + customer.getIdentifier() + "/portrait")
+            .param("size", ImageVariant.THUMBNAIL.identifier()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + key + "-" + ImageVariant.THUMBNAIL.identifier() + "\""))
+            .andReturn().getResponse().getContentAsByteArray()));
+    Assert.assertEquals(160, thumbnail.getWidth());
+    Assert.assertEquals(80, thumbnail.getHeight());
+
+    final BufferedImage web = ImageIO.read(new ByteArrayInputStream(
+        this.mockMvc.perform(get("/customers/" + customer.getIdentifier() + "/portrait")
+            .param("size", ImageVariant.WEB.identifier()))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsByteArray()));
+    Assert.assertEquals(1024, web.getWidth());
+    Assert.assertEquals(512, web.getHeight());
+
+    this.mockMvc.perform(get("/customers/" + customer.getIdentifier() + "/portrait")
+        .param("size", ImageVariant.ORIGINAL))
+        .andExpect(status().isOk())
+        .andExpect(content().bytes(image));
+  }
+
+  @Test
+  public void shouldServeOriginalOfSmallPortrait() throws Exception {
+    final Customer customer = this.createCustomer();
+    final byte[] image = ("small " + RandomStringUtils.randomAlphanumeric(32)).getBytes(StandardCharsets.UTF_8);
+    this.postPortrait(customer, image);
+
+    this.mockMvc.perform(get("/customers/" + customer.getIdentifier() + "/portrait")
+        .param("size", ImageVariant.THUMBNAIL.identifier()))
+        .andExpect(status().isOk())
+        .andExpect(content().bytes(image));
+  }
+
+  @Test
+  public void shouldKeepSharedContentUntilLastReferenceIsGone() throws Exception {
+    final byte[] image = ("shared " + RandomStringUtils.randomAlphanumeric(32)).getBytes(StandardCharsets.UTF_8);
+    final Customer first = this.createCustomer();
+    this.postPortrait(first, image);
+    final Customer second = this.createCustomer();
+    this.postPortrait(second, image);
+
+    final String key = this.contentKey(first);
+    Assert.assertEquals(key, this.contentKey(second));
+
+    this.customerManager.deletePortrait(first.getIdentifier());
+    this.eventRecorder.wait(CustomerEventConstants.DELETE_PORTRAIT, first.getIdentifier());
+    this.contentSweeper.sweep(Instant.now().plusSeconds(1L));
+
+    Assert.assertArrayEquals(image, this.customerManager.getPortrait(second.getIdentifier()));
+
+    this.customerManager.deletePortrait(second.getIdentifier());
+    this.eventRecorder.wait(CustomerEventConstants.DELETE_PORTRAIT, second.getIdentifier());
+    this.contentSweeper.sweep(Instant.now().plusSeconds(1L));
+
+    Assert.assertFalse(this.contentStore.find(key).isPresent());
+  }
+
+  @Test
+  public void shouldNotSweepContentStagedWithinGracePeriod() throws Exception {
+    final Customer customer = this.createCustomer();
+    final byte[] image = ("fresh " + RandomStringUtils.randomAlphanumeric(32)).getBytes(StandardCharsets.UTF_8);
+    this.postPortrait(customer, image);
+    final String key = this.contentKey(customer);
+
+    this.customerManager.deletePortrait(customer.getIdentifier());
+    this.eventRecorder.wait(CustomerEventConstants.DELETE_PORTRAIT, customer.getIdentifier());
+    this.contentSweeper.sweep(Instant.now().minusSeconds(60L));
+
+    Assert.assertTrue(this.contentStore.find(key).isPresent());
+  }
+
+  @Test
+  public void shouldStageUploadInContentStore() throws Exception {
+    final Customer customer = this.createCustomer();
+    final byte[] image = ("staged " + RandomStringUtils.randomAlphanumeric(32)).getBytes(StandardCharsets.UTF_8);
+    this.postPortrait(customer, image);
+
+    final Optional<Resource> content = this.contentStore.find(this.contentKey(customer));
+    Assert.assertTrue(content.isPresent());
+    try (final InputStream inputStream = content.get().getInputStream()) {
+      Assert.assertArrayEquals(image, StreamUtils.copyToByteArray(inputStream));
+    }
+  }
+
+  @Test
+  public void shouldSweepUploadsOfFailedCommands() throws Exception {
+    final ContentReference portrait = this.contentService.stage(new MockMultipartFile("portrait", "test.png",
+        MediaType.IMAGE_PNG_VALUE, ("orphan " + RandomStringUtils.randomAlphanumeric(32)).getBytes(StandardCharsets.UTF_8)));
+    final ContentReference image = this.contentService.stage(new MockMultipartFile("image", "test.png",
+        MediaType.IMAGE_PNG_VALUE, ("orphan " + RandomStringUtils.randomAlphanumeric(32)).getBytes(StandardCharsets.UTF_8)));
+
+    try {
+      this.commandGateway.process(
+          new CreatePortraitCommand(RandomStringUtils.randomAlphanumeric(8), portrait), String.class).get();
+      Assert.fail();
+    } catch (final Exception ex) {
+      // the customer does not exist
+    }
+    final IdentificationCardScan scan = new IdentificationCardScan();
+    scan.setIdentifier(RandomStringUtils.randomAlphanumeric(8));
+    scan.setDescription("orphan");
+    try {
+      this.commandGateway.process(
+          new CreateIdentificationCardScanCommand(RandomStringUtils.randomAlphanumeric(8), scan, image),
+          ScanEvent.class).get();
+      Assert.fail();
+    } catch (final Exception ex) {
+      // the identification card does not exist
+    }
+
+    Assert.assertTrue(this.contentStore.find(portrait.key()).isPresent());
+    Assert.assertTrue(this.contentStore.find(image.key()).isPresent());
+
+    this.contentSweeper.sweep(Instant.now().plusSeconds(1L));
+
+    Assert.assertFalse(this.contentStore.find(portrait.key()).isPresent());
+    Assert.assertFalse(this.contentStore.find(image.key()).isPresent());
+  }
+
+  @Test
+  public void shouldMigrateContentFromDatabase() throws Exception {
+    final Customer customer = this.createCustomer();
+    final byte[] image = ("legacy " + RandomStringUtils.randomAlphanumeric(32)).getBytes(StandardCharsets.UTF_8);
+
+    // a portrait as written before content moved out of the database
+    this.jdbcTemplate.update(
+        "INSERT INTO maat_portraits (customer_id, content_type, size, image) " +
+            "SELECT id, ?, ?, ? FROM maat_customers WHERE identifier = ?",
+        MediaType.IMAGE_PNG_VALUE, (long) image.length, image, customer.getIdentifier());
+    Assert.assertNull(this.contentKey(customer));
+
+    this.contentMigration.migrate();
+
+    final String key = this.contentKey(customer);
+    Assert.assertNotNull(key);
+    Assert.assertEquals(Boolean.TRUE, this.jdbcTemplate.queryForObject(
+        "SELECT p.image IS NULL FROM maat_portraits p JOIN maat_customers c ON c.id = p.customer_id " +
+            "WHERE c.identifier = ?", Boolean.class, customer.getIdentifier()));
+    Assert.assertArrayEquals(image, this.customerManager.getPortrait(customer.getIdentifier()));
+
+    // running it again finds nothing left to move
+    this.contentMigration.migrate();
+    Assert.assertEquals(key, this.contentKey(customer));
+  }
+
+  private Customer createCustomer() throws Exception {
+    final Customer customer = CustomerGenerator.createRandomCustomer();
+    this.customerManager.createCustomer(customer);
+    this.eventRecorder.wait(CustomerEventConstants.POST_CUSTOMER, customer.getIdentifier());
+    return customer;
+  }
+
+  private void postPortrait(final Customer customer, final byte[] image) throws Exception {
+    final MockMultipartFile file = new MockMultipartFile("portrait", "test.png", MediaType.IMAGE_PNG_VALUE, image);
+    this.customerManager.postPortrait(customer.getIdentifier(), file);
+    this.eventRecorder.wait(CustomerEventConstants.POST_PORTRAIT, customer.getIdentifier());
+  }
+
+  private String contentKey(final Customer customer) {
+    return this.jdbcTemplate.queryForObject(
+        "SELECT p.content_key FROM maat_portraits p JOIN maat_customers c ON c.id = p.customer_id " +
+            "WHERE c.identifier = ?", String.class, customer.getIdentifier());
+  }
+}
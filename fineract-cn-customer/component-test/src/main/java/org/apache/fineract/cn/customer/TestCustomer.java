@@ -27,26 +27,53 @@ import org.apache.fineract.cn.customer.api.v1.domain.Address;
 import org.apache.fineract.cn.customer.api.v1.domain.Command;
 import org.apache.fineract.cn.customer.api.v1.domain.ContactDetail;
 import org.apache.fineract.cn.customer.api.v1.domain.Customer;
+import org.apache.fineract.cn.customer.api.v1.domain.CustomerBatch;
+import org.apache.fineract.cn.customer.api.v1.domain.CustomerBulkCommand;
+import org.apache.fineract.cn.customer.api.v1.domain.CustomerBulkCommandResult;
+import org.apache.fineract.cn.customer.api.v1.domain.CustomerChanges;
 import org.apache.fineract.cn.customer.api.v1.domain.CustomerPage;
 import org.apache.fineract.cn.customer.api.v1.domain.ProcessStep;
+import org.apache.fineract.cn.customer.internal.service.CustomerService;
 import org.apache.fineract.cn.customer.util.AddressGenerator;
 import org.apache.fineract.cn.customer.util.CommandGenerator;
 import org.apache.fineract.cn.customer.util.ContactDetailGenerator;
 import org.apache.fineract.cn.customer.util.CustomerGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import java.time.Clock;
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import javax.sql.DataSource;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.fineract.cn.lang.DateConverter;
 import org.junit.Assert;
 import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class TestCustomer extends AbstractCustomerTest {
 
+  @Autowired
+  private DataSource dataSource;
+
+  @Autowired
+  private WebApplicationContext context;
+
   @Test
   public void shouldCreateCustomer() throws Exception {
     final Customer customer = CustomerGenerator.createRandomCustomer();
@@ -141,6 +168,140 @@ public class TestCustomer extends AbstractCustomerTest {
     Assert.assertTrue(customerPage.getTotalElements() >= 3);
   }
 
+  @Test
+  public void shouldFetchCustomersByContinuationToken() throws Exception {
+    Stream.of(
+        CustomerGenerator.createRandomCustomer(),
+        CustomerGenerator.createRandomCustomer(),
+        CustomerGenerator.createRandomCustomer()
+    ).forEach(customer -> {
+      this.customerManager.createCustomer(customer);
+      try {
+        this.eventRecorder.wait(CustomerEventConstants.POST_CUSTOMER, customer.getIdentifier());
+      } catch (final InterruptedException ex) {
+        Assert.fail(ex.getMessage());
+      }
+    });
+
+    final CustomerPage firstPage =
+        this.customerManager.fetchCustomers(null, null, 0, 2, "surname", "ASC", null, Boolean.FALSE);
+    Assert.assertNull(firstPage.getTotalElements());
+    Assert.assertEquals(2, firstPage.getCustomers().size());
+    Assert.assertNotNull(firstPage.getContinuationToken());
+
+    final CustomerPage secondPage =
+        this.customerManager.fetchCustomers(null, null, null, 2, null, null, firstPage.getContinuationToken(), null);
+    Assert.assertFalse(secondPage.getCustomers().isEmpty());
+    secondPage.getCustomers().forEach(customer -> firstPage.getCustomers().forEach(
+        seen -> Assert.assertNotEquals(seen.getIdentifier(), customer.getIdentifier())));
+  }
+
+  @Test
+  public void shouldNotFetchCustomerPagesTooLarge() throws Exception {
+    final Customer customer = CustomerGenerator.createRandomCustomer();
+    this.customerManager.createCustomer(customer);
+    this.eventRecorder.wait(CustomerEventConstants.POST_CUSTOMER, customer.getIdentifier());
+
+    final CustomerPage firstPage =
+        this.customerManager.fetchCustomers(null, null, 0, 1, "surname", "ASC", null, Boolean.FALSE);
+    Assert.assertNotNull(firstPage.getContinuationToken());
+
+    try {
+      this.customerManager.fetchCustomers(null, null, null, 1001, null, null, firstPage.getContinuationToken(), null);
+      Assert.fail();
+    } catch (final CustomerValidationException ex) {
+      // expected
+    }
+    try {
+      this.customerManager.fetchCustomers(null, null, 0, 1001, null, null, null, null);
+      Assert.fail();
+    } catch (final CustomerValidationException ex) {
+      // expected
+    }
+    Assert.assertNotNull(
+        this.customerManager.fetchCustomers(null, null, null, 1000, null, null, firstPage.getContinuationToken(), null));
+  }
+
+  @Test(expected = CustomerValidationException.class)
+  public void shouldNotFetchCustomersUnknownSortColumn() throws Exception {
+    this.customerManager.fetchCustomers(null, null, 0, 20, "middleName", null, null, null);
+  }
+
+  @Test
+  public void shouldFetchCustomerChangesSinceWatermark() throws Exception {
+    CustomerChanges customerChanges = this.customerManager.fetchCustomerChanges(null, 500, null);
+    while (customerChanges.getHasMore()) {
+      customerChanges = this.customerManager.fetchCustomerChanges(customerChanges.getWatermark(), 500, null);
+    }
+    final String watermark = customerChanges.getWatermark();
+
+    final Customer customer = CustomerGenerator.createRandomCustomer();
+    this.customerManager.createCustomer(customer);
+    this.eventRecorder.wait(CustomerEventConstants.POST_CUSTOMER, customer.getIdentifier());
+
+    // the event may be received before the change is visible, wait for it
+    final CustomerChanges changesSinceWatermark = this.customerManager.fetchCustomerChanges(watermark, 500, 10);
+    Assert.assertTrue(changesSinceWatermark.getCustomers()
+        .stream()
+        .anyMatch(changedCustomer -> changedCustomer.getIdentifier().equals(customer.getIdentifier())));
+    Assert.assertNotEquals(watermark, changesSinceWatermark.getWatermark());
+
+    final CustomerChanges noChanges =
+        this.customerManager.fetchCustomerChanges(changesSinceWatermark.getWatermark(), 500, null);
+    Assert.assertTrue(noChanges.getCustomers().isEmpty());
+    Assert.assertEquals(changesSinceWatermark.getWatermark(), noChanges.getWatermark());
+  }
+
+  @Test
+  public void shouldFetchCustomerChangesOfPortrait() throws Exception {
+    final Customer customer = CustomerGenerator.createRandomCustomer();
+    this.customerManager.createCustomer(customer);
+    this.eventRecorder.wait(CustomerEventConstants.POST_CUSTOMER, customer.getIdentifier());
+
+    CustomerChanges customerChanges = this.customerManager.fetchCustomerChanges(null, 500, 10);
+    while (customerChanges.getHasMore()
+        || customerChanges.getCustomers().stream().noneMatch(changed -> changed.getIdentifier().equals(customer.getIdentifier()))) {
+      customerChanges = this.customerManager.fetchCustomerChanges(customerChanges.getWatermark(), 500, 10);
+    }
+    final String watermark = customerChanges.getWatermark();
+
+    final MockMultipartFile file = new MockMultipartFile("portrait", "test.png", MediaType.IMAGE_PNG_VALUE, "i don't care".getBytes());
+    this.customerManager.postPortrait(customer.getIdentifier(), file);
+    this.eventRecorder.wait(CustomerEventConstants.POST_PORTRAIT, customer.getIdentifier());
+
+    final CustomerChanges changesSinceWatermark = this.customerManager.fetchCustomerChanges(watermark, 500, 10);
+    Assert.assertTrue(changesSinceWatermark.getCustomers()
+        .stream()
+        .anyMatch(changedCustomer -> changedCustomer.getIdentifier().equals(customer.getIdentifier())));
+  }
+
+  @Test
+  public void shouldFetchCustomerChangesNotCachedYet() throws Exception {
+    final Customer customer = CustomerGenerator.createRandomCustomer();
+    this.customerManager.createCustomer(customer);
+    this.eventRecorder.wait(CustomerEventConstants.POST_CUSTOMER, customer.getIdentifier());
+
+    CustomerChanges customerChanges = this.customerManager.fetchCustomerChanges(null, 500, 10);
+    while (customerChanges.getHasMore()
+        || customerChanges.getCustomers().stream().noneMatch(changed -> changed.getIdentifier().equals(customer.getIdentifier()))) {
+      customerChanges = this.customerManager.fetchCustomerChanges(customerChanges.getWatermark(), 500, 10);
+    }
+    final String watermark = customerChanges.getWatermark();
+
+    // cache the customer, then change it the way another node would, whose eviction has not arrived yet
+    this.customerManager.findCustomer(customer.getIdentifier());
+    new JdbcTemplate(this.dataSource).update(
+        "UPDATE maat_customers SET given_name = ? WHERE identifier = ?", "Changed", customer.getIdentifier());
+
+    final CustomerChanges changesSinceWatermark = this.customerManager.fetchCustomerChanges(watermark, 500, 10);
+    final Customer changedCustomer = changesSinceWatermark.getCustomers()
+        .stream()
+        .filter(changed -> changed.getIdentifier().equals(customer.getIdentifier()))
+        .findFirst()
+        .orElseThrow(AssertionError::new);
+    Assert.assertEquals("Changed", changedCustomer.getGivenName());
+  }
+
   @Test
   public void shouldFetchCustomersByTerm() throws Exception {
     final Customer randomCustomer = CustomerGenerator.createRandomCustomer();
@@ -152,6 +313,69 @@ public class TestCustomer extends AbstractCustomerTest {
     Assert.assertTrue(customerPage.getTotalElements() == 1);
   }
 
+  @Test
+  public void shouldFetchCustomersByTermIgnoringCaseAndAccents() throws Exception {
+    final String randomName = RandomStringUtils.randomAlphabetic(16).toLowerCase();
+    final Customer randomCustomer = CustomerGenerator.createRandomCustomer();
+    randomCustomer.setGivenName("Zoë" + randomName);
+    this.customerManager.createCustomer(randomCustomer);
+    this.eventRecorder.wait(CustomerEventConstants.POST_CUSTOMER, randomCustomer.getIdentifier());
+
+    final CustomerPage customerPage =
+        this.customerManager.fetchCustomers("ZOE" + randomName.toUpperCase(), Boolean.FALSE, 0, 20, null, null);
+    Assert.assertTrue(customerPage.getTotalElements() == 1);
+    Assert.assertEquals(randomCustomer.getIdentifier(), customerPage.getCustomers().get(0).getIdentifier());
+  }
+
+  @Test
+  public void shouldSortCustomersFoundByTermAsSimilarAsEachOther() throws Exception {
+    // identifiers and names differ in trigrams of their own, so every customer is as similar to the term
+    final String term = RandomStringUtils.randomNumeric(8);
+    final List<String> surnames = Arrays.asList("Aaa", "Bbb", "Ccc");
+    final List<String> suffixes = Arrays.asList("z", "y", "x");
+    for (int i = 0; i < surnames.size(); i++) {
+      final Customer customer = CustomerGenerator.createRandomCustomer();
+      customer.setIdentifier(term + suffixes.get(i));
+      customer.setGivenName("Sortable");
+      customer.setSurname(surnames.get(i));
+      this.customerManager.createCustomer(customer);
+      this.eventRecorder.wait(CustomerEventConstants.POST_CUSTOMER, customer.getIdentifier());
+    }
+
+    final CustomerPage ascending = this.customerManager.fetchCustomers(term, Boolean.FALSE, 0, 20, "surname", "ASC");
+    Assert.assertEquals(surnames, ascending.getCustomers().stream().map(Customer::getSurname).collect(Collectors.toList()));
+
+    final CustomerPage descending = this.customerManager.fetchCustomers(term, Boolean.FALSE, 0, 20, "surname", "DESC");
+    Assert.assertEquals(Arrays.asList("Ccc", "Bbb", "Aaa"),
+        descending.getCustomers().stream().map(Customer::getSurname).collect(Collectors.toList()));
+  }
+
+  @Test
+  public void shouldFindCustomersInBatch() throws Exception {
+    final Customer firstCustomer = CustomerGenerator.createRandomCustomer();
+    this.customerManager.createCustomer(firstCustomer);
+    this.eventRecorder.wait(CustomerEventConstants.POST_CUSTOMER, firstCustomer.getIdentifier());
+
+    final Customer secondCustomer = CustomerGenerator.createRandomCustomer();
+    this.customerManager.createCustomer(secondCustomer);
+    this.eventRecorder.wait(CustomerEventConstants.POST_CUSTOMER, secondCustomer.getIdentifier());
+
+    final String missingIdentifier = RandomStringUtils.randomAlphanumeric(32);
+
+    final CustomerBatch customerBatch = this.customerManager.findCustomers(
+        Arrays.asList(firstCustomer.getIdentifier(), missingIdentifier, secondCustomer.getIdentifier()));
+    Assert.assertEquals(2, customerBatch.getCustomers().size());
+    Assert.assertEquals(firstCustomer.getIdentifier(), customerBatch.getCustomers().get(0).getIdentifier());
+    Assert.assertEquals(secondCustomer.getIdentifier(), customerBatch.getCustomers().get(1).getIdentifier());
+    Assert.assertNotNull(customerBatch.getCustomers().get(0).getAddress());
+    Assert.assertEquals(Collections.singletonList(missingIdentifier), customerBatch.getMissingIdentifiers());
+  }
+
+  @Test(expected = CustomerValidationException.class)
+  public void shouldNotFindCustomersEmptyBatch() throws Exception {
+    this.customerManager.findCustomers(Collections.emptyList());
+  }
+
   @Test
   public void shouldUpdateCustomer() throws Exception {
     final Customer customer = CustomerGenerator.createRandomCustomer();
@@ -196,6 +420,41 @@ public class TestCustomer extends AbstractCustomerTest {
     Assert.assertNotNull(activatedCustomer.getApplicationDate());
   }
 
+  @Test
+  public void shouldActivateClientsInBulk() throws Exception {
+    final Customer firstCustomer = CustomerGenerator.createRandomCustomer();
+    this.customerManager.createCustomer(firstCustomer);
+    this.eventRecorder.wait(CustomerEventConstants.POST_CUSTOMER, firstCustomer.getIdentifier());
+
+    final Customer secondCustomer = CustomerGenerator.createRandomCustomer();
+    this.customerManager.createCustomer(secondCustomer);
+    this.eventRecorder.wait(CustomerEventConstants.POST_CUSTOMER, secondCustomer.getIdentifier());
+
+    this.customerManager.customerCommand(secondCustomer.getIdentifier(), CommandGenerator.create(Command.Action.ACTIVATE, "Test"));
+    this.eventRecorder.wait(CustomerEventConstants.ACTIVATE_CUSTOMER, secondCustomer.getIdentifier());
+
+    final CustomerBulkCommand customerBulkCommand = new CustomerBulkCommand();
+    customerBulkCommand.setAction(Command.Action.ACTIVATE.name());
+    customerBulkCommand.setComment("Test");
+    customerBulkCommand.setIdentifiers(Arrays.asList(firstCustomer.getIdentifier(), secondCustomer.getIdentifier()));
+
+    final CustomerBulkCommandResult result = this.customerManager.customerBulkCommand(customerBulkCommand);
+    Assert.assertEquals(Long.valueOf(1L), result.getApplied());
+    Assert.assertEquals(Collections.singletonList(secondCustomer.getIdentifier()), result.getSkipped());
+
+    final Customer activatedCustomer = this.customerManager.findCustomer(firstCustomer.getIdentifier());
+    Assert.assertEquals(Customer.State.ACTIVE.name(), activatedCustomer.getCurrentState());
+    Assert.assertNotNull(activatedCustomer.getApplicationDate());
+    Assert.assertEquals(1, this.customerManager.fetchCustomerCommands(firstCustomer.getIdentifier()).size());
+  }
+
+  @Test(expected = CustomerValidationException.class)
+  public void shouldNotApplyBulkCommandWithoutSelection() throws Exception {
+    final CustomerBulkCommand customerBulkCommand = new CustomerBulkCommand();
+    customerBulkCommand.setAction(Command.Action.LOCK.name());
+    this.customerManager.customerBulkCommand(customerBulkCommand);
+  }
+
   @Test
   public void shouldLockClient() throws Exception {
     final Customer customer = CustomerGenerator.createRandomCustomer();
@@ -333,6 +592,48 @@ public class TestCustomer extends AbstractCustomerTest {
     Assert.assertEquals(address.getCountry(), changedAddress.getCountry());
   }
 
+  @Test
+  public void shouldUpdateCustomerInPlace() throws Exception {
+    final Customer customer = CustomerGenerator.createRandomCustomer();
+    this.customerManager.createCustomer(customer);
+    Assert.assertTrue(this.eventRecorder.wait(CustomerEventConstants.POST_CUSTOMER, customer.getIdentifier()));
+
+    final Map<String, Object> createdAddress = this.addressRow(customer.getIdentifier());
+    final List<Map<String, Object>> createdContactDetails = this.contactDetailRows(customer.getIdentifier());
+    Assert.assertEquals(2, createdContactDetails.size());
+
+    this.customerManager.updateCustomer(customer.getIdentifier(), customer);
+    Assert.assertTrue(this.eventRecorder.wait(CustomerEventConstants.PUT_CUSTOMER, customer.getIdentifier()));
+
+    Assert.assertEquals(createdAddress, this.addressRow(customer.getIdentifier()));
+    Assert.assertEquals(createdContactDetails, this.contactDetailRows(customer.getIdentifier()));
+
+    final String changedCity = RandomStringUtils.randomAlphanumeric(32);
+    customer.getAddress().setCity(changedCity);
+    final ContactDetail keptContactDetail = customer.getContactDetails().get(0);
+    final ContactDetail changedContactDetail = ContactDetailGenerator.createRandomContactDetail();
+    customer.setContactDetails(Arrays.asList(keptContactDetail, changedContactDetail));
+    this.customerManager.updateCustomer(customer.getIdentifier(), customer);
+    Assert.assertTrue(this.eventRecorder.wait(CustomerEventConstants.PUT_CUSTOMER, customer.getIdentifier()));
+
+    final Map<String, Object> changedAddress = this.addressRow(customer.getIdentifier());
+    Assert.assertEquals(createdAddress.get("id"), changedAddress.get("id"));
+    Assert.assertEquals(changedCity, changedAddress.get("city"));
+
+    final List<Map<String, Object>> changedContactDetails = this.contactDetailRows(customer.getIdentifier());
+    Assert.assertEquals(this.ids(createdContactDetails), this.ids(changedContactDetails));
+    Assert.assertEquals(
+        Stream.of(keptContactDetail.getValue(), changedContactDetail.getValue()).collect(Collectors.toSet()),
+        changedContactDetails.stream().map(row -> row.get("a_value")).collect(Collectors.toSet()));
+    Assert.assertTrue(createdContactDetails.stream()
+        .filter(row -> row.get("a_value").equals(keptContactDetail.getValue()))
+        .allMatch(changedContactDetails::contains));
+
+    final Customer changedCustomer = this.customerManager.findCustomer(customer.getIdentifier());
+    Assert.assertEquals(changedCity, changedCustomer.getAddress().getCity());
+    Assert.assertEquals(2, changedCustomer.getContactDetails().size());
+  }
+
   @Test
   public void shouldUpdateContactDetails() throws Exception {
     final Customer customer = CustomerGenerator.createRandomCustomer();
@@ -481,4 +782,53 @@ public class TestCustomer extends AbstractCustomerTest {
     Assert.assertEquals(1, closedProcessSteps.size());
     Assert.assertEquals(Command.Action.REOPEN.name(), closedProcessSteps.get(0).getCommand().getAction());
   }
+
+  @Test
+  public void shouldSendValidatorsOfReturnedCustomer() throws Exception {
+    final MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(this.context).build();
+    final Customer customer = CustomerGenerator.createRandomCustomer();
+    this.customerManager.createCustomer(customer);
+    this.eventRecorder.wait(CustomerEventConstants.POST_CUSTOMER, customer.getIdentifier());
+
+    final MvcResult created = mockMvc.perform(get("/customers/" + customer.getIdentifier()))
+        .andExpect(status().isOk())
+        .andReturn();
+    final String createdETag = created.getResponse().getHeader(HttpHeaders.ETAG);
+    Assert.assertEquals(this.eTagOfBody(created), createdETag);
+
+    mockMvc.perform(get("/customers/" + customer.getIdentifier()).header(HttpHeaders.IF_NONE_MATCH, createdETag))
+        .andExpect(status().isNotModified());
+
+    customer.setGivenName("Changed");
+    this.customerManager.updateCustomer(customer.getIdentifier(), customer);
+    this.eventRecorder.wait(CustomerEventConstants.PUT_CUSTOMER, customer.getIdentifier());
+
+    final MvcResult updated = mockMvc.perform(get("/customers/" + customer.getIdentifier())
+        .header(HttpHeaders.IF_NONE_MATCH, createdETag))
+        .andExpect(status().isOk())
+        .andReturn();
+    Assert.assertNotEquals(createdETag, updated.getResponse().getHeader(HttpHeaders.ETAG));
+    Assert.assertEquals(this.eTagOfBody(updated), updated.getResponse().getHeader(HttpHeaders.ETAG));
+  }
+
+  private String eTagOfBody(final MvcResult result) throws Exception {
+    final Customer body = new ObjectMapper().readValue(result.getResponse().getContentAsString(), Customer.class);
+    return "\"" + Long.toHexString(CustomerService.lastModified(body)) + "\"";
+  }
+
+  private Map<String, Object> addressRow(final String customerIdentifier) {
+    return new JdbcTemplate(this.dataSource).queryForMap(
+        "SELECT a.* FROM maat_addresses a JOIN maat_customers c ON c.address_id = a.id WHERE c.identifier = ?",
+        customerIdentifier);
+  }
+
+  private List<Map<String, Object>> contactDetailRows(final String customerIdentifier) {
+    return new JdbcTemplate(this.dataSource).queryForList(
+        "SELECT d.* FROM maat_contact_details d JOIN maat_customers c ON c.id = d.customer_id " +
+            "WHERE c.identifier = ? ORDER BY d.id", customerIdentifier);
+  }
+
+  private Set<Object> ids(final List<Map<String, Object>> rows) {
+    return rows.stream().map(row -> row.get("id")).collect(Collectors.toSet());
+  }
 }
@@ -0,0 +1,277 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.fineract.cn.customer.api.v1.CustomerEventConstants;
+import org.apache.fineract.cn.customer.api.v1.client.CustomerNotFoundException;
+import org.apache.fineract.cn.customer.api.v1.domain.ContactDetail;
+import org.apache.fineract.cn.customer.api.v1.domain.Customer;
+import org.apache.fineract.cn.customer.api.v1.domain.CustomerImportResult;
+import org.apache.fineract.cn.customer.catalog.api.v1.CatalogEventConstants;
+import org.apache.fineract.cn.customer.catalog.api.v1.client.CatalogManager;
+import org.apache.fineract.cn.customer.catalog.api.v1.domain.Catalog;
+import org.apache.fineract.cn.customer.catalog.api.v1.domain.Field;
+import org.apache.fineract.cn.customer.catalog.api.v1.domain.Value;
+import org.apache.fineract.cn.customer.catalog.util.CatalogGenerator;
+import org.apache.fineract.cn.customer.internal.service.CustomerImportService;
+import org.apache.fineract.cn.customer.util.CustomerGenerator;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class TestCustomerImport extends AbstractCustomerTest {
+
+  private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+  @Autowired
+  private CatalogManager catalogManager;
+
+  @Autowired
+  private CustomerImportService customerImportService;
+
+  @Autowired
+  private WebApplicationContext context;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  public TestCustomerImport() {
+    super();
+  }
+
+  @Test
+  public void shouldImportMixedStream() throws Exception {
+    final Catalog catalog = CatalogGenerator.createRandomCatalog();
+    this.catalogManager.createCatalog(catalog);
+    Assert.assertTrue(this.eventRecorder.wait(CatalogEventConstants.POST_CATALOG, catalog.getIdentifier()));
+
+    final Customer existingCustomer = CustomerGenerator.createRandomCustomer();
+    this.customerManager.createCustomer(existingCustomer);
+    Assert.assertTrue(this.eventRecorder.wait(CustomerEventConstants.POST_CUSTOMER, existingCustomer.getIdentifier()));
+
+    final Customer firstCustomer = CustomerGenerator.createRandomCustomer();
+    firstCustomer.setCustomValues(this.customValues(catalog, "123.45"));
+    final Customer invalidCustomer = CustomerGenerator.createRandomCustomer();
+    invalidCustomer.setSurname(null);
+    final Customer invalidValueCustomer = CustomerGenerator.createRandomCustomer();
+    invalidValueCustomer.setCustomValues(this.customValues(catalog, "not a number"));
+    final Customer duplicateCustomer = CustomerGenerator.createRandomCustomer();
+    duplicateCustomer.setIdentifier(firstCustomer.getIdentifier());
+    final Customer secondCustomer = CustomerGenerator.createRandomCustomer();
+    final Customer takenCustomer = CustomerGenerator.createRandomCustomer();
+    takenCustomer.setIdentifier(existingCustomer.getIdentifier());
+
+    final List<String> lines = Arrays.asList(
+        this.objectMapper.writeValueAsString(firstCustomer),
+        "{ this is not json",
+        "",
+        this.objectMapper.writeValueAsString(invalidCustomer),
+        this.objectMapper.writeValueAsString(invalidValueCustomer),
+        this.objectMapper.writeValueAsString(duplicateCustomer),
+        this.objectMapper.writeValueAsString(secondCustomer),
+        this.objectMapper.writeValueAsString(takenCustomer));
+
+    final List<CustomerImportResult> results = this.importCustomers(lines);
+
+    // blank lines are skipped without a result
+    Assert.assertEquals(7, results.size());
+    this.assertResult(results.get(0), 1L, firstCustomer.getIdentifier(), CustomerImportResult.Status.CREATED);
+    this.assertResult(results.get(1), 2L, null, CustomerImportResult.Status.FAILED);
+    this.assertResult(results.get(2), 4L, invalidCustomer.getIdentifier(), CustomerImportResult.Status.FAILED);
+    Assert.assertTrue(results.get(2).getMessage().contains("surname"));
+    this.assertResult(results.get(3), 5L, invalidValueCustomer.getIdentifier(), CustomerImportResult.Status.FAILED);
+    this.assertResult(results.get(4), 6L, firstCustomer.getIdentifier(), CustomerImportResult.Status.FAILED);
+    Assert.assertTrue(results.get(4).getMessage().contains("already exists"));
+    this.assertResult(results.get(5), 7L, secondCustomer.getIdentifier(), CustomerImportResult.Status.CREATED);
+    this.assertResult(results.get(6), 8L, existingCustomer.getIdentifier(), CustomerImportResult.Status.FAILED);
+    Assert.assertTrue(results.get(6).getMessage().contains("already exists"));
+
+    final Customer importedCustomer = this.customerManager.findCustomer(firstCustomer.getIdentifier());
+    Assert.assertEquals(firstCustomer.getSurname(), importedCustomer.getSurname());
+    Assert.assertEquals(Customer.State.PENDING.name(), importedCustomer.getCurrentState());
+    Assert.assertEquals(firstCustomer.getAddress().getStreet(), importedCustomer.getAddress().getStreet());
+    Assert.assertEquals(firstCustomer.getAddress().getCity(), importedCustomer.getAddress().getCity());
+    Assert.assertEquals(firstCustomer.getAddress().getCountryCode(), importedCustomer.getAddress().getCountryCode());
+    Assert.assertEquals(this.contactValues(firstCustomer), this.contactValues(importedCustomer));
+    Assert.assertEquals(2, importedCustomer.getCustomValues().size());
+    importedCustomer.getCustomValues().forEach(value -> {
+      Assert.assertEquals(catalog.getIdentifier(), value.getCatalogIdentifier());
+      final Value expectedValue = firstCustomer.getCustomValues()
+          .stream()
+          .filter(candidate -> candidate.getFieldIdentifier().equals(value.getFieldIdentifier()))
+          .findFirst()
+          .orElseThrow(AssertionError::new);
+      Assert.assertEquals(expectedValue.getValue(), value.getValue());
+    });
+
+    final Customer secondImportedCustomer = this.customerManager.findCustomer(secondCustomer.getIdentifier());
+    Assert.assertEquals(this.contactValues(secondCustomer), this.contactValues(secondImportedCustomer));
+    Assert.assertTrue(secondImportedCustomer.getCustomValues() == null
+        || secondImportedCustomer.getCustomValues().isEmpty());
+
+    // the duplicate line must not have overwritten the first customer, nor the existing one been replaced
+    Assert.assertEquals(firstCustomer.getGivenName(), importedCustomer.getGivenName());
+    Assert.assertEquals(existingCustomer.getGivenName(),
+        this.customerManager.findCustomer(existingCustomer.getIdentifier()).getGivenName());
+  }
+
+  @Test
+  public void shouldImportAcrossBatches() throws Exception {
+    final List<String> lines = new ArrayList<>();
+    final List<String> identifiers = new ArrayList<>();
+    for (int i = 0; i < CustomerImportService.BATCH_SIZE + 3; i++) {
+      final Customer customer = CustomerGenerator.createRandomCustomer();
+      customer.setIdentifier("imp" + i + customer.getIdentifier());
+      identifiers.add(customer.getIdentifier());
+      lines.add(this.objectMapper.writeValueAsString(customer));
+    }
+    // the same identifier in the second batch must be recognized as taken by the first one
+    lines.add(lines.get(0));
+
+    final List<CustomerImportResult> results = this.importCustomers(lines);
+
+    Assert.assertEquals(lines.size(), results.size());
+    for (int i = 0; i < identifiers.size(); i++) {
+      this.assertResult(results.get(i), (long) (i + 1), identifiers.get(i), CustomerImportResult.Status.CREATED);
+    }
+    this.assertResult(results.get(lines.size() - 1), (long) lines.size(), identifiers.get(0),
+        CustomerImportResult.Status.FAILED);
+    Assert.assertNotNull(this.customerManager.findCustomer(identifiers.get(identifiers.size() - 1)));
+  }
+
+  @Test
+  public void shouldImportThroughEndpoint() throws Exception {
+    final MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(this.context).build();
+    final Customer firstCustomer = CustomerGenerator.createRandomCustomer();
+    final Customer secondCustomer = CustomerGenerator.createRandomCustomer();
+    final String body = String.join("\n",
+        this.objectMapper.writeValueAsString(firstCustomer),
+        "{ this is not json",
+        this.objectMapper.writeValueAsString(secondCustomer));
+
+    final MvcResult imported = mockMvc.perform(post("/customers/_import")
+        .contentType(NDJSON)
+        .accept(NDJSON)
+        .content(body.getBytes(StandardCharsets.UTF_8)))
+        .andExpect(status().isOk())
+        .andReturn();
+
+    Assert.assertTrue(MediaType.parseMediaType(imported.getResponse().getContentType()).isCompatibleWith(NDJSON));
+    final List<CustomerImportResult> results =
+        this.results(new String(imported.getResponse().getContentAsByteArray(), StandardCharsets.UTF_8));
+    Assert.assertEquals(3, results.size());
+    this.assertResult(results.get(0), 1L, firstCustomer.getIdentifier(), CustomerImportResult.Status.CREATED);
+    this.assertResult(results.get(1), 2L, null, CustomerImportResult.Status.FAILED);
+    this.assertResult(results.get(2), 3L, secondCustomer.getIdentifier(), CustomerImportResult.Status.CREATED);
+    Assert.assertNotNull(this.customerManager.findCustomer(secondCustomer.getIdentifier()));
+  }
+
+  @Test
+  public void shouldNotImportThroughEndpointWithoutNdjson() throws Exception {
+    final MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(this.context).build();
+    final Customer customer = CustomerGenerator.createRandomCustomer();
+
+    mockMvc.perform(post("/customers/_import")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(this.objectMapper.writeValueAsBytes(customer)))
+        .andExpect(status().isUnsupportedMediaType());
+    try {
+      this.customerManager.findCustomer(customer.getIdentifier());
+      Assert.fail();
+    } catch (final CustomerNotFoundException ex) {
+      // nothing was imported
+    }
+  }
+
+  private List<CustomerImportResult> importCustomers(final List<String> lines) throws Exception {
+    final StringWriter output = new StringWriter();
+    try (
+        final BufferedReader reader = new BufferedReader(new StringReader(String.join("\n", lines)));
+        final BufferedWriter writer = new BufferedWriter(output)
+    ) {
+      this.customerImportService.importCustomers(reader, writer);
+    }
+    return this.results(output.toString());
+  }
+
+  private List<CustomerImportResult> results(final String output) throws Exception {
+    final List<CustomerImportResult> results = new ArrayList<>();
+    for (final String line : output.split("\n")) {
+      if (!line.trim().isEmpty()) {
+        results.add(this.objectMapper.readValue(line, CustomerImportResult.class));
+      }
+    }
+    return results;
+  }
+
+  private void assertResult(final CustomerImportResult result, final Long line, final String identifier,
+                            final CustomerImportResult.Status status) {
+    Assert.assertEquals(line, result.getLine());
+    Assert.assertEquals(identifier, result.getIdentifier());
+    Assert.assertEquals(status.name(), result.getStatus());
+    if (status == CustomerImportResult.Status.FAILED) {
+      Assert.assertNotNull(result.getMessage());
+    }
+  }
+
+  private List<Value> customValues(final Catalog catalog, final String number) {
+    return catalog.getFields()
+        .stream()
+        .map(field -> {
+          final Value value = new Value();
+          value.setCatalogIdentifier(catalog.getIdentifier());
+          value.setFieldIdentifier(field.getIdentifier());
+          switch (Field.DataType.valueOf(field.getDataType())) {
+            case NUMBER:
+              value.setValue(number);
+              break;
+            case SINGLE_SELECTION:
+              value.setValue("1");
+          }
+          return value;
+        })
+        .collect(Collectors.toList());
+  }
+
+  private Set<String> contactValues(final Customer customer) {
+    return customer.getContactDetails()
+        .stream()
+        .map(ContactDetail::getValue)
+        .collect(Collectors.toSet());
+  }
+}
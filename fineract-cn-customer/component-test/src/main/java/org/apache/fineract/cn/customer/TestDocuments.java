@@ -27,11 +27,15 @@ import org.apache.fineract.cn.customer.api.v1.events.DocumentEvent;
 import org.apache.fineract.cn.customer.api.v1.events.DocumentPageEvent;
 import org.apache.fineract.cn.customer.util.CustomerDocumentGenerator;
 import org.apache.fineract.cn.customer.util.CustomerGenerator;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.fineract.cn.api.util.NotFoundException;
 import org.apache.fineract.cn.test.domain.TimeStampChecker;
@@ -161,6 +165,20 @@ public class TestDocuments extends AbstractCustomerTest {
     timeStampChecker.assertCorrect(completedDocument.getCreatedOn());
 
 
+    logger.info("Check that a completed document can be fetched as one archive");
+    final List<String> archiveEntries = new ArrayList<>();
+    try (final ZipInputStream archive = new ZipInputStream(new ByteArrayInputStream(
+        customerDocumentsManager.getDocumentArchive(customer.getIdentifier(), customerDocument.getIdentifier())))) {
+      ZipEntry entry;
+      while ((entry = archive.getNextEntry()) != null) {
+        archiveEntries.add(entry.getName());
+      }
+    }
+    final List<String> expectedArchiveEntries = IntStream.range(0, 9)
+        .mapToObj(i -> String.format("page-%03d.png", i)).collect(Collectors.toList());
+    Assert.assertEquals(expectedArchiveEntries, archiveEntries);
+
+
     logger.info("Check that document can't be changed or removed after completion");
     try {
       createDocumentPage(customer.getIdentifier(), customerDocument.getIdentifier(), 9);
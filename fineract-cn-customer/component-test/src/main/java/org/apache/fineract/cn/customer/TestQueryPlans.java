@@ -0,0 +1,541 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer;
+
+import org.apache.fineract.cn.customer.catalog.internal.repository.CatalogRepository;
+import org.apache.fineract.cn.customer.catalog.internal.repository.FieldEntity;
+import org.apache.fineract.cn.customer.catalog.internal.repository.FieldRepository;
+import org.apache.fineract.cn.customer.catalog.internal.repository.FieldValueRepository;
+import org.apache.fineract.cn.customer.catalog.internal.repository.FieldValueWriter;
+import org.apache.fineract.cn.customer.internal.repository.CommandRepository;
+import org.apache.fineract.cn.customer.internal.repository.ContactDetailRepository;
+import org.apache.fineract.cn.customer.internal.repository.CustomerChangeRepository;
+import org.apache.fineract.cn.customer.internal.repository.CustomerEntity;
+import org.apache.fineract.cn.customer.internal.repository.CustomerListRepository;
+import org.apache.fineract.cn.customer.internal.repository.CustomerRepository;
+import org.apache.fineract.cn.customer.internal.repository.CustomerSearchRepository;
+import org.apache.fineract.cn.customer.internal.repository.CustomerSortColumn;
+import org.apache.fineract.cn.customer.internal.repository.CustomerStateWriter;
+import org.apache.fineract.cn.customer.internal.repository.DocumentEntity;
+import org.apache.fineract.cn.customer.internal.repository.DocumentPageRepository;
+import org.apache.fineract.cn.customer.internal.repository.DocumentRepository;
+import org.apache.fineract.cn.customer.internal.repository.IdentificationCardEntity;
+import org.apache.fineract.cn.customer.internal.repository.IdentificationCardRepository;
+import org.apache.fineract.cn.customer.internal.repository.IdentificationCardScanRepository;
+import org.apache.fineract.cn.customer.internal.repository.PortraitRepository;
+import org.apache.fineract.cn.customer.internal.repository.TaskDefinitionEntity;
+import org.apache.fineract.cn.customer.internal.repository.TaskDefinitionRepository;
+import org.apache.fineract.cn.customer.internal.repository.TaskInstanceRepository;
+import org.apache.fineract.cn.customer.util.StatementRecorder;
+import org.apache.fineract.cn.lang.AutoTenantContext;
+import org.apache.fineract.cn.lang.TenantContextHolder;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Seeds the tenant with enough customers for the planner to prefer indexes, calls the repositories and checks the
+ * plans of the statements they actually send with the parameters they actually bind, so that a dropped or unused
+ * index, or a query changed to no longer use one, shows up as a failing test instead of a slow production tenant.
+ *
+ * <p>Every call runs in a transaction which is rolled back. The seeded rows are removed once all tests ran. Catalogs,
+ * fields and task definitions are only read as a whole and stay small, their queries are not checked.</p>
+ */
+public class TestQueryPlans extends AbstractCustomerTest {
+
+  private static final int CUSTOMERS = 20000;
+  private static final int FIELDS = 50;
+  private static final String PLANNER = "planner";
+  private static final List<String> SEEDED_TABLES = Arrays.asList("maat_customers", "maat_addresses",
+      "maat_contact_details", "maat_commands", "maat_identification_cards", "maat_identification_card_scans",
+      "maat_portraits", "maat_task_instances", "maat_documents", "maat_document_pages", "nun_field_values");
+
+  private static String seededTenant = null;
+  private static JdbcTemplate seededJdbcTemplate = null;
+
+  @Autowired
+  private DataSource dataSource;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private StatementRecorder statementRecorder;
+
+  @Autowired
+  private CustomerRepository customerRepository;
+
+  @Autowired
+  private CustomerListRepository customerListRepository;
+
+  @Autowired
+  private CustomerSearchRepository customerSearchRepository;
+
+  @Autowired
+  private CustomerChangeRepository customerChangeRepository;
+
+  @Autowired
+  private CustomerStateWriter customerStateWriter;
+
+  @Autowired
+  private ContactDetailRepository contactDetailRepository;
+
+  @Autowired
+  private CommandRepository commandRepository;
+
+  @Autowired
+  private IdentificationCardRepository identificationCardRepository;
+
+  @Autowired
+  private IdentificationCardScanRepository identificationCardScanRepository;
+
+  @Autowired
+  private PortraitRepository portraitRepository;
+
+  @Autowired
+  private TaskDefinitionRepository taskDefinitionRepository;
+
+  @Autowired
+  private TaskInstanceRepository taskInstanceRepository;
+
+  @Autowired
+  private DocumentRepository documentRepository;
+
+  @Autowired
+  private DocumentPageRepository documentPageRepository;
+
+  @Autowired
+  private CatalogRepository catalogRepository;
+
+  @Autowired
+  private FieldRepository fieldRepository;
+
+  @Autowired
+  private FieldValueRepository fieldValueRepository;
+
+  @Autowired
+  private FieldValueWriter fieldValueWriter;
+
+  private JdbcTemplate jdbcTemplate;
+  private CustomerEntity customer;
+  private IdentificationCardEntity identificationCard;
+  private TaskDefinitionEntity taskDefinition;
+  private DocumentEntity document;
+  private FieldEntity field;
+
+  @Before
+  public void seed() {
+    this.jdbcTemplate = new JdbcTemplate(this.dataSource);
+
+    if (seededTenant == null) {
+      this.jdbcTemplate.update(
+          "INSERT INTO maat_addresses (street, city, country_code, country) " +
+              "SELECT 'plan street ' || n, 'Plan City', 'DE', 'Germany' FROM generate_series(1, ?) n", CUSTOMERS);
+      this.jdbcTemplate.update(
+          "INSERT INTO maat_customers (identifier, a_type, given_name, surname, date_of_birth, current_state, " +
+              "address_id, is_member, created_by, created_on) " +
+              "SELECT 'plan' || a.id, 'PERSON', 'Given' || a.id, 'Surname' || (a.id % 5000), DATE '1980-01-01', " +
+              "(ARRAY['PENDING', 'ACTIVE', 'LOCKED', 'CLOSED'])[a.id % 4 + 1], a.id, TRUE, ?, " +
+              "now() - a.id * INTERVAL '1 second' " +
+              "FROM maat_addresses a WHERE a.street LIKE 'plan street %'", PLANNER);
+      this.jdbcTemplate.update(
+          "INSERT INTO maat_contact_details (customer_id, a_type, a_group, a_value, preference_level, validated) " +
+              "SELECT c.id, 'EMAIL', 'PRIVATE', 'plan' || c.id || '-' || n, n, FALSE " +
+              "FROM maat_customers c, generate_series(1, 2) n WHERE c.created_by = ?", PLANNER);
+      this.jdbcTemplate.update(
+          "INSERT INTO maat_commands (customer_id, a_type, a_comment, created_by, created_on) " +
+              "SELECT c.id, 'ACTIVATE', 'plan', ?, now() " +
+              "FROM maat_customers c, generate_series(1, 2) n WHERE c.created_by = ?", PLANNER, PLANNER);
+      this.jdbcTemplate.update(
+          "INSERT INTO maat_identification_cards (a_type, customer_id, a_number, expiration_date, issuer) " +
+              "SELECT 'PASSPORT', c.id, 'plan' || c.id, DATE '2030-01-01', 'Plan' " +
+              "FROM maat_customers c WHERE c.created_by = ?", PLANNER);
+      this.jdbcTemplate.update(
+          "INSERT INTO maat_identification_card_scans (identifier, description, identification_card_id, " +
+              "content_type, size, content_key, created_on, created_by) " +
+              "SELECT 'plan', 'Plan', i.id, 'image/png', 1, 'plan' || i.id, now(), ? " +
+              "FROM maat_identification_cards i, maat_customers c " +
+              "WHERE i.customer_id = c.id AND c.created_by = ?", PLANNER, PLANNER);
+      this.jdbcTemplate.update(
+          "INSERT INTO maat_portraits (customer_id, content_type, size, content_key) " +
+              "SELECT c.id, 'image/png', 1, 'plan' || c.id FROM maat_customers c WHERE c.created_by = ?", PLANNER);
+      // neither mandatory nor assigned to a command, so the tasks do not block other tests
+      this.jdbcTemplate.update(
+          "INSERT INTO maat_task_definitions (identifier, a_type, a_name, assigned_commands, mandatory, predefined) " +
+              "VALUES ('plan', 'CUSTOM', 'Plan', '', FALSE, FALSE)");
+      this.jdbcTemplate.update(
+          "INSERT INTO maat_task_instances (task_definition_id, customer_id, executed_by) " +
+              "SELECT d.id, c.id, CASE WHEN c.id % 2 = 0 THEN ? END " +
+              "FROM maat_customers c, maat_task_definitions d " +
+              "WHERE c.created_by = ? AND d.identifier = 'plan'", PLANNER, PLANNER);
+      this.jdbcTemplate.update(
+          "INSERT INTO maat_documents (customer_id, identifier, is_completed, created_on, created_by) " +
+              "SELECT c.id, 'plan', TRUE, now(), ? FROM maat_customers c WHERE c.created_by = ?", PLANNER, PLANNER);
+      this.jdbcTemplate.update(
+          "INSERT INTO maat_document_pages (document_id, page_number, content_type, size, content_key) " +
+              "SELECT d.id, n, 'image/png', 1, 'plan' || d.id || '-' || n " +
+              "FROM maat_documents d, generate_series(0, 1) n WHERE d.created_by = ?", PLANNER);
+      this.jdbcTemplate.update(
+          "INSERT INTO nun_catalogs (identifier, a_name, created_by, created_on) VALUES ('plan', 'Plan', ?, now())",
+          PLANNER);
+      this.jdbcTemplate.update(
+          "INSERT INTO nun_fields (catalog_id, identifier, data_type, a_label, created_by, created_on) " +
+              "SELECT k.id, 'plan' || n, 'TEXT', 'Plan ' || n, ?, now() " +
+              "FROM nun_catalogs k, generate_series(0, ?) n WHERE k.identifier = 'plan'", PLANNER, FIELDS);
+      // every customer has a value of one of the fields 1 to FIELDS, field 0 has a single value
+      this.jdbcTemplate.update(
+          "INSERT INTO nun_field_values (entity_id, field_id, a_value) " +
+              "SELECT c.id, f.id, 'plan' FROM maat_customers c, nun_fields f, nun_catalogs k " +
+              "WHERE c.created_by = ? AND k.identifier = 'plan' AND f.catalog_id = k.id " +
+              "AND f.identifier = 'plan' || (c.id % ? + 1)", PLANNER, FIELDS);
+      this.jdbcTemplate.update(
+          "INSERT INTO nun_field_values (entity_id, field_id, a_value) " +
+              "SELECT (SELECT MIN(id) FROM maat_customers WHERE created_by = ?), f.id, 'plan' " +
+              "FROM nun_fields f, nun_catalogs k " +
+              "WHERE k.identifier = 'plan' AND f.catalog_id = k.id AND f.identifier = 'plan0'", PLANNER);
+      this.jdbcTemplate.execute("ANALYZE");
+      seededTenant = TenantContextHolder.checkedGetIdentifier();
+      seededJdbcTemplate = this.jdbcTemplate;
+    }
+
+    final String identifier = this.jdbcTemplate.queryForObject(
+        "SELECT identifier FROM maat_customers WHERE created_by = ? ORDER BY id OFFSET ? LIMIT 1",
+        String.class, PLANNER, CUSTOMERS / 2);
+    this.customer = this.customerRepository.findByIdentifier(identifier).orElseThrow(IllegalStateException::new);
+    this.identificationCard = this.identificationCardRepository.findByNumber("plan" + this.customer.getId())
+        .orElseThrow(IllegalStateException::new);
+    this.taskDefinition = this.taskDefinitionRepository.findByIdentifier("plan");
+    this.document = this.documentRepository.findByCustomerIdAndDocumentIdentifier(identifier, "plan")
+        .orElseThrow(IllegalStateException::new);
+    this.field = this.fieldRepository.findByCatalogAndIdentifier(
+        this.catalogRepository.findByIdentifier("plan").orElseThrow(IllegalStateException::new), "plan0")
+        .orElseThrow(IllegalStateException::new);
+  }
+
+  @AfterClass
+  public static void removeSeed() {
+    if (seededTenant == null) {
+      return;
+    }
+    try (final AutoTenantContext ignored = new AutoTenantContext(seededTenant)) {
+      final String planned = "(SELECT id FROM maat_customers WHERE created_by = '" + PLANNER + "')";
+      seededJdbcTemplate.batchUpdate(
+          "DELETE FROM nun_field_values WHERE entity_id IN " + planned,
+          "DELETE FROM nun_fields WHERE catalog_id IN (SELECT id FROM nun_catalogs WHERE identifier = 'plan')",
+          "DELETE FROM nun_catalogs WHERE identifier = 'plan'",
+          "DELETE FROM maat_document_pages WHERE document_id IN " +
+              "(SELECT id FROM maat_documents WHERE customer_id IN " + planned + ")",
+          "DELETE FROM maat_documents WHERE customer_id IN " + planned,
+          "DELETE FROM maat_task_instances WHERE customer_id IN " + planned,
+          "DELETE FROM maat_task_definitions WHERE identifier = 'plan'",
+          "DELETE FROM maat_identification_card_scans WHERE identification_card_id IN " +
+              "(SELECT id FROM maat_identification_cards WHERE customer_id IN " + planned + ")",
+          "DELETE FROM maat_identification_cards WHERE customer_id IN " + planned,
+          "DELETE FROM maat_portraits WHERE customer_id IN " + planned,
+          "DELETE FROM maat_commands WHERE customer_id IN " + planned,
+          "DELETE FROM maat_contact_details WHERE customer_id IN " + planned,
+          "DELETE FROM maat_customers WHERE created_by = '" + PLANNER + "'",
+          "DELETE FROM maat_addresses WHERE street LIKE 'plan street %'");
+    } finally {
+      seededTenant = null;
+      seededJdbcTemplate = null;
+    }
+  }
+
+  @Test
+  public void shouldFindCustomersByIdentifierUsingIndex() {
+    final String identifier = this.customer.getIdentifier();
+    final List<String> identifiers = Arrays.asList(identifier, "plan42");
+    this.assertUsesIndex("maat_customer_identifier_uq", "maat_customers",
+        () -> this.customerRepository.findByIdentifier(identifier));
+    this.assertUsesIndex("maat_customer_identifier_uq", "maat_customers",
+        () -> this.customerRepository.existsByIdentifier(identifier));
+    this.assertUsesIndex("maat_customer_identifier_uq", "maat_customers",
+        () -> this.customerRepository.findWithAddressByIdentifier(identifier));
+    this.assertUsesIndex("maat_customer_identifier_uq", "maat_customers",
+        () -> this.customerRepository.findWithAddressByIdentifierIn(identifiers));
+    this.assertUsesIndex("maat_customer_identifier_uq", "maat_customers",
+        () -> this.customerRepository.findLastModifiedByIdentifier(identifier));
+    this.assertUsesIndex("maat_customer_identifier_uq", "maat_customers",
+        () -> this.customerRepository.findIdentifiersByIdentifierIn(identifiers));
+  }
+
+  @Test
+  public void shouldPageCustomersUsingIndex() {
+    // the page is read from the index, counting the customers reads them all anyway
+    this.assertUsesIndex("maat_customers_surname_idx", "maat_customers",
+        () -> this.customerRepository.findByCurrentStateNot("CLOSED",
+            new PageRequest(0, 20, Sort.Direction.ASC, "surname")));
+    this.assertUsesIndex("maat_customers_given_name_idx", "maat_customers",
+        () -> this.customerRepository.findAll(new PageRequest(0, 20, Sort.Direction.DESC, "givenName")));
+  }
+
+  @Test
+  public void shouldSeekCustomerPagesUsingIndex() {
+    this.assertUsesIndex("maat_customers_surname_idx", "maat_customers",
+        () -> this.customerListRepository.find("CLOSED", CustomerSortColumn.SURNAME, Sort.Direction.ASC,
+            null, null, 0, 21));
+    this.assertUsesIndex("maat_customers_surname_idx", "maat_customers",
+        () -> this.customerListRepository.find("CLOSED", CustomerSortColumn.SURNAME, Sort.Direction.ASC,
+            this.customer.getSurname(), this.customer.getId(), 0, 21));
+    this.assertUsesIndex("maat_customers_given_name_idx", "maat_customers",
+        () -> this.customerListRepository.find(null, CustomerSortColumn.GIVEN_NAME, Sort.Direction.DESC,
+            this.customer.getGivenName(), this.customer.getId(), 0, 21));
+  }
+
+  @Test
+  public void shouldSearchCustomersUsingIndex() {
+    this.assertUsesIndex("maat_customers_search_trgm_idx", "maat_customers",
+        () -> this.customerSearchRepository.search(this.customer.getIdentifier(), "CLOSED", new PageRequest(0, 20)));
+  }
+
+  @Test
+  public void shouldReadChangeFeedUsingIndex() {
+    final Long changeTxid = this.jdbcTemplate.queryForObject(
+        "SELECT change_txid FROM maat_customers WHERE id = ?", Long.class, this.customer.getId());
+    this.assertUsesIndex("maat_customers_change_txid_idx", "maat_customers",
+        () -> this.customerChangeRepository.findChangedAfter(changeTxid, this.customer.getId(), 501));
+  }
+
+  @Test
+  public void shouldChangeCustomerStatesUsingIndex() {
+    // the candidates are read in id order, either the state index or the primary key serves that
+    this.assertUsesIndex("maat_customers_", "maat_customers",
+        () -> this.customerStateWriter.findCandidates(Collections.singletonList("ACTIVE"), null, null, null, 0L, 500));
+    this.assertUsesIndex("maat_task_instances_cust_exec_idx", "maat_customers",
+        () -> this.customerStateWriter.changeStates(Collections.singletonList(this.customer.getId()),
+            Arrays.asList("PENDING", "ACTIVE", "LOCKED", "CLOSED"), "ACTIVE",
+            Collections.singletonList(this.taskDefinition.getId()), true, PLANNER,
+            LocalDateTime.now(Clock.systemUTC())));
+  }
+
+  @Test
+  public void shouldFindContactDetailsByCustomerUsingIndex() {
+    this.assertUsesIndex("maat_contact_details_customer_idx", "maat_contact_details",
+        () -> this.contactDetailRepository.findByCustomer(this.customer));
+    this.assertUsesIndex("maat_contact_details_customer_idx", "maat_contact_details",
+        () -> this.contactDetailRepository.findByCustomerIn(Collections.singletonList(this.customer)));
+  }
+
+  @Test
+  public void shouldFindCommandsByCustomerUsingIndex() {
+    this.assertUsesIndex("maat_commands_customer_idx", "maat_commands",
+        () -> this.commandRepository.findByCustomer(this.customer).close());
+  }
+
+  @Test
+  public void shouldFindIdentificationCardsUsingIndex() {
+    this.assertUsesIndex("maat_id_cards_customer_idx", "maat_identification_cards",
+        () -> this.identificationCardRepository.findByCustomer(this.customer).close());
+    this.assertUsesIndex("maat_id_cards_number_idx", "maat_identification_cards",
+        () -> this.identificationCardRepository.findByNumber(this.identificationCard.getNumber()));
+    this.assertUsesIndex("maat_id_cards_number_idx", "maat_identification_cards",
+        () -> this.identificationCardRepository.existsByNumber(this.identificationCard.getNumber()));
+  }
+
+  @Test
+  public void shouldFindIdentificationCardScansUsingIndex() {
+    this.assertUsesIndex("maat_id_card_scans_card_idx", "maat_identification_card_scans",
+        () -> this.identificationCardScanRepository.findByIdentificationCard(this.identificationCard));
+    // either the unique constraint or the card index serves a scan of a card
+    this.assertUsesIndex("maat_id", "maat_identification_card_scans",
+        () -> this.identificationCardScanRepository.findByIdentifierAndIdentificationCard(
+            "plan", this.identificationCard));
+    this.assertUsesIndex("maat_id", "maat_identification_card_scans",
+        () -> this.identificationCardScanRepository.existsByIdentifierAndIdentificationCard(
+            "plan", this.identificationCard));
+  }
+
+  @Test
+  public void shouldFindPortraitByCustomerUsingIndex() {
+    this.assertUsesIndex("maat_portraits_customer_idx", "maat_portraits",
+        () -> this.portraitRepository.findByCustomer(this.customer));
+    this.assertUsesIndex("maat_portraits_customer_idx", "maat_portraits",
+        () -> this.portraitRepository.existsByIdentifier(this.customer.getIdentifier()));
+    this.assertUsesIndex("maat_portraits_customer_idx", "maat_portraits",
+        () -> this.portraitRepository.deleteByCustomer(this.customer));
+  }
+
+  @Test
+  public void shouldFindTaskInstancesUsingIndex() {
+    this.assertUsesIndex("maat_task_instances_cust_exec_idx", "maat_task_instances",
+        () -> this.taskInstanceRepository.findByCustomer(this.customer));
+    this.assertUsesIndex("maat_task_instances_cust_exec_idx", "maat_task_instances",
+        () -> this.taskInstanceRepository.findByCustomerAndTaskDefinition(this.customer, this.taskDefinition));
+    this.assertUsesIndex("maat_task_instances_cust_exec_idx", "maat_task_instances",
+        () -> this.taskInstanceRepository.existsOpenByCustomerIdAndTaskDefinitionIdIn(
+            this.customer.getId(), Collections.singletonList(this.taskDefinition.getId())));
+    this.assertUsesIndex("maat_task_instances_cust_exec_idx", "maat_task_instances",
+        () -> this.taskInstanceRepository.findOpenTaskDefinitionIdsByCustomer(this.customer));
+  }
+
+  @Test
+  public void shouldFindDocumentsUsingIndex() {
+    final String identifier = this.customer.getIdentifier();
+    this.assertUsesIndex("maat_documents_uq", "maat_documents",
+        () -> this.documentRepository.findByCustomerIdAndDocumentIdentifier(identifier, "plan"));
+    this.assertUsesIndex("maat_documents_uq", "maat_documents",
+        () -> this.documentRepository.findByCustomerId(identifier).close());
+  }
+
+  @Test
+  public void shouldFindDocumentPagesUsingIndex() {
+    final String identifier = this.customer.getIdentifier();
+    this.assertUsesIndex("maat_document_pages_uq", "maat_document_pages",
+        () -> this.documentPageRepository.findByCustomerIdAndDocumentIdentifierAndPageNumber(identifier, "plan", 1));
+    this.assertUsesIndex("maat_document_pages_uq", "maat_document_pages",
+        () -> this.documentPageRepository.findPageNumbersByCustomerIdAndDocumentIdentifier(identifier, "plan"));
+    this.assertUsesIndex("maat_document_pages_uq", "maat_document_pages",
+        () -> this.documentPageRepository.findByCustomerIdAndDocumentIdentifierOrderByPageNumber(identifier, "plan"));
+    this.assertUsesIndex("maat_document_pages_uq", "maat_document_pages",
+        () -> this.documentPageRepository.isMissingPagesByCustomerIdAndDocumentIdentifier(identifier, "plan"));
+    this.assertUsesIndex("maat_document_pages_uq", "maat_document_pages",
+        () -> this.documentPageRepository.deleteByDocument(this.document));
+  }
+
+  @Test
+  public void shouldFindFieldValuesUsingIndex() {
+    this.assertUsesIndex("nun_field_values_uq", "nun_field_values",
+        () -> this.fieldValueRepository.findByCustomer(this.customer));
+    this.assertUsesIndex("nun_field_values_uq", "nun_field_values",
+        () -> this.fieldValueRepository.findWithFieldByCustomer(this.customer));
+    this.assertUsesIndex("nun_field_values_uq", "nun_field_values",
+        () -> this.fieldValueRepository.findWithFieldByCustomerIn(Collections.singletonList(this.customer)));
+    this.assertUsesIndex("nun_field_values_uq", "nun_field_values",
+        () -> this.fieldValueRepository.deleteByCustomer(this.customer));
+    this.assertUsesIndex("nun_field_values_uq", "nun_field_values",
+        () -> this.fieldValueWriter.replace(this.customer.getId(), Collections.emptyMap()));
+    this.assertUsesIndex("nun_field_values_field_idx", "nun_field_values",
+        () -> this.fieldValueRepository.findFirstByField(this.field));
+    this.assertUsesIndex("nun_field_values_field_idx", "nun_field_values",
+        () -> this.fieldValueWriter.deleteByField(this.field.getId(), PLANNER, LocalDateTime.now(Clock.systemUTC())));
+  }
+
+  /**
+   * Runs {@code call} in a transaction which is rolled back and checks the plan of the first statement it sent which
+   * reads or writes {@code table}.
+   */
+  private void assertUsesIndex(final String index, final String table, final Runnable call) {
+    final TransactionTemplate transactionTemplate = new TransactionTemplate(this.transactionManager);
+    final List<StatementRecorder.RecordedStatement> recorded = this.statementRecorder.record(() ->
+        transactionTemplate.execute(status -> {
+          status.setRollbackOnly();
+          call.run();
+          return null;
+        }));
+
+    final Pattern touchesTable =
+        Pattern.compile("\\b(from|update|into)\\s+" + table + "\\b", Pattern.CASE_INSENSITIVE);
+    final StatementRecorder.RecordedStatement statement = recorded.stream()
+        .filter(recordedStatement -> touchesTable.matcher(recordedStatement.sql()).find())
+        .findFirst()
+        .orElseThrow(() -> new AssertionError("No statement on " + table + " recorded: " + recorded.stream()
+            .map(StatementRecorder.RecordedStatement::sql)
+            .collect(Collectors.toList())));
+
+    final String plan = this.explain(statement);
+    Assert.assertTrue("Expected " + index + " to be used by " + statement.sql() + ":\n" + plan, plan.contains(index));
+    SEEDED_TABLES.forEach(seededTable -> Assert.assertFalse(
+        "Unexpected sequential scan by " + statement.sql() + ":\n" + plan,
+        plan.contains("Seq Scan on " + seededTable + " ")));
+  }
+
+  /**
+   * Explains the statement with the parameters it was sent with. A prepared statement gets planned for those values
+   * just like the statement sent by the service.
+   */
+  private String explain(final StatementRecorder.RecordedStatement statement) {
+    return this.jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+      try (final Statement jdbcStatement = connection.createStatement()) {
+        jdbcStatement.execute("PREPARE plan_statement AS " + TestQueryPlans.numbered(statement.sql()));
+        try (final ResultSet resultSet =
+                 jdbcStatement.executeQuery("EXPLAIN EXECUTE plan_statement" + TestQueryPlans.arguments(statement))) {
+          final List<String> plan = new ArrayList<>();
+          while (resultSet.next()) {
+            plan.add(resultSet.getString(1));
+          }
+          return String.join("\n", plan);
+        } finally {
+          jdbcStatement.execute("DEALLOCATE plan_statement");
+        }
+      }
+    });
+  }
+
+  /**
+   * Turns the JDBC placeholders of a statement into numbered parameters, skipping quoted literals.
+   */
+  private static String numbered(final String sql) {
+    final StringBuilder numbered = new StringBuilder(sql.length());
+    boolean quoted = false;
+    int parameter = 0;
+    for (final char character : sql.toCharArray()) {
+      if (character == '\'') {
+        quoted = !quoted;
+      }
+      if (character == '?' && !quoted) {
+        numbered.append('$').append(++parameter);
+      } else {
+        numbered.append(character);
+      }
+    }
+    return numbered.toString();
+  }
+
+  private static String arguments(final StatementRecorder.RecordedStatement statement) {
+    if (statement.parameters().isEmpty()) {
+      return "";
+    }
+    return statement.parameters()
+        .stream()
+        .map(TestQueryPlans::literal)
+        .collect(Collectors.joining(", ", "(", ")"));
+  }
+
+  private static String literal(final Object value) {
+    if (value == null) {
+      return "NULL";
+    }
+    if (value instanceof Number || value instanceof Boolean) {
+      return String.valueOf(value).toUpperCase(Locale.ROOT);
+    }
+    return "'" + String.valueOf(value).replace("'", "''") + "'";
+  }
+}
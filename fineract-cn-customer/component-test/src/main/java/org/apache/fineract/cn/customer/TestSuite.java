@@ -31,7 +31,10 @@ import org.junit.runners.Suite;
     TestInfrastructure.class,
     TestTaskDefinition.class,
     TestTaskInstance.class,
-    TestDocuments.class
+    TestDocuments.class,
+    TestCustomerImport.class,
+    TestContent.class,
+    TestQueryPlans.class
 })
 public class TestSuite extends SuiteTestEnvironment {
 }
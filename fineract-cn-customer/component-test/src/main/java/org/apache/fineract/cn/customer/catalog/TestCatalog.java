@@ -21,6 +21,7 @@ package org.apache.fineract.cn.customer.catalog;
 import com.google.common.collect.Lists;
 import org.apache.fineract.cn.customer.api.v1.CustomerEventConstants;
 import org.apache.fineract.cn.customer.api.v1.client.CustomerManager;
+import org.apache.fineract.cn.customer.api.v1.client.CustomerValidationException;
 import org.apache.fineract.cn.customer.api.v1.domain.Customer;
 import org.apache.fineract.cn.customer.catalog.api.v1.CatalogEventConstants;
 import org.apache.fineract.cn.customer.catalog.api.v1.client.CatalogAlreadyInUseException;
@@ -30,15 +31,21 @@ import org.apache.fineract.cn.customer.catalog.api.v1.domain.Catalog;
 import org.apache.fineract.cn.customer.catalog.api.v1.domain.Field;
 import org.apache.fineract.cn.customer.catalog.api.v1.domain.Option;
 import org.apache.fineract.cn.customer.catalog.api.v1.domain.Value;
+import org.apache.fineract.cn.customer.catalog.internal.command.DeleteFieldCommand;
 import org.apache.fineract.cn.customer.catalog.util.CatalogGenerator;
+import org.apache.fineract.cn.customer.internal.service.CustomerService;
 import org.apache.fineract.cn.customer.rest.config.CustomerRestConfiguration;
 import org.apache.fineract.cn.customer.util.CustomerGenerator;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import javax.sql.DataSource;
 import org.apache.fineract.cn.anubis.test.v1.TenantApplicationSecurityEnvironmentTestRule;
 import org.apache.fineract.cn.api.context.AutoUserContext;
+import org.apache.fineract.cn.api.util.NotFoundException;
+import org.apache.fineract.cn.command.gateway.CommandGateway;
 import org.apache.fineract.cn.test.env.TestEnvironment;
 import org.apache.fineract.cn.test.fixture.TenantDataStoreContextTestRule;
 import org.apache.fineract.cn.test.fixture.cassandra.CassandraInitializer;
@@ -61,6 +68,7 @@ import org.springframework.cloud.netflix.ribbon.RibbonClient;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.junit4.SpringRunner;
 
 @RunWith(SpringRunner.class)
@@ -107,6 +115,10 @@ public class TestCatalog {
   private CustomerManager customerManager;
   @Autowired
   private EventRecorder eventRecorder;
+  @Autowired
+  private DataSource dataSource;
+  @Autowired
+  private CommandGateway commandGateway;
 
   private AutoUserContext userContext;
 
@@ -351,4 +363,187 @@ public class TestCatalog {
       Assert.fail();
     }
   }
+
+  @Test
+  public void shouldValidateAgainstUpdatedField() throws Exception {
+    final Catalog catalog = CatalogGenerator.createRandomCatalog();
+
+    this.catalogManager.createCatalog(catalog);
+    this.eventRecorder.wait(CatalogEventConstants.POST_CATALOG, catalog.getIdentifier());
+
+    // loads the schema of the catalog into the cache
+    final Customer customerBeforeUpdate = CustomerGenerator.createRandomCustomer();
+    customerBeforeUpdate.setCustomValues(this.selectionValues(catalog, "1"));
+    this.customerManager.createCustomer(customerBeforeUpdate);
+    Assert.assertTrue(this.eventRecorder.wait(CustomerEventConstants.POST_CUSTOMER, customerBeforeUpdate.getIdentifier()));
+
+    final Field selectionField = this.selectionField(catalog);
+    final Option option = new Option();
+    option.setLabel("new-option");
+    option.setValue(2);
+    selectionField.setOptions(Lists.newArrayList(option));
+    this.catalogManager.updateField(catalog.getIdentifier(), selectionField.getIdentifier(), selectionField);
+    Assert.assertTrue(this.eventRecorder.wait(CatalogEventConstants.PUT_FIELD, selectionField.getIdentifier()));
+
+    final Customer customerWithNewOption = CustomerGenerator.createRandomCustomer();
+    customerWithNewOption.setCustomValues(this.selectionValues(catalog, "2"));
+    this.customerManager.createCustomer(customerWithNewOption);
+    Assert.assertTrue(this.eventRecorder.wait(CustomerEventConstants.POST_CUSTOMER, customerWithNewOption.getIdentifier()));
+
+    final Customer customerWithOldOption = CustomerGenerator.createRandomCustomer();
+    customerWithOldOption.setCustomValues(this.selectionValues(catalog, "1"));
+    try {
+      this.customerManager.createCustomer(customerWithOldOption);
+      Assert.fail("Option removed by the field update must not be accepted.");
+    } catch (final CustomerValidationException ex) {
+      // expected
+    }
+  }
+
+  @Test(expected = NotFoundException.class)
+  public void shouldNotValidateAgainstDeletedCatalog() throws Exception {
+    final Catalog catalog = CatalogGenerator.createRandomCatalog();
+
+    this.catalogManager.createCatalog(catalog);
+    this.eventRecorder.wait(CatalogEventConstants.POST_CATALOG, catalog.getIdentifier());
+
+    // a rejected value still loads the schema of the catalog into the cache
+    final Customer invalidCustomer = CustomerGenerator.createRandomCustomer();
+    invalidCustomer.setCustomValues(this.selectionValues(catalog, "3"));
+    try {
+      this.customerManager.createCustomer(invalidCustomer);
+      Assert.fail();
+    } catch (final CustomerValidationException ex) {
+      // expected
+    }
+
+    this.catalogManager.deleteCatalog(catalog.getIdentifier());
+    Assert.assertTrue(this.eventRecorder.wait(CatalogEventConstants.DELETE_CATALOG, catalog.getIdentifier()));
+
+    final Customer customer = CustomerGenerator.createRandomCustomer();
+    customer.setCustomValues(this.selectionValues(catalog, "1"));
+    this.customerManager.createCustomer(customer);
+  }
+
+  @Test
+  public void shouldUpsertOnlyChangedCustomValues() throws Exception {
+    final Catalog catalog = CatalogGenerator.createRandomCatalog();
+
+    this.catalogManager.createCatalog(catalog);
+    this.eventRecorder.wait(CatalogEventConstants.POST_CATALOG, catalog.getIdentifier());
+
+    final Field numberField = catalog.getFields()
+        .stream()
+        .filter(field -> field.getDataType().equals(Field.DataType.NUMBER.name()))
+        .findFirst()
+        .orElseThrow(AssertionError::new);
+    final Field selectionField = this.selectionField(catalog);
+
+    final Customer customer = CustomerGenerator.createRandomCustomer();
+    customer.setCustomValues(this.customValues(catalog, "10.00"));
+    this.customerManager.createCustomer(customer);
+    Assert.assertTrue(this.eventRecorder.wait(CustomerEventConstants.POST_CUSTOMER, customer.getIdentifier()));
+
+    final Map<String, Map<String, Object>> createdRows = this.fieldValueRows(customer.getIdentifier());
+    Assert.assertEquals(2, createdRows.size());
+
+    this.customerManager.updateCustomer(customer.getIdentifier(), customer);
+    Assert.assertTrue(this.eventRecorder.wait(CustomerEventConstants.PUT_CUSTOMER, customer.getIdentifier()));
+    Assert.assertEquals(createdRows, this.fieldValueRows(customer.getIdentifier()));
+
+    customer.setCustomValues(this.customValues(catalog, "20.00"));
+    this.customerManager.updateCustomer(customer.getIdentifier(), customer);
+    Assert.assertTrue(this.eventRecorder.wait(CustomerEventConstants.PUT_CUSTOMER, customer.getIdentifier()));
+
+    final Map<String, Map<String, Object>> changedRows = this.fieldValueRows(customer.getIdentifier());
+    Assert.assertEquals(createdRows.get(numberField.getIdentifier()).get("id"),
+        changedRows.get(numberField.getIdentifier()).get("id"));
+    Assert.assertEquals("20.00", changedRows.get(numberField.getIdentifier()).get("a_value"));
+    Assert.assertEquals(createdRows.get(selectionField.getIdentifier()), changedRows.get(selectionField.getIdentifier()));
+
+    customer.setCustomValues(this.customValues(catalog, "20.00")
+        .stream()
+        .filter(value -> value.getFieldIdentifier().equals(numberField.getIdentifier()))
+        .collect(Collectors.toList()));
+    this.customerManager.updateCustomer(customer.getIdentifier(), customer);
+    Assert.assertTrue(this.eventRecorder.wait(CustomerEventConstants.PUT_CUSTOMER, customer.getIdentifier()));
+
+    final Map<String, Map<String, Object>> remainingRows = this.fieldValueRows(customer.getIdentifier());
+    Assert.assertEquals(1, remainingRows.size());
+    Assert.assertEquals(changedRows.get(numberField.getIdentifier()), remainingRows.get(numberField.getIdentifier()));
+
+    final Customer savedCustomer = this.customerManager.findCustomer(customer.getIdentifier());
+    Assert.assertEquals(1, savedCustomer.getCustomValues().size());
+    Assert.assertEquals("20.00", savedCustomer.getCustomValues().get(0).getValue());
+  }
+
+  @Test
+  public void shouldTouchCustomerWhenFieldValuesAreDeleted() throws Exception {
+    final Catalog catalog = CatalogGenerator.createRandomCatalog();
+
+    this.catalogManager.createCatalog(catalog);
+    this.eventRecorder.wait(CatalogEventConstants.POST_CATALOG, catalog.getIdentifier());
+
+    final Customer customer = CustomerGenerator.createRandomCustomer();
+    customer.setCustomValues(this.customValues(catalog, "10.00"));
+    this.customerManager.createCustomer(customer);
+    Assert.assertTrue(this.eventRecorder.wait(CustomerEventConstants.POST_CUSTOMER, customer.getIdentifier()));
+
+    final Customer createdCustomer = this.customerManager.findCustomer(customer.getIdentifier());
+    Assert.assertEquals(2, createdCustomer.getCustomValues().size());
+
+    // the REST API refuses to delete fields in use, a value may still be stored after its check
+    final Field selectionField = this.selectionField(catalog);
+    this.commandGateway.process(
+        new DeleteFieldCommand(catalog.getIdentifier(), selectionField.getIdentifier()), String.class).get();
+
+    final Customer changedCustomer = this.customerManager.findCustomer(customer.getIdentifier());
+    Assert.assertEquals(1, changedCustomer.getCustomValues().size());
+    Assert.assertTrue(CustomerService.lastModified(changedCustomer) > CustomerService.lastModified(createdCustomer));
+  }
+
+  private Map<String, Map<String, Object>> fieldValueRows(final String customerIdentifier) {
+    return new JdbcTemplate(this.dataSource).queryForList(
+        "SELECT f.identifier, v.id, v.a_value FROM nun_field_values v " +
+            "JOIN nun_fields f ON f.id = v.field_id " +
+            "JOIN maat_customers c ON c.id = v.entity_id " +
+            "WHERE c.identifier = ?", customerIdentifier)
+        .stream()
+        .collect(Collectors.toMap(row -> (String) row.get("identifier"), row -> row));
+  }
+
+  private List<Value> customValues(final Catalog catalog, final String number) {
+    return catalog.getFields()
+        .stream()
+        .map(field -> {
+          final Value value = new Value();
+          value.setCatalogIdentifier(catalog.getIdentifier());
+          value.setFieldIdentifier(field.getIdentifier());
+          switch (Field.DataType.valueOf(field.getDataType())) {
+            case NUMBER:
+              value.setValue(number);
+              break;
+            case SINGLE_SELECTION:
+              value.setValue("1");
+          }
+          return value;
+        })
+        .collect(Collectors.toList());
+  }
+
+  private Field selectionField(final Catalog catalog) {
+    return catalog.getFields()
+        .stream()
+        .filter(field -> field.getDataType().equals(Field.DataType.SINGLE_SELECTION.name()))
+        .findFirst()
+        .orElseThrow(AssertionError::new);
+  }
+
+  private List<Value> selectionValues(final Catalog catalog, final String option) {
+    final Value value = new Value();
+    value.setCatalogIdentifier(catalog.getIdentifier());
+    value.setFieldIdentifier(this.selectionField(catalog).getIdentifier());
+    value.setValue(option);
+    return Lists.newArrayList(value);
+  }
 }
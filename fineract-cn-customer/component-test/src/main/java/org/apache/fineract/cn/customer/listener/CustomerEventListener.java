@@ -19,6 +19,7 @@
 package org.apache.fineract.cn.customer.listener;
 
 import org.apache.fineract.cn.customer.api.v1.CustomerEventConstants;
+import org.apache.fineract.cn.customer.api.v1.events.CustomerCommandBatchEvent;
 import org.apache.fineract.cn.customer.api.v1.events.ScanEvent;
 import org.apache.fineract.cn.lang.config.TenantHeaderFilter;
 import org.apache.fineract.cn.test.listener.EventRecorder;
@@ -101,6 +102,16 @@ public class CustomerEventListener {
     this.eventRecorder.event(tenant, CustomerEventConstants.REOPEN_CUSTOMER, payload, String.class);
   }
 
+  @JmsListener(
+      destination = CustomerEventConstants.DESTINATION,
+      selector = CustomerEventConstants.SELECTOR_BULK_CUSTOMER_COMMAND
+  )
+  public void customerBulkCommandEvent(@Header(TenantHeaderFilter.TENANT_HEADER) final String tenant,
+                                       final String payload) {
+    this.eventRecorder.event(tenant, CustomerEventConstants.BULK_CUSTOMER_COMMAND, payload,
+        CustomerCommandBatchEvent.class);
+  }
+
   @JmsListener(
       destination = CustomerEventConstants.DESTINATION,
       selector = CustomerEventConstants.SELECTOR_PUT_ADDRESS
@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.util;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Records the statements, and the parameters bound to them, which the service sends through its data source while
+ * {@link #record(Runnable)} runs on the current thread. Statements of other threads are not recorded and the data
+ * source is left alone outside of recording.
+ */
+public class StatementRecorder implements BeanPostProcessor {
+
+  private static final ThreadLocal<List<RecordedStatement>> RECORDED = new ThreadLocal<>();
+
+  public StatementRecorder() {
+    super();
+  }
+
+  /**
+   * @return the statements sent while running {@code call}, in the order they were prepared
+   */
+  public List<RecordedStatement> record(final Runnable call) {
+    final List<RecordedStatement> recorded = new ArrayList<>();
+    RECORDED.set(recorded);
+    try {
+      call.run();
+    } finally {
+      RECORDED.remove();
+    }
+    return recorded;
+  }
+
+  @Override
+  public Object postProcessBeforeInitialization(final Object bean, final String beanName) throws BeansException {
+    return bean;
+  }
+
+  @Override
+  public Object postProcessAfterInitialization(final Object bean, final String beanName) throws BeansException {
+    if (!(bean instanceof DataSource)) {
+      return bean;
+    }
+    // a subclass proxy, so that the data source can still be injected as its own type
+    final ProxyFactory proxyFactory = new ProxyFactory(bean);
+    proxyFactory.setProxyTargetClass(true);
+    proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+      final Object result = invocation.proceed();
+      if (RECORDED.get() != null && result instanceof Connection) {
+        return StatementRecorder.recording((Connection) result);
+      }
+      return result;
+    });
+    return proxyFactory.getProxy();
+  }
+
+  private static Connection recording(final Connection connection) {
+    final ProxyFactory proxyFactory = new ProxyFactory(connection);
+    proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+      final Object result = invocation.proceed();
+      final List<RecordedStatement> recorded = RECORDED.get();
+      if (recorded == null) {
+        return result;
+      }
+      final Object[] arguments = invocation.getArguments();
+      if (result instanceof PreparedStatement && arguments.length > 0 && arguments[0] instanceof String) {
+        final RecordedStatement statement = new RecordedStatement((String) arguments[0]);
+        recorded.add(statement);
+        return StatementRecorder.binding((PreparedStatement) result, statement);
+      }
+      if (result instanceof Statement) {
+        return StatementRecorder.executing((Statement) result, recorded);
+      }
+      return result;
+    });
+    return (Connection) proxyFactory.getProxy();
+  }
+
+  private static PreparedStatement binding(final PreparedStatement preparedStatement,
+                                           final RecordedStatement statement) {
+    final ProxyFactory proxyFactory = new ProxyFactory(preparedStatement);
+    proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+      final String method = invocation.getMethod().getName();
+      final Object[] arguments = invocation.getArguments();
+      if (method.equals("addBatch") || method.startsWith("execute")) {
+        // the first set of parameters stands for the whole batch
+        statement.complete();
+      } else if (method.startsWith("set") && arguments.length >= 2 && arguments[0] instanceof Integer) {
+        statement.bind((Integer) arguments[0], method.equals("setNull") ? null : arguments[1]);
+      }
+      return invocation.proceed();
+    });
+    return (PreparedStatement) proxyFactory.getProxy();
+  }
+
+  private static Statement executing(final Statement plainStatement, final List<RecordedStatement> recorded) {
+    final ProxyFactory proxyFactory = new ProxyFactory(plainStatement);
+    proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+      final String method = invocation.getMethod().getName();
+      final Object[] arguments = invocation.getArguments();
+      if ((method.startsWith("execute") || method.equals("addBatch"))
+          && arguments.length > 0 && arguments[0] instanceof String) {
+        final RecordedStatement statement = new RecordedStatement((String) arguments[0]);
+        statement.complete();
+        recorded.add(statement);
+      }
+      return invocation.proceed();
+    });
+    return (Statement) proxyFactory.getProxy();
+  }
+
+  public static class RecordedStatement {
+
+    private final String sql;
+    private final TreeMap<Integer, Object> parameters;
+    private boolean complete;
+
+    RecordedStatement(final String sql) {
+      super();
+      this.sql = sql;
+      this.parameters = new TreeMap<>();
+    }
+
+    public String sql() {
+      return this.sql;
+    }
+
+    /**
+     * @return the values bound to the parameters of the statement, in the order of the parameters
+     */
+    public List<Object> parameters() {
+      return Collections.unmodifiableList(new ArrayList<>(this.parameters.values()));
+    }
+
+    void bind(final int index, final Object value) {
+      if (!this.complete) {
+        this.parameters.put(index, value);
+      }
+    }
+
+    void complete() {
+      this.complete = true;
+    }
+  }
+}
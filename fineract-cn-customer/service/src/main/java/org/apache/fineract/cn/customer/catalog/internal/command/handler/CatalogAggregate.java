@@ -29,13 +29,19 @@ import org.apache.fineract.cn.customer.catalog.internal.mapper.OptionMapper;
 import org.apache.fineract.cn.customer.catalog.internal.repository.CatalogEntity;
 import org.apache.fineract.cn.customer.catalog.internal.repository.FieldEntity;
 import org.apache.fineract.cn.customer.catalog.internal.repository.FieldRepository;
+import org.apache.fineract.cn.customer.catalog.internal.repository.FieldValueWriter;
 import org.apache.fineract.cn.customer.catalog.internal.repository.OptionRepository;
 import org.apache.fineract.cn.customer.catalog.internal.command.CreateCatalogCommand;
 import org.apache.fineract.cn.customer.catalog.internal.command.DeleteFieldCommand;
 import org.apache.fineract.cn.customer.catalog.internal.repository.CatalogRepository;
+import org.apache.fineract.cn.customer.catalog.internal.service.CatalogSchemaCache;
 import org.apache.fineract.cn.customer.ServiceConstants;
+import org.apache.fineract.cn.customer.internal.service.CustomerCache;
+import java.time.Clock;
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import org.apache.fineract.cn.api.util.UserContextHolder;
 import org.apache.fineract.cn.command.annotation.Aggregate;
 import org.apache.fineract.cn.command.annotation.CommandHandler;
 import org.apache.fineract.cn.command.annotation.EventEmitter;
@@ -51,17 +57,26 @@ public class CatalogAggregate {
   private final CatalogRepository catalogRepository;
   private final FieldRepository fieldRepository;
   private final OptionRepository optionRepository;
+  private final CatalogSchemaCache catalogSchemaCache;
+  private final FieldValueWriter fieldValueWriter;
+  private final CustomerCache customerCache;
 
   @Autowired
   public CatalogAggregate(@Qualifier(ServiceConstants.LOGGER_NAME) final Logger logger,
                           final CatalogRepository catalogRepository,
                           final FieldRepository fieldRepository,
-                          final OptionRepository optionRepository) {
+                          final OptionRepository optionRepository,
+                          final CatalogSchemaCache catalogSchemaCache,
+                          final FieldValueWriter fieldValueWriter,
+                          final CustomerCache customerCache) {
     super();
     this.logger = logger;
     this.catalogRepository = catalogRepository;
     this.fieldRepository = fieldRepository;
     this.optionRepository = optionRepository;
+    this.catalogSchemaCache = catalogSchemaCache;
+    this.fieldValueWriter = fieldValueWriter;
+    this.customerCache = customerCache;
   }
 
   @Transactional
@@ -76,6 +91,7 @@ public class CatalogAggregate {
         .collect(Collectors.toList())
     );
     this.catalogRepository.save(catalogEntity);
+    this.catalogSchemaCache.evictAfterCommit(catalog.getIdentifier());
     return catalog.getIdentifier();
   }
 
@@ -85,7 +101,9 @@ public class CatalogAggregate {
   public String process(final DeleteCatalogCommand deleteCatalogCommand) {
     final Optional<CatalogEntity> optionalCatalog = this.catalogRepository.findByIdentifier(deleteCatalogCommand.identifier());
     if (optionalCatalog.isPresent()) {
+      optionalCatalog.get().getFields().forEach(this::deleteFieldValues);
       this.catalogRepository.delete(optionalCatalog.get());
+      this.catalogSchemaCache.evictAfterCommit(deleteCatalogCommand.identifier());
       return deleteCatalogCommand.identifier();
     }
     return null;
@@ -100,7 +118,9 @@ public class CatalogAggregate {
       final Optional<FieldEntity> optionalField =
           this.fieldRepository.findByCatalogAndIdentifier(optionalCatalog.get(), deleteFieldCommand.fieldIdentifier());
       if (optionalField.isPresent()) {
+        this.deleteFieldValues(optionalField.get());
         this.fieldRepository.delete(optionalField.get());
+        this.catalogSchemaCache.evictAfterCommit(deleteFieldCommand.catalogIdentifier());
         return deleteFieldCommand.fieldIdentifier();
       }
     }
@@ -138,9 +158,20 @@ public class CatalogAggregate {
           );
         }
         this.fieldRepository.save(temporarySavedField);
+        this.catalogSchemaCache.evictAfterCommit(changeFieldCommand.catalogIdentifier());
         return changeFieldCommand.field().getIdentifier();
       }
     }
     return null;
   }
+
+  /**
+   * Values of a field in use are not supposed to be deleted, but one may have been stored after the check. Removing
+   * it together with the field touches its customer, whose custom values change with it.
+   */
+  private void deleteFieldValues(final FieldEntity fieldEntity) {
+    this.fieldValueWriter.deleteByField(fieldEntity.getId(), UserContextHolder.checkedGetUser(),
+        LocalDateTime.now(Clock.systemUTC()))
+        .forEach(this.customerCache::evictAfterCommit);
+  }
 }
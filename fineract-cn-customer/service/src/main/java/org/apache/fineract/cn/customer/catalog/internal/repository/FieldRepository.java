@@ -19,12 +19,18 @@
 package org.apache.fineract.cn.customer.catalog.internal.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface FieldRepository extends JpaRepository<FieldEntity, Long> {
 
   Optional<FieldEntity> findByCatalogAndIdentifier(final CatalogEntity catalog, final String identifier);
+
+  @Query("SELECT DISTINCT f FROM FieldEntity f LEFT JOIN FETCH f.options WHERE f.catalog = :catalog")
+  List<FieldEntity> findWithOptionsByCatalog(@Param("catalog") final CatalogEntity catalog);
 }
@@ -20,8 +20,11 @@ package org.apache.fineract.cn.customer.catalog.internal.repository;
 
 import org.apache.fineract.cn.customer.internal.repository.CustomerEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,7 +33,15 @@ public interface FieldValueRepository extends JpaRepository<FieldValueEntity, Lo
 
   List<FieldValueEntity> findByCustomer(final CustomerEntity customer);
 
+  @Query("SELECT DISTINCT v FROM FieldValueEntity v JOIN FETCH v.field f JOIN FETCH f.catalog LEFT JOIN FETCH f.options " +
+      "WHERE v.customer = :customer")
+  List<FieldValueEntity> findWithFieldByCustomer(@Param("customer") final CustomerEntity customer);
+
+  @Query("SELECT DISTINCT v FROM FieldValueEntity v JOIN FETCH v.field f JOIN FETCH f.catalog LEFT JOIN FETCH f.options " +
+      "WHERE v.customer IN :customers")
+  List<FieldValueEntity> findWithFieldByCustomerIn(@Param("customers") final Collection<CustomerEntity> customers);
+
   void deleteByCustomer(final CustomerEntity customer);
 
-  Optional<FieldValueEntity> findByField(final FieldEntity fieldEntity);
+  Optional<FieldValueEntity> findFirstByField(final FieldEntity fieldEntity);
 }
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.catalog.internal.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stores the custom values of a customer with JDBC batch statements, writing only rows that actually changed. Runs
+ * in the surrounding JPA transaction.
+ */
+@Repository
+public class FieldValueWriter {
+
+  private static final String SELECT_VALUES =
+      "SELECT field_id, a_value FROM nun_field_values WHERE entity_id = ?";
+  private static final String UPSERT_VALUE =
+      "INSERT INTO nun_field_values (entity_id, field_id, a_value) VALUES (?, ?, ?) " +
+          "ON CONFLICT (entity_id, field_id) DO UPDATE SET a_value = EXCLUDED.a_value";
+  private static final String DELETE_VALUE =
+      "DELETE FROM nun_field_values WHERE entity_id = ? AND field_id = ?";
+  private static final String DELETE_FIELD_VALUES =
+      "WITH deleted AS (DELETE FROM nun_field_values WHERE field_id = ? RETURNING entity_id) " +
+          "UPDATE maat_customers c SET last_modified_by = ?, last_modified_on = ? " +
+          "WHERE c.id IN (SELECT entity_id FROM deleted) RETURNING c.identifier";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  public FieldValueWriter(final DataSource dataSource) {
+    super();
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+  }
+
+  /**
+   * Makes the given values the custom values of the customer: new and changed values are upserted, values of fields
+   * not given anymore are deleted, unchanged values are left alone.
+   *
+   * @param values values keyed by field id
+   */
+  public void replace(final Long customerId, final Map<Long, String> values) {
+    final HashMap<Long, String> existingValues = new HashMap<>();
+    this.jdbcTemplate.query(SELECT_VALUES,
+        resultSet -> {
+          existingValues.put(resultSet.getLong(1), resultSet.getString(2));
+        },
+        customerId);
+
+    final List<Object[]> upserts = new ArrayList<>();
+    values.forEach((fieldId, value) -> {
+      if (!value.equals(existingValues.get(fieldId))) {
+        upserts.add(new Object[]{customerId, fieldId, value});
+      }
+    });
+
+    final List<Object[]> deletes = new ArrayList<>();
+    existingValues.keySet().forEach(fieldId -> {
+      if (!values.containsKey(fieldId)) {
+        deletes.add(new Object[]{customerId, fieldId});
+      }
+    });
+
+    if (!deletes.isEmpty()) {
+      this.jdbcTemplate.batchUpdate(DELETE_VALUE, deletes);
+    }
+    if (!upserts.isEmpty()) {
+      this.jdbcTemplate.batchUpdate(UPSERT_VALUE, upserts);
+    }
+  }
+
+  /**
+   * Deletes all values of the given field and marks the customers which had one as modified, so conditional requests
+   * and the change feed see that their custom values changed.
+   *
+   * @return identifiers of the modified customers
+   */
+  public List<String> deleteByField(final Long fieldId, final String user, final LocalDateTime now) {
+    return this.jdbcTemplate.queryForList(DELETE_FIELD_VALUES, String.class, fieldId, user, Timestamp.valueOf(now));
+  }
+}
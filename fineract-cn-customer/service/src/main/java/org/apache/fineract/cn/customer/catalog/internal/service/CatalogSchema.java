@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.catalog.internal.service;
+
+import org.apache.fineract.cn.customer.catalog.api.v1.domain.Field;
+import org.apache.fineract.cn.customer.catalog.internal.repository.FieldEntity;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Immutable validation rules of one catalog, compiled from its fields and options by {@link CatalogSchemaCache}.
+ */
+public final class CatalogSchema {
+
+  private final String identifier;
+  private final Map<String, FieldSchema> fields;
+
+  private CatalogSchema(final String identifier, final Map<String, FieldSchema> fields) {
+    super();
+    this.identifier = identifier;
+    this.fields = fields;
+  }
+
+  public static CatalogSchema compile(final String identifier, final List<FieldEntity> fieldEntities) {
+    final HashMap<String, FieldSchema> fields = new HashMap<>(fieldEntities.size());
+    fieldEntities.forEach(fieldEntity -> fields.put(fieldEntity.getIdentifier(), FieldSchema.compile(fieldEntity)));
+    return new CatalogSchema(identifier, Collections.unmodifiableMap(fields));
+  }
+
+  public String getIdentifier() {
+    return this.identifier;
+  }
+
+  public Optional<FieldSchema> findField(final String identifier) {
+    return Optional.ofNullable(this.fields.get(identifier));
+  }
+
+  public static final class FieldSchema {
+
+    private final Long id;
+    private final String identifier;
+    private final String label;
+    private final Field.DataType dataType;
+    private final Integer length;
+    private final Integer precision;
+    private final Double minValue;
+    private final Double maxValue;
+    private final Set<String> options;
+
+    private FieldSchema(final FieldEntity fieldEntity, final Set<String> options) {
+      super();
+      this.id = fieldEntity.getId();
+      this.identifier = fieldEntity.getIdentifier();
+      this.label = fieldEntity.getLabel();
+      this.dataType = Field.DataType.valueOf(fieldEntity.getDataType());
+      this.length = fieldEntity.getLength();
+      this.precision = fieldEntity.getPrecision();
+      this.minValue = fieldEntity.getMinValue();
+      this.maxValue = fieldEntity.getMaxValue();
+      this.options = options;
+    }
+
+    private static FieldSchema compile(final FieldEntity fieldEntity) {
+      final HashSet<String> options = new HashSet<>();
+      if (fieldEntity.getOptions() != null) {
+        fieldEntity.getOptions().forEach(optionEntity -> options.add(optionEntity.getValue().toString()));
+      }
+      return new FieldSchema(fieldEntity, Collections.unmodifiableSet(options));
+    }
+
+    public Long getId() {
+      return this.id;
+    }
+
+    public String getIdentifier() {
+      return this.identifier;
+    }
+
+    public String getLabel() {
+      return this.label;
+    }
+
+    public Field.DataType getDataType() {
+      return this.dataType;
+    }
+
+    public Integer getLength() {
+      return this.length;
+    }
+
+    public Integer getPrecision() {
+      return this.precision;
+    }
+
+    public Double getMinValue() {
+      return this.minValue;
+    }
+
+    public Double getMaxValue() {
+      return this.maxValue;
+    }
+
+    public Set<String> getOptions() {
+      return this.options;
+    }
+  }
+}
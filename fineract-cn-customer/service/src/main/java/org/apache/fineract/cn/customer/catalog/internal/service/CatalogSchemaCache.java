@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.catalog.internal.service;
+
+import org.apache.fineract.cn.customer.catalog.internal.repository.CatalogEntity;
+import org.apache.fineract.cn.customer.catalog.internal.repository.CatalogRepository;
+import org.apache.fineract.cn.customer.catalog.internal.repository.FieldRepository;
+import org.apache.fineract.cn.customer.internal.util.CacheGenerations;
+import org.apache.fineract.cn.lang.ServiceException;
+import org.apache.fineract.cn.lang.TenantContextHolder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per tenant cache of compiled {@link CatalogSchema}s. A schema is compiled on first use and kept until the catalog
+ * is changed by the catalog command handlers, locally or on another node.
+ */
+@Component
+public class CatalogSchemaCache {
+
+  private final CatalogRepository catalogRepository;
+  private final FieldRepository fieldRepository;
+  private final ConcurrentHashMap<String, ConcurrentHashMap<String, CatalogSchema>> tenantSchemas;
+  private final CacheGenerations generations;
+
+  @Autowired
+  public CatalogSchemaCache(final CatalogRepository catalogRepository,
+                            final FieldRepository fieldRepository) {
+    super();
+    this.catalogRepository = catalogRepository;
+    this.fieldRepository = fieldRepository;
+    this.tenantSchemas = new ConcurrentHashMap<>();
+    this.generations = new CacheGenerations();
+  }
+
+  public CatalogSchema get(final String catalogIdentifier) {
+    final String tenantIdentifier = TenantContextHolder.checkedGetIdentifier();
+    final ConcurrentHashMap<String, CatalogSchema> schemas =
+        this.tenantSchemas.computeIfAbsent(tenantIdentifier, key -> new ConcurrentHashMap<>());
+
+    final CatalogSchema cachedSchema = schemas.get(catalogIdentifier);
+    if (cachedSchema != null) {
+      return cachedSchema;
+    }
+
+    final long loadedAtGeneration = this.generations.current(tenantIdentifier);
+    final CatalogEntity catalogEntity = this.catalogRepository.findByIdentifier(catalogIdentifier)
+        .orElseThrow(() -> ServiceException.notFound("Catalog {0} not found.", catalogIdentifier));
+    final CatalogSchema schema =
+        CatalogSchema.compile(catalogIdentifier, this.fieldRepository.findWithOptionsByCatalog(catalogEntity));
+
+    synchronized (schemas) {
+      if (this.generations.isCurrent(tenantIdentifier, loadedAtGeneration)) {
+        schemas.put(catalogIdentifier, schema);
+      }
+    }
+    return schema;
+  }
+
+  public void evict(final String tenantIdentifier, final String catalogIdentifier) {
+    this.generations.advance(tenantIdentifier);
+    final ConcurrentHashMap<String, CatalogSchema> schemas = this.tenantSchemas.get(tenantIdentifier);
+    if (schemas != null) {
+      schemas.remove(catalogIdentifier);
+    }
+  }
+
+  public void evictAll(final String tenantIdentifier) {
+    this.generations.advance(tenantIdentifier);
+    this.tenantSchemas.remove(tenantIdentifier);
+  }
+
+  public void evictAfterCommit(final String catalogIdentifier) {
+    CacheGenerations.afterCommit(tenantIdentifier -> this.evict(tenantIdentifier, catalogIdentifier));
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.catalog.internal.service;
+
+import org.apache.fineract.cn.customer.catalog.api.v1.CatalogEventConstants;
+import org.apache.fineract.cn.customer.internal.service.CustomerCache;
+import org.apache.fineract.cn.customer.internal.service.CustomerCacheInvalidationListener;
+import org.apache.fineract.cn.lang.config.TenantHeaderFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jms.annotation.JmsListener;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops the compiled schemas of a tenant on every node when one of its catalogs changed. Field events only carry the
+ * field identifier, so all schemas of the tenant are evicted. Deleting a field removes its values, so the cached
+ * customers of the tenant are evicted as well.
+ */
+@Component
+public class CatalogSchemaInvalidationListener {
+
+  private static final String SELECTOR_CATALOG_CHANGED = CatalogEventConstants.SELECTOR_NAME + " IN ('" +
+      String.join("', '",
+          CatalogEventConstants.POST_CATALOG,
+          CatalogEventConstants.DELETE_CATALOG,
+          CatalogEventConstants.DELETE_FIELD,
+          CatalogEventConstants.PUT_FIELD) + "')";
+  private static final String SELECTOR_FIELD_DELETED = CatalogEventConstants.SELECTOR_NAME + " IN ('" +
+      String.join("', '",
+          CatalogEventConstants.DELETE_CATALOG,
+          CatalogEventConstants.DELETE_FIELD) + "')";
+
+  private final CatalogSchemaCache catalogSchemaCache;
+  private final CustomerCache customerCache;
+
+  @Autowired
+  public CatalogSchemaInvalidationListener(final CatalogSchemaCache catalogSchemaCache,
+                                           final CustomerCache customerCache) {
+    super();
+    this.catalogSchemaCache = catalogSchemaCache;
+    this.customerCache = customerCache;
+  }
+
+  @JmsListener(
+      destination = CatalogEventConstants.DESTINATION,
+      selector = SELECTOR_CATALOG_CHANGED,
+      containerFactory = CustomerCacheInvalidationListener.CONTAINER_FACTORY
+  )
+  public void onCatalogChanged(@Header(TenantHeaderFilter.TENANT_HEADER) final String tenant) {
+    this.catalogSchemaCache.evictAll(tenant);
+  }
+
+  @JmsListener(
+      destination = CatalogEventConstants.DESTINATION,
+      selector = SELECTOR_FIELD_DELETED,
+      containerFactory = CustomerCacheInvalidationListener.CONTAINER_FACTORY
+  )
+  public void onFieldDeleted(@Header(TenantHeaderFilter.TENANT_HEADER) final String tenant) {
+    this.customerCache.evictAll(tenant);
+  }
+}
@@ -114,6 +114,6 @@ public class CatalogService {
   private Boolean fieldInUse(final CatalogEntity catalogEntity, final String fieldIdentifier) {
     final FieldEntity fieldEntity = this.fieldRepository.findByCatalogAndIdentifier(catalogEntity, fieldIdentifier).orElseThrow(
         () -> ServiceException.notFound("Field {0} of catalog {1} not found.", catalogEntity.getIdentifier(), fieldIdentifier));
-    return this.fieldValueRepository.findByField(fieldEntity).isPresent();
+    return this.fieldValueRepository.findFirstByField(fieldEntity).isPresent();
   }
 }
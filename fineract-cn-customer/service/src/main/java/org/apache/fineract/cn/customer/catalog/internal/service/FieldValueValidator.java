@@ -18,15 +18,8 @@
  */
 package org.apache.fineract.cn.customer.catalog.internal.service;
 
-import org.apache.fineract.cn.customer.catalog.api.v1.domain.Field;
 import org.apache.fineract.cn.customer.catalog.api.v1.domain.Value;
-import org.apache.fineract.cn.customer.catalog.internal.repository.CatalogEntity;
-import org.apache.fineract.cn.customer.catalog.internal.repository.FieldEntity;
-import org.apache.fineract.cn.customer.catalog.internal.repository.FieldRepository;
-import org.apache.fineract.cn.customer.catalog.internal.repository.CatalogRepository;
-import org.apache.fineract.cn.customer.catalog.internal.repository.OptionEntity;
 import org.apache.fineract.cn.customer.ServiceConstants;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import org.apache.fineract.cn.lang.DateConverter;
@@ -41,121 +34,121 @@ import org.springframework.util.StringUtils;
 public class FieldValueValidator {
 
   private final Logger logger;
-  private final CatalogRepository catalogRepository;
-  private final FieldRepository fieldRepository;
+  private final CatalogSchemaCache catalogSchemaCache;
 
   @Autowired
   public FieldValueValidator(@Qualifier(ServiceConstants.LOGGER_NAME) final Logger logger,
-                             final CatalogRepository catalogRepository,
-                             final FieldRepository fieldRepository) {
+                             final CatalogSchemaCache catalogSchemaCache) {
     super();
     this.logger = logger;
-    this.catalogRepository = catalogRepository;
-    this.fieldRepository = fieldRepository;
+    this.catalogSchemaCache = catalogSchemaCache;
   }
 
   public void validateValues(final List<Value> values) {
-    values.forEach(value -> {
-      final CatalogEntity catalogEntity =
-          this.catalogRepository.findByIdentifier(value.getCatalogIdentifier())
-              .orElseThrow(() -> ServiceException.notFound("Catalog {0} not found.", value.getCatalogIdentifier()));
-
-      final FieldEntity fieldEntity =
-          this.fieldRepository.findByCatalogAndIdentifier(catalogEntity, value.getFieldIdentifier())
-              .orElseThrow(() -> ServiceException.notFound("Field {0} not found.", value.getFieldIdentifier()));
-
-      final Field.DataType dataType = Field.DataType.valueOf(fieldEntity.getDataType());
-
-      switch (dataType) {
-        case TEXT:
-          this.checkLength(value, fieldEntity);
-          break;
-        case NUMBER:
-          this.checkNumber(value, fieldEntity);
-          break;
-        case DATE:
-          this.checkDate(value, fieldEntity);
-          break;
-        case SINGLE_SELECTION:
-          this.checkOptions(value, fieldEntity, fieldEntity.getOptions(), true);
-          break;
-        case MULTI_SELECTION:
-          this.checkOptions(value, fieldEntity, fieldEntity.getOptions(), false);
-          break;
-        default:
-          throw ServiceException.badRequest("Unsupported data type {0} of field {1}.", dataType.name(), fieldEntity.getLabel());
-      }
-    });
+    values.forEach(value -> this.validateValue(value, this.findField(value)));
+  }
+
+  /**
+   * Resolves the field a value belongs to from the compiled catalog schema.
+   */
+  public CatalogSchema.FieldSchema findField(final Value value) {
+    return this.catalogSchemaCache.get(value.getCatalogIdentifier())
+        .findField(value.getFieldIdentifier())
+        .orElseThrow(() -> ServiceException.notFound("Field {0} not found.", value.getFieldIdentifier()));
+  }
+
+  public static String fieldKey(final String catalogIdentifier, final String fieldIdentifier) {
+    return catalogIdentifier + "/" + fieldIdentifier;
+  }
+
+  private void validateValue(final Value value, final CatalogSchema.FieldSchema field) {
+    switch (field.getDataType()) {
+      case TEXT:
+        this.checkLength(value, field);
+        break;
+      case NUMBER:
+        this.checkNumber(value, field);
+        break;
+      case DATE:
+        this.checkDate(value, field);
+        break;
+      case SINGLE_SELECTION:
+        this.checkOptions(value, field, true);
+        break;
+      case MULTI_SELECTION:
+        this.checkOptions(value, field, false);
+        break;
+      default:
+        throw ServiceException.badRequest("Unsupported data type {0} of field {1}.", field.getDataType().name(), field.getLabel());
+    }
   }
 
-  private void checkLength(final Value value, final FieldEntity fieldEntity) {
-    if (fieldEntity.getLength() != null
-        && value.getValue().length() > fieldEntity.getLength()) {
+  private void checkLength(final Value value, final CatalogSchema.FieldSchema field) {
+    if (field.getLength() != null
+        && value.getValue().length() > field.getLength()) {
       throw ServiceException.badRequest("Value for field {0} must be smaller than or equals {1}.",
-          fieldEntity.getLabel(), fieldEntity.getLength());
+          field.getLabel(), field.getLength());
     }
   }
 
-  private void checkNumber(final Value value, final FieldEntity fieldEntity) {
+  private void checkNumber(final Value value, final CatalogSchema.FieldSchema field) {
     try {
       final Double valueAsDouble = Double.valueOf(value.getValue());
 
-      if (fieldEntity.getMinValue() != null) {
-        if (valueAsDouble.compareTo(fieldEntity.getMinValue()) < 0) {
+      if (field.getMinValue() != null) {
+        if (valueAsDouble.compareTo(field.getMinValue()) < 0) {
           throw ServiceException.badRequest("Value for field {0} must be greater than or equals {1}.",
-              fieldEntity.getIdentifier(), fieldEntity.getMinValue());
+              field.getIdentifier(), field.getMinValue());
         }
       }
 
-      if (fieldEntity.getMaxValue() != null) {
-        if (valueAsDouble.compareTo(fieldEntity.getMaxValue()) > 0) {
+      if (field.getMaxValue() != null) {
+        if (valueAsDouble.compareTo(field.getMaxValue()) > 0) {
           throw ServiceException.badRequest("Value for field {0} must be lesser than or equals {1}.",
-              fieldEntity.getIdentifier(), fieldEntity.getMaxValue());
+              field.getIdentifier(), field.getMaxValue());
         }
       }
     } catch (final Throwable th) {
-      throw ServiceException.badRequest("Value for field {0} is not a number.", fieldEntity.getLabel());
+      throw ServiceException.badRequest("Value for field {0} is not a number.", field.getLabel());
     }
 
     final String[] split = StringUtils.split(value.getValue(), ".");
-    if (fieldEntity.getLength() != null)  {
-      if (split.length == 2) {
-        if ((split[0].length() + split[1].length()) > fieldEntity.getLength()) {
+    if (field.getLength() != null)  {
+      if (split != null && split.length == 2) {
+        if ((split[0].length() + split[1].length()) > field.getLength()) {
           throw ServiceException.badRequest("Value for field {0} must be smaller than or equals {1}.",
-              fieldEntity.getLabel(), fieldEntity.getLength());
+              field.getLabel(), field.getLength());
         }
 
-        if (fieldEntity.getPrecision() != null)  {
-          if (split[1].length() > fieldEntity.getPrecision()) {
+        if (field.getPrecision() != null)  {
+          if (split[1].length() > field.getPrecision()) {
             throw ServiceException.badRequest("Precision for field {0} must be smaller than or equals {1}.",
-                fieldEntity.getLabel(), fieldEntity.getPrecision());
+                field.getLabel(), field.getPrecision());
           }
         }
       } else {
-        this.checkLength(value, fieldEntity);
+        this.checkLength(value, field);
       }
     }
   }
 
-  private void checkDate(final Value value, final FieldEntity fieldEntity) {
+  private void checkDate(final Value value, final CatalogSchema.FieldSchema field) {
     try {
       DateConverter.fromIsoString(value.getValue());
     } catch (final Throwable th) {
-      throw ServiceException.badRequest("Value for field {0} must be a valid ISO value.",fieldEntity.getLabel() );
+      throw ServiceException.badRequest("Value for field {0} must be a valid ISO value.", field.getLabel());
     }
   }
 
-  private void checkOptions(final Value value, final FieldEntity fieldEntity, final List<OptionEntity> optionEntities, boolean singleSelection) {
+  private void checkOptions(final Value value, final CatalogSchema.FieldSchema field, boolean singleSelection) {
     final Set<String> valuesAsSet = StringUtils.commaDelimitedListToSet(value.getValue());
 
     if (singleSelection && valuesAsSet.size() > 1) {
-      throw ServiceException.badRequest("Field {0} only supports single selection.", fieldEntity.getLabel());
+      throw ServiceException.badRequest("Field {0} only supports single selection.", field.getLabel());
     }
 
-    final HashSet<String> optionsAsSet = new HashSet<>(optionEntities.size());
-    optionEntities.forEach(optionEntity -> optionsAsSet.add(optionEntity.getValue().toString()));
-    if (!optionsAsSet.containsAll(valuesAsSet)) {
-      throw ServiceException.badRequest("Unsupported option {0} for field {1}.", value.getValue(), fieldEntity.getLabel());
+    if (!field.getOptions().containsAll(valuesAsSet)) {
+      throw ServiceException.badRequest("Unsupported option {0} for field {1}.", value.getValue(), field.getLabel());
     }
   }
 }
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.internal.command;
+
+import org.apache.fineract.cn.customer.internal.service.CustomerTransition;
+
+import java.util.List;
+
+public class BulkCustomerCommand {
+
+  private final CustomerTransition transition;
+  private final String comment;
+  private final List<Long> customerIds;
+
+  public BulkCustomerCommand(final CustomerTransition transition, final String comment, final List<Long> customerIds) {
+    super();
+    this.transition = transition;
+    this.comment = comment;
+    this.customerIds = customerIds;
+  }
+
+  public CustomerTransition transition() {
+    return this.transition;
+  }
+
+  public String comment() {
+    return this.comment;
+  }
+
+  public List<Long> customerIds() {
+    return this.customerIds;
+  }
+
+  @Override
+  public String toString() {
+    return "BulkCustomerCommand{" +
+        "transition=" + transition +
+        ", customers=" + customerIds.size() +
+        '}';
+  }
+}
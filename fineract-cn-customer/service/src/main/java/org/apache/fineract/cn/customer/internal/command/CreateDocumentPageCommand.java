@@ -18,7 +18,7 @@
  */
 package org.apache.fineract.cn.customer.internal.command;
 
-import org.springframework.web.multipart.MultipartFile;
+import org.apache.fineract.cn.customer.internal.service.ContentReference;
 
 /**
  * @author Myrle Krantz
@@ -27,13 +27,13 @@ public class CreateDocumentPageCommand {
   private final String customerIdentifier;
   private final String documentIdentifier;
   private final Integer pageNumber;
-  private final MultipartFile document;
+  private final ContentReference document;
 
   public CreateDocumentPageCommand(
       final String customerIdentifier,
       final String documentIdentifier,
       final int pageNumber,
-      final MultipartFile document) {
+      final ContentReference document) {
     this.customerIdentifier = customerIdentifier;
     this.documentIdentifier = documentIdentifier;
     this.pageNumber = pageNumber;
@@ -52,7 +52,7 @@ public class CreateDocumentPageCommand {
     return pageNumber;
   }
 
-  public MultipartFile getDocument() {
+  public ContentReference getDocument() {
     return document;
   }
 }
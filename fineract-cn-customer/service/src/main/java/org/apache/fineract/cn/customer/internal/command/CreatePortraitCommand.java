@@ -18,14 +18,14 @@
  */
 package org.apache.fineract.cn.customer.internal.command;
 
-import org.springframework.web.multipart.MultipartFile;
+import org.apache.fineract.cn.customer.internal.service.ContentReference;
 
 public class CreatePortraitCommand {
 
   private final String identifier;
-  private final MultipartFile portrait;
+  private final ContentReference portrait;
 
-  public CreatePortraitCommand(final String identifier, final MultipartFile portrait) {
+  public CreatePortraitCommand(final String identifier, final ContentReference portrait) {
     super();
     this.identifier = identifier;
     this.portrait = portrait;
@@ -35,7 +35,7 @@ public class CreatePortraitCommand {
     return this.identifier;
   }
 
-  public MultipartFile portrait() {
+  public ContentReference portrait() {
     return this.portrait;
   }
 }
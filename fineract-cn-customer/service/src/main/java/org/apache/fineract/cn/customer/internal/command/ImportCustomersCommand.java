@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.internal.command;
+
+import org.apache.fineract.cn.customer.api.v1.domain.Customer;
+
+import java.util.List;
+import java.util.Map;
+
+public class ImportCustomersCommand {
+
+  private final List<Customer> customers;
+  private final Map<String, Long> fieldIds;
+
+  public ImportCustomersCommand(final List<Customer> customers, final Map<String, Long> fieldIds) {
+    super();
+    this.customers = customers;
+    this.fieldIds = fieldIds;
+  }
+
+  public List<Customer> customers() {
+    return this.customers;
+  }
+
+  public Map<String, Long> fieldIds() {
+    return this.fieldIds;
+  }
+}
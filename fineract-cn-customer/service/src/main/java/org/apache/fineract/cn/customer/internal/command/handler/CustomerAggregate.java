@@ -19,16 +19,16 @@
 package org.apache.fineract.cn.customer.internal.command.handler;
 
 import org.apache.fineract.cn.customer.api.v1.CustomerEventConstants;
+import org.apache.fineract.cn.customer.api.v1.domain.Address;
 import org.apache.fineract.cn.customer.api.v1.domain.Command;
+import org.apache.fineract.cn.customer.api.v1.domain.ContactDetail;
 import org.apache.fineract.cn.customer.api.v1.domain.Customer;
+import org.apache.fineract.cn.customer.api.v1.events.CustomerCommandBatchEvent;
 import org.apache.fineract.cn.customer.api.v1.events.ScanEvent;
-import org.apache.fineract.cn.customer.catalog.internal.repository.CatalogEntity;
-import org.apache.fineract.cn.customer.catalog.internal.repository.CatalogRepository;
-import org.apache.fineract.cn.customer.catalog.internal.repository.FieldEntity;
-import org.apache.fineract.cn.customer.catalog.internal.repository.FieldRepository;
-import org.apache.fineract.cn.customer.catalog.internal.repository.FieldValueEntity;
-import org.apache.fineract.cn.customer.catalog.internal.repository.FieldValueRepository;
+import org.apache.fineract.cn.customer.catalog.internal.repository.FieldValueWriter;
+import org.apache.fineract.cn.customer.catalog.internal.service.FieldValueValidator;
 import org.apache.fineract.cn.customer.internal.command.ActivateCustomerCommand;
+import org.apache.fineract.cn.customer.internal.command.BulkCustomerCommand;
 import org.apache.fineract.cn.customer.internal.command.CloseCustomerCommand;
 import org.apache.fineract.cn.customer.internal.command.CreateCustomerCommand;
 import org.apache.fineract.cn.customer.internal.command.CreateIdentificationCardCommand;
@@ -37,6 +37,7 @@ import org.apache.fineract.cn.customer.internal.command.CreatePortraitCommand;
 import org.apache.fineract.cn.customer.internal.command.DeleteIdentificationCardCommand;
 import org.apache.fineract.cn.customer.internal.command.DeleteIdentificationCardScanCommand;
 import org.apache.fineract.cn.customer.internal.command.DeletePortraitCommand;
+import org.apache.fineract.cn.customer.internal.command.ImportCustomersCommand;
 import org.apache.fineract.cn.customer.internal.command.LockCustomerCommand;
 import org.apache.fineract.cn.customer.internal.command.ReopenCustomerCommand;
 import org.apache.fineract.cn.customer.internal.command.UnlockCustomerCommand;
@@ -48,29 +49,40 @@ import org.apache.fineract.cn.customer.internal.mapper.AddressMapper;
 import org.apache.fineract.cn.customer.internal.mapper.CommandMapper;
 import org.apache.fineract.cn.customer.internal.mapper.ContactDetailMapper;
 import org.apache.fineract.cn.customer.internal.mapper.CustomerMapper;
-import org.apache.fineract.cn.customer.internal.mapper.FieldValueMapper;
 import org.apache.fineract.cn.customer.internal.mapper.IdentificationCardMapper;
 import org.apache.fineract.cn.customer.internal.mapper.IdentificationCardScanMapper;
 import org.apache.fineract.cn.customer.internal.mapper.PortraitMapper;
 import org.apache.fineract.cn.customer.internal.repository.AddressEntity;
 import org.apache.fineract.cn.customer.internal.repository.AddressRepository;
 import org.apache.fineract.cn.customer.internal.repository.CommandRepository;
+import org.apache.fineract.cn.customer.internal.repository.CustomerBatchWriter;
 import org.apache.fineract.cn.customer.internal.repository.ContactDetailEntity;
 import org.apache.fineract.cn.customer.internal.repository.ContactDetailRepository;
 import org.apache.fineract.cn.customer.internal.repository.CustomerEntity;
 import org.apache.fineract.cn.customer.internal.repository.CustomerRepository;
+import org.apache.fineract.cn.customer.internal.repository.CustomerStateWriter;
 import org.apache.fineract.cn.customer.internal.repository.IdentificationCardEntity;
 import org.apache.fineract.cn.customer.internal.repository.IdentificationCardRepository;
 import org.apache.fineract.cn.customer.internal.repository.IdentificationCardScanEntity;
 import org.apache.fineract.cn.customer.internal.repository.IdentificationCardScanRepository;
 import org.apache.fineract.cn.customer.internal.repository.PortraitEntity;
 import org.apache.fineract.cn.customer.internal.repository.PortraitRepository;
+import org.apache.fineract.cn.customer.internal.service.ContentReference;
+import org.apache.fineract.cn.customer.internal.service.ImageVariantService;
+import org.apache.fineract.cn.customer.internal.service.CustomerCache;
+import org.apache.fineract.cn.customer.internal.service.CustomerTransition;
 import java.io.IOException;
 import java.sql.Date;
 import java.time.Clock;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import org.apache.fineract.cn.api.util.UserContextHolder;
@@ -81,7 +93,6 @@ import org.apache.fineract.cn.command.annotation.EventEmitter;
 import org.apache.fineract.cn.lang.ServiceException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
 
 @SuppressWarnings({"unused", "UnusedReturnValue"})
 @Aggregate
@@ -92,11 +103,14 @@ public class CustomerAggregate {
   private final IdentificationCardScanRepository identificationCardScanRepository;
   private final PortraitRepository portraitRepository;
   private final ContactDetailRepository contactDetailRepository;
-  private final FieldValueRepository fieldValueRepository;
-  private final CatalogRepository catalogRepository;
-  private final FieldRepository fieldRepository;
+  private final FieldValueValidator fieldValueValidator;
+  private final FieldValueWriter fieldValueWriter;
   private final CommandRepository commandRepository;
   private final TaskAggregate taskAggregate;
+  private final CustomerCache customerCache;
+  private final CustomerBatchWriter customerBatchWriter;
+  private final ImageVariantService imageVariantService;
+  private final CustomerStateWriter customerStateWriter;
 
   @Autowired
   public CustomerAggregate(final AddressRepository addressRepository,
@@ -105,11 +119,14 @@ public class CustomerAggregate {
                            final IdentificationCardScanRepository identificationCardScanRepository,
                            final PortraitRepository portraitRepository,
                            final ContactDetailRepository contactDetailRepository,
-                           final FieldValueRepository fieldValueRepository,
-                           final CatalogRepository catalogRepository,
-                           final FieldRepository fieldRepository,
+                           final FieldValueValidator fieldValueValidator,
+                           final FieldValueWriter fieldValueWriter,
                            final CommandRepository commandRepository,
-                           final TaskAggregate taskAggregate) {
+                           final TaskAggregate taskAggregate,
+                           final CustomerCache customerCache,
+                           final CustomerBatchWriter customerBatchWriter,
+                           final ImageVariantService imageVariantService,
+                           final CustomerStateWriter customerStateWriter) {
     super();
     this.addressRepository = addressRepository;
     this.customerRepository = customerRepository;
@@ -117,11 +134,14 @@ public class CustomerAggregate {
     this.identificationCardScanRepository = identificationCardScanRepository;
     this.portraitRepository = portraitRepository;
     this.contactDetailRepository = contactDetailRepository;
-    this.fieldValueRepository = fieldValueRepository;
-    this.catalogRepository = catalogRepository;
-    this.fieldRepository = fieldRepository;
+    this.fieldValueValidator = fieldValueValidator;
+    this.fieldValueWriter = fieldValueWriter;
     this.commandRepository = commandRepository;
     this.taskAggregate = taskAggregate;
+    this.customerCache = customerCache;
+    this.customerBatchWriter = customerBatchWriter;
+    this.imageVariantService = imageVariantService;
+    this.customerStateWriter = customerStateWriter;
   }
 
   @Transactional
@@ -159,6 +179,18 @@ public class CustomerAggregate {
     return customer.getIdentifier();
   }
 
+  @Transactional
+  @CommandHandler
+  @EventEmitter(selectorName = CustomerEventConstants.SELECTOR_NAME, selectorValue = CustomerEventConstants.IMPORT_CUSTOMERS)
+  public List<String> importCustomers(final ImportCustomersCommand importCustomersCommand) {
+    final List<Customer> customers = importCustomersCommand.customers();
+
+    this.customerBatchWriter.insert(customers, importCustomersCommand.fieldIds(),
+        this.taskAggregate.findPredefinedTaskDefinitionIds(Command.Action.ACTIVATE));
+
+    return customers.stream().map(Customer::getIdentifier).collect(Collectors.toList());
+  }
+
   @Transactional
   @CommandHandler
   @EventEmitter(selectorName = CustomerEventConstants.SELECTOR_NAME, selectorValue = CustomerEventConstants.PUT_CUSTOMER)
@@ -190,21 +222,20 @@ public class CustomerAggregate {
     }
 
     if (customer.getCustomValues() != null) {
-      this.fieldValueRepository.deleteByCustomer(customerEntity);
-      this.fieldValueRepository.flush();
       this.setCustomValues(customer, customerEntity);
     }
 
     if (customer.getAddress() != null) {
-      this.updateAddress(new UpdateAddressCommand(customer.getIdentifier(), customer.getAddress()));
+      this.applyAddress(customerEntity, customer.getAddress());
     }
 
-    this.updateContactDetails(new UpdateContactDetailsCommand(customer.getIdentifier(), customer.getContactDetails()));
+    this.applyContactDetails(customerEntity, customer.getContactDetails());
 
     customerEntity.setLastModifiedBy(UserContextHolder.checkedGetUser());
     customerEntity.setLastModifiedOn(LocalDateTime.now(Clock.systemUTC()));
 
     this.customerRepository.save(customerEntity);
+    this.customerCache.evictAfterCommit(customer.getIdentifier());
 
     return customer.getIdentifier();
   }
@@ -231,6 +262,7 @@ public class CustomerAggregate {
     this.commandRepository.save(
         CommandMapper.create(savedCustomerEntity, Command.Action.ACTIVATE.name(), activateCustomerCommand.comment())
     );
+    this.customerCache.evictAfterCommit(activateCustomerCommand.identifier());
 
     return activateCustomerCommand.identifier();
   }
@@ -252,6 +284,7 @@ public class CustomerAggregate {
     );
 
     this.taskAggregate.onCustomerCommand(savedCustomerEntity, Command.Action.UNLOCK);
+    this.customerCache.evictAfterCommit(lockCustomerCommand.identifier());
 
     return lockCustomerCommand.identifier();
   }
@@ -275,6 +308,7 @@ public class CustomerAggregate {
     this.commandRepository.save(
         CommandMapper.create(savedCustomerEntity, Command.Action.UNLOCK.name(), unlockCustomerCommand.comment())
     );
+    this.customerCache.evictAfterCommit(unlockCustomerCommand.identifier());
 
     return unlockCustomerCommand.identifier();
   }
@@ -296,6 +330,7 @@ public class CustomerAggregate {
     );
 
     this.taskAggregate.onCustomerCommand(savedCustomerEntity, Command.Action.REOPEN);
+    this.customerCache.evictAfterCommit(closeCustomerCommand.identifier());
 
     return closeCustomerCommand.identifier();
   }
@@ -319,26 +354,50 @@ public class CustomerAggregate {
     this.commandRepository.save(
         CommandMapper.create(savedCustomerEntity, Command.Action.REOPEN.name(), reopenCustomerCommand.comment())
     );
+    this.customerCache.evictAfterCommit(reopenCustomerCommand.identifier());
 
     return reopenCustomerCommand.identifier();
   }
 
+  @Transactional
+  @CommandHandler(logStart = CommandLogLevel.INFO, logFinish = CommandLogLevel.INFO)
+  @EventEmitter(selectorName = CustomerEventConstants.SELECTOR_NAME, selectorValue = CustomerEventConstants.BULK_CUSTOMER_COMMAND)
+  public CustomerCommandBatchEvent processBulkCommand(final BulkCustomerCommand bulkCustomerCommand) {
+    final CustomerTransition transition = bulkCustomerCommand.transition();
+    final String user = UserContextHolder.checkedGetUser();
+    final LocalDateTime now = LocalDateTime.now(Clock.systemUTC());
+
+    final List<Long> blockingTaskDefinitionIds = transition.blockedByOpenTasks()
+        ? this.taskAggregate.findMandatoryTaskDefinitionIds(transition.action().name())
+        : Collections.emptyList();
+
+    final Map<Long, String> changedCustomers = this.customerStateWriter.changeStates(
+        bulkCustomerCommand.customerIds(), transition.fromStates(), transition.toState(), blockingTaskDefinitionIds,
+        transition == CustomerTransition.ACTIVATE, user, now);
+
+    if (!changedCustomers.isEmpty()) {
+      this.customerStateWriter.insertCommands(changedCustomers.keySet(), transition.action().name(),
+          bulkCustomerCommand.comment(), user, now);
+      transition.followUpAction().ifPresent(followUpAction -> this.customerStateWriter.insertTaskInstances(
+          changedCustomers.keySet(), this.taskAggregate.findPredefinedTaskDefinitionIds(followUpAction)));
+      changedCustomers.values().forEach(this.customerCache::evictAfterCommit);
+    }
+
+    return new CustomerCommandBatchEvent(transition.action().name(), new ArrayList<>(changedCustomers.values()));
+  }
+
   @Transactional
   @CommandHandler
   @EventEmitter(selectorName = CustomerEventConstants.SELECTOR_NAME, selectorValue = CustomerEventConstants.PUT_ADDRESS)
   public String updateAddress(final UpdateAddressCommand updateAddressCommand) {
     final CustomerEntity customerEntity = findCustomerEntityOrThrow(updateAddressCommand.identifier());
-    customerEntity.setLastModifiedBy(UserContextHolder.checkedGetUser());
-    customerEntity.setLastModifiedOn(LocalDateTime.now(Clock.systemUTC()));
-
-    final AddressEntity oldAddressEntity = customerEntity.getAddress();
 
-    final AddressEntity newAddressEntity = this.addressRepository.save(AddressMapper.map(updateAddressCommand.address()));
-
-    customerEntity.setAddress(newAddressEntity);
-    this.customerRepository.save(customerEntity);
-
-    this.addressRepository.delete(oldAddressEntity);
+    if (this.applyAddress(customerEntity, updateAddressCommand.address())) {
+      customerEntity.setLastModifiedBy(UserContextHolder.checkedGetUser());
+      customerEntity.setLastModifiedOn(LocalDateTime.now(Clock.systemUTC()));
+      this.customerRepository.save(customerEntity);
+      this.customerCache.evictAfterCommit(updateAddressCommand.identifier());
+    }
 
     return updateAddressCommand.identifier();
   }
@@ -348,23 +407,12 @@ public class CustomerAggregate {
   @EventEmitter(selectorName = CustomerEventConstants.SELECTOR_NAME, selectorValue = CustomerEventConstants.PUT_CONTACT_DETAILS)
   public String updateContactDetails(final UpdateContactDetailsCommand updateContactDetailsCommand) {
     final CustomerEntity customerEntity = findCustomerEntityOrThrow(updateContactDetailsCommand.identifier());
-    customerEntity.setLastModifiedBy(UserContextHolder.checkedGetUser());
-    customerEntity.setLastModifiedOn(LocalDateTime.now(Clock.systemUTC()));
-
-    final List<ContactDetailEntity> oldContactDetails = this.contactDetailRepository.findByCustomer(customerEntity);
-    this.contactDetailRepository.delete(oldContactDetails);
 
-    if (updateContactDetailsCommand.contactDetails() != null) {
-      this.contactDetailRepository.save(
-          updateContactDetailsCommand.contactDetails()
-              .stream()
-              .map(contact -> {
-                final ContactDetailEntity newContactDetail = ContactDetailMapper.map(contact);
-                newContactDetail.setCustomer(customerEntity);
-                return newContactDetail;
-              })
-              .collect(Collectors.toList())
-      );
+    if (this.applyContactDetails(customerEntity, updateContactDetailsCommand.contactDetails())) {
+      customerEntity.setLastModifiedBy(UserContextHolder.checkedGetUser());
+      customerEntity.setLastModifiedOn(LocalDateTime.now(Clock.systemUTC()));
+      this.customerRepository.save(customerEntity);
+      this.customerCache.evictAfterCommit(updateContactDetailsCommand.identifier());
     }
 
     return updateContactDetailsCommand.identifier();
@@ -388,6 +436,7 @@ public class CustomerAggregate {
     customerEntity.setLastModifiedOn(LocalDateTime.now(Clock.systemUTC()));
 
     this.customerRepository.save(customerEntity);
+    this.customerCache.evictAfterCommit(customerEntity.getIdentifier());
 
     return identificationCardEntity.getNumber();
   }
@@ -415,6 +464,7 @@ public class CustomerAggregate {
       customerEntity.setLastModifiedOn(LocalDateTime.now(Clock.systemUTC()));
 
       this.customerRepository.save(customerEntity);
+      this.customerCache.evictAfterCommit(customerEntity.getIdentifier());
     });
 
     return updateIdentificationCardCommand.number();
@@ -440,6 +490,7 @@ public class CustomerAggregate {
       customerEntity.setLastModifiedOn(LocalDateTime.now(Clock.systemUTC()));
 
       this.customerRepository.save(customerEntity);
+      this.customerCache.evictAfterCommit(customerEntity.getIdentifier());
     });
 
     return deleteIdentificationCardCommand.number();
@@ -455,13 +506,14 @@ public class CustomerAggregate {
 
     final IdentificationCardScanEntity identificationCardScanEntity = IdentificationCardScanMapper.map(command.scan());
 
-    final MultipartFile image = command.image();
+    final ContentReference image = command.image();
+    this.imageVariantService.generateAfterCommit(image);
 
     final LocalDateTime now = LocalDateTime.now(Clock.systemUTC());
 
-    identificationCardScanEntity.setImage(image.getBytes());
-    identificationCardScanEntity.setContentType(image.getContentType());
-    identificationCardScanEntity.setSize(image.getSize());
+    identificationCardScanEntity.setContentKey(image.key());
+    identificationCardScanEntity.setContentType(image.contentType());
+    identificationCardScanEntity.setSize(image.size());
     identificationCardScanEntity.setIdentificationCard(cardEntity);
     identificationCardScanEntity.setCreatedBy(UserContextHolder.checkedGetUser());
     identificationCardScanEntity.setCreatedOn(now);
@@ -509,6 +561,8 @@ public class CustomerAggregate {
 
     final CustomerEntity customerEntity = findCustomerEntityOrThrow(createPortraitCommand.identifier());
 
+    this.imageVariantService.generateAfterCommit(createPortraitCommand.portrait());
+
     final PortraitEntity portraitEntity = PortraitMapper.map(createPortraitCommand.portrait());
     portraitEntity.setCustomer(customerEntity);
     this.portraitRepository.save(portraitEntity);
@@ -517,6 +571,7 @@ public class CustomerAggregate {
     customerEntity.setLastModifiedOn(LocalDateTime.now(Clock.systemUTC()));
 
     this.customerRepository.save(customerEntity);
+    this.customerCache.evictAfterCommit(createPortraitCommand.identifier());
 
     return createPortraitCommand.identifier();
   }
@@ -527,35 +582,118 @@ public class CustomerAggregate {
   public String deletePortrait(final DeletePortraitCommand deletePortraitCommand) throws IOException {
     final CustomerEntity customerEntity = findCustomerEntityOrThrow(deletePortraitCommand.identifier());
 
-    this.portraitRepository.deleteByCustomer(customerEntity);
+    final PortraitEntity portraitEntity = this.portraitRepository.findByCustomer(customerEntity);
+    if (portraitEntity != null) {
+      this.portraitRepository.delete(portraitEntity);
+    }
 
     customerEntity.setLastModifiedBy(UserContextHolder.checkedGetUser());
     customerEntity.setLastModifiedOn(LocalDateTime.now(Clock.systemUTC()));
 
     this.customerRepository.save(customerEntity);
+    this.customerCache.evictAfterCommit(deletePortraitCommand.identifier());
 
     return deletePortraitCommand.identifier();
   }
 
-  private void setCustomValues(final Customer customer, final CustomerEntity savedCustomerEntity) {
-    this.fieldValueRepository.save(
-        customer.getCustomValues()
+  private void setCustomValues(final Customer customer, final CustomerEntity customerEntity) {
+    final LinkedHashMap<Long, String> values = new LinkedHashMap<>(customer.getCustomValues().size());
+    customer.getCustomValues().forEach(value ->
+        values.put(this.fieldValueValidator.findField(value).getId(), value.getValue()));
+    this.fieldValueWriter.replace(customerEntity.getId(), values);
+  }
+
+  /**
+   * Updates the customer's address row in place; Hibernate only writes it if a column actually changed.
+   *
+   * @return true if the address changed
+   */
+  private boolean applyAddress(final CustomerEntity customerEntity, final Address address) {
+    final AddressEntity addressEntity = customerEntity.getAddress();
+    final AddressEntity newAddressEntity = AddressMapper.map(address);
+    if (Objects.equals(addressEntity.getStreet(), newAddressEntity.getStreet())
+        && Objects.equals(addressEntity.getCity(), newAddressEntity.getCity())
+        && Objects.equals(addressEntity.getPostalCode(), newAddressEntity.getPostalCode())
+        && Objects.equals(addressEntity.getRegion(), newAddressEntity.getRegion())
+        && Objects.equals(addressEntity.getCountryCode(), newAddressEntity.getCountryCode())
+        && Objects.equals(addressEntity.getCountry(), newAddressEntity.getCountry())) {
+      return false;
+    }
+
+    addressEntity.setStreet(newAddressEntity.getStreet());
+    addressEntity.setCity(newAddressEntity.getCity());
+    addressEntity.setPostalCode(newAddressEntity.getPostalCode());
+    addressEntity.setRegion(newAddressEntity.getRegion());
+    addressEntity.setCountryCode(newAddressEntity.getCountryCode());
+    addressEntity.setCountry(newAddressEntity.getCountry());
+    this.addressRepository.save(addressEntity);
+    return true;
+  }
+
+  /**
+   * Brings the customer's contact details in line with the given list. Rows equal to a given contact detail are kept
+   * as they are, remaining rows are reused for the remaining contact details, and only surplus rows are deleted or
+   * missing rows inserted.
+   *
+   * @return true if any contact detail changed
+   */
+  private boolean applyContactDetails(final CustomerEntity customerEntity, final List<ContactDetail> contactDetails) {
+    final List<ContactDetailEntity> unmatchedEntities =
+        new ArrayList<>(this.contactDetailRepository.findByCustomer(customerEntity));
+    final List<ContactDetailEntity> unmatchedContactDetails = new ArrayList<>();
+
+    if (contactDetails != null) {
+      contactDetails.forEach(contactDetail -> {
+        final ContactDetailEntity newContactDetailEntity = ContactDetailMapper.map(contactDetail);
+        final Optional<ContactDetailEntity> equalEntity = unmatchedEntities
             .stream()
-            .map(value -> {
-              final Optional<CatalogEntity> catalog =
-                  this.catalogRepository.findByIdentifier(value.getCatalogIdentifier());
-              final Optional<FieldEntity> field =
-                  this.fieldRepository.findByCatalogAndIdentifier(
-                      catalog.orElseThrow(() -> ServiceException.notFound("Catalog {0} not found.", value.getCatalogIdentifier())),
-                      value.getFieldIdentifier());
-              final FieldValueEntity fieldValueEntity = FieldValueMapper.map(value);
-              fieldValueEntity.setCustomer(savedCustomerEntity);
-              fieldValueEntity.setField(
-                  field.orElseThrow(() -> ServiceException.notFound("Field {0} not found.", value.getFieldIdentifier())));
-              return fieldValueEntity;
-            })
-            .collect(Collectors.toList())
-    );
+            .filter(contactDetailEntity -> CustomerAggregate.sameContactDetail(contactDetailEntity, newContactDetailEntity))
+            .findFirst();
+        if (equalEntity.isPresent()) {
+          unmatchedEntities.remove(equalEntity.get());
+        } else {
+          unmatchedContactDetails.add(newContactDetailEntity);
+        }
+      });
+    }
+
+    if (unmatchedEntities.isEmpty() && unmatchedContactDetails.isEmpty()) {
+      return false;
+    }
+
+    final Iterator<ContactDetailEntity> reusableEntities = unmatchedEntities.iterator();
+    final List<ContactDetailEntity> changedEntities = new ArrayList<>(unmatchedContactDetails.size());
+    unmatchedContactDetails.forEach(newContactDetailEntity -> {
+      if (reusableEntities.hasNext()) {
+        final ContactDetailEntity contactDetailEntity = reusableEntities.next();
+        contactDetailEntity.setType(newContactDetailEntity.getType());
+        contactDetailEntity.setGroup(newContactDetailEntity.getGroup());
+        contactDetailEntity.setValue(newContactDetailEntity.getValue());
+        contactDetailEntity.setPreferenceLevel(newContactDetailEntity.getPreferenceLevel());
+        contactDetailEntity.setValid(newContactDetailEntity.getValid());
+        reusableEntities.remove();
+        changedEntities.add(contactDetailEntity);
+      } else {
+        newContactDetailEntity.setCustomer(customerEntity);
+        changedEntities.add(newContactDetailEntity);
+      }
+    });
+
+    if (!unmatchedEntities.isEmpty()) {
+      this.contactDetailRepository.delete(unmatchedEntities);
+    }
+    if (!changedEntities.isEmpty()) {
+      this.contactDetailRepository.save(changedEntities);
+    }
+    return true;
+  }
+
+  private static boolean sameContactDetail(final ContactDetailEntity left, final ContactDetailEntity right) {
+    return Objects.equals(left.getType(), right.getType())
+        && Objects.equals(left.getGroup(), right.getGroup())
+        && Objects.equals(left.getValue(), right.getValue())
+        && Objects.equals(left.getPreferenceLevel(), right.getPreferenceLevel())
+        && Objects.equals(left.getValid(), right.getValid());
   }
 
   private CustomerEntity findCustomerEntityOrThrow(String identifier) {
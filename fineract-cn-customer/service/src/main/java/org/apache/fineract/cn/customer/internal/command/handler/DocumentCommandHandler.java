@@ -33,6 +33,7 @@ import org.apache.fineract.cn.customer.internal.repository.DocumentEntity;
 import org.apache.fineract.cn.customer.internal.repository.DocumentPageEntity;
 import org.apache.fineract.cn.customer.internal.repository.DocumentPageRepository;
 import org.apache.fineract.cn.customer.internal.repository.DocumentRepository;
+import org.apache.fineract.cn.customer.internal.service.ImageVariantService;
 import java.io.IOException;
 import java.time.Clock;
 import java.time.LocalDateTime;
@@ -52,15 +53,18 @@ public class DocumentCommandHandler {
   private final DocumentRepository documentRepository;
   private final DocumentPageRepository documentPageRepository;
   private final CustomerRepository customerRepository;
+  private final ImageVariantService imageVariantService;
 
   @Autowired
   public DocumentCommandHandler(
       final DocumentRepository documentRepository,
       final DocumentPageRepository documentPageRepository,
-      final CustomerRepository customerRepository) {
+      final CustomerRepository customerRepository,
+      final ImageVariantService imageVariantService) {
     this.documentRepository = documentRepository;
     this.documentPageRepository = documentPageRepository;
     this.customerRepository = customerRepository;
+    this.imageVariantService = imageVariantService;
   }
 
   @Transactional
@@ -72,6 +76,8 @@ public class DocumentCommandHandler {
         command.getDocumentIdentifier())
         .orElseThrow(() -> ServiceException.badRequest("Document not found"));
 
+    imageVariantService.generateAfterCommit(command.getDocument());
+
     final DocumentPageEntity documentPageEntity = DocumentMapper.map(command.getDocument(), command.getPageNumber(), documentEntity);
     documentPageRepository.save(documentPageEntity);
 
@@ -118,8 +124,7 @@ public class DocumentCommandHandler {
         .orElseThrow(() ->
             ServiceException.notFound("Document ''{0}'' for customer ''{1}'' not found",
                 command.getDocumentIdentifier(), command.getCustomerIdentifier()));
-    documentPageRepository.findByCustomerIdAndDocumentIdentifier(command.getCustomerIdentifier(), command.getDocumentIdentifier())
-        .forEach(documentPageRepository::delete);
+    documentPageRepository.deleteByDocument(existingDocument);
     documentRepository.delete(existingDocument);
 
     return new DocumentEvent(command.getCustomerIdentifier(), command.getDocumentIdentifier());
@@ -21,6 +21,7 @@ package org.apache.fineract.cn.customer.internal.command.handler;
 import org.apache.fineract.cn.customer.api.v1.CustomerEventConstants;
 import org.apache.fineract.cn.customer.ServiceConstants;
 import org.apache.fineract.cn.customer.internal.command.InitializeServiceCommand;
+import org.apache.fineract.cn.customer.internal.service.ContentMigration;
 import javax.sql.DataSource;
 import org.apache.fineract.cn.command.annotation.Aggregate;
 import org.apache.fineract.cn.command.annotation.CommandHandler;
@@ -39,15 +40,18 @@ public class MigrationAggregate {
   private final Logger logger;
   private final DataSource dataSource;
   private final FlywayFactoryBean flywayFactoryBean;
+  private final ContentMigration contentMigration;
 
   @Autowired
   public MigrationAggregate(@Qualifier(ServiceConstants.LOGGER_NAME) final Logger logger,
                             final DataSource dataSource,
-                            final FlywayFactoryBean flywayFactoryBean) {
+                            final FlywayFactoryBean flywayFactoryBean,
+                            final ContentMigration contentMigration) {
     super();
     this.logger = logger;
     this.dataSource = dataSource;
     this.flywayFactoryBean = flywayFactoryBean;
+    this.contentMigration = contentMigration;
   }
 
   @CommandHandler
@@ -55,6 +59,8 @@ public class MigrationAggregate {
   public String initialize(final InitializeServiceCommand initializeServiceCommand) {
     this.logger.debug("Start service migration.");
     this.flywayFactoryBean.create(this.dataSource).migrate();
+    this.logger.debug("Start content migration.");
+    this.contentMigration.migrate();
     return CustomerEventConstants.INITIALIZE;
   }
 }
\ No newline at end of file
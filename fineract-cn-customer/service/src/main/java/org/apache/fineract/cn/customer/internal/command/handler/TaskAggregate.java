@@ -33,12 +33,12 @@ import org.apache.fineract.cn.customer.internal.repository.TaskDefinitionEntity;
 import org.apache.fineract.cn.customer.internal.repository.TaskDefinitionRepository;
 import org.apache.fineract.cn.customer.internal.repository.TaskInstanceEntity;
 import org.apache.fineract.cn.customer.internal.repository.TaskInstanceRepository;
+import org.apache.fineract.cn.customer.internal.service.TaskDefinitionRegistry;
 import java.time.Clock;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
-import org.apache.commons.lang.StringUtils;
 import org.apache.fineract.cn.api.util.UserContextHolder;
 import org.apache.fineract.cn.command.annotation.Aggregate;
 import org.apache.fineract.cn.command.annotation.CommandHandler;
@@ -54,15 +54,18 @@ public class TaskAggregate {
   private final TaskDefinitionRepository taskDefinitionRepository;
   private final TaskInstanceRepository taskInstanceRepository;
   private final CustomerRepository customerRepository;
+  private final TaskDefinitionRegistry taskDefinitionRegistry;
 
   @Autowired
   public TaskAggregate(final TaskDefinitionRepository taskDefinitionRepository,
                        final TaskInstanceRepository taskInstanceRepository,
-                       final CustomerRepository customerRepository) {
+                       final CustomerRepository customerRepository,
+                       final TaskDefinitionRegistry taskDefinitionRegistry) {
     super();
     this.taskDefinitionRepository = taskDefinitionRepository;
     this.taskInstanceRepository = taskInstanceRepository;
     this.customerRepository = customerRepository;
+    this.taskDefinitionRegistry = taskDefinitionRegistry;
   }
 
   @Transactional
@@ -70,6 +73,7 @@ public class TaskAggregate {
   @EventEmitter(selectorName = CustomerEventConstants.SELECTOR_NAME, selectorValue = CustomerEventConstants.POST_TASK)
   public String createTaskDefinition(final CreateTaskDefinitionCommand createTaskDefinitionCommand) {
     this.taskDefinitionRepository.save(TaskDefinitionMapper.map(createTaskDefinitionCommand.taskDefinition()));
+    this.taskDefinitionRegistry.evictAfterCommit();
     return createTaskDefinitionCommand.taskDefinition().getIdentifier();
   }
 
@@ -82,11 +86,12 @@ public class TaskAggregate {
     final TaskDefinition updatedTaskDefinition = updateTaskDefinitionCommand.taskDefinition();
     taskDefinitionEntity.setName(updatedTaskDefinition.getName());
     taskDefinitionEntity.setDescription(updatedTaskDefinition.getDescription());
-    taskDefinitionEntity.setAssignedCommands(StringUtils.join(updatedTaskDefinition.getCommands(), ";"));
+    TaskDefinitionMapper.assignCommands(taskDefinitionEntity, updatedTaskDefinition.getCommands());
     taskDefinitionEntity.setMandatory(updatedTaskDefinition.getMandatory());
     taskDefinitionEntity.setPredefined(updatedTaskDefinition.getPredefined());
 
     this.taskDefinitionRepository.save(taskDefinitionEntity);
+    this.taskDefinitionRegistry.evictAfterCommit();
 
     return updatedTaskDefinition.getIdentifier();
   }
@@ -133,33 +138,41 @@ public class TaskAggregate {
 
   @Transactional
   public void onCustomerCommand(final CustomerEntity customerEntity, Command.Action action) {
-    final List<TaskDefinitionEntity> predefinedTasks =
-        this.taskDefinitionRepository.findByAssignedCommandsContaining(action.name());
-    if (predefinedTasks != null && predefinedTasks.size() > 0) {
+    final List<Long> predefinedTaskDefinitionIds = this.findPredefinedTaskDefinitionIds(action);
+    if (!predefinedTaskDefinitionIds.isEmpty()) {
       this.taskInstanceRepository.save(
-          predefinedTasks
+          predefinedTaskDefinitionIds
               .stream()
-              .filter(TaskDefinitionEntity::isPredefined)
+              .map(this.taskDefinitionRepository::getOne)
               .map(taskDefinitionEntity -> TaskInstanceMapper.create(taskDefinitionEntity, customerEntity))
               .collect(Collectors.toList())
       );
     }
   }
 
+  public List<Long> findPredefinedTaskDefinitionIds(final Command.Action action) {
+    return this.taskDefinitionRegistry.findByCommand(action.name())
+        .stream()
+        .filter(TaskDefinitionRegistry.Registration::predefined)
+        .map(TaskDefinitionRegistry.Registration::id)
+        .collect(Collectors.toList());
+  }
+
+  public List<Long> findMandatoryTaskDefinitionIds(final String command) {
+    return this.taskDefinitionRegistry.findByCommand(command)
+        .stream()
+        .filter(TaskDefinitionRegistry.Registration::mandatory)
+        .map(TaskDefinitionRegistry.Registration::id)
+        .collect(Collectors.toList());
+  }
+
   @Transactional
   public Boolean openTasksForCustomerExist(final CustomerEntity customerEntity, final String command) {
-    final List<TaskInstanceEntity> taskInstanceEntities = this.taskInstanceRepository.findByCustomer(customerEntity);
-
-    //noinspection SimplifiableIfStatement
-    if (taskInstanceEntities != null) {
-      return taskInstanceEntities
-          .stream()
-              .filter(taskInstanceEntity -> taskInstanceEntity.getTaskDefinition().getAssignedCommands().contains(command))
-              .filter(taskInstanceEntity -> taskInstanceEntity.getTaskDefinition().isMandatory())
-              .anyMatch(taskInstanceEntity -> taskInstanceEntity.getExecutedBy() == null);
-    } else {
+    final List<Long> mandatoryTaskDefinitionIds = this.findMandatoryTaskDefinitionIds(command);
+    if (mandatoryTaskDefinitionIds.isEmpty()) {
       return false;
     }
+    return this.taskInstanceRepository.existsOpenByCustomerIdAndTaskDefinitionIdIn(customerEntity.getId(), mandatoryTaskDefinitionIds);
   }
 
   private CustomerEntity findCustomerEntityOrThrow(String identifier) {
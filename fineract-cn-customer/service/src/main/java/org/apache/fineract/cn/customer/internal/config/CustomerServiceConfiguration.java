@@ -18,13 +18,25 @@
  */
 package org.apache.fineract.cn.customer.internal.config;
 
+import org.apache.fineract.cn.customer.internal.repository.ContentStore;
+import org.apache.fineract.cn.customer.internal.repository.FileSystemContentStore;
+import org.apache.fineract.cn.customer.internal.service.CustomerCacheInvalidationListener;
 import org.apache.fineract.cn.postgresql.config.EnablePostgreSQL;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jms.annotation.EnableJms;
+import org.springframework.jms.config.DefaultJmsListenerContainerFactory;
+
+import javax.jms.ConnectionFactory;
+import java.nio.file.Paths;
 
 @Configuration
 @EnablePostgreSQL
+@EnableJms
 @ComponentScan({
     "org.apache.fineract.cn.customer.internal.service",
     "org.apache.fineract.cn.customer.internal.repository",
@@ -39,4 +51,21 @@ public class CustomerServiceConfiguration {
     super();
   }
 
+  @Bean(name = CustomerCacheInvalidationListener.CONTAINER_FACTORY)
+  public DefaultJmsListenerContainerFactory customerCacheListenerContainerFactory(
+      final ConnectionFactory connectionFactory) {
+    final DefaultJmsListenerContainerFactory factory = new DefaultJmsListenerContainerFactory();
+    factory.setConnectionFactory(connectionFactory);
+    // events are published to topics, every node needs its own copy
+    factory.setPubSubDomain(Boolean.TRUE);
+    factory.setConcurrency("1");
+    return factory;
+  }
+
+  @Bean
+  @ConditionalOnMissingBean(ContentStore.class)
+  public ContentStore fileSystemContentStore(@Value("${customer.content.directory}") final String directory) {
+    return new FileSystemContentStore(Paths.get(directory).toAbsolutePath().normalize());
+  }
+
 }
@@ -22,12 +22,11 @@ import org.apache.fineract.cn.customer.api.v1.domain.CustomerDocument;
 import org.apache.fineract.cn.customer.internal.repository.CustomerEntity;
 import org.apache.fineract.cn.customer.internal.repository.DocumentEntity;
 import org.apache.fineract.cn.customer.internal.repository.DocumentPageEntity;
-import java.io.IOException;
+import org.apache.fineract.cn.customer.internal.service.ContentReference;
 import java.time.Clock;
 import java.time.LocalDateTime;
 import org.apache.fineract.cn.api.util.UserContextHolder;
 import org.apache.fineract.cn.lang.DateConverter;
-import org.springframework.web.multipart.MultipartFile;
 
 /**
  * @author Myrle Krantz
@@ -39,15 +38,15 @@ public class DocumentMapper {
 
 
   public static DocumentPageEntity map(
-      final MultipartFile multipartFile,
+      final ContentReference contentReference,
       final int pageNumber,
-      final DocumentEntity documentEntity) throws IOException {
+      final DocumentEntity documentEntity) {
     final DocumentPageEntity ret = new DocumentPageEntity();
     ret.setDocument(documentEntity);
     ret.setPageNumber(pageNumber);
-    ret.setImage(multipartFile.getBytes());
-    ret.setSize(multipartFile.getSize());
-    ret.setContentType(multipartFile.getContentType());
+    ret.setContentKey(contentReference.key());
+    ret.setSize(contentReference.size());
+    ret.setContentType(contentReference.contentType());
     return ret;
   }
 
@@ -19,9 +19,7 @@
 package org.apache.fineract.cn.customer.internal.mapper;
 
 import org.apache.fineract.cn.customer.internal.repository.PortraitEntity;
-import org.springframework.web.multipart.MultipartFile;
-
-import java.io.IOException;
+import org.apache.fineract.cn.customer.internal.service.ContentReference;
 
 public class PortraitMapper {
 
@@ -29,11 +27,11 @@ public class PortraitMapper {
     super();
   }
 
-  public static PortraitEntity map(final MultipartFile multipartFile) throws IOException {
+  public static PortraitEntity map(final ContentReference contentReference) {
     final PortraitEntity portraitEntity = new PortraitEntity();
-    portraitEntity.setImage(multipartFile.getBytes());
-    portraitEntity.setSize(multipartFile.getSize());
-    portraitEntity.setContentType(multipartFile.getContentType());
+    portraitEntity.setContentKey(contentReference.key());
+    portraitEntity.setSize(contentReference.size());
+    portraitEntity.setContentType(contentReference.contentType());
     return portraitEntity;
   }
 
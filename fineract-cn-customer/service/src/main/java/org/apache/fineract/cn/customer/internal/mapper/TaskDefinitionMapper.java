@@ -22,6 +22,8 @@ import org.apache.fineract.cn.customer.api.v1.domain.TaskDefinition;
 import org.apache.fineract.cn.customer.internal.repository.TaskDefinitionEntity;
 import org.apache.commons.lang.StringUtils;
 
+import java.util.Arrays;
+
 public final class TaskDefinitionMapper {
 
   private TaskDefinitionMapper() {
@@ -34,12 +36,26 @@ public final class TaskDefinitionMapper {
     taskDefinitionEntity.setType(taskDefinition.getType());
     taskDefinitionEntity.setName(taskDefinition.getName());
     taskDefinitionEntity.setDescription(taskDefinition.getDescription());
-    taskDefinitionEntity.setAssignedCommands(StringUtils.join(taskDefinition.getCommands(), ";"));
+    TaskDefinitionMapper.assignCommands(taskDefinitionEntity, taskDefinition.getCommands());
     taskDefinitionEntity.setMandatory(taskDefinition.getMandatory());
     taskDefinitionEntity.setPredefined(taskDefinition.getPredefined());
     return taskDefinitionEntity;
   }
 
+  /**
+   * Keeps the joined commands, which are returned to clients, and the command table, which open tasks are looked up
+   * by, in sync.
+   */
+  public static void assignCommands(final TaskDefinitionEntity taskDefinitionEntity, final String[] commands) {
+    taskDefinitionEntity.setAssignedCommands(StringUtils.join(commands, ";"));
+    taskDefinitionEntity.getCommands().clear();
+    if (commands != null) {
+      Arrays.stream(commands)
+          .filter(StringUtils::isNotEmpty)
+          .forEach(taskDefinitionEntity.getCommands()::add);
+    }
+  }
+
   public static TaskDefinition map(final TaskDefinitionEntity taskDefinitionEntity) {
     final TaskDefinition taskDefinition = new TaskDefinition();
     taskDefinition.setIdentifier(taskDefinitionEntity.getIdentifier());
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.internal.repository;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Stores binary content, portraits, identification card scans and document pages, outside of the database. Content is
+ * addressed by the hex encoded SHA-256 digest of its bytes, so storing the same bytes twice yields the same key and
+ * keeps a single copy. Implementations keep the content of every tenant apart.
+ *
+ * <p>Because rows share content, content is never removed when a row is deleted. Storing content marks it as recently
+ * stored, even if it was present already, and content which has not been stored for a while and is no longer
+ * referenced is swept away with {@link #deleteStale(String, Instant, Predicate)}.</p>
+ */
+public interface ContentStore {
+
+  /**
+   * Reads the given stream to its end and stores its bytes, marking them as stored now.
+   *
+   * @return the key of the stored content
+   */
+  String store(final InputStream content) throws IOException;
+
+  Optional<Resource> find(final String key);
+
+  /**
+   * Stores a variant derived from the content with the given key, e.g. a downscaled image, replacing an existing
+   * variant of the same name.
+   */
+  void storeVariant(final String key, final String variant, final InputStream content) throws IOException;
+
+  Optional<Resource> findVariant(final String key, final String variant);
+
+  /**
+   * Deletes the content with the given key together with all its variants.
+   */
+  void delete(final String key) throws IOException;
+
+  /**
+   * @return the identifiers of all tenants content has been stored for
+   */
+  List<String> tenants() throws IOException;
+
+  /**
+   * Hands the keys of the current tenant's content last stored before the given instant to the consumer, in chunks.
+   * Left-overs of interrupted uploads and sweeps are cleaned up on the way.
+   */
+  void forEachStale(final Instant storedBefore, final Consumer<List<String>> consumer) throws IOException;
+
+  /**
+   * Deletes the content with the given key together with all its variants, unless it was stored again at or after the
+   * given instant or is still in use. The check for both happens while the content is withdrawn, so content stored
+   * concurrently with the sweep survives it.
+   *
+   * @return whether the content was deleted
+   */
+  boolean deleteStale(final String key, final Instant storedBefore, final Predicate<String> inUse) throws IOException;
+}
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.internal.repository;
+
+import org.apache.fineract.cn.customer.api.v1.domain.Customer;
+import org.apache.fineract.cn.customer.catalog.internal.service.FieldValueValidator;
+import org.apache.fineract.cn.customer.internal.mapper.AddressMapper;
+import org.apache.fineract.cn.customer.internal.mapper.ContactDetailMapper;
+import org.apache.fineract.cn.customer.internal.mapper.CustomerMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes customers created by a bulk import with JDBC batch statements instead of one JPA persist per row. Primary
+ * keys are drawn from the BIGSERIAL sequences up front, so addresses, customers and their children can each be
+ * inserted with a single batch. Runs in the surrounding JPA transaction.
+ */
+@Repository
+public class CustomerBatchWriter {
+
+  private static final String INSERT_ADDRESS =
+      "INSERT INTO maat_addresses (id, street, city, postal_code, region, country_code, country) " +
+          "VALUES (?, ?, ?, ?, ?, ?, ?)";
+  private static final String INSERT_CUSTOMER =
+      "INSERT INTO maat_customers (id, identifier, a_type, given_name, middle_name, surname, date_of_birth, " +
+          "is_member, account_beneficiary, reference_customer, assigned_office, assigned_employee, current_state, " +
+          "address_id, application_date, created_by, created_on) " +
+          "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+  private static final String INSERT_CONTACT_DETAIL =
+      "INSERT INTO maat_contact_details (customer_id, a_type, a_group, a_value, preference_level, validated) " +
+          "VALUES (?, ?, ?, ?, ?, ?)";
+  private static final String INSERT_FIELD_VALUE =
+      "INSERT INTO nun_field_values (entity_id, field_id, a_value) VALUES (?, ?, ?)";
+  private static final String INSERT_TASK_INSTANCE =
+      "INSERT INTO maat_task_instances (task_definition_id, customer_id) VALUES (?, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  public CustomerBatchWriter(final DataSource dataSource) {
+    super();
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+  }
+
+  /**
+   * Inserts the given customers in state PENDING together with their address, contact details, custom values and an
+   * open instance of every given task definition.
+   *
+   * @param fieldIds field ids keyed by {@link FieldValueValidator#fieldKey(String, String)}
+   */
+  public void insert(final List<Customer> customers, final Map<String, Long> fieldIds,
+                     final List<Long> taskDefinitionIds) {
+    if (customers.isEmpty()) {
+      return;
+    }
+
+    final List<Long> addressIds = this.nextIds("maat_addresses_id_seq", customers.size());
+    final List<Long> customerIds = this.nextIds("maat_customers_id_seq", customers.size());
+
+    final List<Object[]> addresses = new ArrayList<>(customers.size());
+    final List<Object[]> customerRows = new ArrayList<>(customers.size());
+    final List<Object[]> contactDetails = new ArrayList<>();
+    final List<Object[]> fieldValues = new ArrayList<>();
+    final List<Object[]> taskInstances = new ArrayList<>();
+
+    for (int i = 0; i < customers.size(); i++) {
+      final Customer customer = customers.get(i);
+      final Long addressId = addressIds.get(i);
+      final Long customerId = customerIds.get(i);
+
+      final AddressEntity addressEntity = AddressMapper.map(customer.getAddress());
+      addresses.add(new Object[]{
+          addressId, addressEntity.getStreet(), addressEntity.getCity(), addressEntity.getPostalCode(),
+          addressEntity.getRegion(), addressEntity.getCountryCode(), addressEntity.getCountry()
+      });
+
+      final CustomerEntity customerEntity = CustomerMapper.map(customer);
+      customerRows.add(new Object[]{
+          customerId, customerEntity.getIdentifier(), customerEntity.getType(), customerEntity.getGivenName(),
+          customerEntity.getMiddleName(), customerEntity.getSurname(), customerEntity.getDateOfBirth(),
+          customerEntity.getMember(), customerEntity.getAccountBeneficiary(), customerEntity.getReferenceCustomer(),
+          customerEntity.getAssignedOffice(), customerEntity.getAssignedEmployee(), Customer.State.PENDING.name(),
+          addressId,
+          customerEntity.getApplicationDate() != null ? Date.valueOf(customerEntity.getApplicationDate()) : null,
+          customerEntity.getCreatedBy(), Timestamp.valueOf(customerEntity.getCreatedOn())
+      });
+
+      if (customer.getContactDetails() != null) {
+        customer.getContactDetails().forEach(contactDetail -> {
+          final ContactDetailEntity contactDetailEntity = ContactDetailMapper.map(contactDetail);
+          contactDetails.add(new Object[]{
+              customerId, contactDetailEntity.getType(), contactDetailEntity.getGroup(),
+              contactDetailEntity.getValue(), contactDetailEntity.getPreferenceLevel(), contactDetailEntity.getValid()
+          });
+        });
+      }
+
+      if (customer.getCustomValues() != null) {
+        customer.getCustomValues().forEach(value -> fieldValues.add(new Object[]{
+            customerId,
+            fieldIds.get(FieldValueValidator.fieldKey(value.getCatalogIdentifier(), value.getFieldIdentifier())),
+            value.getValue()
+        }));
+      }
+
+      taskDefinitionIds.forEach(taskDefinitionId -> taskInstances.add(new Object[]{taskDefinitionId, customerId}));
+    }
+
+    this.jdbcTemplate.batchUpdate(INSERT_ADDRESS, addresses);
+    this.jdbcTemplate.batchUpdate(INSERT_CUSTOMER, customerRows);
+    if (!contactDetails.isEmpty()) {
+      this.jdbcTemplate.batchUpdate(INSERT_CONTACT_DETAIL, contactDetails);
+    }
+    if (!fieldValues.isEmpty()) {
+      this.jdbcTemplate.batchUpdate(INSERT_FIELD_VALUE, fieldValues);
+    }
+    if (!taskInstances.isEmpty()) {
+      this.jdbcTemplate.batchUpdate(INSERT_TASK_INSTANCE, taskInstances);
+    }
+  }
+
+  private List<Long> nextIds(final String sequence, final int count) {
+    return this.jdbcTemplate.queryForList(
+        "SELECT nextval('" + sequence + "') FROM generate_series(1, ?)", Long.class, count);
+  }
+}
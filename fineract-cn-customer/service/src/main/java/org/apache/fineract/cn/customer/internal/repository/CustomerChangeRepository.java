@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.internal.repository;
+
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Reads customers in the order their changes were committed, backed by the transaction id every insert and update
+ * stamps on a customer and the index created in V14.
+ *
+ * <p>Transaction ids are handed out when a transaction starts, so a transaction may commit after another one with a
+ * higher id. Changes are therefore only read up to the oldest transaction still running: every transaction below it
+ * has ended, and every transaction yet to come gets a higher id.</p>
+ *
+ * <p>Transaction ids are shared by all databases of a PostgreSQL cluster. A long running transaction, or a session
+ * left idle in a transaction, anywhere on the cluster holds back the changes of every tenant on it until it ends,
+ * see {@link #findTxidHoldingBackChanges()}.</p>
+ */
+@Repository
+public class CustomerChangeRepository {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  public CustomerChangeRepository() {
+    super();
+  }
+
+  /**
+   * Finds up to {@code limit} customers changed after the given position by transactions which have ended.
+   */
+  @SuppressWarnings("unchecked")
+  public List<Change> findChangedAfter(final long changeTxid, final long customerId, final int limit) {
+    final Query query = this.entityManager.createNativeQuery(
+        "SELECT c.id, c.identifier, c.change_txid FROM maat_customers c" +
+            " WHERE (c.change_txid, c.id) > (:changeTxid, :customerId)" +
+            " AND c.change_txid < txid_snapshot_xmin(txid_current_snapshot())" +
+            " ORDER BY c.change_txid, c.id");
+    query.setParameter("changeTxid", changeTxid);
+    query.setParameter("customerId", customerId);
+    query.setMaxResults(limit);
+
+    return ((List<Object[]>) query.getResultList())
+        .stream()
+        .map(row -> new Change(((Number) row[0]).longValue(), (String) row[1], ((Number) row[2]).longValue()))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * @return the id of the oldest transaction still running on the cluster, if it holds back committed changes
+   */
+  @SuppressWarnings("unchecked")
+  public Optional<Long> findTxidHoldingBackChanges() {
+    final Query query = this.entityManager.createNativeQuery(
+        "SELECT txid_snapshot_xmin(s.snapshot) FROM (SELECT txid_current_snapshot() AS snapshot) s" +
+            " WHERE EXISTS (SELECT 1 FROM maat_customers c WHERE c.change_txid >= txid_snapshot_xmin(s.snapshot))");
+    return ((List<Number>) query.getResultList())
+        .stream()
+        .findFirst()
+        .map(Number::longValue);
+  }
+
+  public static class Change {
+
+    private final long customerId;
+    private final String identifier;
+    private final long changeTxid;
+
+    Change(final long customerId, final String identifier, final long changeTxid) {
+      super();
+      this.customerId = customerId;
+      this.identifier = identifier;
+      this.changeTxid = changeTxid;
+    }
+
+    public long customerId() {
+      return this.customerId;
+    }
+
+    public String identifier() {
+      return this.identifier;
+    }
+
+    public long changeTxid() {
+      return this.changeTxid;
+    }
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.internal.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.util.List;
+
+/**
+ * Reads customer listings without counting them. Pages after the first are found by seeking past the sort key of the
+ * last customer seen, which reads the same number of index entries no matter how deep the page is.
+ */
+@Repository
+public class CustomerListRepository {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  public CustomerListRepository() {
+    super();
+  }
+
+  /**
+   * Finds up to {@code limit} customers ordered by the given column and the id. If {@code lastValue} is given only
+   * customers sorting after {@code lastValue} and {@code lastId} are returned.
+   */
+  @SuppressWarnings("unchecked")
+  public List<CustomerEntity> find(final String excludedState,
+                                   final CustomerSortColumn sortColumn,
+                                   final Sort.Direction direction,
+                                   final String lastValue,
+                                   final Long lastId,
+                                   final int offset,
+                                   final int limit) {
+    final String comparison = direction == Sort.Direction.ASC ? " > " : " < ";
+    final String order = " " + direction.name();
+
+    final StringBuilder sql = new StringBuilder("SELECT c.* FROM maat_customers c WHERE 1 = 1");
+    if (excludedState != null) {
+      sql.append(" AND c.current_state <> :state");
+    }
+    if (lastValue != null) {
+      if (sortColumn.unique()) {
+        sql.append(" AND c.").append(sortColumn.column()).append(comparison).append(":lastValue");
+      } else {
+        sql.append(" AND (c.").append(sortColumn.column()).append(", c.id)").append(comparison)
+            .append("(:lastValue, :lastId)");
+      }
+    }
+    sql.append(" ORDER BY c.").append(sortColumn.column()).append(order).append(", c.id").append(order);
+
+    final Query query = this.entityManager.createNativeQuery(sql.toString(), CustomerEntity.class);
+    if (excludedState != null) {
+      query.setParameter("state", excludedState);
+    }
+    if (lastValue != null) {
+      query.setParameter("lastValue", lastValue);
+      if (!sortColumn.unique()) {
+        query.setParameter("lastId", lastId);
+      }
+    }
+    query.setFirstResult(offset);
+    query.setMaxResults(limit);
+    return query.getResultList();
+  }
+}
@@ -25,6 +25,9 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -33,13 +36,22 @@ public interface CustomerRepository extends JpaRepository<CustomerEntity, Long>
   @Query("SELECT CASE WHEN COUNT(c) > 0 THEN 'true' ELSE 'false' END FROM CustomerEntity c WHERE c.identifier = :identifier")
   Boolean existsByIdentifier(@Param("identifier") final String identifier);
 
-  Page<CustomerEntity> findByIdentifierContainingOrGivenNameContainingOrSurnameContaining(
-      final String identifier, final String givenName, final String surname, final Pageable pageable);
-
   Optional<CustomerEntity> findByIdentifier(final String identifier);
 
-  Page<CustomerEntity> findByCurrentStateNot(final String state, final Pageable pageable);
+  @Query("SELECT c FROM CustomerEntity c JOIN FETCH c.address WHERE c.identifier = :identifier")
+  Optional<CustomerEntity> findWithAddressByIdentifier(@Param("identifier") final String identifier);
+
+  @Query("SELECT c FROM CustomerEntity c JOIN FETCH c.address WHERE c.identifier IN :identifiers")
+  List<CustomerEntity> findWithAddressByIdentifierIn(@Param("identifiers") final Collection<String> identifiers);
 
-  Page<CustomerEntity> findByCurrentStateNotAndIdentifierContainingOrGivenNameContainingOrSurnameContaining(
-      final String state, final String identifier, final String givenName, final String surname, final Pageable pageable);
+  /**
+   * Reads only the modification time of a customer, falling back to its creation time for customers never changed.
+   */
+  @Query(value = "SELECT COALESCE(c.last_modified_on, c.created_on) FROM maat_customers c WHERE c.identifier = :identifier", nativeQuery = true)
+  Optional<Timestamp> findLastModifiedByIdentifier(@Param("identifier") final String identifier);
+
+  @Query("SELECT c.identifier FROM CustomerEntity c WHERE c.identifier IN :identifiers")
+  List<String> findIdentifiersByIdentifierIn(@Param("identifiers") final Collection<String> identifiers);
+
+  Page<CustomerEntity> findByCurrentStateNot(final String state, final Pageable pageable);
 }
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.internal.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.util.List;
+
+/**
+ * Customer search backed by the trigram index created in V10, matching is case- and accent-insensitive and results
+ * are ranked by similarity to the search term. Customers as similar as each other are ordered by the sort of the
+ * requested page, by identifier if it has none.
+ */
+@Repository
+public class CustomerSearchRepository {
+
+  private static final String SEARCH_TEXT = "maat_search_normalize(c.identifier || ' ' || c.given_name || ' ' || c.surname)";
+  private static final String SEARCH_PREDICATE =
+      " WHERE " + SEARCH_TEXT + " LIKE '%' || maat_search_normalize(:pattern) || '%'";
+  private static final String EXCLUDE_STATE = " AND c.current_state <> :state";
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  public CustomerSearchRepository() {
+    super();
+  }
+
+  @SuppressWarnings("unchecked")
+  public Page<CustomerEntity> search(final String term, final String excludedState, final Pageable pageable) {
+    final String predicate = SEARCH_PREDICATE + (excludedState != null ? EXCLUDE_STATE : "");
+
+    final Query searchQuery = this.entityManager.createNativeQuery(
+        "SELECT c.* FROM maat_customers c" + predicate +
+            " ORDER BY similarity(" + SEARCH_TEXT + ", maat_search_normalize(:term)) DESC" +
+            CustomerSearchRepository.tieBreakers(pageable.getSort()),
+        CustomerEntity.class);
+    this.bind(searchQuery, term, excludedState);
+    searchQuery.setParameter("term", term);
+    searchQuery.setFirstResult(pageable.getOffset());
+    searchQuery.setMaxResults(pageable.getPageSize());
+    final List<CustomerEntity> customerEntities = searchQuery.getResultList();
+
+    final long total;
+    if (pageable.getOffset() == 0 && customerEntities.size() < pageable.getPageSize()) {
+      total = customerEntities.size();
+    } else {
+      final Query countQuery = this.entityManager.createNativeQuery(
+          "SELECT COUNT(*) FROM maat_customers c" + predicate);
+      this.bind(countQuery, term, excludedState);
+      total = ((Number) countQuery.getSingleResult()).longValue();
+    }
+
+    return new PageImpl<>(customerEntities, pageable, total);
+  }
+
+  private void bind(final Query query, final String term, final String excludedState) {
+    query.setParameter("pattern", CustomerSearchRepository.escapeLike(term));
+    if (excludedState != null) {
+      query.setParameter("state", excludedState);
+    }
+  }
+
+  private static String tieBreakers(final Sort sort) {
+    if (sort == null) {
+      return ", c.identifier ASC";
+    }
+    final StringBuilder tieBreakers = new StringBuilder();
+    sort.forEach(order -> {
+      // properties become part of the statement, only known columns are accepted
+      final String column = order.getProperty().equals("id")
+          ? "id"
+          : CustomerSortColumn.ofProperty(order.getProperty())
+              .map(CustomerSortColumn::column)
+              .orElseThrow(() -> new IllegalArgumentException("Customers can not be sorted by " + order.getProperty() + "."));
+      tieBreakers.append(", c.").append(column).append(' ').append(order.getDirection().name());
+    });
+    return tieBreakers.toString();
+  }
+
+  private static String escapeLike(final String term) {
+    return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.internal.repository;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * The columns customer listings can be sorted by. Each is backed by an index ending in the id, see V13, so both
+ * offset and keyset pages are read in index order instead of sorting the whole table.
+ */
+public enum CustomerSortColumn {
+
+  IDENTIFIER("identifier", "identifier", true),
+  SURNAME("surname", "surname", false),
+  GIVEN_NAME("givenName", "given_name", false);
+
+  private final String property;
+  private final String column;
+  private final boolean unique;
+
+  CustomerSortColumn(final String property, final String column, final boolean unique) {
+    this.property = property;
+    this.column = column;
+    this.unique = unique;
+  }
+
+  public static Optional<CustomerSortColumn> ofProperty(final String property) {
+    return Arrays.stream(CustomerSortColumn.values())
+        .filter(sortColumn -> sortColumn.property.equals(property))
+        .findFirst();
+  }
+
+  public String property() {
+    return this.property;
+  }
+
+  public String column() {
+    return this.column;
+  }
+
+  public boolean unique() {
+    return this.unique;
+  }
+
+  public String valueOf(final CustomerEntity customerEntity) {
+    switch (this) {
+      case SURNAME:
+        return customerEntity.getSurname();
+      case GIVEN_NAME:
+        return customerEntity.getGivenName();
+      default:
+        return customerEntity.getIdentifier();
+    }
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.internal.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Selects customers and changes their state set-wise for bulk commands, with one statement per batch instead of one
+ * aggregate load and save per customer. Runs in the surrounding JPA transaction.
+ */
+@Repository
+public class CustomerStateWriter {
+
+  private static final String INSERT_COMMAND =
+      "INSERT INTO maat_commands (customer_id, a_type, a_comment, created_by, created_on) " +
+          "VALUES (:customerId, :action, :comment, :createdBy, :createdOn)";
+  private static final String INSERT_TASK_INSTANCE =
+      "INSERT INTO maat_task_instances (task_definition_id, customer_id) VALUES (:taskDefinitionId, :customerId)";
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  @Autowired
+  public CustomerStateWriter(final DataSource dataSource) {
+    super();
+    this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+  }
+
+  /**
+   * Finds up to {@code limit} customers in one of the given states with an id greater than {@code afterId}, ordered
+   * by id. Filters which are null are not applied.
+   *
+   * @return identifiers keyed by customer id
+   */
+  public Map<Long, String> findCandidates(final Collection<String> states,
+                                          final Collection<String> identifiers,
+                                          final String assignedOffice,
+                                          final LocalDateTime lastModifiedBefore,
+                                          final long afterId,
+                                          final int limit) {
+    final StringBuilder sql = new StringBuilder(
+        "SELECT id, identifier FROM maat_customers WHERE current_state IN (:states) AND id > :afterId");
+    final MapSqlParameterSource parameters = new MapSqlParameterSource()
+        .addValue("states", states)
+        .addValue("afterId", afterId)
+        .addValue("limit", limit);
+
+    if (identifiers != null) {
+      sql.append(" AND identifier IN (:identifiers)");
+      parameters.addValue("identifiers", identifiers);
+    }
+    if (assignedOffice != null) {
+      sql.append(" AND assigned_office = :assignedOffice");
+      parameters.addValue("assignedOffice", assignedOffice);
+    }
+    if (lastModifiedBefore != null) {
+      sql.append(" AND COALESCE(last_modified_on, created_on) < :lastModifiedBefore");
+      parameters.addValue("lastModifiedBefore", Timestamp.valueOf(lastModifiedBefore));
+    }
+    sql.append(" ORDER BY id LIMIT :limit");
+
+    final Map<Long, String> candidates = new LinkedHashMap<>();
+    this.jdbcTemplate.query(sql.toString(), parameters,
+        resultSet -> {
+          candidates.put(resultSet.getLong("id"), resultSet.getString("identifier"));
+        });
+    return candidates;
+  }
+
+  /**
+   * Moves the given customers which are still in one of the allowed states, and have no open instance of the given
+   * task definitions, to the new state. Checking and changing the state in one statement keeps concurrent commands
+   * from slipping in between.
+   *
+   * @return identifiers of the changed customers keyed by customer id
+   */
+  public Map<Long, String> changeStates(final Collection<Long> customerIds,
+                                        final Collection<String> fromStates,
+                                        final String toState,
+                                        final Collection<Long> blockingTaskDefinitionIds,
+                                        final boolean setApplicationDate,
+                                        final String user,
+                                        final LocalDateTime now) {
+    final StringBuilder sql = new StringBuilder(
+        "UPDATE maat_customers c SET current_state = :toState, last_modified_by = :user, last_modified_on = :now");
+    final MapSqlParameterSource parameters = new MapSqlParameterSource()
+        .addValue("toState", toState)
+        .addValue("user", user)
+        .addValue("now", Timestamp.valueOf(now))
+        .addValue("customerIds", customerIds)
+        .addValue("fromStates", fromStates);
+
+    if (setApplicationDate) {
+      sql.append(", application_date = COALESCE(c.application_date, :today)");
+      parameters.addValue("today", Date.valueOf(now.toLocalDate()));
+    }
+    sql.append(" WHERE c.id IN (:customerIds) AND c.current_state IN (:fromStates)");
+    if (!blockingTaskDefinitionIds.isEmpty()) {
+      sql.append(" AND NOT EXISTS (SELECT 1 FROM maat_task_instances i WHERE i.customer_id = c.id" +
+          " AND i.executed_by IS NULL AND i.task_definition_id IN (:taskDefinitionIds))");
+      parameters.addValue("taskDefinitionIds", blockingTaskDefinitionIds);
+    }
+    sql.append(" RETURNING c.id, c.identifier");
+
+    final Map<Long, String> changed = new LinkedHashMap<>();
+    this.jdbcTemplate.query(sql.toString(), parameters,
+        resultSet -> {
+          changed.put(resultSet.getLong("id"), resultSet.getString("identifier"));
+        });
+    return changed;
+  }
+
+  public void insertCommands(final Collection<Long> customerIds, final String action, final String comment,
+                             final String user, final LocalDateTime now) {
+    final Timestamp createdOn = Timestamp.valueOf(now);
+    final List<MapSqlParameterSource> commands = new ArrayList<>(customerIds.size());
+    customerIds.forEach(customerId -> commands.add(new MapSqlParameterSource()
+        .addValue("customerId", customerId)
+        .addValue("action", action)
+        .addValue("comment", comment)
+        .addValue("createdBy", user)
+        .addValue("createdOn", createdOn)));
+    this.jdbcTemplate.batchUpdate(INSERT_COMMAND, commands.toArray(new MapSqlParameterSource[commands.size()]));
+  }
+
+  public void insertTaskInstances(final Collection<Long> customerIds, final Collection<Long> taskDefinitionIds) {
+    final List<MapSqlParameterSource> taskInstances = new ArrayList<>();
+    customerIds.forEach(customerId -> taskDefinitionIds.forEach(taskDefinitionId -> taskInstances.add(
+        new MapSqlParameterSource()
+            .addValue("taskDefinitionId", taskDefinitionId)
+            .addValue("customerId", customerId))));
+    if (!taskInstances.isEmpty()) {
+      this.jdbcTemplate.batchUpdate(INSERT_TASK_INSTANCE,
+          taskInstances.toArray(new MapSqlParameterSource[taskInstances.size()]));
+    }
+  }
+}
@@ -19,7 +19,6 @@
 package org.apache.fineract.cn.customer.internal.repository;
 
 import javax.persistence.*;
-import java.util.Arrays;
 import java.util.Objects;
 
 /**
@@ -47,9 +46,8 @@ public class DocumentPageEntity {
   @Column(name = "size")
   private Long size;
 
-  @Lob
-  @Column(name = "image")
-  private byte[] image;
+  @Column(name = "content_key")
+  private String contentKey;
 
   public DocumentPageEntity() {
   }
@@ -95,12 +93,12 @@ public class DocumentPageEntity {
     this.size = size;
   }
 
-  public byte[] getImage() {
-    return image;
+  public String getContentKey() {
+    return this.contentKey;
   }
 
-  public void setImage(byte[] image) {
-    this.image = image;
+  public void setContentKey(final String contentKey) {
+    this.contentKey = contentKey;
   }
 
   @Override
@@ -125,7 +123,7 @@ public class DocumentPageEntity {
         ", pageNumber=" + pageNumber +
         ", contentType='" + contentType + '\'' +
         ", size=" + size +
-        ", image=" + Arrays.toString(image) +
+        ", contentKey='" + contentKey + '\'' +
         '}';
   }
 }
@@ -19,12 +19,13 @@
 package org.apache.fineract.cn.customer.internal.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
-import java.util.stream.Stream;
 
 /**
  * @author Myrle Krantz
@@ -35,7 +36,23 @@ public interface DocumentPageRepository extends JpaRepository<DocumentPageEntity
   Optional<DocumentPageEntity> findByCustomerIdAndDocumentIdentifierAndPageNumber(
       @Param("customerIdentifier") String customerIdentifier, @Param("documentIdentifier") String documentIdentifier, @Param("pageNumber") Integer pageNumber);
 
-  @Query("SELECT d FROM DocumentPageEntity d WHERE d.document.customer.identifier = :customerIdentifier AND d.document.identifier = :documentIdentifier")
-  Stream<DocumentPageEntity> findByCustomerIdAndDocumentIdentifier(
+  @Query("SELECT d.pageNumber FROM DocumentPageEntity d WHERE d.document.customer.identifier = :customerIdentifier AND d.document.identifier = :documentIdentifier ORDER BY d.pageNumber")
+  List<Integer> findPageNumbersByCustomerIdAndDocumentIdentifier(
       @Param("customerIdentifier") String customerIdentifier, @Param("documentIdentifier") String documentIdentifier);
+
+  @Query("SELECT d FROM DocumentPageEntity d WHERE d.document.customer.identifier = :customerIdentifier AND d.document.identifier = :documentIdentifier ORDER BY d.pageNumber")
+  List<DocumentPageEntity> findByCustomerIdAndDocumentIdentifierOrderByPageNumber(
+      @Param("customerIdentifier") String customerIdentifier, @Param("documentIdentifier") String documentIdentifier);
+
+  /**
+   * Page numbers are unique per document and start at 0, so pages are missing exactly if their count differs from the
+   * highest page number plus one.
+   */
+  @Query("SELECT CASE WHEN COUNT(d) = COALESCE(MAX(d.pageNumber), -1) + 1 THEN false ELSE true END FROM DocumentPageEntity d WHERE d.document.customer.identifier = :customerIdentifier AND d.document.identifier = :documentIdentifier")
+  Boolean isMissingPagesByCustomerIdAndDocumentIdentifier(
+      @Param("customerIdentifier") String customerIdentifier, @Param("documentIdentifier") String documentIdentifier);
+
+  @Modifying
+  @Query("DELETE FROM DocumentPageEntity d WHERE d.document = :document")
+  int deleteByDocument(@Param("document") DocumentEntity document);
 }
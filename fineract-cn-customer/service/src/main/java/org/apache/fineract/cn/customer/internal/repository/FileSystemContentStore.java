@@ -0,0 +1,329 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.internal.repository;
+
+import org.apache.fineract.cn.lang.TenantContextHolder;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * {@link ContentStore} keeping every piece of content in its own file below
+ * {@code <root>/<tenant>/<first two key characters>/<key>}. Content is streamed into a temporary file next to its
+ * final location while it is hashed and then moved into place atomically. Variants are kept next to their content as
+ * {@code <key>.<variant>}.
+ *
+ * <p>The modification time of a file tells when its content was last stored. Sweeping content renames its file to a
+ * tombstone first, so a concurrent store either touched the file before and the sweep sees it, or finds no file to
+ * touch and moves its own copy into place.</p>
+ */
+public class FileSystemContentStore implements ContentStore {
+
+  private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}");
+  private static final Pattern VARIANT_PATTERN = Pattern.compile("[a-z]+");
+  private static final String TEMPORARY_PREFIX = ".upload-";
+  private static final String TOMBSTONE_PREFIX = ".deleting-";
+  private static final int CHUNK_SIZE = 500;
+
+  private final Path root;
+
+  public FileSystemContentStore(final Path root) {
+    super();
+    this.root = root;
+  }
+
+  @Override
+  public String store(final InputStream content) throws IOException {
+    final Path tenantDirectory = this.tenantDirectory();
+    Files.createDirectories(tenantDirectory);
+
+    final Path temporaryFile = Files.createTempFile(tenantDirectory, TEMPORARY_PREFIX, null);
+    try {
+      final MessageDigest digest = FileSystemContentStore.sha256();
+      try (final DigestInputStream digestInputStream = new DigestInputStream(content, digest)) {
+        FileSystemContentStore.copy(digestInputStream, temporaryFile);
+      }
+
+      final String key = FileSystemContentStore.toHex(digest.digest());
+      final Path file = this.file(key);
+      if (!FileSystemContentStore.touch(file)) {
+        Files.createDirectories(file.getParent());
+        try {
+          Files.move(temporaryFile, file, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final FileAlreadyExistsException ex) {
+          // stored concurrently, the content is the same
+        }
+      }
+      return key;
+    } finally {
+      Files.deleteIfExists(temporaryFile);
+    }
+  }
+
+  @Override
+  public void storeVariant(final String key, final String variant, final InputStream content) throws IOException {
+    final Path file = this.variantFile(key, variant);
+    Files.createDirectories(file.getParent());
+
+    final Path temporaryFile = Files.createTempFile(file.getParent(), TEMPORARY_PREFIX, null);
+    try {
+      FileSystemContentStore.copy(content, temporaryFile);
+      Files.move(temporaryFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(temporaryFile);
+    }
+  }
+
+  @Override
+  public Optional<Resource> find(final String key) {
+    final Path file = this.file(key);
+    if (!Files.isRegularFile(file)) {
+      return Optional.empty();
+    }
+    return Optional.of(new FileSystemResource(file.toFile()));
+  }
+
+  @Override
+  public Optional<Resource> findVariant(final String key, final String variant) {
+    final Path file = this.variantFile(key, variant);
+    if (!Files.isRegularFile(file)) {
+      return Optional.empty();
+    }
+    return Optional.of(new FileSystemResource(file.toFile()));
+  }
+
+  @Override
+  public void delete(final String key) throws IOException {
+    final Path file = this.file(key);
+    Files.deleteIfExists(file);
+    FileSystemContentStore.deleteVariants(file, key);
+  }
+
+  @Override
+  public List<String> tenants() throws IOException {
+    final List<String> tenants = new ArrayList<>();
+    if (!Files.isDirectory(this.root)) {
+      return tenants;
+    }
+    try (final DirectoryStream<Path> directories = Files.newDirectoryStream(this.root, Files::isDirectory)) {
+      for (final Path directory : directories) {
+        tenants.add(directory.getFileName().toString());
+      }
+    }
+    return tenants;
+  }
+
+  @Override
+  public void forEachStale(final Instant storedBefore, final Consumer<List<String>> consumer) throws IOException {
+    final Path tenantDirectory = this.tenantDirectory();
+    if (!Files.isDirectory(tenantDirectory)) {
+      return;
+    }
+
+    try (final DirectoryStream<Path> entries = Files.newDirectoryStream(tenantDirectory)) {
+      for (final Path entry : entries) {
+        if (Files.isDirectory(entry)) {
+          FileSystemContentStore.forEachStale(entry, storedBefore, consumer);
+        } else if (entry.getFileName().toString().startsWith(TEMPORARY_PREFIX)
+            && FileSystemContentStore.isStale(entry, storedBefore)) {
+          Files.deleteIfExists(entry);
+        }
+      }
+    }
+  }
+
+  @Override
+  public boolean deleteStale(final String key, final Instant storedBefore, final Predicate<String> inUse)
+      throws IOException {
+    final Path file = this.file(key);
+    final Path tombstone = file.resolveSibling(TOMBSTONE_PREFIX + key);
+    try {
+      Files.move(file, tombstone, StandardCopyOption.ATOMIC_MOVE);
+    } catch (final NoSuchFileException ex) {
+      return false;
+    }
+
+    boolean stale = false;
+    try {
+      stale = FileSystemContentStore.isStale(tombstone, storedBefore) && !inUse.test(key);
+    } finally {
+      if (!stale) {
+        FileSystemContentStore.restore(tombstone, file);
+      }
+    }
+    if (!stale) {
+      return false;
+    }
+
+    Files.deleteIfExists(tombstone);
+    // a store since the rename put the content back, its variants are still good
+    if (!Files.exists(file)) {
+      FileSystemContentStore.deleteVariants(file, key);
+    }
+    return true;
+  }
+
+  private Path variantFile(final String key, final String variant) {
+    if (variant == null || !VARIANT_PATTERN.matcher(variant).matches()) {
+      throw new IllegalArgumentException("Invalid variant " + variant);
+    }
+    final Path file = this.file(key);
+    return file.resolveSibling(key + "." + variant);
+  }
+
+  private Path file(final String key) {
+    if (key == null || !KEY_PATTERN.matcher(key).matches()) {
+      throw new IllegalArgumentException("Invalid content key " + key);
+    }
+    return this.tenantDirectory().resolve(key.substring(0, 2)).resolve(key);
+  }
+
+  private Path tenantDirectory() {
+    final String tenant = TenantContextHolder.checkedGetIdentifier();
+    final Path tenantDirectory = this.root.resolve(tenant).normalize();
+    if (!tenantDirectory.startsWith(this.root) || tenantDirectory.equals(this.root)) {
+      throw new IllegalStateException("Invalid tenant " + tenant);
+    }
+    return tenantDirectory;
+  }
+
+  private static void forEachStale(final Path shard, final Instant storedBefore, final Consumer<List<String>> consumer)
+      throws IOException {
+    List<String> keys = new ArrayList<>();
+    try (final DirectoryStream<Path> files = Files.newDirectoryStream(shard)) {
+      for (final Path file : files) {
+        final String name = file.getFileName().toString();
+        if (name.startsWith(TOMBSTONE_PREFIX)) {
+          // left behind by an interrupted sweep, the next sweep decides again
+          FileSystemContentStore.restore(file, file.resolveSibling(name.substring(TOMBSTONE_PREFIX.length())));
+        } else if (name.startsWith(TEMPORARY_PREFIX)) {
+          if (FileSystemContentStore.isStale(file, storedBefore)) {
+            Files.deleteIfExists(file);
+          }
+        } else if (KEY_PATTERN.matcher(name).matches()) {
+          if (FileSystemContentStore.isStale(file, storedBefore)) {
+            keys.add(name);
+          }
+          if (keys.size() == CHUNK_SIZE) {
+            consumer.accept(keys);
+            keys = new ArrayList<>();
+          }
+        } else if (name.indexOf('.') > 0
+            && !Files.exists(file.resolveSibling(name.substring(0, name.indexOf('.'))))
+            && FileSystemContentStore.isStale(file, storedBefore)) {
+          // variant rendered while its content got swept
+          Files.deleteIfExists(file);
+        }
+      }
+    }
+    if (!keys.isEmpty()) {
+      consumer.accept(keys);
+    }
+  }
+
+  private static void deleteVariants(final Path file, final String key) throws IOException {
+    if (Files.isDirectory(file.getParent())) {
+      try (final DirectoryStream<Path> variants = Files.newDirectoryStream(file.getParent(), key + ".*")) {
+        for (final Path variant : variants) {
+          Files.deleteIfExists(variant);
+        }
+      }
+    }
+  }
+
+  /**
+   * @return false if there is no file to touch
+   */
+  private static boolean touch(final Path file) throws IOException {
+    try {
+      Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+      return true;
+    } catch (final NoSuchFileException ex) {
+      return false;
+    }
+  }
+
+  /**
+   * Puts withdrawn content back in place as if it was stored now, a store which had already moved a fresh copy into
+   * place must not end up with an older modification time.
+   */
+  private static void restore(final Path tombstone, final Path file) throws IOException {
+    if (FileSystemContentStore.touch(tombstone)) {
+      try {
+        Files.move(tombstone, file, StandardCopyOption.ATOMIC_MOVE);
+      } catch (final NoSuchFileException ex) {
+        // restored concurrently
+      }
+    }
+  }
+
+  private static boolean isStale(final Path file, final Instant storedBefore) throws IOException {
+    try {
+      return Files.getLastModifiedTime(file).toInstant().isBefore(storedBefore);
+    } catch (final NoSuchFileException ex) {
+      return false;
+    }
+  }
+
+  private static void copy(final InputStream content, final Path target) throws IOException {
+    try (final OutputStream outputStream = Files.newOutputStream(target)) {
+      final byte[] buffer = new byte[8192];
+      int read;
+      while ((read = content.read(buffer)) != -1) {
+        outputStream.write(buffer, 0, read);
+      }
+    }
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (final NoSuchAlgorithmException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  private static String toHex(final byte[] bytes) {
+    final StringBuilder hex = new StringBuilder(bytes.length * 2);
+    for (final byte b : bytes) {
+      hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+    }
+    return hex.toString();
+  }
+}
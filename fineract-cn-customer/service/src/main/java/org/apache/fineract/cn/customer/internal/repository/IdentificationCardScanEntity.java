@@ -27,7 +27,6 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
-import javax.persistence.Lob;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 import org.apache.fineract.cn.postgresql.util.LocalDateTimeConverter;
@@ -44,9 +43,8 @@ public class IdentificationCardScanEntity {
   private String identifier;
   @Column(name = "description")
   private String description;
-  @Lob
-  @Column(name = "image")
-  private byte[] image;
+  @Column(name = "content_key")
+  private String contentKey;
   @Column(name = "size")
   private Long size;
   @Column(name = "content_type")
@@ -88,12 +86,12 @@ public class IdentificationCardScanEntity {
     this.description = description;
   }
 
-  public byte[] getImage() {
-    return image;
+  public String getContentKey() {
+    return this.contentKey;
   }
 
-  public void setImage(byte[] image) {
-    this.image = image;
+  public void setContentKey(final String contentKey) {
+    this.contentKey = contentKey;
   }
 
   public Long getSize() {
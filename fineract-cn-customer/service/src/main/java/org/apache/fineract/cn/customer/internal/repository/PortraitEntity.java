@@ -25,7 +25,6 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
-import javax.persistence.Lob;
 import javax.persistence.OneToOne;
 import javax.persistence.Table;
 
@@ -42,9 +41,8 @@ public class PortraitEntity {
   @JoinColumn(name = "customer_id")
   private CustomerEntity customer;
 
-  @Lob
-  @Column(name = "image")
-  private byte[] image;
+  @Column(name = "content_key")
+  private String contentKey;
 
   @Column(name = "size")
   private Long size;
@@ -72,12 +70,12 @@ public class PortraitEntity {
     this.customer = customer;
   }
 
-  public byte[] getImage() {
-    return image;
+  public String getContentKey() {
+    return this.contentKey;
   }
 
-  public void setImage(byte[] image) {
-    this.image = image;
+  public void setContentKey(final String contentKey) {
+    this.contentKey = contentKey;
   }
 
   public Long getSize() {
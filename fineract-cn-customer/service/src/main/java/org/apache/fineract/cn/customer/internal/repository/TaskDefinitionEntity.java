@@ -18,12 +18,17 @@
  */
 package org.apache.fineract.cn.customer.internal.repository;
 
+import javax.persistence.CollectionTable;
 import javax.persistence.Column;
+import javax.persistence.ElementCollection;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.JoinColumn;
 import javax.persistence.Table;
+import java.util.HashSet;
+import java.util.Set;
 
 @Entity
 @Table(name = "maat_task_definitions")
@@ -43,6 +48,10 @@ public class TaskDefinitionEntity {
   private String description;
   @Column(name = "assigned_commands")
   private String assignedCommands;
+  @ElementCollection
+  @CollectionTable(name = "maat_task_definition_commands", joinColumns = @JoinColumn(name = "task_definition_id"))
+  @Column(name = "a_command")
+  private Set<String> commands = new HashSet<>();
   @Column(name = "mandatory")
   private Boolean mandatory;
   @Column(name = "predefined")
@@ -100,6 +109,14 @@ public class TaskDefinitionEntity {
     this.assignedCommands = assignedCommands;
   }
 
+  public Set<String> getCommands() {
+    return this.commands;
+  }
+
+  public void setCommands(final Set<String> commands) {
+    this.commands = commands;
+  }
+
   public Boolean isMandatory() {
     return this.mandatory;
   }
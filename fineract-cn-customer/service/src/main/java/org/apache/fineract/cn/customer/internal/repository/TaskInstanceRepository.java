@@ -19,8 +19,11 @@
 package org.apache.fineract.cn.customer.internal.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -30,4 +33,16 @@ public interface TaskInstanceRepository extends JpaRepository<TaskInstanceEntity
 
   List<TaskInstanceEntity> findByCustomerAndTaskDefinition(final CustomerEntity customer,
                                                            final TaskDefinitionEntity taskDefinitionEntity);
+
+  @Query(value = "SELECT EXISTS (SELECT 1 FROM maat_task_instances " +
+      "WHERE customer_id = :customerId AND executed_by IS NULL AND task_definition_id IN (:taskDefinitionIds))",
+      nativeQuery = true)
+  Boolean existsOpenByCustomerIdAndTaskDefinitionIdIn(@Param("customerId") final Long customerId,
+                                                      @Param("taskDefinitionIds") final Collection<Long> taskDefinitionIds);
+
+  /**
+   * Task definition ids of the customer's open tasks, once per open task.
+   */
+  @Query("SELECT i.taskDefinition.id FROM TaskInstanceEntity i WHERE i.customer = :customer AND i.executedBy IS NULL")
+  List<Long> findOpenTaskDefinitionIdsByCustomer(@Param("customer") final CustomerEntity customer);
 }
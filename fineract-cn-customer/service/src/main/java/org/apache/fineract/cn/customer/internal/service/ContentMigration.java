@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.internal.service;
+
+import org.apache.fineract.cn.customer.ServiceConstants;
+import org.apache.fineract.cn.customer.internal.repository.ContentStore;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Moves image content still stored in the database into the {@link ContentStore}. Rows are migrated one at a time
+ * and every row is committed on its own, so the migration can be interrupted and run again at any point.
+ */
+@Service
+public class ContentMigration {
+
+  private static final String[] TABLES = {
+      "maat_portraits",
+      "maat_identification_card_scans",
+      "maat_document_pages"
+  };
+  private static final int BATCH_SIZE = 100;
+
+  private final Logger logger;
+  private final ContentStore contentStore;
+  private final JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  public ContentMigration(@Qualifier(ServiceConstants.LOGGER_NAME) final Logger logger,
+                          final ContentStore contentStore,
+                          final DataSource dataSource) {
+    super();
+    this.logger = logger;
+    this.contentStore = contentStore;
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+  }
+
+  public void migrate() {
+    for (final String table : TABLES) {
+      long migrated = 0L;
+      long lastId = 0L;
+      List<Long> ids;
+      do {
+        ids = this.jdbcTemplate.queryForList(
+            "SELECT id FROM " + table + " WHERE content_key IS NULL AND id > ? ORDER BY id LIMIT ?",
+            Long.class, lastId, BATCH_SIZE);
+        for (final Long id : ids) {
+          this.migrate(table, id);
+          lastId = id;
+        }
+        migrated += ids.size();
+      } while (ids.size() == BATCH_SIZE);
+
+      if (migrated > 0L) {
+        this.logger.info("Moved content of {} rows of {} to the content store.", migrated, table);
+      }
+    }
+  }
+
+  private void migrate(final String table, final Long id) {
+    final String contentKey = this.jdbcTemplate.query(
+        "SELECT image FROM " + table + " WHERE id = ? AND image IS NOT NULL",
+        resultSet -> {
+          if (!resultSet.next()) {
+            return null;
+          }
+          try (final InputStream content = resultSet.getBinaryStream(1)) {
+            return this.contentStore.store(content);
+          } catch (final IOException ex) {
+            throw new IllegalStateException("Could not store content of " + table + " " + id + ".", ex);
+          }
+        },
+        id);
+
+    if (contentKey != null) {
+      this.jdbcTemplate.update("UPDATE " + table + " SET content_key = ?, image = NULL WHERE id = ?", contentKey, id);
+    }
+  }
+}
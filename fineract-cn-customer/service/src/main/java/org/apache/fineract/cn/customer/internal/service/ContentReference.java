@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.internal.service;
+
+/**
+ * Reference to content already written to the {@link org.apache.fineract.cn.customer.internal.repository.ContentStore},
+ * passed through commands instead of the uploaded bytes.
+ */
+public class ContentReference {
+
+  private final String key;
+  private final String contentType;
+  private final Long size;
+
+  public ContentReference(final String key, final String contentType, final Long size) {
+    super();
+    this.key = key;
+    this.contentType = contentType;
+    this.size = size;
+  }
+
+  public String key() {
+    return this.key;
+  }
+
+  public String contentType() {
+    return this.contentType;
+  }
+
+  public Long size() {
+    return this.size;
+  }
+
+  @Override
+  public String toString() {
+    return "ContentReference{" +
+        "key='" + key + '\'' +
+        ", contentType='" + contentType + '\'' +
+        ", size=" + size +
+        '}';
+  }
+}
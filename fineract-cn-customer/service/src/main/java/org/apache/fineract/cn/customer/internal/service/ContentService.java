@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.internal.service;
+
+import org.apache.fineract.cn.customer.internal.repository.ContentStore;
+import org.apache.fineract.cn.lang.ServiceException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Stages uploads in the {@link ContentStore} and loads the content rows refer to. Content is never removed along with
+ * the rows referencing it, identical content shares one key and another row may just be about to reference it; the
+ * {@link ContentSweeper} removes content once no row has referenced it for a while.
+ */
+@Service
+public class ContentService {
+
+  private final ContentStore contentStore;
+
+  @Autowired
+  public ContentService(final ContentStore contentStore) {
+    super();
+    this.contentStore = contentStore;
+  }
+
+  /**
+   * Streams an upload into the content store before its command is queued, so only the returned reference has to be
+   * kept in memory. The upload is read from the part the servlet container already spooled to disk. Nothing has to be
+   * cleaned up if the command fails, its content is left unreferenced and swept once the grace period passed.
+   */
+  public ContentReference stage(final MultipartFile file) throws IOException {
+    try (final InputStream content = file.getInputStream()) {
+      return new ContentReference(this.contentStore.store(content), file.getContentType(), file.getSize());
+    }
+  }
+
+  public Resource load(final String key) {
+    return this.contentStore.find(key)
+        .orElseThrow(() -> ServiceException.internalError("Content {0} is missing.", key));
+  }
+}
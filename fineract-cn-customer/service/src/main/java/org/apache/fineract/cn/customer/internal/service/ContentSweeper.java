@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.internal.service;
+
+import org.apache.fineract.cn.customer.ServiceConstants;
+import org.apache.fineract.cn.customer.internal.repository.ContentStore;
+import org.apache.fineract.cn.lang.AutoTenantContext;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Removes content no row references anymore from the {@link ContentStore}. Only content which has not been stored for
+ * the grace period is considered: a row may reference content staged before it is written, so the grace period has to
+ * exceed the time a command takes from staging its upload to committing.
+ */
+@Service
+public class ContentSweeper {
+
+  private static final String REFERENCED =
+      "SELECT content_key FROM maat_portraits WHERE content_key IN (:keys) " +
+          "UNION SELECT content_key FROM maat_identification_card_scans WHERE content_key IN (:keys) " +
+          "UNION SELECT content_key FROM maat_document_pages WHERE content_key IN (:keys)";
+
+  private final Logger logger;
+  private final ContentStore contentStore;
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+  private final long sweepIntervalInMinutes;
+  private final Duration gracePeriod;
+  private final ScheduledExecutorService scheduler;
+
+  @Autowired
+  public ContentSweeper(@Qualifier(ServiceConstants.LOGGER_NAME) final Logger logger,
+                        final ContentStore contentStore,
+                        final DataSource dataSource,
+                        @Value("${customer.content.sweepIntervalInMinutes:60}") final long sweepIntervalInMinutes,
+                        @Value("${customer.content.gracePeriodInMinutes:60}") final long gracePeriodInMinutes) {
+    super();
+    this.logger = logger;
+    this.contentStore = contentStore;
+    this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    this.sweepIntervalInMinutes = sweepIntervalInMinutes;
+    this.gracePeriod = Duration.ofMinutes(gracePeriodInMinutes);
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      final Thread thread = new Thread(runnable, "customer-content-sweeper");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void startSweeping() {
+    this.scheduler.scheduleWithFixedDelay(
+        this::sweep, this.sweepIntervalInMinutes, this.sweepIntervalInMinutes, TimeUnit.MINUTES);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    this.scheduler.shutdownNow();
+  }
+
+  public void sweep() {
+    final List<String> tenants;
+    try {
+      tenants = this.contentStore.tenants();
+    } catch (final IOException ex) {
+      this.logger.warn("Could not list the tenants of the content store.", ex);
+      return;
+    }
+
+    final Instant storedBefore = Instant.now().minus(this.gracePeriod);
+    for (final String tenant : tenants) {
+      try (final AutoTenantContext ignored = new AutoTenantContext(tenant)) {
+        this.sweep(storedBefore);
+      } catch (final Exception ex) {
+        this.logger.warn("Could not sweep content of tenant {}.", tenant, ex);
+      }
+    }
+  }
+
+  /**
+   * Removes the current tenant's content which was last stored before the given instant and is not referenced.
+   *
+   * @return the number of removed pieces of content
+   */
+  public long sweep(final Instant storedBefore) throws IOException {
+    final AtomicLong removed = new AtomicLong();
+    this.contentStore.forEachStale(storedBefore, keys -> {
+      final Set<String> referenced = this.findReferenced(keys);
+      for (final String key : keys) {
+        if (referenced.contains(key)) {
+          continue;
+        }
+        try {
+          if (this.contentStore.deleteStale(key, storedBefore,
+              candidate -> !this.findReferenced(Collections.singletonList(candidate)).isEmpty())) {
+            removed.incrementAndGet();
+          }
+        } catch (final IOException ex) {
+          this.logger.warn("Could not remove content {}.", key, ex);
+        }
+      }
+    });
+
+    if (removed.get() > 0L) {
+      this.logger.info("Removed {} pieces of unreferenced content.", removed.get());
+    }
+    return removed.get();
+  }
+
+  Set<String> findReferenced(final List<String> keys) {
+    return new HashSet<>(this.jdbcTemplate.queryForList(
+        REFERENCED, new MapSqlParameterSource("keys", keys), String.class));
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.internal.service;
+
+import org.apache.fineract.cn.customer.ServiceConstants;
+import org.apache.fineract.cn.customer.api.v1.domain.Command;
+import org.apache.fineract.cn.customer.api.v1.domain.CustomerBulkCommand;
+import org.apache.fineract.cn.customer.api.v1.domain.CustomerBulkCommandResult;
+import org.apache.fineract.cn.customer.api.v1.events.CustomerCommandBatchEvent;
+import org.apache.fineract.cn.customer.internal.command.BulkCustomerCommand;
+import org.apache.fineract.cn.customer.internal.repository.CustomerStateWriter;
+import org.apache.fineract.cn.command.gateway.CommandGateway;
+import org.apache.fineract.cn.lang.ServiceException;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies a customer command to many customers at once, either to a list of identifiers or to every customer matching
+ * a filter. Customers are selected by keyset and changed in batches of {@link #BATCH_SIZE}, each in its own
+ * transaction, so a large run neither holds one long transaction nor loads every customer. Customers which are not in
+ * a state the command applies to, or which still have open mandatory tasks, are skipped and reported.
+ */
+@Service
+public class CustomerBulkCommandService {
+
+  public static final int BATCH_SIZE = 500;
+  public static final int MAX_IDENTIFIERS = 10000;
+
+  private final Logger logger;
+  private final CommandGateway commandGateway;
+  private final CustomerStateWriter customerStateWriter;
+
+  @Autowired
+  public CustomerBulkCommandService(@Qualifier(ServiceConstants.LOGGER_NAME) final Logger logger,
+                                    final CommandGateway commandGateway,
+                                    final CustomerStateWriter customerStateWriter) {
+    super();
+    this.logger = logger;
+    this.commandGateway = commandGateway;
+    this.customerStateWriter = customerStateWriter;
+  }
+
+  public CustomerBulkCommandResult process(final CustomerBulkCommand customerBulkCommand) {
+    final CustomerTransition transition = this.transitionOf(customerBulkCommand.getAction());
+    final LocalDateTime lastModifiedBefore = this.parseDate(customerBulkCommand.getLastModifiedBefore());
+    final List<String> identifiers = customerBulkCommand.getIdentifiers();
+
+    if (identifiers == null && customerBulkCommand.getAssignedOffice() == null && lastModifiedBefore == null) {
+      throw ServiceException.badRequest("Identifiers or at least one filter must be given.");
+    }
+    if (identifiers != null && identifiers.size() > MAX_IDENTIFIERS) {
+      throw ServiceException.badRequest("At most {0} identifiers can be given.", MAX_IDENTIFIERS);
+    }
+
+    final CustomerBulkCommandResult result = new CustomerBulkCommandResult();
+    result.setAction(transition.action().name());
+    result.setApplied(0L);
+    result.setSkipped(new ArrayList<>());
+
+    if (identifiers != null) {
+      final List<String> distinctIdentifiers = new ArrayList<>(new LinkedHashSet<>(identifiers));
+      for (int from = 0; from < distinctIdentifiers.size(); from += BATCH_SIZE) {
+        final List<String> chunk =
+            distinctIdentifiers.subList(from, Math.min(from + BATCH_SIZE, distinctIdentifiers.size()));
+        final Map<Long, String> candidates = this.customerStateWriter.findCandidates(transition.fromStates(), chunk,
+            customerBulkCommand.getAssignedOffice(), lastModifiedBefore, 0L, BATCH_SIZE);
+        final Set<String> applied = this.processBatch(transition, customerBulkCommand.getComment(), candidates);
+        chunk.stream().filter(identifier -> !applied.contains(identifier)).forEach(result.getSkipped()::add);
+        result.setApplied(result.getApplied() + applied.size());
+      }
+    } else {
+      long afterId = 0L;
+      Map<Long, String> candidates;
+      do {
+        candidates = this.customerStateWriter.findCandidates(transition.fromStates(), null,
+            customerBulkCommand.getAssignedOffice(), lastModifiedBefore, afterId, BATCH_SIZE);
+        if (candidates.isEmpty()) {
+          break;
+        }
+        final Set<String> applied = this.processBatch(transition, customerBulkCommand.getComment(), candidates);
+        candidates.values().stream().filter(identifier -> !applied.contains(identifier))
+            .forEach(result.getSkipped()::add);
+        result.setApplied(result.getApplied() + applied.size());
+        afterId = Collections.max(candidates.keySet());
+      } while (candidates.size() == BATCH_SIZE);
+    }
+
+    return result;
+  }
+
+  private Set<String> processBatch(final CustomerTransition transition, final String comment,
+                                   final Map<Long, String> candidates) {
+    if (candidates.isEmpty()) {
+      return Collections.emptySet();
+    }
+    try {
+      final CustomerCommandBatchEvent event = this.commandGateway.process(
+          new BulkCustomerCommand(transition, comment, new ArrayList<>(candidates.keySet())),
+          CustomerCommandBatchEvent.class).get();
+      return new HashSet<>(event.getIdentifiers());
+    } catch (final Exception ex) {
+      this.logger.warn("Could not apply {} to batch of {} customers.", transition.action(), candidates.size(), ex);
+      return Collections.emptySet();
+    }
+  }
+
+  private CustomerTransition transitionOf(final String action) {
+    try {
+      return CustomerTransition.of(Command.Action.valueOf(action));
+    } catch (final IllegalArgumentException ex) {
+      throw ServiceException.badRequest("Unsupported action {0}.", action);
+    }
+  }
+
+  private LocalDateTime parseDate(final String date) {
+    if (date == null) {
+      return null;
+    }
+    try {
+      return LocalDate.parse(date).atStartOfDay();
+    } catch (final DateTimeParseException ex) {
+      throw ServiceException.badRequest("Date {0} is not a valid ISO date.", date);
+    }
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.internal.service;
+
+import com.google.gson.Gson;
+import org.apache.fineract.cn.customer.api.v1.domain.Customer;
+import org.apache.fineract.cn.customer.internal.util.CacheGenerations;
+import org.apache.fineract.cn.lang.TenantContextHolder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded, per tenant cache of mapped customers. Customers are kept serialized, every hit hands out a copy
+ * the caller is free to modify.
+ */
+@Component
+public class CustomerCache {
+
+  private final int maxSize;
+  private final long expiryInMillis;
+  private final ConcurrentHashMap<String, Map<String, CachedCustomer>> tenantCaches;
+  private final CacheGenerations generations;
+  private final Gson gson;
+
+  @Autowired
+  public CustomerCache(@Value("${customer.cache.maxSize:10000}") final int maxSize,
+                       @Value("${customer.cache.expiryInSeconds:300}") final long expiryInSeconds) {
+    super();
+    this.maxSize = maxSize;
+    this.expiryInMillis = TimeUnit.SECONDS.toMillis(expiryInSeconds);
+    this.tenantCaches = new ConcurrentHashMap<>();
+    this.generations = new CacheGenerations();
+    this.gson = new Gson();
+  }
+
+  /**
+   * Must be read before loading a customer, {@link #put} drops the value if an eviction of the tenant happened in
+   * between.
+   */
+  public long generation() {
+    return this.generations.current(TenantContextHolder.checkedGetIdentifier());
+  }
+
+  public Optional<Customer> get(final String identifier) {
+    final CachedCustomer cachedCustomer = this.tenantCache(TenantContextHolder.checkedGetIdentifier()).get(identifier);
+    if (cachedCustomer == null || cachedCustomer.expiresAt < System.currentTimeMillis()) {
+      return Optional.empty();
+    }
+    return Optional.of(this.gson.fromJson(cachedCustomer.customer, Customer.class));
+  }
+
+  public void put(final String identifier, final Customer customer, final long loadedAtGeneration) {
+    if (this.maxSize < 1) {
+      return;
+    }
+    final String tenantIdentifier = TenantContextHolder.checkedGetIdentifier();
+    final Map<String, CachedCustomer> tenantCache = this.tenantCache(tenantIdentifier);
+    final String serializedCustomer = this.gson.toJson(customer);
+    synchronized (tenantCache) {
+      if (this.generations.isCurrent(tenantIdentifier, loadedAtGeneration)) {
+        tenantCache.put(identifier, new CachedCustomer(serializedCustomer, System.currentTimeMillis() + this.expiryInMillis));
+      }
+    }
+  }
+
+  public void evict(final String tenantIdentifier, final String identifier) {
+    this.generations.advance(tenantIdentifier);
+    final Map<String, CachedCustomer> tenantCache = this.tenantCaches.get(tenantIdentifier);
+    if (tenantCache != null) {
+      tenantCache.remove(identifier);
+    }
+  }
+
+  public void evictAll(final String tenantIdentifier) {
+    this.generations.advance(tenantIdentifier);
+    this.tenantCaches.remove(tenantIdentifier);
+  }
+
+  public void evictAfterCommit(final String identifier) {
+    CacheGenerations.afterCommit(tenantIdentifier -> this.evict(tenantIdentifier, identifier));
+  }
+
+  private Map<String, CachedCustomer> tenantCache(final String tenantIdentifier) {
+    return this.tenantCaches.computeIfAbsent(tenantIdentifier, key -> Collections.synchronizedMap(
+        new LinkedHashMap<String, CachedCustomer>(16, 0.75F, true) {
+          @Override
+          protected boolean removeEldestEntry(final Map.Entry<String, CachedCustomer> eldest) {
+            return this.size() > CustomerCache.this.maxSize;
+          }
+        }));
+  }
+
+  private static class CachedCustomer {
+    private final String customer;
+    private final long expiresAt;
+
+    private CachedCustomer(final String customer, final long expiresAt) {
+      super();
+      this.customer = customer;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.internal.service;
+
+import com.google.gson.Gson;
+import org.apache.fineract.cn.customer.api.v1.CustomerEventConstants;
+import org.apache.fineract.cn.customer.api.v1.events.CustomerCommandBatchEvent;
+import org.apache.fineract.cn.customer.catalog.api.v1.CatalogEventConstants;
+import org.apache.fineract.cn.lang.config.TenantHeaderFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jms.annotation.JmsListener;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the {@link CustomerCache} of every node in sync by listening to the events emitted by the command handlers.
+ */
+@Component
+public class CustomerCacheInvalidationListener {
+
+  public static final String CONTAINER_FACTORY = "customerCacheListenerContainerFactory";
+
+  private static final String SELECTOR_CUSTOMER_CHANGED = CustomerEventConstants.SELECTOR_NAME + " IN ('" +
+      String.join("', '",
+          CustomerEventConstants.PUT_CUSTOMER,
+          CustomerEventConstants.ACTIVATE_CUSTOMER,
+          CustomerEventConstants.LOCK_CUSTOMER,
+          CustomerEventConstants.UNLOCK_CUSTOMER,
+          CustomerEventConstants.CLOSE_CUSTOMER,
+          CustomerEventConstants.REOPEN_CUSTOMER,
+          CustomerEventConstants.PUT_ADDRESS,
+          CustomerEventConstants.PUT_CONTACT_DETAILS,
+          CustomerEventConstants.POST_PORTRAIT,
+          CustomerEventConstants.DELETE_PORTRAIT) + "')";
+
+  private static final String SELECTOR_IDENTIFICATION_CARD_CHANGED = CustomerEventConstants.SELECTOR_NAME + " IN ('" +
+      String.join("', '",
+          CustomerEventConstants.POST_IDENTIFICATION_CARD,
+          CustomerEventConstants.PUT_IDENTIFICATION_CARD,
+          CustomerEventConstants.DELETE_IDENTIFICATION_CARD) + "')";
+
+  private static final String SELECTOR_FIELD_CHANGED = CatalogEventConstants.SELECTOR_NAME + " IN ('" +
+      String.join("', '",
+          CatalogEventConstants.DELETE_CATALOG,
+          CatalogEventConstants.DELETE_FIELD,
+          CatalogEventConstants.PUT_FIELD) + "')";
+
+  private final CustomerCache customerCache;
+  private final Gson gson;
+
+  @Autowired
+  public CustomerCacheInvalidationListener(final CustomerCache customerCache) {
+    super();
+    this.customerCache = customerCache;
+    this.gson = new Gson();
+  }
+
+  @JmsListener(
+      destination = CustomerEventConstants.DESTINATION,
+      selector = SELECTOR_CUSTOMER_CHANGED,
+      containerFactory = CONTAINER_FACTORY
+  )
+  public void onCustomerChanged(@Header(TenantHeaderFilter.TENANT_HEADER) final String tenant,
+                                final String payload) {
+    this.customerCache.evict(tenant, this.gson.fromJson(payload, String.class));
+  }
+
+  @JmsListener(
+      destination = CustomerEventConstants.DESTINATION,
+      selector = CustomerEventConstants.SELECTOR_BULK_CUSTOMER_COMMAND,
+      containerFactory = CONTAINER_FACTORY
+  )
+  public void onCustomerBatchChanged(@Header(TenantHeaderFilter.TENANT_HEADER) final String tenant,
+                                     final String payload) {
+    this.gson.fromJson(payload, CustomerCommandBatchEvent.class).getIdentifiers()
+        .forEach(identifier -> this.customerCache.evict(tenant, identifier));
+  }
+
+  // the payload is the card number, the owning customer is unknown once the card is deleted
+  @JmsListener(
+      destination = CustomerEventConstants.DESTINATION,
+      selector = SELECTOR_IDENTIFICATION_CARD_CHANGED,
+      containerFactory = CONTAINER_FACTORY
+  )
+  public void onIdentificationCardChanged(@Header(TenantHeaderFilter.TENANT_HEADER) final String tenant) {
+    this.customerCache.evictAll(tenant);
+  }
+
+  @JmsListener(
+      destination = CatalogEventConstants.DESTINATION,
+      selector = SELECTOR_FIELD_CHANGED,
+      containerFactory = CONTAINER_FACTORY
+  )
+  public void onFieldChanged(@Header(TenantHeaderFilter.TENANT_HEADER) final String tenant) {
+    this.customerCache.evictAll(tenant);
+  }
+}
@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.internal.service;
+
+import org.apache.fineract.cn.customer.ServiceConstants;
+import org.apache.fineract.cn.customer.api.v1.domain.CustomerChanges;
+import org.apache.fineract.cn.customer.internal.repository.CustomerChangeRepository;
+import org.apache.fineract.cn.customer.internal.util.ContinuationToken;
+import org.apache.fineract.cn.lang.AutoTenantContext;
+import org.apache.fineract.cn.lang.TenantContextHolder;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Hands out the customers changed since a watermark, in the order the changes were committed, so that other services
+ * can keep a copy in sync without re-reading every customer. A watermark never moves past a change which is yet to
+ * become visible, see {@link CustomerChangeRepository}.
+ *
+ * <p>Callers may wait for changes instead of polling. Waiting requests fetch again once a customer event of their
+ * tenant has been received, and keep fetching every {@code customer.changes.settleTimeInMillis} while a transaction
+ * still running holds the change back.</p>
+ *
+ * <p>The oldest running transaction of the database cluster bounds every watermark, so a session left open in a
+ * transaction stalls the feed of all tenants on the cluster. A warning is logged once the same transaction held back
+ * the changes for longer than {@code customer.changes.stallWarningInSeconds}.</p>
+ */
+@Service
+public class CustomerChangeFeed {
+
+  public static final int MAX_WAIT_SECONDS = 30;
+
+  private static final long MIN_REFETCH_DELAY_IN_MILLIS = 50L;
+
+  private final Logger logger;
+  private final CustomerChangeRepository customerChangeRepository;
+  private final CustomerService customerService;
+  private final long settleTimeInMillis;
+  private final long stallWarningInMillis;
+  private final ConcurrentHashMap<String, HeldBack> heldBackChanges;
+  private final ConcurrentHashMap<String, Set<Runnable>> waitingRequests;
+  private final ScheduledExecutorService scheduler;
+
+  @Autowired
+  public CustomerChangeFeed(@Qualifier(ServiceConstants.LOGGER_NAME) final Logger logger,
+                            final CustomerChangeRepository customerChangeRepository,
+                            final CustomerService customerService,
+                            @Value("${customer.changes.settleTimeInMillis:1000}") final long settleTimeInMillis,
+                            @Value("${customer.changes.stallWarningInSeconds:60}") final long stallWarningInSeconds) {
+    super();
+    this.logger = logger;
+    this.customerChangeRepository = customerChangeRepository;
+    this.customerService = customerService;
+    this.settleTimeInMillis = settleTimeInMillis;
+    this.stallWarningInMillis = TimeUnit.SECONDS.toMillis(stallWarningInSeconds);
+    this.heldBackChanges = new ConcurrentHashMap<>();
+    this.waitingRequests = new ConcurrentHashMap<>();
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      final Thread thread = new Thread(runnable, "customer-change-feed");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  public CustomerChanges fetchChanges(final String since, final int size) {
+    long changeTxid = -1L;
+    long customerId = 0L;
+    if (since != null) {
+      final List<String> keys = ContinuationToken.decode(since, 2);
+      changeTxid = ContinuationToken.decodeLong(since, keys.get(0));
+      customerId = ContinuationToken.decodeLong(since, keys.get(1));
+    }
+
+    // fetch one additional row to learn whether more changes follow
+    final List<CustomerChangeRepository.Change> changes =
+        this.customerChangeRepository.findChangedAfter(changeTxid, customerId, size + 1);
+    final List<CustomerChangeRepository.Change> page = changes.subList(0, Math.min(size, changes.size()));
+
+    final CustomerChanges customerChanges = new CustomerChanges();
+    // the cache of this node may still hold a customer as it was before the change
+    customerChanges.setCustomers(this.customerService.findCurrentCustomers(page
+        .stream()
+        .map(CustomerChangeRepository.Change::identifier)
+        .collect(Collectors.toList())));
+    customerChanges.setHasMore(changes.size() > size);
+    if (page.isEmpty()) {
+      this.checkHeldBack(TenantContextHolder.checkedGetIdentifier());
+      customerChanges.setWatermark(ContinuationToken.encode(changeTxid, customerId));
+    } else {
+      final CustomerChangeRepository.Change last = page.get(page.size() - 1);
+      customerChanges.setWatermark(ContinuationToken.encode(last.changeTxid(), last.customerId()));
+    }
+    return customerChanges;
+  }
+
+  /**
+   * Answers at once if changes are available, otherwise once changes arrive or after {@code waitSeconds} with an
+   * empty result.
+   */
+  public DeferredResult<CustomerChanges> awaitChanges(final String since, final int size, final int waitSeconds) {
+    final CustomerChanges customerChanges = this.fetchChanges(since, size);
+    final DeferredResult<CustomerChanges> deferredResult =
+        new DeferredResult<>(TimeUnit.SECONDS.toMillis(waitSeconds), customerChanges);
+    if (waitSeconds == 0 || !customerChanges.getCustomers().isEmpty()) {
+      deferredResult.setResult(customerChanges);
+      return deferredResult;
+    }
+
+    final String tenant = TenantContextHolder.checkedGetIdentifier();
+    final Set<Runnable> waiting = this.waitingRequests.computeIfAbsent(tenant, key -> ConcurrentHashMap.newKeySet());
+    final Runnable refetch = new Runnable() {
+      @Override
+      public void run() {
+        if (deferredResult.isSetOrExpired()) {
+          return;
+        }
+        try (final AutoTenantContext ignored = new AutoTenantContext(tenant)) {
+          final CustomerChanges changes = CustomerChangeFeed.this.fetchChanges(since, size);
+          if (changes.getCustomers().isEmpty()) {
+            // held back by a transaction still running, or woken by a change the watermark had already seen
+            final long delay = Math.max(CustomerChangeFeed.this.settleTimeInMillis, MIN_REFETCH_DELAY_IN_MILLIS);
+            CustomerChangeFeed.this.scheduler.schedule(this, delay, TimeUnit.MILLISECONDS);
+          } else {
+            deferredResult.setResult(changes);
+          }
+        } catch (final Exception ex) {
+          CustomerChangeFeed.this.logger.warn("Could not fetch customer changes for tenant {}.", tenant, ex);
+          deferredResult.setErrorResult(ex);
+        }
+      }
+    };
+    waiting.add(refetch);
+    deferredResult.onCompletion(() -> waiting.remove(refetch));
+    return deferredResult;
+  }
+
+  public void changed(final String tenant) {
+    final Set<Runnable> waiting = this.waitingRequests.get(tenant);
+    if (waiting == null) {
+      return;
+    }
+    waiting.forEach(refetch -> {
+      if (waiting.remove(refetch)) {
+        this.scheduler.schedule(refetch, this.settleTimeInMillis, TimeUnit.MILLISECONDS);
+      }
+    });
+  }
+
+  private void checkHeldBack(final String tenant) {
+    final Optional<Long> holdingTxid = this.customerChangeRepository.findTxidHoldingBackChanges();
+    if (!holdingTxid.isPresent()) {
+      this.heldBackChanges.remove(tenant);
+      return;
+    }
+    final long txid = holdingTxid.get();
+    final long now = System.currentTimeMillis();
+    this.heldBackChanges.compute(tenant, (key, heldBack) -> {
+      if (heldBack == null || heldBack.txid != txid) {
+        return new HeldBack(txid, now, false);
+      }
+      if (!heldBack.reported && now - heldBack.since > this.stallWarningInMillis) {
+        this.logger.warn("Customer changes of tenant {} are held back by transaction {} for at least {} seconds. " +
+                "Look for long running or idle in transaction sessions on the database cluster.",
+            tenant, txid, TimeUnit.MILLISECONDS.toSeconds(now - heldBack.since));
+        return new HeldBack(txid, heldBack.since, true);
+      }
+      return heldBack;
+    });
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    this.scheduler.shutdownNow();
+  }
+
+  private static class HeldBack {
+    private final long txid;
+    private final long since;
+    private final boolean reported;
+
+    private HeldBack(final long txid, final long since, final boolean reported) {
+      super();
+      this.txid = txid;
+      this.since = since;
+      this.reported = reported;
+    }
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.internal.service;
+
+import org.apache.fineract.cn.customer.api.v1.CustomerEventConstants;
+import org.apache.fineract.cn.lang.config.TenantHeaderFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jms.annotation.JmsListener;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Component;
+
+/**
+ * Wakes the requests waiting on the {@link CustomerChangeFeed} of a node when a customer of their tenant was created
+ * or changed on any node.
+ */
+@Component
+public class CustomerChangeListener {
+
+  private static final String SELECTOR_CUSTOMER_CHANGED = CustomerEventConstants.SELECTOR_NAME + " IN ('" +
+      String.join("', '",
+          CustomerEventConstants.POST_CUSTOMER,
+          CustomerEventConstants.IMPORT_CUSTOMERS,
+          CustomerEventConstants.PUT_CUSTOMER,
+          CustomerEventConstants.ACTIVATE_CUSTOMER,
+          CustomerEventConstants.LOCK_CUSTOMER,
+          CustomerEventConstants.UNLOCK_CUSTOMER,
+          CustomerEventConstants.CLOSE_CUSTOMER,
+          CustomerEventConstants.REOPEN_CUSTOMER,
+          CustomerEventConstants.BULK_CUSTOMER_COMMAND,
+          CustomerEventConstants.PUT_ADDRESS,
+          CustomerEventConstants.PUT_CONTACT_DETAILS,
+          CustomerEventConstants.POST_IDENTIFICATION_CARD,
+          CustomerEventConstants.PUT_IDENTIFICATION_CARD,
+          CustomerEventConstants.DELETE_IDENTIFICATION_CARD,
+          CustomerEventConstants.POST_PORTRAIT,
+          CustomerEventConstants.DELETE_PORTRAIT) + "')";
+
+  private final CustomerChangeFeed customerChangeFeed;
+
+  @Autowired
+  public CustomerChangeListener(final CustomerChangeFeed customerChangeFeed) {
+    super();
+    this.customerChangeFeed = customerChangeFeed;
+  }
+
+  @JmsListener(
+      destination = CustomerEventConstants.DESTINATION,
+      selector = SELECTOR_CUSTOMER_CHANGED,
+      containerFactory = CustomerCacheInvalidationListener.CONTAINER_FACTORY
+  )
+  public void onCustomerChanged(@Header(TenantHeaderFilter.TENANT_HEADER) final String tenant) {
+    this.customerChangeFeed.changed(tenant);
+  }
+}
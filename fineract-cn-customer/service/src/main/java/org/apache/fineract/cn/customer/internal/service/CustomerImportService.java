@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.internal.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.fineract.cn.customer.ServiceConstants;
+import org.apache.fineract.cn.customer.api.v1.domain.Customer;
+import org.apache.fineract.cn.customer.api.v1.domain.CustomerImportResult;
+import org.apache.fineract.cn.customer.catalog.internal.service.FieldValueValidator;
+import org.apache.fineract.cn.customer.internal.command.ImportCustomersCommand;
+import org.apache.fineract.cn.customer.internal.repository.CustomerRepository;
+import org.apache.fineract.cn.command.gateway.CommandGateway;
+import org.apache.fineract.cn.lang.ServiceException;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Imports customers from newline delimited JSON, one customer per line. Lines are parsed and validated one at a time
+ * and written in batches of {@link #BATCH_SIZE}, so memory use does not grow with the size of the upload. One result
+ * line is written for every input line as soon as its batch has been processed.
+ */
+@Service
+public class CustomerImportService {
+
+  public static final int BATCH_SIZE = 500;
+
+  private final Logger logger;
+  private final CommandGateway commandGateway;
+  private final CustomerRepository customerRepository;
+  private final FieldValueValidator fieldValueValidator;
+  private final ObjectMapper objectMapper;
+  private final Validator validator;
+
+  @Autowired
+  public CustomerImportService(@Qualifier(ServiceConstants.LOGGER_NAME) final Logger logger,
+                               final CommandGateway commandGateway,
+                               final CustomerRepository customerRepository,
+                               final FieldValueValidator fieldValueValidator,
+                               final ObjectMapper objectMapper) {
+    super();
+    this.logger = logger;
+    this.commandGateway = commandGateway;
+    this.customerRepository = customerRepository;
+    this.fieldValueValidator = fieldValueValidator;
+    this.objectMapper = objectMapper;
+    this.validator = Validation.buildDefaultValidatorFactory().getValidator();
+  }
+
+  public void importCustomers(final BufferedReader reader, final BufferedWriter writer) throws IOException {
+    final Map<String, Long> fieldIds = new HashMap<>();
+    final List<PendingLine> batch = new ArrayList<>(BATCH_SIZE);
+
+    long lineNumber = 0L;
+    String line;
+    while ((line = reader.readLine()) != null) {
+      lineNumber++;
+      if (line.trim().isEmpty()) {
+        continue;
+      }
+
+      final PendingLine pendingLine = new PendingLine(lineNumber);
+      try {
+        pendingLine.customer = this.objectMapper.readValue(line, Customer.class);
+        this.validate(pendingLine.customer, fieldIds);
+      } catch (final IOException ex) {
+        pendingLine.error = "Line is not a valid customer.";
+      } catch (final ServiceException ex) {
+        pendingLine.error = ex.getMessage();
+      }
+      batch.add(pendingLine);
+
+      if (batch.size() == BATCH_SIZE) {
+        this.processBatch(batch, fieldIds, writer);
+        batch.clear();
+      }
+    }
+
+    if (!batch.isEmpty()) {
+      this.processBatch(batch, fieldIds, writer);
+    }
+  }
+
+  private void validate(final Customer customer, final Map<String, Long> fieldIds) {
+    final Set<ConstraintViolation<Customer>> violations = this.validator.validate(customer);
+    if (!violations.isEmpty()) {
+      throw ServiceException.badRequest(violations
+          .stream()
+          .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+          .sorted()
+          .collect(Collectors.joining(", ")));
+    }
+
+    if (customer.getCustomValues() != null) {
+      this.fieldValueValidator.validateValues(customer.getCustomValues());
+      customer.getCustomValues().forEach(value -> fieldIds.put(
+          FieldValueValidator.fieldKey(value.getCatalogIdentifier(), value.getFieldIdentifier()),
+          this.fieldValueValidator.findField(value).getId()));
+    }
+  }
+
+  private void processBatch(final List<PendingLine> batch, final Map<String, Long> fieldIds,
+                            final BufferedWriter writer) throws IOException {
+    final Set<String> identifiers = batch
+        .stream()
+        .filter(pendingLine -> pendingLine.error == null)
+        .map(pendingLine -> pendingLine.customer.getIdentifier())
+        .collect(Collectors.toSet());
+
+    final Set<String> taken = identifiers.isEmpty()
+        ? new HashSet<>()
+        : new HashSet<>(this.customerRepository.findIdentifiersByIdentifierIn(identifiers));
+
+    final List<Customer> customers = new ArrayList<>(batch.size());
+    for (final PendingLine pendingLine : batch) {
+      if (pendingLine.error != null) {
+        continue;
+      }
+      if (!taken.add(pendingLine.customer.getIdentifier())) {
+        pendingLine.error = "Customer " + pendingLine.customer.getIdentifier() + " already exists.";
+        continue;
+      }
+      customers.add(pendingLine.customer);
+    }
+
+    if (!customers.isEmpty()) {
+      try {
+        this.commandGateway.process(new ImportCustomersCommand(customers, new HashMap<>(fieldIds)), List.class).get();
+      } catch (final Exception ex) {
+        this.logger.warn("Could not import batch of {} customers.", customers.size(), ex);
+        batch
+            .stream()
+            .filter(pendingLine -> pendingLine.error == null)
+            .forEach(pendingLine -> pendingLine.error = "Batch could not be stored.");
+      }
+    }
+
+    for (final PendingLine pendingLine : batch) {
+      final CustomerImportResult result = new CustomerImportResult();
+      result.setLine(pendingLine.lineNumber);
+      if (pendingLine.customer != null) {
+        result.setIdentifier(pendingLine.customer.getIdentifier());
+      }
+      if (pendingLine.error == null) {
+        result.setStatus(CustomerImportResult.Status.CREATED.name());
+      } else {
+        result.setStatus(CustomerImportResult.Status.FAILED.name());
+        result.setMessage(pendingLine.error);
+      }
+      writer.write(this.objectMapper.writeValueAsString(result));
+      writer.newLine();
+    }
+    writer.flush();
+  }
+
+  private static class PendingLine {
+    private final long lineNumber;
+    private Customer customer;
+    private String error;
+
+    private PendingLine(final long lineNumber) {
+      super();
+      this.lineNumber = lineNumber;
+    }
+  }
+}
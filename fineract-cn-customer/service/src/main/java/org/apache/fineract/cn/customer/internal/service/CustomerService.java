@@ -25,15 +25,24 @@ import org.apache.fineract.cn.customer.catalog.internal.repository.FieldValueEnt
 import org.apache.fineract.cn.customer.catalog.internal.repository.FieldValueRepository;
 import org.apache.fineract.cn.customer.internal.mapper.*;
 import org.apache.fineract.cn.customer.internal.repository.*;
+import org.apache.fineract.cn.customer.internal.util.ContinuationToken;
+import org.apache.fineract.cn.lang.DateConverter;
+import org.apache.fineract.cn.lang.ServiceException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -47,8 +56,11 @@ public class CustomerService {
   private final ContactDetailRepository contactDetailRepository;
   private final FieldValueRepository fieldValueRepository;
   private final CommandRepository commandRepository;
-  private final TaskDefinitionRepository taskDefinitionRepository;
   private final TaskInstanceRepository taskInstanceRepository;
+  private final CustomerSearchRepository customerSearchRepository;
+  private final CustomerListRepository customerListRepository;
+  private final CustomerCache customerCache;
+  private final TaskDefinitionRegistry taskDefinitionRegistry;
 
   @Autowired
   public CustomerService(final CustomerRepository customerRepository,
@@ -58,8 +70,11 @@ public class CustomerService {
                          final ContactDetailRepository contactDetailRepository,
                          final FieldValueRepository fieldValueRepository,
                          final CommandRepository commandRepository,
-                         final TaskDefinitionRepository taskDefinitionRepository,
-                         final TaskInstanceRepository taskInstanceRepository) {
+                         final TaskInstanceRepository taskInstanceRepository,
+                         final CustomerSearchRepository customerSearchRepository,
+                         final CustomerListRepository customerListRepository,
+                         final CustomerCache customerCache,
+                         final TaskDefinitionRegistry taskDefinitionRegistry) {
     super();
     this.customerRepository = customerRepository;
     this.identificationCardRepository = identificationCardRepository;
@@ -68,8 +83,11 @@ public class CustomerService {
     this.contactDetailRepository = contactDetailRepository;
     this.fieldValueRepository = fieldValueRepository;
     this.commandRepository = commandRepository;
-    this.taskDefinitionRepository = taskDefinitionRepository;
     this.taskInstanceRepository = taskInstanceRepository;
+    this.customerSearchRepository = customerSearchRepository;
+    this.customerListRepository = customerListRepository;
+    this.customerCache = customerCache;
+    this.taskDefinitionRegistry = taskDefinitionRegistry;
   }
 
   public Boolean customerExists(final String identifier) {
@@ -87,58 +105,186 @@ public class CustomerService {
   }
 
   public Optional<Customer> findCustomer(final String identifier) {
-    return customerRepository.findByIdentifier(identifier)
-        .map(customerEntity -> {
-          final Customer customer = CustomerMapper.map(customerEntity);
-          customer.setAddress(AddressMapper.map(customerEntity.getAddress()));
-
-          final List<ContactDetailEntity> contactDetailEntities = this.contactDetailRepository.findByCustomer(customerEntity);
-          if (contactDetailEntities != null) {
-            customer.setContactDetails(
-                contactDetailEntities
-                    .stream()
-                    .map(ContactDetailMapper::map)
-                    .collect(Collectors.toList())
-            );
-          }
+    final Optional<Customer> cachedCustomer = this.customerCache.get(identifier);
+    if (cachedCustomer.isPresent()) {
+      return cachedCustomer;
+    }
 
-          final List<FieldValueEntity> fieldValueEntities = this.fieldValueRepository.findByCustomer(customerEntity);
-          if (fieldValueEntities != null) {
-            customer.setCustomValues(
-                fieldValueEntities
-                    .stream()
-                    .map(fieldValueEntity -> {
-                      final Value value = new Value();
-                      value.setValue(fieldValueEntity.getValue());
-                      final FieldEntity fieldEntity = fieldValueEntity.getField();
-                      value.setCatalogIdentifier(fieldEntity.getCatalog().getIdentifier());
-                      value.setFieldIdentifier(fieldEntity.getIdentifier());
-                      return value;
-                    }).collect(Collectors.toList())
-            );
-          }
+    final long generation = this.customerCache.generation();
+    final Optional<Customer> customer = this.loadCustomer(identifier);
+    customer.ifPresent(loadedCustomer -> this.customerCache.put(identifier, loadedCustomer, generation));
+    return customer;
+  }
 
-          return customer;
-        });
+  /**
+   * Like {@link #findCustomer(String)}, but a cached copy older than the given modification time is reloaded, so the
+   * returned customer is never older than the validators sent along with it.
+   */
+  public Optional<Customer> findCustomer(final String identifier, final long lastModified) {
+    final Optional<Customer> cachedCustomer = this.customerCache.get(identifier);
+    if (cachedCustomer.isPresent() && CustomerService.lastModified(cachedCustomer.get()) >= lastModified) {
+      return cachedCustomer;
+    }
+
+    final long generation = this.customerCache.generation();
+    final Optional<Customer> customer = this.loadCustomer(identifier);
+    customer.ifPresent(loadedCustomer -> this.customerCache.put(identifier, loadedCustomer, generation));
+    return customer;
   }
 
-  public CustomerPage fetchCustomer(final String term, final Boolean includeClosed, final Pageable pageable) {
-    final Page<CustomerEntity> customerEntities;
-    if (includeClosed) {
-      if (term != null) {
-        customerEntities =
-            this.customerRepository.findByIdentifierContainingOrGivenNameContainingOrSurnameContaining(term, term, term, pageable);
+  /**
+   * @return the time the given customer was last modified in milliseconds since the epoch, falling back to its
+   * creation time for customers never changed
+   */
+  public static long lastModified(final Customer customer) {
+    final String lastModifiedOn = customer.getLastModifiedOn() != null
+        ? customer.getLastModifiedOn()
+        : customer.getCreatedOn();
+    return DateConverter.fromIsoString(lastModifiedOn).toInstant(ZoneOffset.UTC).toEpochMilli();
+  }
+
+  /**
+   * @return the time the customer was last modified in milliseconds since the epoch, used to answer conditional
+   * requests without loading the customer. Times are stored in UTC.
+   */
+  public Optional<Long> findLastModified(final String identifier) {
+    return this.customerRepository.findLastModifiedByIdentifier(identifier)
+        .map(timestamp -> timestamp.toLocalDateTime().toInstant(ZoneOffset.UTC).toEpochMilli());
+  }
+
+  public CustomerBatch findCustomers(final List<String> identifiers) {
+    final LinkedHashMap<String, Customer> customers = new LinkedHashMap<>();
+    final Set<String> identifiersToLoad = new LinkedHashSet<>();
+    identifiers.forEach(identifier -> {
+      final Optional<Customer> cachedCustomer = this.customerCache.get(identifier);
+      if (cachedCustomer.isPresent()) {
+        customers.put(identifier, cachedCustomer.get());
       } else {
-        customerEntities = this.customerRepository.findAll(pageable);
+        identifiersToLoad.add(identifier);
       }
+    });
+
+    if (!identifiersToLoad.isEmpty()) {
+      customers.putAll(this.loadCustomers(identifiersToLoad));
+    }
+
+    final CustomerBatch customerBatch = new CustomerBatch();
+    customerBatch.setCustomers(identifiers.stream()
+        .distinct()
+        .filter(customers::containsKey)
+        .map(customers::get)
+        .collect(Collectors.toList()));
+    customerBatch.setMissingIdentifiers(identifiers.stream()
+        .distinct()
+        .filter(identifier -> !customers.containsKey(identifier))
+        .collect(Collectors.toList()));
+    return customerBatch;
+  }
+
+  /**
+   * Like {@link #findCustomers(List)}, but always reads the customers from the database. Used where a cached copy
+   * could be older than a change the caller already knows of. Customers not found are left out.
+   */
+  public List<Customer> findCurrentCustomers(final List<String> identifiers) {
+    if (identifiers.isEmpty()) {
+      return Collections.emptyList();
+    }
+    final Map<String, Customer> customers = this.loadCustomers(new LinkedHashSet<>(identifiers));
+    return identifiers.stream()
+        .distinct()
+        .filter(customers::containsKey)
+        .map(customers::get)
+        .collect(Collectors.toList());
+  }
+
+  private Map<String, Customer> loadCustomers(final Set<String> identifiers) {
+    final LinkedHashMap<String, Customer> customers = new LinkedHashMap<>();
+    final long generation = this.customerCache.generation();
+    final List<CustomerEntity> customerEntities = this.customerRepository.findWithAddressByIdentifierIn(identifiers);
+    if (!customerEntities.isEmpty()) {
+      final Map<Long, List<ContactDetailEntity>> contactDetailsByCustomer =
+          this.contactDetailRepository.findByCustomerIn(customerEntities)
+              .stream()
+              .collect(Collectors.groupingBy(contactDetailEntity -> contactDetailEntity.getCustomer().getId()));
+      final Map<Long, List<FieldValueEntity>> fieldValuesByCustomer =
+          this.fieldValueRepository.findWithFieldByCustomerIn(customerEntities)
+              .stream()
+              .collect(Collectors.groupingBy(fieldValueEntity -> fieldValueEntity.getCustomer().getId()));
+
+      customerEntities.forEach(customerEntity -> {
+        final Customer customer = this.mapCustomer(customerEntity,
+            contactDetailsByCustomer.getOrDefault(customerEntity.getId(), Collections.emptyList()),
+            fieldValuesByCustomer.getOrDefault(customerEntity.getId(), Collections.emptyList()));
+        customers.put(customer.getIdentifier(), customer);
+        this.customerCache.put(customer.getIdentifier(), customer, generation);
+      });
+    }
+    return customers;
+  }
+
+  private Optional<Customer> loadCustomer(final String identifier) {
+    // address, fields and catalogs are fetched eagerly to keep the number of queries independent of custom values
+    return customerRepository.findWithAddressByIdentifier(identifier)
+        .map(customerEntity -> this.mapCustomer(customerEntity,
+            this.contactDetailRepository.findByCustomer(customerEntity),
+            this.fieldValueRepository.findWithFieldByCustomer(customerEntity)));
+  }
+
+  private Customer mapCustomer(final CustomerEntity customerEntity,
+                               final List<ContactDetailEntity> contactDetailEntities,
+                               final List<FieldValueEntity> fieldValueEntities) {
+    final Customer customer = CustomerMapper.map(customerEntity);
+    customer.setAddress(AddressMapper.map(customerEntity.getAddress()));
+
+    if (contactDetailEntities != null) {
+      customer.setContactDetails(
+          contactDetailEntities
+              .stream()
+              .map(ContactDetailMapper::map)
+              .collect(Collectors.toList())
+      );
+    }
+
+    if (fieldValueEntities != null) {
+      customer.setCustomValues(
+          fieldValueEntities
+              .stream()
+              .map(fieldValueEntity -> {
+                final Value value = new Value();
+                value.setValue(fieldValueEntity.getValue());
+                final FieldEntity fieldEntity = fieldValueEntity.getField();
+                value.setCatalogIdentifier(fieldEntity.getCatalog().getIdentifier());
+                value.setFieldIdentifier(fieldEntity.getIdentifier());
+                return value;
+              }).collect(Collectors.toList())
+      );
+    }
+
+    return customer;
+  }
+
+  public CustomerPage fetchCustomer(final String term, final Boolean includeClosed, final Pageable pageable,
+                                    final Boolean includeTotals) {
+    final Sort.Order order = pageable.getSort().iterator().next();
+    final CustomerSortColumn sortColumn = CustomerSortColumn.ofProperty(order.getProperty())
+        .orElseThrow(() -> ServiceException.badRequest("Customers can not be sorted by {0}.", order.getProperty()));
+
+    if (term == null && !includeTotals) {
+      // fetch one additional row to learn whether another page follows
+      return this.customerSlice(
+          this.customerListRepository.find(includeClosed ? null : Customer.State.CLOSED.name(), sortColumn,
+              order.getDirection(), null, null, pageable.getOffset(), pageable.getPageSize() + 1),
+          pageable.getPageSize(), sortColumn, order.getDirection(), includeClosed);
+    }
+
+    final Page<CustomerEntity> customerEntities;
+    if (term != null) {
+      customerEntities = this.customerSearchRepository.search(
+          term, includeClosed ? null : Customer.State.CLOSED.name(), pageable);
+    } else if (includeClosed) {
+      customerEntities = this.customerRepository.findAll(pageable);
     } else {
-      if (term != null) {
-        customerEntities =
-            this.customerRepository.findByCurrentStateNotAndIdentifierContainingOrGivenNameContainingOrSurnameContaining(
-                Customer.State.CLOSED.name(), term, term, term, pageable);
-      } else {
-        customerEntities = this.customerRepository.findByCurrentStateNot(Customer.State.CLOSED.name(), pageable);
-      }
+      customerEntities = this.customerRepository.findByCurrentStateNot(Customer.State.CLOSED.name(), pageable);
     }
 
     final CustomerPage customerPage = new CustomerPage();
@@ -150,9 +296,61 @@ public class CustomerService {
       customerEntities.forEach(customerEntity -> customers.add(CustomerMapper.map(customerEntity)));
     }
 
+    // search results are ranked by similarity, a key to seek from only exists for sorted listings
+    if (term == null && customerEntities.hasNext()) {
+      final List<CustomerEntity> content = customerEntities.getContent();
+      customerPage.setContinuationToken(this.customerContinuationToken(
+          sortColumn, order.getDirection(), includeClosed, content.get(content.size() - 1)));
+    }
+
+    return customerPage;
+  }
+
+  public CustomerPage fetchCustomer(final String continuationToken, final int size) {
+    final List<String> keys = ContinuationToken.decode(continuationToken, 5);
+    final CustomerSortColumn sortColumn = CustomerSortColumn.ofProperty(keys.get(0))
+        .orElseThrow(() -> ContinuationToken.invalid(continuationToken));
+    final Sort.Direction direction;
+    try {
+      direction = Sort.Direction.valueOf(keys.get(1));
+    } catch (final IllegalArgumentException iaex) {
+      throw ContinuationToken.invalid(continuationToken);
+    }
+    final boolean includeClosed = Boolean.parseBoolean(keys.get(2));
+    final Long customerId = ContinuationToken.decodeLong(continuationToken, keys.get(4));
+
+    // fetch one additional row to learn whether another page follows
+    return this.customerSlice(
+        this.customerListRepository.find(includeClosed ? null : Customer.State.CLOSED.name(), sortColumn, direction,
+            keys.get(3), customerId, 0, size + 1),
+        size, sortColumn, direction, includeClosed);
+  }
+
+  private CustomerPage customerSlice(final List<CustomerEntity> customerEntities, final int size,
+                                     final CustomerSortColumn sortColumn, final Sort.Direction direction,
+                                     final boolean includeClosed) {
+    final CustomerPage customerPage = new CustomerPage();
+    customerPage.setCustomers(
+        customerEntities.stream()
+            .limit(size)
+            .map(CustomerMapper::map)
+            .collect(Collectors.toList())
+    );
+
+    if (customerEntities.size() > size) {
+      customerPage.setContinuationToken(
+          this.customerContinuationToken(sortColumn, direction, includeClosed, customerEntities.get(size - 1)));
+    }
+
     return customerPage;
   }
 
+  private String customerContinuationToken(final CustomerSortColumn sortColumn, final Sort.Direction direction,
+                                           final boolean includeClosed, final CustomerEntity customerEntity) {
+    return ContinuationToken.encode(sortColumn.property(), direction.name(), includeClosed,
+        sortColumn.valueOf(customerEntity), customerEntity.getId());
+  }
+
   public final Stream<Command> fetchCommandsByCustomer(final String identifier) {
     return customerRepository.findByIdentifier(identifier)
         .map(commandRepository::findByCustomer)
@@ -195,31 +393,33 @@ public class CustomerService {
     return this.findIdentificationCardEntity(number, identifier).map(IdentificationCardScanMapper::map);
   }
 
-  public Optional<byte[]> findIdentificationCardScanImage(final String number, final String identifier) {
-    return this.findIdentificationCardEntity(number, identifier).map(IdentificationCardScanEntity::getImage);
+  public Optional<IdentificationCardScanEntity> findIdentificationCardScanEntity(final String number, final String identifier) {
+    return this.findIdentificationCardEntity(number, identifier);
   }
 
   public List<ProcessStep> getProcessSteps(final String customerIdentifier) {
     return customerRepository.findByIdentifier(customerIdentifier)
         .map(customerEntity -> {
           final List<ProcessStep> processSteps = new ArrayList<>();
+          final List<Long> openTaskDefinitionIds =
+              this.taskInstanceRepository.findOpenTaskDefinitionIdsByCustomer(customerEntity);
 
           final Customer.State state = Customer.State.valueOf(customerEntity.getCurrentState());
           switch (state) {
             case PENDING:
-              processSteps.add(this.buildProcessStep(customerEntity, Command.Action.ACTIVATE));
-              processSteps.add(this.buildProcessStep(customerEntity, Command.Action.CLOSE));
+              processSteps.add(this.buildProcessStep(openTaskDefinitionIds, Command.Action.ACTIVATE));
+              processSteps.add(this.buildProcessStep(openTaskDefinitionIds, Command.Action.CLOSE));
               break;
             case ACTIVE:
-              processSteps.add(this.buildProcessStep(customerEntity, Command.Action.LOCK));
-              processSteps.add(this.buildProcessStep(customerEntity, Command.Action.CLOSE));
+              processSteps.add(this.buildProcessStep(openTaskDefinitionIds, Command.Action.LOCK));
+              processSteps.add(this.buildProcessStep(openTaskDefinitionIds, Command.Action.CLOSE));
               break;
             case LOCKED:
-              processSteps.add(this.buildProcessStep(customerEntity, Command.Action.UNLOCK));
-              processSteps.add(this.buildProcessStep(customerEntity, Command.Action.CLOSE));
+              processSteps.add(this.buildProcessStep(openTaskDefinitionIds, Command.Action.UNLOCK));
+              processSteps.add(this.buildProcessStep(openTaskDefinitionIds, Command.Action.CLOSE));
               break;
             case CLOSED:
-              processSteps.add(this.buildProcessStep(customerEntity, Command.Action.REOPEN));
+              processSteps.add(this.buildProcessStep(openTaskDefinitionIds, Command.Action.REOPEN));
               break;
           }
 
@@ -228,22 +428,21 @@ public class CustomerService {
         .orElse(Collections.emptyList());
   }
 
-  private ProcessStep buildProcessStep(final CustomerEntity customerEntity, final Command.Action action) {
+  private ProcessStep buildProcessStep(final List<Long> openTaskDefinitionIds, final Command.Action action) {
     final ProcessStep processStep = new ProcessStep();
 
     final Command command = new Command();
     command.setAction(action.name());
     processStep.setCommand(command);
 
-    final ArrayList<TaskDefinition> taskDefinitions = new ArrayList<>();
-    this.taskDefinitionRepository.findByAssignedCommandsContaining(action.name())
-        .forEach(taskDefinitionEntity ->
-            this.taskInstanceRepository.findByCustomerAndTaskDefinition(customerEntity, taskDefinitionEntity)
-            .forEach(taskInstanceEntity -> {
-              if (taskInstanceEntity.getExecutedBy() == null) {
-                taskDefinitions.add(TaskDefinitionMapper.map(taskDefinitionEntity));
-              }
-            }));
+    final List<TaskDefinition> taskDefinitions = openTaskDefinitionIds
+        .stream()
+        .map(this.taskDefinitionRegistry::findById)
+        .filter(Optional::isPresent)
+        .map(Optional::get)
+        .filter(registration -> registration.commands().contains(action.name()))
+        .map(TaskDefinitionRegistry.Registration::taskDefinition)
+        .collect(Collectors.toList());
     processStep.setTaskDefinitions(taskDefinitions);
 
     return processStep;
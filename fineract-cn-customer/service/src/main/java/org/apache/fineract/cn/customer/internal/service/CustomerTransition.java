@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.internal.service;
+
+import org.apache.fineract.cn.customer.api.v1.domain.Command;
+import org.apache.fineract.cn.customer.api.v1.domain.Customer;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * The state changes caused by customer commands: from which states an action is allowed, the state it leads to,
+ * whether open mandatory tasks for the action block it and for which follow-up action predefined tasks are assigned.
+ */
+public enum CustomerTransition {
+
+  ACTIVATE(Command.Action.ACTIVATE, Customer.State.ACTIVE, true, null, Customer.State.PENDING),
+  LOCK(Command.Action.LOCK, Customer.State.LOCKED, false, Command.Action.UNLOCK, Customer.State.ACTIVE),
+  UNLOCK(Command.Action.UNLOCK, Customer.State.ACTIVE, true, null, Customer.State.LOCKED),
+  CLOSE(Command.Action.CLOSE, Customer.State.CLOSED, false, Command.Action.REOPEN,
+      Customer.State.ACTIVE, Customer.State.LOCKED, Customer.State.PENDING),
+  REOPEN(Command.Action.REOPEN, Customer.State.ACTIVE, true, null, Customer.State.CLOSED);
+
+  private final Command.Action action;
+  private final Customer.State toState;
+  private final boolean blockedByOpenTasks;
+  private final Command.Action followUpAction;
+  private final List<String> fromStates;
+
+  CustomerTransition(final Command.Action action, final Customer.State toState, final boolean blockedByOpenTasks,
+                     final Command.Action followUpAction, final Customer.State... fromStates) {
+    this.action = action;
+    this.toState = toState;
+    this.blockedByOpenTasks = blockedByOpenTasks;
+    this.followUpAction = followUpAction;
+    this.fromStates = Collections.unmodifiableList(
+        Arrays.stream(fromStates).map(Customer.State::name).collect(Collectors.toList()));
+  }
+
+  public static CustomerTransition of(final Command.Action action) {
+    return CustomerTransition.valueOf(action.name());
+  }
+
+  public Command.Action action() {
+    return this.action;
+  }
+
+  public String toState() {
+    return this.toState.name();
+  }
+
+  public boolean blockedByOpenTasks() {
+    return this.blockedByOpenTasks;
+  }
+
+  public Optional<Command.Action> followUpAction() {
+    return Optional.ofNullable(this.followUpAction);
+  }
+
+  public List<String> fromStates() {
+    return this.fromStates;
+  }
+}
@@ -29,7 +29,6 @@ import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -79,8 +78,18 @@ public class DocumentService {
   public Stream<Integer> findPageNumbers(
       final String customerIdentifier,
       final String documentIdentifier) {
-    return documentPageRepository.findByCustomerIdAndDocumentIdentifier(customerIdentifier, documentIdentifier)
-        .map(DocumentPageEntity::getPageNumber);
+    return documentPageRepository.findPageNumbersByCustomerIdAndDocumentIdentifier(customerIdentifier, documentIdentifier)
+        .stream();
+  }
+
+  /**
+   * Pages only carry the key of their content, so the pages of even a large document are cheap to hold while their
+   * content is streamed one page at a time.
+   */
+  public List<DocumentPageEntity> findPages(
+      final String customerIdentifier,
+      final String documentIdentifier) {
+    return documentPageRepository.findByCustomerIdAndDocumentIdentifierOrderByPageNumber(customerIdentifier, documentIdentifier);
   }
 
   public boolean isDocumentCompleted(
@@ -93,14 +102,6 @@ public class DocumentService {
   public boolean isDocumentMissingPages(
       final String customerIdentifier,
       final String documentIdentifier) {
-    final List<Integer> pageNumbers = findPageNumbers(customerIdentifier, documentIdentifier)
-        .sorted(Integer::compareTo)
-        .collect(Collectors.toList());
-    for (int i = 0; i < pageNumbers.size(); i++) {
-      if (i != pageNumbers.get(i))
-        return true;
-    }
-
-    return false;
+    return documentPageRepository.isMissingPagesByCustomerIdAndDocumentIdentifier(customerIdentifier, documentIdentifier);
   }
 }
\ No newline at end of file
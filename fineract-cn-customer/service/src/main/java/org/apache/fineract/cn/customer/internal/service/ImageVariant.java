@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.internal.service;
+
+import org.apache.fineract.cn.lang.ServiceException;
+
+import java.util.Optional;
+
+/**
+ * Downscaled variants kept next to uploaded images, requested through the {@code size} parameter of the portrait,
+ * identification card scan and document page endpoints.
+ */
+public enum ImageVariant {
+
+  THUMBNAIL("thumbnail", 160, 0.75F),
+  WEB("web", 1024, 0.85F);
+
+  public static final String ORIGINAL = "original";
+
+  private final String identifier;
+  private final int maxDimension;
+  private final float quality;
+
+  ImageVariant(final String identifier, final int maxDimension, final float quality) {
+    this.identifier = identifier;
+    this.maxDimension = maxDimension;
+    this.quality = quality;
+  }
+
+  public String identifier() {
+    return this.identifier;
+  }
+
+  /**
+   * The length of the longer edge of the variant in pixels.
+   */
+  public int maxDimension() {
+    return this.maxDimension;
+  }
+
+  /**
+   * The compression quality used for JPEG variants.
+   */
+  public float quality() {
+    return this.quality;
+  }
+
+  /**
+   * @return the variant for the given size, or empty if the original is requested
+   */
+  public static Optional<ImageVariant> forSize(final String size) {
+    if (size == null || ORIGINAL.equals(size)) {
+      return Optional.empty();
+    }
+    for (final ImageVariant imageVariant : ImageVariant.values()) {
+      if (imageVariant.identifier.equals(size)) {
+        return Optional.of(imageVariant);
+      }
+    }
+    throw ServiceException.badRequest("Size ''{0}'' not supported, use ''{1}'', ''{2}'' or ''{3}''.",
+        size, THUMBNAIL.identifier, WEB.identifier, ORIGINAL);
+  }
+}
@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.internal.service;
+
+import org.apache.fineract.cn.customer.ServiceConstants;
+import org.apache.fineract.cn.customer.internal.repository.ContentStore;
+import org.apache.fineract.cn.lang.AutoTenantContext;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Optional;
+
+/**
+ * Renders the {@link ImageVariant}s of a stored image off the request thread. Variants are only rendered for images
+ * larger than the variant, smaller images are served as they are. The dimensions of an image are read from its
+ * header before it is decoded, images with more pixels than {@code customer.image.maxPixels} are never decoded: a
+ * small upload may declare dimensions that take gigabytes of memory once decoded.
+ */
+@Component
+public class ImageVariantGenerator {
+
+  private final Logger logger;
+  private final ContentStore contentStore;
+  private final long maxPixels;
+
+  @Autowired
+  public ImageVariantGenerator(@Qualifier(ServiceConstants.LOGGER_NAME) final Logger logger,
+                               final ContentStore contentStore,
+                               @Value("${customer.image.maxPixels:40000000}") final long maxPixels) {
+    super();
+    this.logger = logger;
+    this.contentStore = contentStore;
+    this.maxPixels = maxPixels;
+  }
+
+  @Async
+  public void generate(final String tenantIdentifier, final ContentReference contentReference) {
+    try (final AutoTenantContext ignored = new AutoTenantContext(tenantIdentifier)) {
+      final Optional<Resource> original = this.contentStore.find(contentReference.key());
+      if (!original.isPresent()) {
+        return;
+      }
+
+      final BufferedImage image;
+      try (final InputStream inputStream = original.get().getInputStream()) {
+        image = this.read(inputStream, contentReference.key());
+      }
+      if (image == null) {
+        return;
+      }
+
+      final boolean jpeg = contentReference.contentType().contains(MediaType.IMAGE_JPEG_VALUE);
+      for (final ImageVariant imageVariant : ImageVariant.values()) {
+        if (Math.max(image.getWidth(), image.getHeight()) <= imageVariant.maxDimension()) {
+          continue;
+        }
+        final BufferedImage scaled = ImageVariantGenerator.scale(image, imageVariant.maxDimension(), jpeg);
+        final byte[] encoded = jpeg
+            ? ImageVariantGenerator.encodeJpeg(scaled, imageVariant.quality())
+            : ImageVariantGenerator.encodePng(scaled);
+        this.contentStore.storeVariant(contentReference.key(), imageVariant.identifier(), new ByteArrayInputStream(encoded));
+      }
+    } catch (final Exception ex) {
+      this.logger.warn("Could not render variants of content {}.", contentReference.key(), ex);
+    }
+  }
+
+  /**
+   * @return the decoded image, or null if it is not readable or too large to decode
+   */
+  private BufferedImage read(final InputStream inputStream, final String key) throws IOException {
+    try (final ImageInputStream imageInputStream = ImageIO.createImageInputStream(inputStream)) {
+      final Iterator<ImageReader> readers = imageInputStream != null
+          ? ImageIO.getImageReaders(imageInputStream)
+          : null;
+      if (readers == null || !readers.hasNext()) {
+        this.logger.info("Content {} is not a readable image, no variants rendered.", key);
+        return null;
+      }
+
+      final ImageReader reader = readers.next();
+      try {
+        reader.setInput(imageInputStream, true, true);
+        final long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+        if (pixels > this.maxPixels) {
+          this.logger.info("Content {} has {} pixels, more than the {} allowed, no variants rendered.",
+              key, pixels, this.maxPixels);
+          return null;
+        }
+        return reader.read(0);
+      } finally {
+        reader.dispose();
+      }
+    }
+  }
+
+  /**
+   * Halves the image until it is less than twice the target size before the last bilinear step, which keeps the
+   * quality of large reductions close to bicubic scaling at a fraction of its cost.
+   */
+  private static BufferedImage scale(final BufferedImage image, final int maxDimension, final boolean opaque) {
+    final double ratio = (double) maxDimension / Math.max(image.getWidth(), image.getHeight());
+    final int targetWidth = Math.max(1, (int) Math.round(image.getWidth() * ratio));
+    final int targetHeight = Math.max(1, (int) Math.round(image.getHeight() * ratio));
+    final int imageType = opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+
+    BufferedImage current = image;
+    int width = image.getWidth();
+    int height = image.getHeight();
+    do {
+      width = Math.max(targetWidth, width / 2);
+      height = Math.max(targetHeight, height / 2);
+      if (width < targetWidth * 2 || height < targetHeight * 2) {
+        width = targetWidth;
+        height = targetHeight;
+      }
+
+      final BufferedImage step = new BufferedImage(width, height, imageType);
+      final Graphics2D graphics = step.createGraphics();
+      try {
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        graphics.drawImage(current, 0, 0, width, height, null);
+      } finally {
+        graphics.dispose();
+      }
+      current = step;
+    } while (width != targetWidth || height != targetHeight);
+
+    return current;
+  }
+
+  private static byte[] encodeJpeg(final BufferedImage image, final float quality) throws IOException {
+    final ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+    final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    try (final ImageOutputStream imageOutputStream = ImageIO.createImageOutputStream(outputStream)) {
+      final ImageWriteParam param = writer.getDefaultWriteParam();
+      param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+      param.setCompressionQuality(quality);
+      param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+      writer.setOutput(imageOutputStream);
+      writer.write(null, new IIOImage(image, null, null), param);
+    } finally {
+      writer.dispose();
+    }
+    return outputStream.toByteArray();
+  }
+
+  private static byte[] encodePng(final BufferedImage image) throws IOException {
+    final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    ImageIO.write(image, "png", outputStream);
+    return outputStream.toByteArray();
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.internal.service;
+
+import org.apache.fineract.cn.customer.internal.repository.ContentStore;
+import org.apache.fineract.cn.lang.TenantContextHolder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+/**
+ * Schedules the rendering of {@link ImageVariant}s once the upload referencing an image committed and looks up
+ * rendered variants. A variant that is not rendered yet, or never will be because the image is small enough, is simply
+ * not found and callers serve the original instead.
+ */
+@Service
+public class ImageVariantService {
+
+  private final ContentStore contentStore;
+  private final ImageVariantGenerator imageVariantGenerator;
+
+  @Autowired
+  public ImageVariantService(final ContentStore contentStore,
+                             final ImageVariantGenerator imageVariantGenerator) {
+    super();
+    this.contentStore = contentStore;
+    this.imageVariantGenerator = imageVariantGenerator;
+  }
+
+  public void generateAfterCommit(final ContentReference contentReference) {
+    final String contentType = contentReference.contentType();
+    if (contentType == null
+        || !(contentType.contains(MediaType.IMAGE_JPEG_VALUE) || contentType.contains(MediaType.IMAGE_PNG_VALUE))) {
+      return;
+    }
+
+    final String tenantIdentifier = TenantContextHolder.checkedGetIdentifier();
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      this.imageVariantGenerator.generate(tenantIdentifier, contentReference);
+      return;
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+      @Override
+      public void afterCommit() {
+        ImageVariantService.this.imageVariantGenerator.generate(tenantIdentifier, contentReference);
+      }
+    });
+  }
+
+  public Optional<Resource> find(final String key, final ImageVariant imageVariant) {
+    return this.contentStore.findVariant(key, imageVariant.identifier());
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.internal.service;
+
+import org.apache.fineract.cn.customer.api.v1.domain.TaskDefinition;
+import org.apache.fineract.cn.customer.internal.mapper.TaskDefinitionMapper;
+import org.apache.fineract.cn.customer.internal.repository.TaskDefinitionEntity;
+import org.apache.fineract.cn.customer.internal.repository.TaskDefinitionRepository;
+import org.apache.fineract.cn.customer.internal.util.CacheGenerations;
+import org.apache.fineract.cn.lang.TenantContextHolder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per tenant registry of all task definitions, indexed by the commands they are assigned to. Task definitions are few
+ * and rarely change, so they are loaded at once on first use and kept until a task definition is created or changed,
+ * locally or on another node. Definitions are kept mapped, detached from any persistence context.
+ */
+@Component
+public class TaskDefinitionRegistry {
+
+  private final TaskDefinitionRepository taskDefinitionRepository;
+  private final ConcurrentHashMap<String, Registrations> tenantRegistrations;
+  private final CacheGenerations generations;
+
+  @Autowired
+  public TaskDefinitionRegistry(final TaskDefinitionRepository taskDefinitionRepository) {
+    super();
+    this.taskDefinitionRepository = taskDefinitionRepository;
+    this.tenantRegistrations = new ConcurrentHashMap<>();
+    this.generations = new CacheGenerations();
+  }
+
+  public List<Registration> findByCommand(final String command) {
+    return this.registrations().byCommand.getOrDefault(command, Collections.emptyList());
+  }
+
+  public Optional<Registration> findById(final Long id) {
+    return Optional.ofNullable(this.registrations().byId.get(id));
+  }
+
+  public void evict(final String tenantIdentifier) {
+    this.generations.advance(tenantIdentifier);
+    this.tenantRegistrations.remove(tenantIdentifier);
+  }
+
+  public void evictAfterCommit() {
+    CacheGenerations.afterCommit(this::evict);
+  }
+
+  private Registrations registrations() {
+    final String tenantIdentifier = TenantContextHolder.checkedGetIdentifier();
+    final Registrations cachedRegistrations = this.tenantRegistrations.get(tenantIdentifier);
+    if (cachedRegistrations != null) {
+      return cachedRegistrations;
+    }
+
+    final long loadedAtGeneration = this.generations.current(tenantIdentifier);
+    final Registrations registrations = new Registrations(this.taskDefinitionRepository.findAllWithCommands());
+
+    synchronized (this.tenantRegistrations) {
+      if (this.generations.isCurrent(tenantIdentifier, loadedAtGeneration)) {
+        this.tenantRegistrations.put(tenantIdentifier, registrations);
+      }
+    }
+    return registrations;
+  }
+
+  private static class Registrations {
+
+    private final Map<Long, Registration> byId;
+    private final Map<String, List<Registration>> byCommand;
+
+    private Registrations(final List<TaskDefinitionEntity> taskDefinitionEntities) {
+      final Map<Long, Registration> byId = new HashMap<>();
+      final Map<String, List<Registration>> byCommand = new HashMap<>();
+      taskDefinitionEntities.forEach(taskDefinitionEntity -> {
+        final Registration registration = new Registration(taskDefinitionEntity);
+        byId.put(registration.id(), registration);
+        registration.commands().forEach(command ->
+            byCommand.computeIfAbsent(command, key -> new ArrayList<>()).add(registration));
+      });
+      byCommand.replaceAll((command, registrations) -> Collections.unmodifiableList(registrations));
+
+      this.byId = Collections.unmodifiableMap(byId);
+      this.byCommand = Collections.unmodifiableMap(byCommand);
+    }
+  }
+
+  public static class Registration {
+
+    private final Long id;
+    private final boolean mandatory;
+    private final boolean predefined;
+    private final Set<String> commands;
+    private final TaskDefinition taskDefinition;
+
+    private Registration(final TaskDefinitionEntity taskDefinitionEntity) {
+      super();
+      this.id = taskDefinitionEntity.getId();
+      this.mandatory = Boolean.TRUE.equals(taskDefinitionEntity.isMandatory());
+      this.predefined = Boolean.TRUE.equals(taskDefinitionEntity.isPredefined());
+      this.commands = Collections.unmodifiableSet(new HashSet<>(taskDefinitionEntity.getCommands()));
+      this.taskDefinition = TaskDefinitionMapper.map(taskDefinitionEntity);
+    }
+
+    public Long id() {
+      return this.id;
+    }
+
+    public boolean mandatory() {
+      return this.mandatory;
+    }
+
+    public boolean predefined() {
+      return this.predefined;
+    }
+
+    public Set<String> commands() {
+      return this.commands;
+    }
+
+    /**
+     * @return a new copy of the task definition, callers may change it
+     */
+    public TaskDefinition taskDefinition() {
+      final TaskDefinition taskDefinition = new TaskDefinition();
+      taskDefinition.setIdentifier(this.taskDefinition.getIdentifier());
+      taskDefinition.setType(this.taskDefinition.getType());
+      taskDefinition.setName(this.taskDefinition.getName());
+      taskDefinition.setDescription(this.taskDefinition.getDescription());
+      taskDefinition.setCommands(this.taskDefinition.getCommands());
+      taskDefinition.setMandatory(this.taskDefinition.getMandatory());
+      taskDefinition.setPredefined(this.taskDefinition.getPredefined());
+      return taskDefinition;
+    }
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.internal.service;
+
+import org.apache.fineract.cn.customer.api.v1.CustomerEventConstants;
+import org.apache.fineract.cn.lang.config.TenantHeaderFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jms.annotation.JmsListener;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops the {@link TaskDefinitionRegistry} of a tenant on every node when one of its task definitions was created or
+ * changed.
+ */
+@Component
+public class TaskDefinitionRegistryInvalidationListener {
+
+  private static final String SELECTOR_TASK_CHANGED = CustomerEventConstants.SELECTOR_NAME + " IN ('" +
+      String.join("', '",
+          CustomerEventConstants.POST_TASK,
+          CustomerEventConstants.PUT_TASK) + "')";
+
+  private final TaskDefinitionRegistry taskDefinitionRegistry;
+
+  @Autowired
+  public TaskDefinitionRegistryInvalidationListener(final TaskDefinitionRegistry taskDefinitionRegistry) {
+    super();
+    this.taskDefinitionRegistry = taskDefinitionRegistry;
+  }
+
+  @JmsListener(
+      destination = CustomerEventConstants.DESTINATION,
+      selector = SELECTOR_TASK_CHANGED,
+      containerFactory = CustomerCacheInvalidationListener.CONTAINER_FACTORY
+  )
+  public void onTaskDefinitionChanged(@Header(TenantHeaderFilter.TENANT_HEADER) final String tenant) {
+    this.taskDefinitionRegistry.evict(tenant);
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.internal.util;
+
+import org.apache.fineract.cn.lang.TenantContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Counts the evictions of a cache per tenant. A cache reads the generation of the tenant before loading a value and
+ * keeps the value only if the generation is still current afterwards, so a value loaded while it was evicted is not
+ * kept. Evictions of one tenant do not cause values of other tenants to be dropped.
+ */
+public class CacheGenerations {
+
+  private final ConcurrentHashMap<String, AtomicLong> generations;
+
+  public CacheGenerations() {
+    super();
+    this.generations = new ConcurrentHashMap<>();
+  }
+
+  public long current(final String tenantIdentifier) {
+    return this.generation(tenantIdentifier).get();
+  }
+
+  public boolean isCurrent(final String tenantIdentifier, final long loadedAtGeneration) {
+    return this.generation(tenantIdentifier).get() == loadedAtGeneration;
+  }
+
+  /**
+   * Must be called before the evicted values are removed from the cache.
+   */
+  public void advance(final String tenantIdentifier) {
+    this.generation(tenantIdentifier).incrementAndGet();
+  }
+
+  /**
+   * Runs the eviction for the current tenant once the surrounding transaction committed, so concurrent readers can
+   * not load the old state again before the change is visible. Outside of a transaction the eviction runs at once.
+   */
+  public static void afterCommit(final Consumer<String> eviction) {
+    final String tenantIdentifier = TenantContextHolder.checkedGetIdentifier();
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+        @Override
+        public void afterCommit() {
+          eviction.accept(tenantIdentifier);
+        }
+      });
+    } else {
+      eviction.accept(tenantIdentifier);
+    }
+  }
+
+  private AtomicLong generation(final String tenantIdentifier) {
+    return this.generations.computeIfAbsent(tenantIdentifier, key -> new AtomicLong());
+  }
+}
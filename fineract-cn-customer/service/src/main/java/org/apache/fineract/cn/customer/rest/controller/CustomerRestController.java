@@ -23,6 +23,10 @@ import org.apache.fineract.cn.customer.api.v1.domain.Address;
 import org.apache.fineract.cn.customer.api.v1.domain.Command;
 import org.apache.fineract.cn.customer.api.v1.domain.ContactDetail;
 import org.apache.fineract.cn.customer.api.v1.domain.Customer;
+import org.apache.fineract.cn.customer.api.v1.domain.CustomerBatch;
+import org.apache.fineract.cn.customer.api.v1.domain.CustomerBulkCommand;
+import org.apache.fineract.cn.customer.api.v1.domain.CustomerBulkCommandResult;
+import org.apache.fineract.cn.customer.api.v1.domain.CustomerChanges;
 import org.apache.fineract.cn.customer.api.v1.domain.CustomerPage;
 import org.apache.fineract.cn.customer.api.v1.domain.IdentificationCard;
 import org.apache.fineract.cn.customer.api.v1.domain.IdentificationCardScan;
@@ -51,13 +55,28 @@ import org.apache.fineract.cn.customer.internal.command.UpdateContactDetailsComm
 import org.apache.fineract.cn.customer.internal.command.UpdateCustomerCommand;
 import org.apache.fineract.cn.customer.internal.command.UpdateIdentificationCardCommand;
 import org.apache.fineract.cn.customer.internal.command.UpdateTaskDefinitionCommand;
+import org.apache.fineract.cn.customer.internal.repository.IdentificationCardScanEntity;
 import org.apache.fineract.cn.customer.internal.repository.PortraitEntity;
+import org.apache.fineract.cn.customer.internal.service.ContentService;
+import org.apache.fineract.cn.customer.internal.service.ImageVariant;
+import org.apache.fineract.cn.customer.internal.service.ImageVariantService;
+import org.apache.fineract.cn.customer.internal.service.CustomerBulkCommandService;
+import org.apache.fineract.cn.customer.internal.service.CustomerChangeFeed;
+import org.apache.fineract.cn.customer.internal.service.CustomerImportService;
 import org.apache.fineract.cn.customer.internal.service.CustomerService;
 import org.apache.fineract.cn.customer.internal.service.TaskService;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.Size;
 import org.apache.fineract.cn.anubis.annotation.AcceptedTokenType;
@@ -70,6 +89,7 @@ import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.core.env.Environment;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -82,15 +102,27 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.multipart.MultipartFile;
 
 @RestController
 @RequestMapping("/")
 public class CustomerRestController {
 
+  private static final int MAX_BATCH_SIZE = 500;
+  private static final int DEFAULT_PAGE_SIZE = 20;
+  private static final int MAX_PAGE_SIZE = 1000;
+  private static final String NDJSON_VALUE = "application/x-ndjson";
+
   private final Logger logger;
   private final CommandGateway commandGateway;
   private final CustomerService customerService;
+  private final CustomerImportService customerImportService;
+  private final CustomerBulkCommandService customerBulkCommandService;
+  private final CustomerChangeFeed customerChangeFeed;
+  private final ContentService contentService;
+  private final ImageVariantService imageVariantService;
   private final FieldValueValidator fieldValueValidator;
   private final TaskService taskService;
   private final Environment environment;
@@ -99,6 +131,11 @@ public class CustomerRestController {
   public CustomerRestController(@Qualifier(ServiceConstants.LOGGER_NAME) final Logger logger,
                                 final CommandGateway commandGateway,
                                 final CustomerService customerService,
+                                final CustomerImportService customerImportService,
+                                final CustomerBulkCommandService customerBulkCommandService,
+                                final CustomerChangeFeed customerChangeFeed,
+                                final ContentService contentService,
+                                final ImageVariantService imageVariantService,
                                 final FieldValueValidator fieldValueValidator,
                                 final TaskService taskService,
                                 final Environment environment) {
@@ -106,6 +143,11 @@ public class CustomerRestController {
     this.logger = logger;
     this.commandGateway = commandGateway;
     this.customerService = customerService;
+    this.customerImportService = customerImportService;
+    this.customerBulkCommandService = customerBulkCommandService;
+    this.customerChangeFeed = customerChangeFeed;
+    this.contentService = contentService;
+    this.imageVariantService = imageVariantService;
     this.fieldValueValidator = fieldValueValidator;
     this.taskService = taskService;
     this.environment = environment;
@@ -161,10 +203,17 @@ public class CustomerRestController {
                                               @RequestParam(value = "pageIndex", required = false) final Integer pageIndex,
                                               @RequestParam(value = "size", required = false) final Integer size,
                                               @RequestParam(value = "sortColumn", required = false) final String sortColumn,
-                                              @RequestParam(value = "sortDirection", required = false) final String sortDirection) {
+                                              @RequestParam(value = "sortDirection", required = false) final String sortDirection,
+                                              @RequestParam(value = "continuationToken", required = false) final String continuationToken,
+                                              @RequestParam(value = "includeTotals", required = false) final Boolean includeTotals) {
+    if (continuationToken != null) {
+      return ResponseEntity.ok(this.customerService.fetchCustomer(continuationToken, this.pageSize(size)));
+    }
+
     return ResponseEntity.ok(this.customerService.fetchCustomer(
         term, (includeClosed != null ? includeClosed : Boolean.FALSE),
-        this.createPageRequest(pageIndex, size, sortColumn, sortDirection)));
+        this.createPageRequest(pageIndex, size, sortColumn, sortDirection),
+        (includeTotals != null ? includeTotals : Boolean.TRUE)));
   }
 
   @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.CUSTOMER)
@@ -176,12 +225,99 @@ public class CustomerRestController {
   )
   public
   @ResponseBody
-  ResponseEntity<Customer> findCustomer(@PathVariable("identifier") final String identifier) {
-    final Optional<Customer> customer = this.customerService.findCustomer(identifier);
-    if (customer.isPresent()) {
-      return ResponseEntity.ok(customer.get());
-    } else {
-      throw ServiceException.notFound("Customer {0} not found.", identifier);
+  ResponseEntity<Customer> findCustomer(@PathVariable("identifier") final String identifier,
+                                        final WebRequest webRequest) {
+    final long lastModified = this.customerService.findLastModified(identifier)
+        .orElseThrow(() -> ServiceException.notFound("Customer {0} not found.", identifier));
+    if (webRequest.checkNotModified(Long.toHexString(lastModified), lastModified)) {
+      return null;
+    }
+
+    // the validators describe the body sent, which may have changed again since the check
+    final Customer customer = this.customerService.findCustomer(identifier, lastModified)
+        .orElseThrow(() -> ServiceException.notFound("Customer {0} not found.", identifier));
+    final long customerLastModified = CustomerService.lastModified(customer);
+    return ResponseEntity
+        .ok()
+        .eTag(Long.toHexString(customerLastModified))
+        .lastModified(customerLastModified)
+        .body(customer);
+  }
+
+  @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.CUSTOMER)
+  @RequestMapping(
+      value = "/customers/_batch",
+      method = RequestMethod.POST,
+      produces = MediaType.APPLICATION_JSON_VALUE,
+      consumes = MediaType.APPLICATION_JSON_VALUE
+  )
+  public
+  @ResponseBody
+  ResponseEntity<CustomerBatch> findCustomers(@RequestBody final List<String> identifiers) {
+    if (identifiers == null || identifiers.isEmpty()) {
+      throw ServiceException.badRequest("At least one identifier must be given.");
+    }
+    if (identifiers.size() > MAX_BATCH_SIZE) {
+      throw ServiceException.badRequest("At most {0} customers can be fetched at once.", MAX_BATCH_SIZE);
+    }
+    return ResponseEntity.ok(this.customerService.findCustomers(identifiers));
+  }
+
+  @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.CUSTOMER)
+  @RequestMapping(
+      value = "/customers/_changes",
+      method = RequestMethod.GET,
+      produces = MediaType.APPLICATION_JSON_VALUE,
+      consumes = MediaType.ALL_VALUE
+  )
+  public
+  @ResponseBody
+  DeferredResult<CustomerChanges> fetchCustomerChanges(@RequestParam(value = "since", required = false) final String since,
+                                                       @RequestParam(value = "size", required = false) final Integer size,
+                                                       @RequestParam(value = "wait", required = false) final Integer wait) {
+    final int sizeToUse = size != null ? size : MAX_BATCH_SIZE;
+    if (sizeToUse < 1 || sizeToUse > MAX_BATCH_SIZE) {
+      throw ServiceException.badRequest("Size must be between 1 and {0}.", MAX_BATCH_SIZE);
+    }
+    final int waitToUse = wait != null ? wait : 0;
+    if (waitToUse < 0 || waitToUse > CustomerChangeFeed.MAX_WAIT_SECONDS) {
+      throw ServiceException.badRequest("Wait must be between 0 and {0} seconds.", CustomerChangeFeed.MAX_WAIT_SECONDS);
+    }
+    return this.customerChangeFeed.awaitChanges(since, sizeToUse, waitToUse);
+  }
+
+  @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.CUSTOMER)
+  @RequestMapping(
+      value = "/customers/_commands",
+      method = RequestMethod.POST,
+      produces = MediaType.APPLICATION_JSON_VALUE,
+      consumes = MediaType.APPLICATION_JSON_VALUE
+  )
+  public
+  @ResponseBody
+  ResponseEntity<CustomerBulkCommandResult> customerBulkCommand(
+      @RequestBody @Valid final CustomerBulkCommand customerBulkCommand) {
+    return ResponseEntity.ok(this.customerBulkCommandService.process(customerBulkCommand));
+  }
+
+  @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.CUSTOMER)
+  @RequestMapping(
+      value = "/customers/_import",
+      method = RequestMethod.POST,
+      produces = NDJSON_VALUE,
+      consumes = NDJSON_VALUE
+  )
+  public
+  void importCustomers(final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+    response.setStatus(HttpServletResponse.SC_OK);
+    response.setContentType(NDJSON_VALUE);
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+    try (final BufferedReader reader =
+             new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8));
+         final BufferedWriter writer =
+             new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8))) {
+      this.customerImportService.importCustomers(reader, writer);
     }
   }
 
@@ -545,17 +681,40 @@ public class CustomerRestController {
   )
   public
   @ResponseBody
-  ResponseEntity<byte[]> fetchIdentificationCardScanImage(@PathVariable("identifier") final String identifier,
+  ResponseEntity<Resource> fetchIdentificationCardScanImage(@PathVariable("identifier") final String identifier,
                                           @PathVariable("number") final String number,
-                                          @PathVariable("scanIdentifier") final String scanIdentifier) {
+                                          @PathVariable("scanIdentifier") final String scanIdentifier,
+                                          @RequestParam(value = "size", required = false) final String size,
+                                          final WebRequest webRequest) {
+    final Optional<ImageVariant> imageVariant = ImageVariant.forSize(size);
     this.throwIfCustomerNotExists(identifier);
     this.throwIfIdentificationCardNotExists(number);
     this.throwIfIdentificationCardScanNotExists(number, scanIdentifier);
 
-    final Optional<byte[]> image = this.customerService.findIdentificationCardScanImage(number, scanIdentifier);
-
-    return image.map(ResponseEntity::ok)
+    final IdentificationCardScanEntity scan = this.customerService.findIdentificationCardScanEntity(number, scanIdentifier)
             .orElseThrow(() -> ServiceException.notFound("Identification card scan {0} not found.", number));
+
+    final Optional<Resource> variant =
+        imageVariant.flatMap(requested -> this.imageVariantService.find(scan.getContentKey(), requested));
+    final String eTag = variant.isPresent()
+        ? scan.getContentKey() + "-" + imageVariant.get().identifier()
+        : scan.getContentKey();
+    if (webRequest.checkNotModified(eTag)) {
+      return null;
+    }
+
+    if (variant.isPresent()) {
+      return ResponseEntity
+              .ok()
+              .eTag(eTag)
+              .body(variant.get());
+    }
+
+    return ResponseEntity
+            .ok()
+            .eTag(eTag)
+            .contentLength(scan.getSize())
+            .body(this.contentService.load(scan.getContentKey()));
   }
 
   @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.IDENTIFICATIONS)
@@ -584,7 +743,7 @@ public class CustomerRestController {
     scan.setIdentifier(scanIdentifier);
     scan.setDescription(description);
 
-    this.commandGateway.process(new CreateIdentificationCardScanCommand(number, scan, image));
+    this.commandGateway.process(new CreateIdentificationCardScanCommand(number, scan, this.contentService.stage(image)));
 
     return ResponseEntity.accepted().build();
   }
@@ -615,15 +774,36 @@ public class CustomerRestController {
       method = RequestMethod.GET,
       consumes = MediaType.ALL_VALUE
   )
-  public ResponseEntity<byte[]> getPortrait(@PathVariable("identifier") final String identifier) {
+  public ResponseEntity<Resource> getPortrait(@PathVariable("identifier") final String identifier,
+                                              @RequestParam(value = "size", required = false) final String size,
+                                              final WebRequest webRequest) {
+    final Optional<ImageVariant> imageVariant = ImageVariant.forSize(size);
     final PortraitEntity portrait = this.customerService.findPortrait(identifier)
         .orElseThrow(() -> ServiceException.notFound("Portrait for Customer ''{0}'' not found.", identifier));
 
+    final Optional<Resource> variant =
+        imageVariant.flatMap(requested -> this.imageVariantService.find(portrait.getContentKey(), requested));
+    final String eTag = variant.isPresent()
+        ? portrait.getContentKey() + "-" + imageVariant.get().identifier()
+        : portrait.getContentKey();
+    if (webRequest.checkNotModified(eTag)) {
+      return null;
+    }
+
+    if (variant.isPresent()) {
+      return ResponseEntity
+              .ok()
+              .contentType(MediaType.parseMediaType(portrait.getContentType()))
+              .eTag(eTag)
+              .body(variant.get());
+    }
+
     return ResponseEntity
             .ok()
             .contentType(MediaType.parseMediaType(portrait.getContentType()))
-            .contentLength(portrait.getImage().length)
-            .body(portrait.getImage());
+            .eTag(eTag)
+            .contentLength(portrait.getSize())
+            .body(this.contentService.load(portrait.getContentKey()));
   }
 
   @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.PORTRAIT)
@@ -634,7 +814,7 @@ public class CustomerRestController {
       consumes = MediaType.MULTIPART_FORM_DATA_VALUE
   )
   public @ResponseBody ResponseEntity<Void> postPortrait(@PathVariable("identifier") final String identifier,
-                                          @RequestBody final MultipartFile portrait) {
+                                          @RequestBody final MultipartFile portrait) throws IOException {
     if(portrait == null) {
       throw ServiceException.badRequest("Portrait not found");
     }
@@ -649,7 +829,7 @@ public class CustomerRestController {
       logger.warn("Could not delete portrait: {0}", e.getMessage());
     }
 
-    this.commandGateway.process(new CreatePortraitCommand(identifier, portrait));
+    this.commandGateway.process(new CreatePortraitCommand(identifier, this.contentService.stage(portrait)));
 
     return ResponseEntity.accepted().build();
   }
@@ -750,10 +930,24 @@ public class CustomerRestController {
 
   private Pageable createPageRequest(final Integer pageIndex, final Integer size, final String sortColumn, final String sortDirection) {
     final Integer pageIndexToUse = pageIndex != null ? pageIndex : 0;
-    final Integer sizeToUse = size != null ? size : 20;
+    final Integer sizeToUse = this.pageSize(size);
     final String sortColumnToUse = sortColumn != null ? sortColumn : "identifier";
-    final Sort.Direction direction = sortDirection != null ? Sort.Direction.valueOf(sortDirection.toUpperCase()) : Sort.Direction.ASC;
-    return new PageRequest(pageIndexToUse, sizeToUse, direction, sortColumnToUse);
+    final Sort.Direction direction;
+    try {
+      direction = sortDirection != null ? Sort.Direction.valueOf(sortDirection.toUpperCase()) : Sort.Direction.ASC;
+    } catch (final IllegalArgumentException iaex) {
+      throw ServiceException.badRequest("Sort direction {0} is invalid.", sortDirection);
+    }
+    // the id breaks ties, so pages of non-unique columns neither overlap nor skip customers
+    return new PageRequest(pageIndexToUse, sizeToUse, new Sort(direction, sortColumnToUse).and(new Sort(direction, "id")));
+  }
+
+  private int pageSize(final Integer size) {
+    final int sizeToUse = size != null ? size : DEFAULT_PAGE_SIZE;
+    if (sizeToUse < 1 || sizeToUse > MAX_PAGE_SIZE) {
+      throw ServiceException.badRequest("Page size {0} is invalid, it must be between 1 and {1,number,#}.", sizeToUse, MAX_PAGE_SIZE);
+    }
+    return sizeToUse;
   }
 
   private void throwIfCustomerNotExists(final String identifier) {
@@ -27,10 +27,20 @@ import org.apache.fineract.cn.customer.internal.command.CreateDocumentPageComman
 import org.apache.fineract.cn.customer.internal.command.DeleteDocumentCommand;
 import org.apache.fineract.cn.customer.internal.command.DeleteDocumentPageCommand;
 import org.apache.fineract.cn.customer.internal.repository.DocumentPageEntity;
+import org.apache.fineract.cn.customer.internal.service.ContentService;
 import org.apache.fineract.cn.customer.internal.service.CustomerService;
 import org.apache.fineract.cn.customer.internal.service.DocumentService;
+import org.apache.fineract.cn.customer.internal.service.ImageVariant;
+import org.apache.fineract.cn.customer.internal.service.ImageVariantService;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import org.apache.fineract.cn.anubis.annotation.AcceptedTokenType;
 import org.apache.fineract.cn.anubis.annotation.Permittable;
@@ -38,14 +48,19 @@ import org.apache.fineract.cn.command.gateway.CommandGateway;
 import org.apache.fineract.cn.lang.ServiceException;
 import org.hibernate.validator.constraints.Range;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 /**
@@ -54,18 +69,26 @@ import org.springframework.web.multipart.MultipartFile;
 @RestController
 @RequestMapping("/customers/{customeridentifier}/documents")
 public class DocumentsRestController {
+  private static final String ZIP_VALUE = "application/zip";
+
   private final CommandGateway commandGateway;
   private final CustomerService customerService;
   private final DocumentService documentService;
+  private final ContentService contentService;
+  private final ImageVariantService imageVariantService;
 
   @Autowired
   public DocumentsRestController(
       final CommandGateway commandGateway,
       final CustomerService customerService,
-      final DocumentService documentService) {
+      final DocumentService documentService,
+      final ContentService contentService,
+      final ImageVariantService imageVariantService) {
     this.commandGateway = commandGateway;
     this.customerService = customerService;
     this.documentService = documentService;
+    this.contentService = contentService;
+    this.imageVariantService = imageVariantService;
   }
 
   @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.DOCUMENTS)
@@ -220,19 +243,83 @@ public class DocumentsRestController {
       produces = MediaType.APPLICATION_JSON_VALUE,
       consumes = MediaType.ALL_VALUE
   )
-  public ResponseEntity<byte[]> getDocumentPage(
+  public ResponseEntity<Resource> getDocumentPage(
       @PathVariable("customeridentifier") final String customerIdentifier,
       @PathVariable("documentidentifier") final String documentIdentifier,
-      @PathVariable("pagenumber") final Integer pageNumber) {
+      @PathVariable("pagenumber") final Integer pageNumber,
+      @RequestParam(value = "size", required = false) final String size,
+      final WebRequest webRequest) {
+    final Optional<ImageVariant> imageVariant = ImageVariant.forSize(size);
     final DocumentPageEntity documentPageEntity = documentService.findPage(customerIdentifier, documentIdentifier, pageNumber)
         .orElseThrow(() -> ServiceException.notFound("Page ''{0}'' of document ''{1}'' for customer ''{2}'' not found.",
             pageNumber, documentIdentifier, customerIdentifier));
 
+    final Optional<Resource> variant =
+        imageVariant.flatMap(requested -> imageVariantService.find(documentPageEntity.getContentKey(), requested));
+    final String eTag = variant.isPresent()
+        ? documentPageEntity.getContentKey() + "-" + imageVariant.get().identifier()
+        : documentPageEntity.getContentKey();
+    if (webRequest.checkNotModified(eTag)) {
+      return null;
+    }
+
+    if (variant.isPresent()) {
+      return ResponseEntity
+          .ok()
+          .contentType(MediaType.parseMediaType(documentPageEntity.getContentType()))
+          .eTag(eTag)
+          .body(variant.get());
+    }
+
     return ResponseEntity
         .ok()
         .contentType(MediaType.parseMediaType(documentPageEntity.getContentType()))
-        .contentLength(documentPageEntity.getImage().length)
-        .body(documentPageEntity.getImage());
+        .eTag(eTag)
+        .contentLength(documentPageEntity.getSize())
+        .body(contentService.load(documentPageEntity.getContentKey()));
+  }
+
+
+  @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.DOCUMENTS)
+  @RequestMapping(
+      value = "/{documentidentifier}/archive",
+      method = RequestMethod.GET,
+      produces = ZIP_VALUE,
+      consumes = MediaType.ALL_VALUE
+  )
+  public void getDocumentArchive(
+      @PathVariable("customeridentifier") final String customerIdentifier,
+      @PathVariable("documentidentifier") final String documentIdentifier,
+      final HttpServletResponse response) throws IOException {
+    if (!documentService.documentExists(customerIdentifier, documentIdentifier))
+      throw ServiceException.notFound("Document ''{0}'' for customer ''{1}'' not found.", documentIdentifier, customerIdentifier);
+
+    if (!documentService.isDocumentCompleted(customerIdentifier, documentIdentifier))
+      throw ServiceException.badRequest("The document ''{0}'' for customer ''{1}'' is not completed yet.",
+          documentIdentifier, customerIdentifier);
+
+    final List<DocumentPageEntity> pages = documentService.findPages(customerIdentifier, documentIdentifier);
+    // resolve all pages before the response is committed, so missing content still fails the request
+    final List<Resource> contents = pages.stream()
+        .map(page -> contentService.load(page.getContentKey()))
+        .collect(Collectors.toList());
+
+    response.setStatus(HttpServletResponse.SC_OK);
+    response.setContentType(ZIP_VALUE);
+    response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + documentIdentifier + ".zip\"");
+
+    try (final ZipOutputStream zipOutputStream = new ZipOutputStream(response.getOutputStream())) {
+      // pages are JPEG or PNG images which do not shrink any further
+      zipOutputStream.setLevel(Deflater.NO_COMPRESSION);
+      for (int i = 0; i < pages.size(); i++) {
+        final DocumentPageEntity page = pages.get(i);
+        zipOutputStream.putNextEntry(new ZipEntry(pageFileName(page)));
+        try (final InputStream content = contents.get(i).getInputStream()) {
+          StreamUtils.copy(content, zipOutputStream);
+        }
+        zipOutputStream.closeEntry();
+      }
+    }
   }
 
 
@@ -248,7 +335,7 @@ public class DocumentsRestController {
       @PathVariable("customeridentifier") final String customerIdentifier,
       @PathVariable("documentidentifier") final String documentIdentifier,
       @PathVariable("pagenumber") @Range(min=0) final Integer pageNumber,
-      @RequestBody final MultipartFile page) {
+      @RequestBody final MultipartFile page) throws IOException {
     if(page == null) {
       throw ServiceException.badRequest("Document not found");
     }
@@ -257,7 +344,7 @@ public class DocumentsRestController {
     throwIfDocumentCompleted(customerIdentifier, documentIdentifier);
     throwIfInvalidContentType(page.getContentType());
 
-    commandGateway.process(new CreateDocumentPageCommand(customerIdentifier, documentIdentifier, pageNumber, page));
+    commandGateway.process(new CreateDocumentPageCommand(customerIdentifier, documentIdentifier, pageNumber, contentService.stage(page)));
 
     return ResponseEntity.accepted().build();
   }
@@ -295,6 +382,19 @@ public class DocumentsRestController {
     }
   }
 
+  private static String pageFileName(final DocumentPageEntity page) {
+    final String contentType = page.getContentType();
+    final String extension;
+    if (contentType != null && contentType.contains(MediaType.IMAGE_JPEG_VALUE)) {
+      extension = "jpg";
+    } else if (contentType != null && contentType.contains(MediaType.IMAGE_PNG_VALUE)) {
+      extension = "png";
+    } else {
+      extension = "bin";
+    }
+    return String.format("page-%03d.%s", page.getPageNumber(), extension);
+  }
+
   private void throwIfInvalidContentType(final String contentType) {
     if(!contentType.contains(MediaType.IMAGE_JPEG_VALUE)
         && !contentType.contains(MediaType.IMAGE_PNG_VALUE)) {
@@ -0,0 +1,29 @@
+--
+-- Licensed to the Apache Software Foundation (ASF) under one
+-- or more contributor license agreements.  See the NOTICE file
+-- distributed with this work for additional information
+-- regarding copyright ownership.  The ASF licenses this file
+-- to you under the Apache License, Version 2.0 (the
+-- "License"); you may not use this file except in compliance
+-- with the License.  You may obtain a copy of the License at
+--
+--   http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing,
+-- software distributed under the License is distributed on an
+-- "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+-- KIND, either express or implied.  See the License for the
+-- specific language governing permissions and limitations
+-- under the License.
+--
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+-- unaccent() is only STABLE, index expressions need an IMMUTABLE function
+CREATE OR REPLACE FUNCTION maat_search_normalize(a_value TEXT) RETURNS TEXT AS
+  $$ SELECT lower(public.unaccent('public.unaccent'::regdictionary, a_value)) $$
+  LANGUAGE SQL IMMUTABLE STRICT;
+
+CREATE INDEX maat_customers_search_trgm_idx ON maat_customers
+  USING GIN (maat_search_normalize(identifier || ' ' || given_name || ' ' || surname) gin_trgm_ops);
@@ -0,0 +1,30 @@
+--
+-- Licensed to the Apache Software Foundation (ASF) under one
+-- or more contributor license agreements.  See the NOTICE file
+-- distributed with this work for additional information
+-- regarding copyright ownership.  The ASF licenses this file
+-- to you under the Apache License, Version 2.0 (the
+-- "License"); you may not use this file except in compliance
+-- with the License.  You may obtain a copy of the License at
+--
+--   http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing,
+-- software distributed under the License is distributed on an
+-- "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+-- KIND, either express or implied.  See the License for the
+-- specific language governing permissions and limitations
+-- under the License.
+--
+-- commands a task definition is assigned to, so open tasks can be looked up by command instead of by substring
+CREATE TABLE maat_task_definition_commands ( task_definition_id BIGINT NOT NULL, a_command VARCHAR(32) NOT NULL,
+                                             CONSTRAINT maat_task_def_commands_pk PRIMARY KEY (task_definition_id, a_command),
+                                             CONSTRAINT maat_task_def_commands_def_fk FOREIGN KEY (task_definition_id) REFERENCES maat_task_definitions (id) ON DELETE CASCADE );
+CREATE INDEX maat_task_def_commands_command_idx ON maat_task_definition_commands (a_command);
+
+INSERT INTO maat_task_definition_commands (task_definition_id, a_command)
+  SELECT DISTINCT d.id, c.a_command
+  FROM maat_task_definitions d, unnest(string_to_array(d.assigned_commands, ';')) AS c(a_command)
+  WHERE c.a_command <> '';
+
+CREATE INDEX maat_task_instances_cust_exec_idx ON maat_task_instances (customer_id, executed_by);
@@ -0,0 +1,33 @@
+--
+-- Licensed to the Apache Software Foundation (ASF) under one
+-- or more contributor license agreements.  See the NOTICE file
+-- distributed with this work for additional information
+-- regarding copyright ownership.  The ASF licenses this file
+-- to you under the Apache License, Version 2.0 (the
+-- "License"); you may not use this file except in compliance
+-- with the License.  You may obtain a copy of the License at
+--
+--   http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing,
+-- software distributed under the License is distributed on an
+-- "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+-- KIND, either express or implied.  See the License for the
+-- specific language governing permissions and limitations
+-- under the License.
+--
+-- change feed, customers are read in the order their changes were committed: every insert or update stamps the row
+-- with the id of its transaction, and only transactions older than every running one are handed out
+ALTER TABLE maat_customers ADD COLUMN change_txid BIGINT NOT NULL DEFAULT 0;
+
+CREATE FUNCTION maat_customers_stamp_change() RETURNS TRIGGER AS $$
+BEGIN
+  NEW.change_txid := txid_current();
+  RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER maat_customers_change_trg BEFORE INSERT OR UPDATE ON maat_customers
+  FOR EACH ROW EXECUTE PROCEDURE maat_customers_stamp_change();
+
+CREATE INDEX maat_customers_change_txid_idx ON maat_customers (change_txid, id);
@@ -0,0 +1,29 @@
+--
+-- Licensed to the Apache Software Foundation (ASF) under one
+-- or more contributor license agreements.  See the NOTICE file
+-- distributed with this work for additional information
+-- regarding copyright ownership.  The ASF licenses this file
+-- to you under the Apache License, Version 2.0 (the
+-- "License"); you may not use this file except in compliance
+-- with the License.  You may obtain a copy of the License at
+--
+--   http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing,
+-- software distributed under the License is distributed on an
+-- "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+-- KIND, either express or implied.  See the License for the
+-- specific language governing permissions and limitations
+-- under the License.
+--
+-- referencing columns of foreign keys, per customer lookups and deletes of a referenced row would scan the whole table
+CREATE INDEX maat_id_cards_customer_idx ON maat_identification_cards (customer_id);
+CREATE INDEX maat_id_cards_number_idx ON maat_identification_cards (a_number);
+CREATE INDEX maat_contact_details_customer_idx ON maat_contact_details (customer_id);
+CREATE INDEX maat_commands_customer_idx ON maat_commands (customer_id);
+CREATE INDEX maat_task_instances_def_idx ON maat_task_instances (task_definition_id);
+CREATE INDEX maat_portraits_customer_idx ON maat_portraits (customer_id);
+CREATE INDEX nun_field_values_field_idx ON nun_field_values (field_id);
+
+-- bulk commands select the customers of a state in id order
+CREATE INDEX maat_customers_state_idx ON maat_customers (current_state, id);
@@ -0,0 +1,291 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.internal.repository;
+
+import org.apache.fineract.cn.lang.TenantContextHolder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.core.io.Resource;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public class FileSystemContentStoreTest {
+
+  private static final String TENANT_IDENTIFIER = "content_tenant";
+
+  @Rule
+  public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private Path root;
+  private FileSystemContentStore testSubject;
+
+  public FileSystemContentStoreTest() {
+    super();
+  }
+
+  @Before
+  public void prepare() throws Exception {
+    this.root = this.temporaryFolder.getRoot().toPath().toRealPath();
+    this.testSubject = new FileSystemContentStore(this.root);
+    TenantContextHolder.setIdentifier(TENANT_IDENTIFIER);
+  }
+
+  @After
+  public void cleanup() {
+    TenantContextHolder.clear();
+  }
+
+  @Test
+  public void shouldStoreFindAndDeleteContent() throws Exception {
+    final String key = this.store("portrait");
+    Assert.assertEquals(FileSystemContentStoreTest.sha256("portrait"), key);
+    Assert.assertEquals("portrait", FileSystemContentStoreTest.read(this.testSubject.find(key)));
+
+    this.testSubject.storeVariant(key, "thumbnail", FileSystemContentStoreTest.stream("thumb"));
+    Assert.assertEquals("thumb", FileSystemContentStoreTest.read(this.testSubject.findVariant(key, "thumbnail")));
+
+    this.testSubject.delete(key);
+    Assert.assertFalse(this.testSubject.find(key).isPresent());
+    Assert.assertFalse(this.testSubject.findVariant(key, "thumbnail").isPresent());
+  }
+
+  @Test
+  public void shouldKeepSingleCopyAndMarkItStoredAgain() throws Exception {
+    final String key = this.store("scan");
+    this.age(key);
+
+    Assert.assertEquals(key, this.store("scan"));
+    Assert.assertTrue(Files.getLastModifiedTime(this.file(key)).toInstant()
+        .isAfter(Instant.now().minus(Duration.ofMinutes(1L))));
+    try (final Stream<Path> files = Files.list(this.file(key).getParent())) {
+      Assert.assertEquals(1L, files.count());
+    }
+  }
+
+  @Test
+  public void shouldKeepTenantsApart() throws Exception {
+    final String key = this.store("page");
+
+    TenantContextHolder.clear();
+    TenantContextHolder.setIdentifier("other_tenant");
+    Assert.assertFalse(this.testSubject.find(key).isPresent());
+    this.store("other page");
+
+    final List<String> tenants = this.testSubject.tenants();
+    Collections.sort(tenants);
+    Assert.assertEquals(Arrays.asList(TENANT_IDENTIFIER, "other_tenant"), tenants);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRejectInvalidKey() throws Exception {
+    this.testSubject.find("../" + FileSystemContentStoreTest.sha256("portrait"));
+  }
+
+  @Test
+  public void shouldHandOutStaleContentOnly() throws Exception {
+    final String staleKey = this.store("stale");
+    this.age(staleKey);
+    final String freshKey = this.store("fresh");
+    this.testSubject.storeVariant(staleKey, "thumbnail", FileSystemContentStoreTest.stream("thumb"));
+    this.age(this.file(staleKey).resolveSibling(staleKey + ".thumbnail"));
+
+    final List<String> staleKeys = new ArrayList<>();
+    this.testSubject.forEachStale(Instant.now().minus(Duration.ofMinutes(10L)), staleKeys::addAll);
+
+    Assert.assertEquals(Collections.singletonList(staleKey), staleKeys);
+    Assert.assertTrue(this.testSubject.find(freshKey).isPresent());
+  }
+
+  @Test
+  public void shouldCleanUpAfterInterruptedUploadsAndSweeps() throws Exception {
+    final Path tenantDirectory = this.root.resolve(TENANT_IDENTIFIER);
+    Files.createDirectories(tenantDirectory);
+    final Path abandonedUpload = Files.createTempFile(tenantDirectory, ".upload-", null);
+    this.age(abandonedUpload);
+    final Path runningUpload = Files.createTempFile(tenantDirectory, ".upload-", null);
+
+    final String key = this.store("withdrawn");
+    final Path tombstone = this.file(key).resolveSibling(".deleting-" + key);
+    Files.move(this.file(key), tombstone);
+    this.age(tombstone);
+
+    final String orphanKey = FileSystemContentStoreTest.sha256("orphan");
+    Files.createDirectories(this.file(orphanKey).getParent());
+    final Path orphanVariant = this.file(orphanKey).resolveSibling(orphanKey + ".thumbnail");
+    Files.write(orphanVariant, "thumb".getBytes(StandardCharsets.UTF_8));
+    this.age(orphanVariant);
+
+    this.testSubject.forEachStale(Instant.now().minus(Duration.ofMinutes(10L)), keys -> { });
+
+    Assert.assertFalse(Files.exists(abandonedUpload));
+    Assert.assertTrue(Files.exists(runningUpload));
+    Assert.assertFalse(Files.exists(tombstone));
+    Assert.assertEquals("withdrawn", FileSystemContentStoreTest.read(this.testSubject.find(key)));
+    Assert.assertFalse(Files.exists(orphanVariant));
+  }
+
+  @Test
+  public void shouldHandOutStaleContentInChunks() throws Exception {
+    final List<String> keys = new ArrayList<>();
+    for (int i = 0; i < 700; i++) {
+      final String key = this.store("content " + i);
+      this.age(key);
+      keys.add(key);
+    }
+
+    final List<List<String>> chunks = new ArrayList<>();
+    this.testSubject.forEachStale(Instant.now().minus(Duration.ofMinutes(10L)), chunks::add);
+
+    final List<String> staleKeys = new ArrayList<>();
+    chunks.forEach(chunk -> {
+      Assert.assertTrue(chunk.size() <= 500);
+      staleKeys.addAll(chunk);
+    });
+    Collections.sort(keys);
+    Collections.sort(staleKeys);
+    Assert.assertEquals(keys, staleKeys);
+  }
+
+  @Test
+  public void shouldDeleteStaleUnusedContent() throws Exception {
+    final String key = this.store("stale");
+    this.testSubject.storeVariant(key, "thumbnail", FileSystemContentStoreTest.stream("thumb"));
+    this.age(key);
+
+    Assert.assertTrue(this.testSubject.deleteStale(key, Instant.now().minus(Duration.ofMinutes(10L)), k -> false));
+
+    Assert.assertFalse(this.testSubject.find(key).isPresent());
+    Assert.assertFalse(this.testSubject.findVariant(key, "thumbnail").isPresent());
+    Assert.assertFalse(this.testSubject.deleteStale(key, Instant.now(), k -> false));
+  }
+
+  @Test
+  public void shouldNotDeleteContentInUse() throws Exception {
+    final String key = this.store("used");
+    this.age(key);
+
+    Assert.assertFalse(this.testSubject.deleteStale(key, Instant.now().minus(Duration.ofMinutes(10L)), k -> true));
+
+    Assert.assertEquals("used", FileSystemContentStoreTest.read(this.testSubject.find(key)));
+  }
+
+  @Test
+  public void shouldNotDeleteContentStoredAgain() throws Exception {
+    final String key = this.store("restaged");
+    this.age(key);
+    this.store("restaged");
+
+    Assert.assertFalse(this.testSubject.deleteStale(key, Instant.now().minus(Duration.ofMinutes(10L)), k -> false));
+
+    Assert.assertEquals("restaged", FileSystemContentStoreTest.read(this.testSubject.find(key)));
+  }
+
+  @Test
+  public void shouldNotDeleteContentStoredDuringSweep() throws Exception {
+    final String key = this.store("concurrent");
+    this.age(key);
+
+    // the content is stored again after the sweep withdrew it but before it decided
+    this.testSubject.deleteStale(key, Instant.now().minus(Duration.ofMinutes(10L)), k -> {
+      try {
+        this.store("concurrent");
+      } catch (final IOException ex) {
+        throw new IllegalStateException(ex);
+      }
+      return false;
+    });
+
+    Assert.assertEquals("concurrent", FileSystemContentStoreTest.read(this.testSubject.find(key)));
+    Assert.assertTrue(Files.getLastModifiedTime(this.file(key)).toInstant()
+        .isAfter(Instant.now().minus(Duration.ofMinutes(1L))));
+  }
+
+  @Test
+  public void shouldRestoreContentIfCheckFails() throws Exception {
+    final String key = this.store("unchecked");
+    this.age(key);
+
+    try {
+      this.testSubject.deleteStale(key, Instant.now().minus(Duration.ofMinutes(10L)), k -> {
+        throw new IllegalStateException("database unavailable");
+      });
+      Assert.fail();
+    } catch (final IllegalStateException ex) {
+      // expected
+    }
+
+    Assert.assertEquals("unchecked", FileSystemContentStoreTest.read(this.testSubject.find(key)));
+  }
+
+  private String store(final String content) throws IOException {
+    return this.testSubject.store(FileSystemContentStoreTest.stream(content));
+  }
+
+  private Path file(final String key) {
+    return this.root.resolve(TENANT_IDENTIFIER).resolve(key.substring(0, 2)).resolve(key);
+  }
+
+  private void age(final String key) throws IOException {
+    this.age(this.file(key));
+  }
+
+  private void age(final Path file) throws IOException {
+    Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(Duration.ofHours(2L))));
+  }
+
+  private static InputStream stream(final String content) {
+    return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String read(final Optional<Resource> resource) throws IOException {
+    Assert.assertTrue(resource.isPresent());
+    try (final InputStream inputStream = resource.get().getInputStream()) {
+      return StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8);
+    }
+  }
+
+  private static String sha256(final String content) throws Exception {
+    final byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+    final StringBuilder hex = new StringBuilder();
+    for (final byte b : digest) {
+      hex.append(String.format("%02x", b));
+    }
+    return hex.toString();
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.internal.service;
+
+import org.apache.fineract.cn.customer.internal.repository.FileSystemContentStore;
+import org.apache.fineract.cn.lang.ServiceException;
+import org.apache.fineract.cn.lang.TenantContextHolder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.StreamUtils;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+public class ContentServiceTest {
+
+  private static final String TENANT_IDENTIFIER = "content_service_tenant";
+
+  @Rule
+  public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private ContentService testSubject;
+
+  public ContentServiceTest() {
+    super();
+  }
+
+  @Before
+  public void prepare() throws Exception {
+    this.testSubject = new ContentService(
+        new FileSystemContentStore(this.temporaryFolder.getRoot().toPath().toRealPath()));
+    TenantContextHolder.setIdentifier(TENANT_IDENTIFIER);
+  }
+
+  @After
+  public void cleanup() {
+    TenantContextHolder.clear();
+  }
+
+  @Test
+  public void shouldStageAndLoadUpload() throws Exception {
+    final MockMultipartFile upload = new MockMultipartFile(
+        "portrait", "portrait.png", MediaType.IMAGE_PNG_VALUE, "portrait".getBytes(StandardCharsets.UTF_8));
+
+    final ContentReference contentReference = this.testSubject.stage(upload);
+
+    Assert.assertEquals(MediaType.IMAGE_PNG_VALUE, contentReference.contentType());
+    Assert.assertEquals(Long.valueOf(upload.getSize()), contentReference.size());
+    Assert.assertEquals(contentReference.key(), this.testSubject.stage(upload).key());
+    try (final InputStream inputStream = this.testSubject.load(contentReference.key()).getInputStream()) {
+      Assert.assertEquals("portrait", StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8));
+    }
+  }
+
+  @Test(expected = ServiceException.class)
+  public void shouldFailLoadingMissingContent() {
+    this.testSubject.load("0000000000000000000000000000000000000000000000000000000000000000");
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.internal.service;
+
+import org.apache.fineract.cn.customer.internal.repository.ContentStore;
+import org.apache.fineract.cn.customer.internal.repository.FileSystemContentStore;
+import org.apache.fineract.cn.lang.AutoTenantContext;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class ContentSweeperTest {
+
+  private static final String TENANT_IDENTIFIER = "sweeper_tenant";
+
+  @Rule
+  public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private Path root;
+  private ContentStore contentStore;
+  private Set<String> referenced;
+  private Set<String> referencedOnRecheck;
+  private Set<String> checked;
+  private ContentSweeper testSubject;
+
+  public ContentSweeperTest() {
+    super();
+  }
+
+  @Before
+  public void prepare() throws Exception {
+    this.root = this.temporaryFolder.getRoot().toPath().toRealPath();
+    this.contentStore = new FileSystemContentStore(this.root);
+    this.referenced = new HashSet<>();
+    this.referencedOnRecheck = new HashSet<>();
+    this.checked = new HashSet<>();
+
+    this.testSubject = new ContentSweeper(Mockito.mock(Logger.class), this.contentStore, Mockito.mock(DataSource.class),
+        60L, 60L) {
+      @Override
+      Set<String> findReferenced(final List<String> keys) {
+        // content is checked in chunks first and checked again right before it is deleted
+        final Set<String> references = ContentSweeperTest.this.checked.containsAll(keys)
+            ? ContentSweeperTest.this.referencedOnRecheck
+            : ContentSweeperTest.this.referenced;
+        ContentSweeperTest.this.checked.addAll(keys);
+        return keys.stream().filter(references::contains).collect(Collectors.toSet());
+      }
+    };
+  }
+
+  @Test
+  public void shouldSweepStaleUnreferencedContent() throws Exception {
+    final String referencedKey = this.store("referenced", true);
+    final String releasedKey = this.store("released", true);
+    final String stagedKey = this.store("staged", false);
+    this.referenced.add(referencedKey);
+    this.referencedOnRecheck.add(referencedKey);
+
+    this.testSubject.sweep();
+
+    try (final AutoTenantContext ignored = new AutoTenantContext(TENANT_IDENTIFIER)) {
+      Assert.assertTrue(this.contentStore.find(referencedKey).isPresent());
+      Assert.assertFalse(this.contentStore.find(releasedKey).isPresent());
+      Assert.assertTrue(this.contentStore.find(stagedKey).isPresent());
+    }
+  }
+
+  @Test
+  public void shouldKeepContentReferencedWhileSweeping() throws Exception {
+    final String key = this.store("claimed", true);
+    // the row referencing the content committed after the chunk was checked
+    this.referencedOnRecheck.add(key);
+
+    try (final AutoTenantContext ignored = new AutoTenantContext(TENANT_IDENTIFIER)) {
+      Assert.assertEquals(0L, this.testSubject.sweep(Instant.now().minus(Duration.ofMinutes(10L))));
+      Assert.assertTrue(this.contentStore.find(key).isPresent());
+    }
+  }
+
+  private String store(final String content, final boolean stale) throws IOException {
+    try (final AutoTenantContext ignored = new AutoTenantContext(TENANT_IDENTIFIER)) {
+      final String key = this.contentStore.store(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+      if (stale) {
+        final Path file = this.root.resolve(TENANT_IDENTIFIER).resolve(key.substring(0, 2)).resolve(key);
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(Duration.ofHours(2L))));
+      }
+      return key;
+    }
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.internal.service;
+
+import org.apache.fineract.cn.customer.internal.repository.ContentStore;
+import org.apache.fineract.cn.customer.internal.repository.FileSystemContentStore;
+import org.apache.fineract.cn.lang.AutoTenantContext;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+public class ImageVariantGeneratorTest {
+
+  private static final String TENANT_IDENTIFIER = "variant_tenant";
+
+  @Rule
+  public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private ContentStore contentStore;
+
+  public ImageVariantGeneratorTest() {
+    super();
+  }
+
+  @Before
+  public void prepare() throws Exception {
+    this.contentStore = new FileSystemContentStore(this.temporaryFolder.getRoot().toPath().toRealPath());
+  }
+
+  @Test
+  public void shouldRenderPngVariants() throws Exception {
+    final ContentReference contentReference = this.store(ImageVariantGeneratorTest.image(2000, 1000, "png"),
+        MediaType.IMAGE_PNG_VALUE);
+
+    this.generator(40000000L).generate(TENANT_IDENTIFIER, contentReference);
+
+    this.assertVariant(contentReference, ImageVariant.THUMBNAIL, 160, 80);
+    this.assertVariant(contentReference, ImageVariant.WEB, 1024, 512);
+  }
+
+  @Test
+  public void shouldRenderJpegVariants() throws Exception {
+    final ContentReference contentReference = this.store(ImageVariantGeneratorTest.image(600, 1200, "jpeg"),
+        MediaType.IMAGE_JPEG_VALUE);
+
+    this.generator(40000000L).generate(TENANT_IDENTIFIER, contentReference);
+
+    this.assertVariant(contentReference, ImageVariant.THUMBNAIL, 80, 160);
+    Assert.assertFalse(this.findVariant(contentReference, ImageVariant.WEB).isPresent());
+  }
+
+  @Test
+  public void shouldNotRenderVariantsOfSmallImages() throws Exception {
+    final ContentReference contentReference = this.store(ImageVariantGeneratorTest.image(100, 50, "png"),
+        MediaType.IMAGE_PNG_VALUE);
+
+    this.generator(40000000L).generate(TENANT_IDENTIFIER, contentReference);
+
+    Assert.assertFalse(this.findVariant(contentReference, ImageVariant.THUMBNAIL).isPresent());
+    Assert.assertFalse(this.findVariant(contentReference, ImageVariant.WEB).isPresent());
+  }
+
+  @Test
+  public void shouldNotDecodeImagesWithTooManyPixels() throws Exception {
+    final ContentReference contentReference = this.store(ImageVariantGeneratorTest.image(2000, 1000, "png"),
+        MediaType.IMAGE_PNG_VALUE);
+
+    this.generator(1999999L).generate(TENANT_IDENTIFIER, contentReference);
+
+    Assert.assertFalse(this.findVariant(contentReference, ImageVariant.THUMBNAIL).isPresent());
+    Assert.assertFalse(this.findVariant(contentReference, ImageVariant.WEB).isPresent());
+  }
+
+  @Test
+  public void shouldIgnoreUnreadableImages() throws Exception {
+    final ContentReference contentReference = this.store("i don't care".getBytes(StandardCharsets.UTF_8),
+        MediaType.IMAGE_PNG_VALUE);
+
+    this.generator(40000000L).generate(TENANT_IDENTIFIER, contentReference);
+
+    Assert.assertFalse(this.findVariant(contentReference, ImageVariant.THUMBNAIL).isPresent());
+  }
+
+  private ImageVariantGenerator generator(final long maxPixels) {
+    return new ImageVariantGenerator(Mockito.mock(Logger.class), this.contentStore, maxPixels);
+  }
+
+  private ContentReference store(final byte[] content, final String contentType) throws IOException {
+    try (final AutoTenantContext ignored = new AutoTenantContext(TENANT_IDENTIFIER)) {
+      final String key = this.contentStore.store(new ByteArrayInputStream(content));
+      return new ContentReference(key, contentType, (long) content.length);
+    }
+  }
+
+  private Optional<Resource> findVariant(final ContentReference contentReference, final ImageVariant imageVariant) {
+    try (final AutoTenantContext ignored = new AutoTenantContext(TENANT_IDENTIFIER)) {
+      return this.contentStore.findVariant(contentReference.key(), imageVariant.identifier());
+    }
+  }
+
+  private void assertVariant(final ContentReference contentReference, final ImageVariant imageVariant,
+                             final int width, final int height) throws IOException {
+    final Optional<Resource> variant = this.findVariant(contentReference, imageVariant);
+    Assert.assertTrue(variant.isPresent());
+    try (final InputStream inputStream = variant.get().getInputStream()) {
+      final BufferedImage image = ImageIO.read(inputStream);
+      Assert.assertEquals(width, image.getWidth());
+      Assert.assertEquals(height, image.getHeight());
+    }
+  }
+
+  private static byte[] image(final int width, final int height, final String format) throws IOException {
+    final BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    ImageIO.write(image, format, outputStream);
+    return outputStream.toByteArray();
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.internal.service;
+
+import org.apache.fineract.cn.lang.ServiceException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Optional;
+
+public class ImageVariantTest {
+
+  public ImageVariantTest() {
+    super();
+  }
+
+  @Test
+  public void shouldServeOriginalWithoutSize() {
+    Assert.assertEquals(Optional.empty(), ImageVariant.forSize(null));
+    Assert.assertEquals(Optional.empty(), ImageVariant.forSize(ImageVariant.ORIGINAL));
+  }
+
+  @Test
+  public void shouldFindVariantForSize() {
+    Assert.assertEquals(Optional.of(ImageVariant.THUMBNAIL), ImageVariant.forSize("thumbnail"));
+    Assert.assertEquals(Optional.of(ImageVariant.WEB), ImageVariant.forSize("web"));
+  }
+
+  @Test(expected = ServiceException.class)
+  public void shouldRejectUnknownSize() {
+    ImageVariant.forSize("huge");
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.customer.internal.util;
+
+import org.apache.fineract.cn.lang.AutoTenantContext;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CacheGenerationsTest {
+
+  public CacheGenerationsTest() {
+    super();
+  }
+
+  @Test
+  public void shouldAdvanceGenerationOfTenantOnly() {
+    final CacheGenerations cacheGenerations = new CacheGenerations();
+    final long first = cacheGenerations.current("first");
+    final long second = cacheGenerations.current("second");
+
+    cacheGenerations.advance("first");
+
+    Assert.assertFalse(cacheGenerations.isCurrent("first", first));
+    Assert.assertTrue(cacheGenerations.isCurrent("first", cacheGenerations.current("first")));
+    Assert.assertTrue(cacheGenerations.isCurrent("second", second));
+  }
+
+  @Test
+  public void shouldEvictAtOnceOutsideOfTransaction() {
+    final List<String> evicted = new ArrayList<>();
+    try (final AutoTenantContext ignored = new AutoTenantContext("tenant")) {
+      CacheGenerations.afterCommit(evicted::add);
+    }
+
+    Assert.assertEquals(1, evicted.size());
+    Assert.assertEquals("tenant", evicted.get(0));
+  }
+
+  @Test
+  public void shouldEvictAfterCommit() {
+    final List<String> evicted = new ArrayList<>();
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      try (final AutoTenantContext ignored = new AutoTenantContext("tenant")) {
+        CacheGenerations.afterCommit(evicted::add);
+      }
+      Assert.assertTrue(evicted.isEmpty());
+
+      TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    Assert.assertEquals(1, evicted.size());
+    Assert.assertEquals("tenant", evicted.get(0));
+  }
+}
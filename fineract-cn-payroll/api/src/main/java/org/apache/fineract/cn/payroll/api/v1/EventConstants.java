@@ -34,6 +34,8 @@ public interface EventConstants {
   // Payroll distribution events
   String POST_DISTRIBUTION = "post-distribution";
   String SELECTOR_POST_DISTRIBUTION = SELECTOR_NAME + " = '" + POST_DISTRIBUTION + "'";
+  String POST_PAYMENT = "post-payment";
+  String SELECTOR_POST_PAYMENT = SELECTOR_NAME + " = '" + POST_PAYMENT + "'";
 
 
   String POST_SAMPLE = "post-sample";
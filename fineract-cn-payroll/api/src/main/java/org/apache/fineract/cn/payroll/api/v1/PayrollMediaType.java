@@ -16,20 +16,10 @@
  * specific language governing permissions and limitations
  * under the License.
  */
-package org.apache.fineract.cn.customer.internal.mapper;
+package org.apache.fineract.cn.payroll.api.v1;
 
-import org.apache.fineract.cn.customer.catalog.api.v1.domain.Value;
-import org.apache.fineract.cn.customer.catalog.internal.repository.FieldValueEntity;
-
-public class FieldValueMapper {
-
-  private FieldValueMapper() {
-    super();
-  }
-
-  public static FieldValueEntity map(final Value value) {
-    final FieldValueEntity fieldValueEntity = new FieldValueEntity();
-    fieldValueEntity.setValue(value.getValue());
-    return fieldValueEntity;
-  }
+@SuppressWarnings("unused")
+public interface PayrollMediaType {
+  String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+  String GZIP_ENCODING = "gzip";
 }
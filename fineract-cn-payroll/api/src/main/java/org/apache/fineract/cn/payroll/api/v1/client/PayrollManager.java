@@ -18,6 +18,7 @@
  */
 package org.apache.fineract.cn.payroll.api.v1.client;
 
+import org.apache.fineract.cn.payroll.api.v1.config.PayrollFeignClientConfig;
 import org.apache.fineract.cn.payroll.api.v1.domain.PayrollCollectionHistory;
 import org.apache.fineract.cn.payroll.api.v1.domain.PayrollCollectionSheet;
 import org.apache.fineract.cn.payroll.api.v1.domain.PayrollConfiguration;
@@ -26,7 +27,6 @@ import java.util.List;
 import javax.validation.Valid;
 import org.apache.fineract.cn.api.annotation.ThrowsException;
 import org.apache.fineract.cn.api.annotation.ThrowsExceptions;
-import org.apache.fineract.cn.api.util.CustomFeignClientsConfiguration;
 import org.springframework.cloud.netflix.feign.FeignClient;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -37,7 +37,7 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 
 @SuppressWarnings("unused")
-@FeignClient(name="payroll-v1", path="/payroll/v1", configuration = CustomFeignClientsConfiguration.class)
+@FeignClient(name="payroll-v1", path="/payroll/v1", configuration = PayrollFeignClientConfig.class)
 public interface PayrollManager {
 
   @RequestMapping(
@@ -64,6 +64,19 @@ public interface PayrollManager {
   })
   PayrollConfiguration findPayrollConfiguration(@PathVariable(value = "identifier") final String customerIdentifier);
 
+  @RequestMapping(
+      value = "/customers/{identifier}/payroll/payments",
+      method = RequestMethod.GET,
+      produces = MediaType.ALL_VALUE,
+      consumes = MediaType.APPLICATION_JSON_VALUE
+  )
+  @ThrowsExceptions({
+      @ThrowsException(status = HttpStatus.BAD_REQUEST, exception = PayrollPaymentValidationException.class)
+  })
+  PayrollPaymentPage fetchCustomerPayments(@PathVariable(value = "identifier") final String customerIdentifier,
+                                           @RequestParam(value = "continuationToken", required = false) final String continuationToken,
+                                           @RequestParam(value = "size", required = false) final Integer size);
+
   @RequestMapping(
       value = "/distribution",
       method = RequestMethod.POST,
@@ -90,10 +103,14 @@ public interface PayrollManager {
       produces = MediaType.ALL_VALUE,
       consumes = MediaType.APPLICATION_JSON_VALUE
   )
+  @ThrowsExceptions({
+      @ThrowsException(status = HttpStatus.BAD_REQUEST, exception = PayrollPaymentValidationException.class)
+  })
   PayrollPaymentPage fetchPayments(@PathVariable("identifier") final String identifier,
                                    @RequestParam(value = "pageIndex", required = false) final Integer pageIndex,
                                    @RequestParam(value = "size", required = false) final Integer size,
                                    @RequestParam(value = "sortColumn", required = false) final String sortColumn,
-                                   @RequestParam(value = "sortDirection", required = false) final String sortDirection);
+                                   @RequestParam(value = "sortDirection", required = false) final String sortDirection,
+                                   @RequestParam(value = "continuationToken", required = false) final String continuationToken);
 
 }
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.payroll.api.v1.config;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import feign.Feign;
+import feign.RequestInterceptor;
+import feign.Target;
+import feign.codec.Decoder;
+import feign.codec.Encoder;
+import feign.gson.GsonDecoder;
+import feign.gson.GsonEncoder;
+import java.util.Collection;
+import org.apache.fineract.cn.api.util.AnnotatedErrorDecoder;
+import org.apache.fineract.cn.api.util.TenantedTargetInterceptor;
+import org.apache.fineract.cn.api.util.TokenedTargetInterceptor;
+import org.apache.fineract.cn.payroll.api.v1.PayrollMediaType;
+import org.apache.fineract.cn.payroll.api.v1.config.encoder.PayrollDecoder;
+import org.apache.fineract.cn.payroll.api.v1.config.encoder.PayrollEncoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.cloud.netflix.feign.FeignClientsConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Scope;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+public class PayrollFeignClientConfig extends FeignClientsConfiguration {
+
+  private static final String ACCEPT_PREFERRING_SMILE =
+      PayrollMediaType.APPLICATION_SMILE_VALUE + ", " + MediaType.APPLICATION_JSON_VALUE + ";q=0.9, */*;q=0.8";
+
+  @Bean
+  @ConditionalOnMissingBean
+  public TenantedTargetInterceptor tenantedTargetInterceptor() {
+    return new TenantedTargetInterceptor();
+  }
+
+  @Bean
+  @ConditionalOnMissingBean
+  public TokenedTargetInterceptor tokenedTargetInterceptor() {
+    return new TokenedTargetInterceptor();
+  }
+
+  @Bean(
+      name = {"api-logger"}
+  )
+  public Logger logger() {
+    return LoggerFactory.getLogger("api-logger");
+  }
+
+  @Bean
+  @Scope("prototype")
+  @ConditionalOnMissingBean
+  public Feign.Builder feignBuilder(@Qualifier("api-logger") Logger logger) {
+    return new PayrollFeignClientConfig.AnnotatedErrorDecoderFeignBuilder(logger);
+  }
+
+  private static class AnnotatedErrorDecoderFeignBuilder extends Feign.Builder {
+    private final Logger logger;
+
+    AnnotatedErrorDecoderFeignBuilder(Logger logger) {
+      this.logger = logger;
+    }
+
+    public <T> T target(Target<T> target) {
+      this.errorDecoder(new AnnotatedErrorDecoder(this.logger, target.type()));
+      return this.build().newInstance(target);
+    }
+  }
+
+  @Bean
+  public RequestInterceptor binaryContentNegotiationInterceptor() {
+    return template -> {
+      final Collection<String> accept = template.headers().get(HttpHeaders.ACCEPT);
+      if (accept == null || accept.isEmpty() || accept.contains(MediaType.ALL_VALUE)) {
+        template.header(HttpHeaders.ACCEPT, ACCEPT_PREFERRING_SMILE);
+      }
+      template.header(HttpHeaders.ACCEPT_ENCODING, PayrollMediaType.GZIP_ENCODING);
+    };
+  }
+
+  @Bean
+  @Primary
+  @Scope("prototype")
+  public Encoder feignEncoder() {
+    return new PayrollEncoder(new GsonEncoder(), PayrollFeignClientConfig.smileMapper());
+  }
+
+  @Bean
+  @Primary
+  @Scope("prototype")
+  public Decoder feignDecoder() {
+    return new PayrollDecoder(new GsonDecoder(), PayrollFeignClientConfig.smileMapper());
+  }
+
+  private static ObjectMapper smileMapper() {
+    return new ObjectMapper(new SmileFactory())
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+  }
+}
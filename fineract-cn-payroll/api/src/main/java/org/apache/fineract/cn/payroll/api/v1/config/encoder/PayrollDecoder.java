@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.payroll.api.v1.config.encoder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.FeignException;
+import feign.Response;
+import feign.codec.Decoder;
+import feign.gson.GsonDecoder;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.zip.GZIPInputStream;
+import org.apache.fineract.cn.payroll.api.v1.PayrollMediaType;
+import org.springframework.http.HttpHeaders;
+
+public class PayrollDecoder implements Decoder {
+
+  private final GsonDecoder gsonDecoder;
+  private final ObjectMapper smileMapper;
+
+  public PayrollDecoder(final GsonDecoder gsonDecoder, final ObjectMapper smileMapper) {
+    this.gsonDecoder = gsonDecoder;
+    this.smileMapper = smileMapper;
+  }
+
+  @Override
+  public Object decode(Response response, Type type) throws IOException, FeignException {
+    if (response.body() == null) {
+      return this.gsonDecoder.decode(response, type);
+    }
+
+    final InputStream body = PayrollDecoder.decompress(response.body().asInputStream());
+    if (PayrollDecoder.isSmile(response)) {
+      return this.smileMapper.readValue(body, this.smileMapper.constructType(type));
+    }
+
+    return this.gsonDecoder.decode(
+        Response.create(response.status(), response.reason(), response.headers(), body, null), type);
+  }
+
+  private static boolean isSmile(final Response response) {
+    final Collection<String> contentTypes = response.headers().get(HttpHeaders.CONTENT_TYPE);
+    return contentTypes != null
+        && contentTypes.stream().anyMatch(contentType -> contentType.startsWith(PayrollMediaType.APPLICATION_SMILE_VALUE));
+  }
+
+  // the transport may or may not have inflated the body already, so the gzip magic number decides
+  private static InputStream decompress(final InputStream inputStream) throws IOException {
+    final BufferedInputStream bufferedInputStream = new BufferedInputStream(inputStream);
+    bufferedInputStream.mark(2);
+    final int first = bufferedInputStream.read();
+    final int second = bufferedInputStream.read();
+    bufferedInputStream.reset();
+    if (first == (GZIPInputStream.GZIP_MAGIC & 0xff) && second == (GZIPInputStream.GZIP_MAGIC >> 8)) {
+      return new GZIPInputStream(bufferedInputStream);
+    }
+    return bufferedInputStream;
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.payroll.api.v1.config.encoder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.RequestTemplate;
+import feign.codec.EncodeException;
+import feign.codec.Encoder;
+import feign.gson.GsonEncoder;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.zip.GZIPOutputStream;
+import org.apache.fineract.cn.payroll.api.v1.PayrollMediaType;
+import org.apache.fineract.cn.payroll.api.v1.domain.PayrollCollectionSheet;
+import org.springframework.http.HttpHeaders;
+
+public class PayrollEncoder implements Encoder {
+
+  private final GsonEncoder gsonEncoder;
+  private final ObjectMapper smileMapper;
+
+  public PayrollEncoder(final GsonEncoder gsonEncoder, final ObjectMapper smileMapper) {
+    this.gsonEncoder = gsonEncoder;
+    this.smileMapper = smileMapper;
+  }
+
+  @Override
+  public void encode(Object object, Type bodyType, RequestTemplate template) throws EncodeException {
+    if (!(object instanceof PayrollCollectionSheet)) {
+      this.gsonEncoder.encode(object, bodyType, template);
+      return;
+    }
+
+    final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    try (final GZIPOutputStream gzipOutputStream = new GZIPOutputStream(body)) {
+      this.smileMapper.writeValue(gzipOutputStream, object);
+    } catch (final IOException ioex) {
+      throw new EncodeException("Could not encode payroll collection sheet.", ioex);
+    }
+
+    template.header(HttpHeaders.CONTENT_TYPE, PayrollMediaType.APPLICATION_SMILE_VALUE);
+    template.header(HttpHeaders.CONTENT_ENCODING, PayrollMediaType.GZIP_ENCODING);
+    template.body(body.toByteArray(), null);
+  }
+}
@@ -36,6 +36,7 @@ public class PayrollPayment {
   private BigDecimal salary;
   private Boolean processed;
   private String message;
+  private String distributionIdentifier;
 
   public PayrollPayment() {
     super();
@@ -80,4 +81,12 @@ public class PayrollPayment {
   public void setMessage(final String message) {
     this.message = message;
   }
+
+  public String getDistributionIdentifier() {
+    return this.distributionIdentifier;
+  }
+
+  public void setDistributionIdentifier(final String distributionIdentifier) {
+    this.distributionIdentifier = distributionIdentifier;
+  }
 }
@@ -26,6 +26,7 @@ public class PayrollPaymentPage {
   private List<PayrollPayment> payrollPayments;
   private Integer totalPages;
   private Long totalElements;
+  private String continuationToken;
 
   public PayrollPaymentPage() {
     super();
@@ -55,6 +56,14 @@ public class PayrollPaymentPage {
     this.totalElements = totalElements;
   }
 
+  public String getContinuationToken() {
+    return this.continuationToken;
+  }
+
+  public void setContinuationToken(final String continuationToken) {
+    this.continuationToken = continuationToken;
+  }
+
   public void add(final PayrollPayment payrollPayment) {
     if (this.payrollPayments == null) {
       this.payrollPayments = new ArrayList<>();
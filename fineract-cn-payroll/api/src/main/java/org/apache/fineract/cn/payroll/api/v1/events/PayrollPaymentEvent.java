@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.payroll.api.v1.events;
+
+import java.util.Objects;
+
+public class PayrollPaymentEvent {
+
+  private String distributionIdentifier;
+  private String customerIdentifier;
+  private Boolean processed;
+
+  public PayrollPaymentEvent() {
+    super();
+  }
+
+  public PayrollPaymentEvent(final String distributionIdentifier,
+                             final String customerIdentifier,
+                             final Boolean processed) {
+    super();
+    this.distributionIdentifier = distributionIdentifier;
+    this.customerIdentifier = customerIdentifier;
+    this.processed = processed;
+  }
+
+  public String getDistributionIdentifier() {
+    return this.distributionIdentifier;
+  }
+
+  public void setDistributionIdentifier(final String distributionIdentifier) {
+    this.distributionIdentifier = distributionIdentifier;
+  }
+
+  public String getCustomerIdentifier() {
+    return this.customerIdentifier;
+  }
+
+  public void setCustomerIdentifier(final String customerIdentifier) {
+    this.customerIdentifier = customerIdentifier;
+  }
+
+  public Boolean getProcessed() {
+    return this.processed;
+  }
+
+  public void setProcessed(final Boolean processed) {
+    this.processed = processed;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    final PayrollPaymentEvent that = (PayrollPaymentEvent) o;
+    return Objects.equals(distributionIdentifier, that.distributionIdentifier) &&
+        Objects.equals(customerIdentifier, that.customerIdentifier) &&
+        Objects.equals(processed, that.processed);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(distributionIdentifier, customerIdentifier, processed);
+  }
+
+  @Override
+  public String toString() {
+    return "PayrollPaymentEvent{" +
+        "distributionIdentifier='" + distributionIdentifier + '\'' +
+        ", customerIdentifier='" + customerIdentifier + '\'' +
+        ", processed=" + processed +
+        '}';
+  }
+}
@@ -355,7 +355,7 @@ public class PayrollApiDocumentation extends AbstractPayrollTest {
 
     final PayrollCollectionHistory payrollCollectionHistory = payrollCollectionHistories.get(0);
     final PayrollPaymentPage payrollPaymentPage =
-            super.testSubject.fetchPayments(payrollCollectionHistory.getIdentifier(), 0, 10, null, null);
+            super.testSubject.fetchPayments(payrollCollectionHistory.getIdentifier(), 0, 10, null, null, null);
     Assert.assertEquals(Long.valueOf(1L), payrollPaymentPage.getTotalElements());
 
     this.mockMvc.perform(get("/distribution/" + payrollCollectionHistories.get(0).getIdentifier() + "/payments")
@@ -27,13 +27,17 @@ import org.apache.fineract.cn.payroll.api.v1.domain.PayrollCollectionSheet;
 import org.apache.fineract.cn.payroll.api.v1.domain.PayrollConfiguration;
 import org.apache.fineract.cn.payroll.api.v1.domain.PayrollPayment;
 import org.apache.fineract.cn.payroll.api.v1.domain.PayrollPaymentPage;
+import org.apache.fineract.cn.payroll.api.v1.events.PayrollPaymentEvent;
 import org.apache.fineract.cn.payroll.domain.DomainObjectGenerator;
 import org.apache.fineract.cn.payroll.service.internal.repository.PayrollCollectionEntity;
 import org.apache.fineract.cn.payroll.service.internal.service.adaptor.AccountingAdaptor;
 import org.apache.fineract.cn.payroll.service.internal.service.adaptor.CustomerAdaptor;
 import java.math.BigDecimal;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.fineract.cn.accounting.api.v1.domain.Account;
 import org.apache.fineract.cn.customer.api.v1.domain.Customer;
@@ -88,16 +92,154 @@ public class TestPayrollDistribution extends AbstractPayrollTest {
     super.testSubject.distribute(payrollCollectionSheet);
     Assert.assertTrue(super.eventRecorder.wait(EventConstants.POST_DISTRIBUTION, payrollCollectionSheet.getSourceAccountNumber()));
 
-    final List<PayrollCollectionHistory> payrollCollectionHistories = super.testSubject.fetchDistributionHistory();
+    final List<PayrollCollectionHistory> payrollCollectionHistories = super.testSubject.fetchDistributionHistory()
+        .stream()
+        .filter(history -> history.getSourceAccountNumber().equals(payrollCollectionSheet.getSourceAccountNumber()))
+        .collect(Collectors.toList());
     Assert.assertEquals(1, payrollCollectionHistories.size());
 
     final PayrollCollectionHistory payrollCollectionHistory = payrollCollectionHistories.get(0);
+    Assert.assertTrue(super.eventRecorder.wait(EventConstants.POST_PAYMENT,
+        new PayrollPaymentEvent(payrollCollectionHistory.getIdentifier(), customerIdentifier, Boolean.TRUE)));
+
     final PayrollPaymentPage payrollPaymentPage =
-        super.testSubject.fetchPayments(payrollCollectionHistory.getIdentifier(), 0, 10, null, null);
+        super.testSubject.fetchPayments(payrollCollectionHistory.getIdentifier(), 0, 10, null, null, null);
     Assert.assertEquals(Long.valueOf(1L), payrollPaymentPage.getTotalElements());
+    Assert.assertNull(payrollPaymentPage.getContinuationToken());
 
     final PayrollPayment fetchedPayrollPayment = payrollPaymentPage.getPayrollPayments().get(0);
     Assert.assertTrue(fetchedPayrollPayment.getProcessed());
+
+    final PayrollPaymentPage customerPaymentPage =
+        super.testSubject.fetchCustomerPayments(customerIdentifier, null, 10);
+    Assert.assertEquals(1, customerPaymentPage.getPayrollPayments().size());
+    Assert.assertEquals(payrollCollectionHistory.getIdentifier(),
+        customerPaymentPage.getPayrollPayments().get(0).getDistributionIdentifier());
+    Assert.assertNull(customerPaymentPage.getContinuationToken());
+  }
+
+  @Test
+  public void shouldPageCustomerPaymentsAcrossDistributions() throws Exception {
+    final String customerIdentifier = RandomStringUtils.randomAlphanumeric(32);
+    final PayrollConfiguration payrollConfiguration = DomainObjectGenerator.getPayrollConfiguration();
+    this.prepareMocks(customerIdentifier, payrollConfiguration);
+
+    super.testSubject.setPayrollConfiguration(customerIdentifier, payrollConfiguration);
+    Assert.assertTrue(super.eventRecorder.wait(EventConstants.PUT_CONFIGURATION, customerIdentifier));
+
+    for (int i = 0; i < 3; i++) {
+      this.distribute(customerIdentifier);
+    }
+
+    final Set<String> distributionIdentifiers = new HashSet<>();
+    PayrollPaymentPage payrollPaymentPage = super.testSubject.fetchCustomerPayments(customerIdentifier, null, 1);
+    int pages = 1;
+    while (true) {
+      Assert.assertEquals(1, payrollPaymentPage.getPayrollPayments().size());
+      Assert.assertTrue(distributionIdentifiers.add(
+          payrollPaymentPage.getPayrollPayments().get(0).getDistributionIdentifier()));
+      if (payrollPaymentPage.getContinuationToken() == null) {
+        break;
+      }
+      payrollPaymentPage = super.testSubject.fetchCustomerPayments(
+          customerIdentifier, payrollPaymentPage.getContinuationToken(), 1);
+      pages++;
+    }
+
+    Assert.assertEquals(3, pages);
+    final Set<String> distributedIdentifiers = super.testSubject.fetchDistributionHistory()
+        .stream()
+        .map(PayrollCollectionHistory::getIdentifier)
+        .collect(Collectors.toSet());
+    Assert.assertTrue(distributedIdentifiers.containsAll(distributionIdentifiers));
+  }
+
+  @Test(expected = PayrollPaymentValidationException.class)
+  public void shouldNotFetchCustomerPaymentsPageTooLarge() throws Exception {
+    super.testSubject.fetchCustomerPayments(RandomStringUtils.randomAlphanumeric(32), null, 1001);
+  }
+
+  @Test
+  public void shouldPagePaymentsByContinuationToken() throws Exception {
+    final PayrollCollectionSheet payrollCollectionSheet = new PayrollCollectionSheet();
+    payrollCollectionSheet.setSourceAccountNumber(RandomStringUtils.randomAlphanumeric(34));
+    payrollCollectionSheet.setPayrollPayments(Lists.newArrayList());
+    for (int i = 0; i < 3; i++) {
+      final String customerIdentifier = RandomStringUtils.randomAlphanumeric(32);
+      final PayrollConfiguration payrollConfiguration = DomainObjectGenerator.getPayrollConfiguration();
+      this.prepareMocks(customerIdentifier, payrollConfiguration);
+
+      super.testSubject.setPayrollConfiguration(customerIdentifier, payrollConfiguration);
+      Assert.assertTrue(super.eventRecorder.wait(EventConstants.PUT_CONFIGURATION, customerIdentifier));
+
+      final PayrollPayment payrollPayment = new PayrollPayment();
+      payrollPayment.setCustomerIdentifier(customerIdentifier);
+      payrollPayment.setEmployer("ACME, Inc.");
+      payrollPayment.setSalary(BigDecimal.valueOf(1000.00D + i));
+      payrollCollectionSheet.getPayrollPayments().add(payrollPayment);
+    }
+
+    final Account sourceAccount = new Account();
+    sourceAccount.setState(Account.State.OPEN.name());
+    Mockito
+        .doAnswer(invocation -> Optional.of(sourceAccount))
+        .when(this.accountingAdaptorSpy).findAccount(Matchers.eq(payrollCollectionSheet.getSourceAccountNumber()));
+
+    Mockito
+        .doAnswer(invocation -> Optional.empty())
+        .when(this.accountingAdaptorSpy).postPayrollPayment(
+        Matchers.any(PayrollCollectionEntity.class),
+        Matchers.any(PayrollPayment.class),
+        Matchers.any(PayrollConfiguration.class)
+    );
+
+    super.testSubject.distribute(payrollCollectionSheet);
+    Assert.assertTrue(super.eventRecorder.wait(EventConstants.POST_DISTRIBUTION, payrollCollectionSheet.getSourceAccountNumber()));
+
+    final String distributionIdentifier = super.testSubject.fetchDistributionHistory()
+        .stream()
+        .filter(history -> history.getSourceAccountNumber().equals(payrollCollectionSheet.getSourceAccountNumber()))
+        .findFirst()
+        .map(PayrollCollectionHistory::getIdentifier)
+        .orElseThrow(AssertionError::new);
+
+    PayrollPaymentPage payrollPaymentPage =
+        super.testSubject.fetchPayments(distributionIdentifier, 0, 1, "salary", "DESC", null);
+    final List<BigDecimal> salaries = Lists.newArrayList();
+    while (true) {
+      Assert.assertEquals(1, payrollPaymentPage.getPayrollPayments().size());
+      salaries.add(payrollPaymentPage.getPayrollPayments().get(0).getSalary());
+      if (payrollPaymentPage.getContinuationToken() == null) {
+        break;
+      }
+      payrollPaymentPage = super.testSubject.fetchPayments(
+          distributionIdentifier, null, 1, null, null, payrollPaymentPage.getContinuationToken());
+    }
+
+    Assert.assertEquals(3, salaries.size());
+    for (int i = 0; i < 3; i++) {
+      Assert.assertEquals(0, BigDecimal.valueOf(1002.00D - i).compareTo(salaries.get(i)));
+    }
+  }
+
+  @Test(expected = PayrollPaymentValidationException.class)
+  public void shouldNotFetchPaymentsUnknownSortColumn() throws Exception {
+    final String customerIdentifier = RandomStringUtils.randomAlphanumeric(32);
+    final PayrollConfiguration payrollConfiguration = DomainObjectGenerator.getPayrollConfiguration();
+    this.prepareMocks(customerIdentifier, payrollConfiguration);
+
+    super.testSubject.setPayrollConfiguration(customerIdentifier, payrollConfiguration);
+    Assert.assertTrue(super.eventRecorder.wait(EventConstants.PUT_CONFIGURATION, customerIdentifier));
+
+    final String sourceAccountNumber = this.distribute(customerIdentifier);
+    final String distributionIdentifier = super.testSubject.fetchDistributionHistory()
+        .stream()
+        .filter(history -> history.getSourceAccountNumber().equals(sourceAccountNumber))
+        .findFirst()
+        .map(PayrollCollectionHistory::getIdentifier)
+        .orElseThrow(AssertionError::new);
+
+    super.testSubject.fetchPayments(distributionIdentifier, 0, 10, "employer", "ASC", null);
   }
 
   @Test(expected = PayrollPaymentValidationException.class)
@@ -180,6 +322,34 @@ public class TestPayrollDistribution extends AbstractPayrollTest {
     super.testSubject.distribute(payrollCollectionSheet);
   }
 
+  private String distribute(final String customerIdentifier) throws Exception {
+    final PayrollCollectionSheet payrollCollectionSheet = new PayrollCollectionSheet();
+    payrollCollectionSheet.setSourceAccountNumber(RandomStringUtils.randomAlphanumeric(34));
+    final PayrollPayment payrollPayment = new PayrollPayment();
+    payrollPayment.setCustomerIdentifier(customerIdentifier);
+    payrollPayment.setEmployer("ACME, Inc.");
+    payrollPayment.setSalary(BigDecimal.valueOf(1234.56D));
+    payrollCollectionSheet.setPayrollPayments(Lists.newArrayList(payrollPayment));
+
+    final Account sourceAccount = new Account();
+    sourceAccount.setState(Account.State.OPEN.name());
+    Mockito
+        .doAnswer(invocation -> Optional.of(sourceAccount))
+        .when(this.accountingAdaptorSpy).findAccount(Matchers.eq(payrollCollectionSheet.getSourceAccountNumber()));
+
+    Mockito
+        .doAnswer(invocation -> Optional.empty())
+        .when(this.accountingAdaptorSpy).postPayrollPayment(
+        Matchers.any(PayrollCollectionEntity.class),
+        Matchers.refEq(payrollPayment),
+        Matchers.any(PayrollConfiguration.class)
+    );
+
+    super.testSubject.distribute(payrollCollectionSheet);
+    Assert.assertTrue(super.eventRecorder.wait(EventConstants.POST_DISTRIBUTION, payrollCollectionSheet.getSourceAccountNumber()));
+    return payrollCollectionSheet.getSourceAccountNumber();
+  }
+
   private void prepareMocks(final String customerIdentifier, final PayrollConfiguration payrollConfiguration) {
     Mockito
         .doAnswer(invocation -> Optional.of(new Customer()))
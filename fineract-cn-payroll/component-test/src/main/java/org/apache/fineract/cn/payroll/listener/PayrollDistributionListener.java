@@ -19,6 +19,7 @@
 package org.apache.fineract.cn.payroll.listener;
 
 import org.apache.fineract.cn.payroll.api.v1.EventConstants;
+import org.apache.fineract.cn.payroll.api.v1.events.PayrollPaymentEvent;
 import org.apache.fineract.cn.payroll.service.ServiceConstants;
 import org.apache.fineract.cn.lang.config.TenantHeaderFilter;
 import org.apache.fineract.cn.test.listener.EventRecorder;
@@ -53,4 +54,15 @@ public class PayrollDistributionListener {
     this.logger.info("Payment distribution with source account {0} processed.", payload);
     this.eventRecorder.event(tenant, EventConstants.POST_DISTRIBUTION, payload, String.class);
   }
+
+  @JmsListener(
+      subscription = EventConstants.DESTINATION,
+      destination = EventConstants.DESTINATION,
+      selector = EventConstants.SELECTOR_POST_PAYMENT
+  )
+  public void onPostPayment(@Header(TenantHeaderFilter.TENANT_HEADER) final String tenant,
+                            final String payload) {
+    this.logger.info("Payroll payment {} processed.", payload);
+    this.eventRecorder.event(tenant, EventConstants.POST_PAYMENT, payload, PayrollPaymentEvent.class);
+  }
 }
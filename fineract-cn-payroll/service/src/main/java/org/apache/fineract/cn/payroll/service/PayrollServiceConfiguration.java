@@ -18,6 +18,12 @@
  */
 package org.apache.fineract.cn.payroll.service;
 
+import org.apache.fineract.cn.payroll.service.internal.repository.ReplicaRoutingDataSource;
+import org.apache.fineract.cn.payroll.service.rest.config.GzipRequestFilter;
+import org.apache.fineract.cn.payroll.service.rest.config.SmileHttpMessageConverter;
+import java.sql.Connection;
+import java.util.List;
+import javax.sql.DataSource;
 import org.apache.fineract.cn.accounting.api.v1.client.LedgerManager;
 import org.apache.fineract.cn.anubis.config.EnableAnubis;
 import org.apache.fineract.cn.async.config.EnableAsync;
@@ -29,13 +35,20 @@ import org.apache.fineract.cn.lang.config.EnableTenantContext;
 import org.apache.fineract.cn.postgresql.config.EnablePostgreSQL;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.cloud.netflix.feign.EnableFeignClients;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import org.springframework.web.servlet.config.annotation.PathMatchConfigurer;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
 
@@ -74,8 +87,40 @@ public class PayrollServiceConfiguration extends WebMvcConfigurerAdapter {
     return LoggerFactory.getLogger(ServiceConstants.LOGGER_NAME);
   }
 
+  @Bean
+  @ConditionalOnProperty(prefix = "payroll.replica", name = "enabled")
+  public ReplicaRoutingDataSource replicaRoutingDataSource(@Qualifier(ServiceConstants.LOGGER_NAME) final Logger logger,
+                                                           @Qualifier("dataSource") final DataSource dataSource,
+                                                           final Environment environment) {
+    return new ReplicaRoutingDataSource(logger, dataSource, environment);
+  }
+
+  @Bean
+  @Primary
+  @ConditionalOnProperty(prefix = "payroll.replica", name = "enabled")
+  public DataSource routingDataSource(final ReplicaRoutingDataSource replicaRoutingDataSource) {
+    // defer fetching the physical connection until the read-only flag of the transaction is known
+    final LazyConnectionDataSourceProxy lazyConnectionDataSourceProxy = new LazyConnectionDataSourceProxy();
+    lazyConnectionDataSourceProxy.setTargetDataSource(replicaRoutingDataSource);
+    lazyConnectionDataSourceProxy.setDefaultAutoCommit(true);
+    lazyConnectionDataSourceProxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+    lazyConnectionDataSourceProxy.afterPropertiesSet();
+    return lazyConnectionDataSourceProxy;
+  }
+
+  @Bean
+  public GzipRequestFilter gzipRequestFilter(
+      @Value("${payroll.gzip.maxInflatedSizeInBytes:52428800}") final Long maxInflatedSizeInBytes) {
+    return new GzipRequestFilter(maxInflatedSizeInBytes);
+  }
+
   @Override
   public void configurePathMatch(final PathMatchConfigurer configurer) {
     configurer.setUseSuffixPatternMatch(Boolean.FALSE);
   }
+
+  @Override
+  public void extendMessageConverters(final List<HttpMessageConverter<?>> converters) {
+    converters.add(new SmileHttpMessageConverter());
+  }
 }
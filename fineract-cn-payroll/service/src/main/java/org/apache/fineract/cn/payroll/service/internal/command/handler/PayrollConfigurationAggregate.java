@@ -27,6 +27,7 @@ import org.apache.fineract.cn.payroll.service.internal.repository.PayrollAllocat
 import org.apache.fineract.cn.payroll.service.internal.repository.PayrollAllocationRepository;
 import org.apache.fineract.cn.payroll.service.internal.repository.PayrollConfigurationEntity;
 import org.apache.fineract.cn.payroll.service.internal.repository.PayrollConfigurationRepository;
+import org.apache.fineract.cn.payroll.service.internal.service.EventPublisher;
 import org.apache.fineract.cn.payroll.service.internal.service.PayrollConfigurationService;
 import java.time.Clock;
 import java.time.LocalDateTime;
@@ -34,7 +35,6 @@ import java.util.Optional;
 import org.apache.fineract.cn.api.util.UserContextHolder;
 import org.apache.fineract.cn.command.annotation.Aggregate;
 import org.apache.fineract.cn.command.annotation.CommandHandler;
-import org.apache.fineract.cn.command.annotation.EventEmitter;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -47,22 +47,24 @@ public class PayrollConfigurationAggregate {
   private PayrollConfigurationService payrollConfigurationService;
   private PayrollConfigurationRepository payrollConfigurationRepository;
   private PayrollAllocationRepository payrollAllocationRepository;
+  private EventPublisher eventPublisher;
 
   @Autowired
   public PayrollConfigurationAggregate(@Qualifier(ServiceConstants.LOGGER_NAME) final Logger logger,
                                        final PayrollConfigurationService payrollConfigurationService,
                                        final PayrollConfigurationRepository payrollConfigurationRepository,
-                                       final PayrollAllocationRepository payrollAllocationRepository) {
+                                       final PayrollAllocationRepository payrollAllocationRepository,
+                                       final EventPublisher eventPublisher) {
     super();
     this.logger = logger;
     this.payrollConfigurationService = payrollConfigurationService;
     this.payrollConfigurationRepository = payrollConfigurationRepository;
     this.payrollAllocationRepository = payrollAllocationRepository;
+    this.eventPublisher = eventPublisher;
   }
 
   @Transactional
   @CommandHandler
-  @EventEmitter(selectorName = EventConstants.SELECTOR_NAME, selectorValue = EventConstants.PUT_CONFIGURATION)
   public String process(final PutPayrollConfigurationCommand putPayrollConfigurationCommand) {
     final String customerIdentifier = putPayrollConfigurationCommand.customerIdentifier();
     final PayrollConfiguration payrollConfiguration = putPayrollConfigurationCommand.payrollConfiguration();
@@ -97,6 +99,8 @@ public class PayrollConfigurationAggregate {
             this.payrollAllocationRepository.save(payrollAllocationEntity);
           });
     }
+
+    this.eventPublisher.publish(EventConstants.PUT_CONFIGURATION, customerIdentifier);
     return customerIdentifier;
   }
 }
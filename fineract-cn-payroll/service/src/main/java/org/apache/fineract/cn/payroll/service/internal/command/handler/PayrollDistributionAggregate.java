@@ -20,22 +20,25 @@ package org.apache.fineract.cn.payroll.service.internal.command.handler;
 
 import org.apache.fineract.cn.payroll.api.v1.EventConstants;
 import org.apache.fineract.cn.payroll.api.v1.domain.PayrollCollectionSheet;
+import org.apache.fineract.cn.payroll.api.v1.events.PayrollPaymentEvent;
 import org.apache.fineract.cn.payroll.service.ServiceConstants;
 import org.apache.fineract.cn.payroll.service.internal.command.DistributePayrollCommand;
 import org.apache.fineract.cn.payroll.service.internal.repository.PayrollCollectionEntity;
 import org.apache.fineract.cn.payroll.service.internal.repository.PayrollCollectionRepository;
 import org.apache.fineract.cn.payroll.service.internal.repository.PayrollPaymentEntity;
 import org.apache.fineract.cn.payroll.service.internal.repository.PayrollPaymentRepository;
+import org.apache.fineract.cn.payroll.service.internal.service.EventPublisher;
 import org.apache.fineract.cn.payroll.service.internal.service.PayrollConfigurationService;
 import org.apache.fineract.cn.payroll.service.internal.service.adaptor.AccountingAdaptor;
 import java.time.Clock;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import org.apache.commons.lang.RandomStringUtils;
 import org.apache.fineract.cn.api.util.UserContextHolder;
 import org.apache.fineract.cn.command.annotation.Aggregate;
 import org.apache.fineract.cn.command.annotation.CommandHandler;
-import org.apache.fineract.cn.command.annotation.EventEmitter;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -49,24 +52,26 @@ public class PayrollDistributionAggregate {
   private final PayrollCollectionRepository payrollCollectionRepository;
   private final PayrollPaymentRepository payrollPaymentRepository;
   private final AccountingAdaptor accountingAdaptor;
+  private final EventPublisher eventPublisher;
 
   @Autowired
   public PayrollDistributionAggregate(@Qualifier(ServiceConstants.LOGGER_NAME) final Logger logger,
                                       PayrollConfigurationService payrollConfigurationService,
                                       final PayrollCollectionRepository payrollCollectionRepository,
                                       final PayrollPaymentRepository payrollPaymentRepository,
-                                      final AccountingAdaptor accountingAdaptor) {
+                                      final AccountingAdaptor accountingAdaptor,
+                                      final EventPublisher eventPublisher) {
     super();
     this.logger = logger;
     this.payrollConfigurationService = payrollConfigurationService;
     this.payrollCollectionRepository = payrollCollectionRepository;
     this.payrollPaymentRepository = payrollPaymentRepository;
     this.accountingAdaptor = accountingAdaptor;
+    this.eventPublisher = eventPublisher;
   }
 
   @Transactional
   @CommandHandler
-  @EventEmitter(selectorName = EventConstants.SELECTOR_NAME, selectorValue = EventConstants.POST_DISTRIBUTION)
   public String process(final DistributePayrollCommand distributePayrollCommand) {
     final PayrollCollectionSheet payrollCollectionSheet = distributePayrollCommand.payrollCollectionSheet();
 
@@ -78,6 +83,7 @@ public class PayrollDistributionAggregate {
 
     final PayrollCollectionEntity savedPayrollCollectionEntity = this.payrollCollectionRepository.save(payrollCollectionEntity);
 
+    final List<PayrollPaymentEvent> payrollPaymentEvents = new ArrayList<>();
     payrollCollectionSheet.getPayrollPayments().forEach(payrollPayment ->
         this.payrollConfigurationService
             .findPayrollConfiguration(payrollPayment.getCustomerIdentifier())
@@ -97,9 +103,17 @@ public class PayrollDistributionAggregate {
                 payrollPaymentEntity.setProcessed(Boolean.TRUE);
               }
               this.payrollPaymentRepository.save(payrollPaymentEntity);
+
+              payrollPaymentEvents.add(new PayrollPaymentEvent(
+                  savedPayrollCollectionEntity.getIdentifier(),
+                  payrollPaymentEntity.getCustomerIdentifier(),
+                  payrollPaymentEntity.getProcessed()));
             })
     );
 
+    this.eventPublisher.publishAll(EventConstants.POST_PAYMENT, payrollPaymentEvents);
+
+    this.eventPublisher.publish(EventConstants.POST_DISTRIBUTION, payrollCollectionSheet.getSourceAccountNumber());
     return payrollCollectionSheet.getSourceAccountNumber();
   }
 }
@@ -34,6 +34,7 @@ public class PayrollPaymentMapper {
     payrollPayment.setSalary(payrollPaymentEntity.getSalary());
     payrollPayment.setProcessed(payrollPaymentEntity.getProcessed());
     payrollPayment.setMessage(payrollPaymentEntity.getMessage());
+    payrollPayment.setDistributionIdentifier(payrollPaymentEntity.getPayrollCollection().getIdentifier());
     return payrollPayment;
   }
 }
@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.payroll.service.internal.repository;
+
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface EventOutboxRepository extends JpaRepository<EventOutboxEntity, Long> {
+  List<EventOutboxEntity> findAllByOrderByIdAsc(final Pageable pageable);
+
+  /**
+   * Locks the oldest pending events until the surrounding transaction ends, skipping events another node has
+   * already claimed.
+   */
+  @Query(value = "SELECT * FROM meketre_event_outbox ORDER BY id LIMIT :batchSize FOR UPDATE SKIP LOCKED",
+      nativeQuery = true)
+  List<EventOutboxEntity> claimBatch(@Param("batchSize") final int batchSize);
+}
@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.payroll.service.internal.repository;
+
+import java.util.List;
+import org.apache.fineract.cn.postgresql.util.JdbcUrlBuilder;
+import org.apache.fineract.cn.postgresql.util.PostgreSQLConstants;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Reads the identifiers of all provisioned tenants from the meta database, which is not reachable
+ * through the tenant aware data source.
+ */
+@Repository
+public class MetaTenantRepository {
+
+  private final JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  public MetaTenantRepository(final Environment environment) {
+    super();
+    final DriverManagerDataSource dataSource = new DriverManagerDataSource();
+    dataSource.setDriverClassName(environment.getProperty("postgresql.driverClass"));
+    dataSource.setUrl(JdbcUrlBuilder
+        .create(JdbcUrlBuilder.DatabaseType.POSTGRESQL)
+        .host(environment.getProperty("postgresql.host"))
+        .port(environment.getProperty("postgresql.port"))
+        .instanceName(environment.getProperty("postgresql.database", PostgreSQLConstants.POSTGRESQL_DATABASE_NAME_DEFAULT))
+        .build());
+    dataSource.setUsername(environment.getProperty("postgresql.user"));
+    dataSource.setPassword(environment.getProperty("postgresql.password"));
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+  }
+
+  public List<String> findTenantIdentifiers() {
+    return this.jdbcTemplate.queryForList("SELECT identifier FROM tenants", String.class);
+  }
+}
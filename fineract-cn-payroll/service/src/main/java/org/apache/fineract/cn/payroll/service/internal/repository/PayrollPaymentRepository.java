@@ -18,13 +18,68 @@
  */
 package org.apache.fineract.cn.payroll.service.internal.repository;
 
+import java.math.BigDecimal;
+import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface PayrollPaymentRepository extends JpaRepository<PayrollPaymentEntity, Long> {
   Page<PayrollPaymentEntity> findByPayrollCollection(final PayrollCollectionEntity payrollCollectionEntity,
                                                      Pageable pageable);
+
+  @Query("SELECT p FROM PayrollPaymentEntity p WHERE p.payrollCollection = :payrollCollection " +
+      "AND p.customerIdentifier >= :customerIdentifier AND (p.customerIdentifier > :customerIdentifier OR p.id > :paymentId) " +
+      "ORDER BY p.customerIdentifier ASC, p.id ASC")
+  List<PayrollPaymentEntity> findNextAscendingByCustomerIdentifier(
+      @Param("payrollCollection") final PayrollCollectionEntity payrollCollectionEntity,
+      @Param("customerIdentifier") final String customerIdentifier,
+      @Param("paymentId") final Long paymentId,
+      final Pageable pageable);
+
+  @Query("SELECT p FROM PayrollPaymentEntity p WHERE p.payrollCollection = :payrollCollection " +
+      "AND p.customerIdentifier <= :customerIdentifier AND (p.customerIdentifier < :customerIdentifier OR p.id < :paymentId) " +
+      "ORDER BY p.customerIdentifier DESC, p.id DESC")
+  List<PayrollPaymentEntity> findNextDescendingByCustomerIdentifier(
+      @Param("payrollCollection") final PayrollCollectionEntity payrollCollectionEntity,
+      @Param("customerIdentifier") final String customerIdentifier,
+      @Param("paymentId") final Long paymentId,
+      final Pageable pageable);
+
+  @Query("SELECT p FROM PayrollPaymentEntity p WHERE p.payrollCollection = :payrollCollection " +
+      "AND p.salary >= :salary AND (p.salary > :salary OR p.id > :paymentId) " +
+      "ORDER BY p.salary ASC, p.id ASC")
+  List<PayrollPaymentEntity> findNextAscendingBySalary(
+      @Param("payrollCollection") final PayrollCollectionEntity payrollCollectionEntity,
+      @Param("salary") final BigDecimal salary,
+      @Param("paymentId") final Long paymentId,
+      final Pageable pageable);
+
+  @Query("SELECT p FROM PayrollPaymentEntity p WHERE p.payrollCollection = :payrollCollection " +
+      "AND p.salary <= :salary AND (p.salary < :salary OR p.id < :paymentId) " +
+      "ORDER BY p.salary DESC, p.id DESC")
+  List<PayrollPaymentEntity> findNextDescendingBySalary(
+      @Param("payrollCollection") final PayrollCollectionEntity payrollCollectionEntity,
+      @Param("salary") final BigDecimal salary,
+      @Param("paymentId") final Long paymentId,
+      final Pageable pageable);
+
+  @Query("SELECT p FROM PayrollPaymentEntity p JOIN FETCH p.payrollCollection c " +
+      "WHERE p.customerIdentifier = :customerIdentifier " +
+      "ORDER BY c.id DESC, p.id DESC")
+  List<PayrollPaymentEntity> findByCustomerIdentifier(@Param("customerIdentifier") final String customerIdentifier,
+                                                      final Pageable pageable);
+
+  @Query("SELECT p FROM PayrollPaymentEntity p JOIN FETCH p.payrollCollection c " +
+      "WHERE p.customerIdentifier = :customerIdentifier " +
+      "AND c.id <= :payrollCollectionId AND (c.id < :payrollCollectionId OR p.id < :paymentId) " +
+      "ORDER BY c.id DESC, p.id DESC")
+  List<PayrollPaymentEntity> findByCustomerIdentifierBefore(@Param("customerIdentifier") final String customerIdentifier,
+                                                            @Param("payrollCollectionId") final Long payrollCollectionId,
+                                                            @Param("paymentId") final Long paymentId,
+                                                            final Pageable pageable);
 }
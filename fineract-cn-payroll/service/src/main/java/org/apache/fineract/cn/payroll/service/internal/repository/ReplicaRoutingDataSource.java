@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.payroll.service.internal.repository;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import com.jolbox.bonecp.BoneCPDataSource;
+import org.apache.fineract.cn.lang.TenantContextHolder;
+import org.apache.fineract.cn.postgresql.util.JdbcUrlBuilder;
+import org.slf4j.Logger;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Hands out replica connections to read-only transactions and primary connections to everything else.
+ *
+ * <p>Tenant databases carry the same name on the replica, so a replica pool per tenant is created on first use.
+ * Whenever the replica is unreachable or lags behind more than the configured threshold the primary is used.
+ * Must be wrapped in a lazy connection proxy, the read-only flag of a transaction is only visible after the
+ * transaction manager asked for its connection.</p>
+ */
+public class ReplicaRoutingDataSource extends DelegatingDataSource {
+
+  private static final String REPLICATION_LAG_QUERY =
+      "SELECT pg_is_in_recovery(), EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp()))";
+
+  private final Logger logger;
+  private final Environment environment;
+  private final long maxLagInSeconds;
+  private final long lagCheckIntervalInMillis;
+  private final ConcurrentHashMap<String, BoneCPDataSource> replicaDataSources;
+  private final ConcurrentHashMap<String, ReplicaState> replicaStates;
+
+  public ReplicaRoutingDataSource(final Logger logger,
+                                  final DataSource primaryDataSource,
+                                  final Environment environment) {
+    super(primaryDataSource);
+    this.logger = logger;
+    this.environment = environment;
+    this.maxLagInSeconds = environment.getProperty("payroll.replica.maxLagInSeconds", Long.class, 5L);
+    this.lagCheckIntervalInMillis = TimeUnit.SECONDS.toMillis(
+        environment.getProperty("payroll.replica.lagCheckIntervalInSeconds", Long.class, 10L));
+    this.replicaDataSources = new ConcurrentHashMap<>();
+    this.replicaStates = new ConcurrentHashMap<>();
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+        && TenantContextHolder.identifier().isPresent()) {
+      final String tenantIdentifier = TenantContextHolder.checkedGetIdentifier();
+      try {
+        final DataSource replicaDataSource = this.replicaDataSource(tenantIdentifier);
+        if (this.isReplicaUsable(tenantIdentifier, replicaDataSource)) {
+          return replicaDataSource.getConnection();
+        }
+      } catch (final SQLException sqlex) {
+        this.logger.warn("Replica for tenant {} not available, falling back to primary.", tenantIdentifier, sqlex);
+        this.replicaStates.put(tenantIdentifier, new ReplicaState(Boolean.FALSE));
+      }
+    }
+    return super.getConnection();
+  }
+
+  public void close() {
+    this.replicaDataSources.values().forEach(BoneCPDataSource::close);
+    this.replicaDataSources.clear();
+  }
+
+  private DataSource replicaDataSource(final String tenantIdentifier) throws SQLException {
+    final BoneCPDataSource existingDataSource = this.replicaDataSources.get(tenantIdentifier);
+    if (existingDataSource != null) {
+      return existingDataSource;
+    }
+
+    final String databaseName;
+    try (final Connection primaryConnection = super.getConnection()) {
+      databaseName = primaryConnection.getCatalog();
+    }
+
+    final BoneCPDataSource boneCPDataSource = this.createReplicaDataSource(databaseName);
+    final BoneCPDataSource winner = this.replicaDataSources.putIfAbsent(tenantIdentifier, boneCPDataSource);
+    if (winner != null) {
+      boneCPDataSource.close();
+      return winner;
+    }
+    return boneCPDataSource;
+  }
+
+  BoneCPDataSource createReplicaDataSource(final String databaseName) {
+    final BoneCPDataSource boneCPDataSource = new BoneCPDataSource();
+    boneCPDataSource.setDriverClass(this.environment.getProperty("postgresql.driverClass"));
+    boneCPDataSource.setJdbcUrl(JdbcUrlBuilder
+        .create(JdbcUrlBuilder.DatabaseType.POSTGRESQL)
+        .host(this.environment.getProperty("payroll.replica.host"))
+        .port(this.environment.getProperty("payroll.replica.port"))
+        .instanceName(databaseName)
+        .build());
+    boneCPDataSource.setUsername(this.environment.getProperty("payroll.replica.user"));
+    boneCPDataSource.setPassword(this.environment.getProperty("payroll.replica.password"));
+    boneCPDataSource.setIdleConnectionTestPeriodInMinutes(
+        this.environment.getProperty("bonecp.idleConnectionTestPeriodInMinutes", Long.class, 60L));
+    boneCPDataSource.setIdleMaxAgeInMinutes(this.environment.getProperty("bonecp.idleMaxAgeInMinutes", Long.class, 240L));
+    boneCPDataSource.setMaxConnectionsPerPartition(
+        this.environment.getProperty("bonecp.maxConnectionsPerPartition", Integer.class, 10));
+    boneCPDataSource.setMinConnectionsPerPartition(
+        this.environment.getProperty("bonecp.minConnectionsPerPartition", Integer.class, 1));
+    boneCPDataSource.setPartitionCount(this.environment.getProperty("bonecp.partitionCount", Integer.class, 2));
+    boneCPDataSource.setAcquireIncrement(this.environment.getProperty("bonecp.acquireIncrement", Integer.class, 5));
+    boneCPDataSource.setStatementsCacheSize(this.environment.getProperty("bonecp.statementsCacheSize", Integer.class, 100));
+    return boneCPDataSource;
+  }
+
+  private boolean isReplicaUsable(final String tenantIdentifier, final DataSource replicaDataSource)
+      throws SQLException {
+    final ReplicaState replicaState = this.replicaStates.get(tenantIdentifier);
+    if (replicaState != null
+        && System.currentTimeMillis() - replicaState.checkedAt < this.lagCheckIntervalInMillis) {
+      return replicaState.usable;
+    }
+
+    // the replay timestamp also ages while the primary is idle, erring towards the primary is acceptable
+    final boolean usable;
+    try (
+        final Connection connection = replicaDataSource.getConnection();
+        final Statement statement = connection.createStatement();
+        final ResultSet resultSet = statement.executeQuery(REPLICATION_LAG_QUERY)
+    ) {
+      resultSet.next();
+      final boolean inRecovery = resultSet.getBoolean(1);
+      final double lagInSeconds = resultSet.getDouble(2);
+      usable = inRecovery && !resultSet.wasNull() && lagInSeconds <= this.maxLagInSeconds;
+      if (!usable) {
+        this.logger.info("Replica for tenant {} not used, lag is {} seconds.", tenantIdentifier, lagInSeconds);
+      }
+    }
+
+    this.replicaStates.put(tenantIdentifier, new ReplicaState(usable));
+    return usable;
+  }
+
+  private static class ReplicaState {
+    private final boolean usable;
+    private final long checkedAt;
+
+    private ReplicaState(final boolean usable) {
+      super();
+      this.usable = usable;
+      this.checkedAt = System.currentTimeMillis();
+    }
+  }
+}
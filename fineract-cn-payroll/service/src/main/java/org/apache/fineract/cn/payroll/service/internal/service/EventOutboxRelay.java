@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.payroll.service.internal.service;
+
+import org.apache.fineract.cn.payroll.api.v1.EventConstants;
+import org.apache.fineract.cn.payroll.service.ServiceConstants;
+import org.apache.fineract.cn.payroll.service.internal.repository.EventOutboxEntity;
+import org.apache.fineract.cn.payroll.service.internal.repository.EventOutboxRepository;
+import org.apache.fineract.cn.payroll.service.internal.repository.MetaTenantRepository;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import javax.jms.Destination;
+import javax.jms.MessageProducer;
+import javax.jms.TextMessage;
+import org.apache.fineract.cn.lang.TenantContextHolder;
+import org.apache.fineract.cn.lang.config.TenantHeaderFilter;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Publishes outbox events on a background thread. All events pending for a tenant are sent in
+ * batches, each batch within one transacted JMS session. A batch is claimed with
+ * {@code FOR UPDATE SKIP LOCKED} and removed in the same database transaction it was sent in, so
+ * with several payroll nodes every event is relayed by one of them. Delivery is at least once; a
+ * batch whose removal fails after sending stays in the outbox and is sent again later.
+ *
+ * <p>Besides the trigger after each commit, all tenants are swept on startup and periodically
+ * afterwards, so events left behind by a crash or a lost trigger are published as well.</p>
+ */
+@Service
+public class EventOutboxRelay {
+
+  private final Logger logger;
+  private final EventOutboxRepository eventOutboxRepository;
+  private final MetaTenantRepository metaTenantRepository;
+  private final JmsTemplate batchJmsTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final Integer batchSize;
+  private final Long retryDelayInSeconds;
+  private final Long sweepIntervalInSeconds;
+  private final Set<String> scheduledTenants;
+  private final ScheduledExecutorService executorService;
+
+  @Autowired
+  public EventOutboxRelay(@Qualifier(ServiceConstants.LOGGER_NAME) final Logger logger,
+                          final EventOutboxRepository eventOutboxRepository,
+                          final MetaTenantRepository metaTenantRepository,
+                          final JmsTemplate jmsTemplate,
+                          final PlatformTransactionManager transactionManager,
+                          @Value("${payroll.outbox.batchSize:500}") final Integer batchSize,
+                          @Value("${payroll.outbox.retryDelayInSeconds:5}") final Long retryDelayInSeconds,
+                          @Value("${payroll.outbox.sweepIntervalInSeconds:60}") final Long sweepIntervalInSeconds) {
+    super();
+    this.logger = logger;
+    this.eventOutboxRepository = eventOutboxRepository;
+    this.metaTenantRepository = metaTenantRepository;
+    this.batchJmsTemplate = new JmsTemplate(jmsTemplate.getConnectionFactory());
+    this.batchJmsTemplate.setDefaultDestination(jmsTemplate.getDefaultDestination());
+    this.batchJmsTemplate.setSessionTransacted(true);
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.batchSize = batchSize;
+    this.retryDelayInSeconds = retryDelayInSeconds;
+    this.sweepIntervalInSeconds = sweepIntervalInSeconds;
+    this.scheduledTenants = ConcurrentHashMap.newKeySet();
+    this.executorService = Executors.newSingleThreadScheduledExecutor(
+        runnable -> new Thread(runnable, "payroll-event-relay"));
+  }
+
+  public void schedule(final String tenantIdentifier) {
+    if (this.scheduledTenants.add(tenantIdentifier)) {
+      this.executorService.execute(() -> this.relay(tenantIdentifier));
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void startSweeping() {
+    this.executorService.scheduleWithFixedDelay(this::sweep, 0L, this.sweepIntervalInSeconds, TimeUnit.SECONDS);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    this.executorService.shutdown();
+  }
+
+  private void sweep() {
+    final List<String> tenantIdentifiers;
+    try {
+      tenantIdentifiers = this.metaTenantRepository.findTenantIdentifiers();
+    } catch (final Throwable th) {
+      this.logger.warn("Could not read tenants, skipping outbox sweep.", th);
+      return;
+    }
+
+    tenantIdentifiers.forEach(tenantIdentifier -> {
+      TenantContextHolder.setIdentifier(tenantIdentifier);
+      try {
+        if (!this.eventOutboxRepository.findAllByOrderByIdAsc(new PageRequest(0, 1)).isEmpty()) {
+          this.schedule(tenantIdentifier);
+        }
+      } catch (final Throwable th) {
+        // tenants without payroll have no outbox
+        this.logger.debug("Could not sweep outbox of tenant {}.", tenantIdentifier, th);
+      } finally {
+        TenantContextHolder.clear();
+      }
+    });
+  }
+
+  private void relay(final String tenantIdentifier) {
+    this.scheduledTenants.remove(tenantIdentifier);
+    TenantContextHolder.setIdentifier(tenantIdentifier);
+    try {
+      int relayed;
+      do {
+        relayed = this.transactionTemplate.execute(status -> {
+          final List<EventOutboxEntity> eventOutboxEntities = this.eventOutboxRepository.claimBatch(this.batchSize);
+          if (!eventOutboxEntities.isEmpty()) {
+            this.send(tenantIdentifier, eventOutboxEntities);
+            this.eventOutboxRepository.deleteInBatch(eventOutboxEntities);
+          }
+          return eventOutboxEntities.size();
+        });
+      } while (relayed == this.batchSize);
+    } catch (final Throwable th) {
+      this.logger.warn("Could not relay events for tenant {}, retrying in {} seconds.",
+          tenantIdentifier, this.retryDelayInSeconds, th);
+      this.executorService.schedule(() -> this.schedule(tenantIdentifier), this.retryDelayInSeconds, TimeUnit.SECONDS);
+    } finally {
+      TenantContextHolder.clear();
+    }
+  }
+
+  private void send(final String tenantIdentifier, final List<EventOutboxEntity> eventOutboxEntities) {
+    this.batchJmsTemplate.execute(session -> {
+      final Destination destination = this.batchJmsTemplate.getDefaultDestination() != null
+          ? this.batchJmsTemplate.getDefaultDestination()
+          : session.createTopic(EventConstants.DESTINATION);
+      final MessageProducer messageProducer = session.createProducer(destination);
+      try {
+        for (final EventOutboxEntity eventOutboxEntity : eventOutboxEntities) {
+          final TextMessage message = session.createTextMessage(eventOutboxEntity.getPayload());
+          message.setStringProperty(TenantHeaderFilter.TENANT_HEADER, tenantIdentifier);
+          message.setStringProperty(EventConstants.SELECTOR_NAME, eventOutboxEntity.getAction());
+          messageProducer.send(message);
+        }
+        session.commit();
+      } finally {
+        messageProducer.close();
+      }
+      return null;
+    }, true);
+  }
+}
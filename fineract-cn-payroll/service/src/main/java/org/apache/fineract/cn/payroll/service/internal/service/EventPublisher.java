@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.payroll.service.internal.service;
+
+import com.google.gson.Gson;
+import org.apache.fineract.cn.payroll.service.internal.repository.EventOutboxEntity;
+import org.apache.fineract.cn.payroll.service.internal.repository.EventOutboxRepository;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.sql.DataSource;
+import org.apache.fineract.cn.lang.TenantContextHolder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Records events in the outbox table as part of the current transaction. Once the transaction
+ * commits, the {@link EventOutboxRelay} is asked to publish everything pending for the tenant.
+ * Events raised in bulk are written with a single JDBC batch insert.
+ */
+@Service
+public class EventPublisher {
+
+  private static final String INSERT_EVENT =
+      "INSERT INTO meketre_event_outbox (action, payload, created_on) VALUES (?, ?, ?)";
+
+  private final EventOutboxRepository eventOutboxRepository;
+  private final EventOutboxRelay eventOutboxRelay;
+  private final JdbcTemplate jdbcTemplate;
+  private final Gson gson;
+
+  @Autowired
+  public EventPublisher(final EventOutboxRepository eventOutboxRepository,
+                        final EventOutboxRelay eventOutboxRelay,
+                        final DataSource dataSource) {
+    super();
+    this.eventOutboxRepository = eventOutboxRepository;
+    this.eventOutboxRelay = eventOutboxRelay;
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    this.gson = new Gson();
+  }
+
+  public void publish(final String action, final Object payload) {
+    final EventOutboxEntity eventOutboxEntity = new EventOutboxEntity();
+    eventOutboxEntity.setAction(action);
+    eventOutboxEntity.setPayload(this.gson.toJson(payload));
+    eventOutboxEntity.setCreatedOn(LocalDateTime.now(Clock.systemUTC()));
+    this.eventOutboxRepository.save(eventOutboxEntity);
+    this.scheduleRelay();
+  }
+
+  public void publishAll(final String action, final List<?> payloads) {
+    if (payloads.isEmpty()) {
+      return;
+    }
+
+    final Timestamp createdOn = Timestamp.valueOf(LocalDateTime.now(Clock.systemUTC()));
+    this.jdbcTemplate.batchUpdate(INSERT_EVENT, payloads.stream()
+        .map(payload -> new Object[]{action, this.gson.toJson(payload), createdOn})
+        .collect(Collectors.toList()));
+    this.scheduleRelay();
+  }
+
+  private void scheduleRelay() {
+    final String tenantIdentifier = TenantContextHolder.checkedGetIdentifier();
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      this.eventOutboxRelay.schedule(tenantIdentifier);
+      return;
+    }
+
+    // one relay trigger per transaction, no matter how many events it records
+    if (!TransactionSynchronizationManager.hasResource(this)) {
+      TransactionSynchronizationManager.bindResource(this, tenantIdentifier);
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+        @Override
+        public void afterCompletion(final int status) {
+          TransactionSynchronizationManager.unbindResource(EventPublisher.this);
+          if (status == STATUS_COMMITTED) {
+            EventPublisher.this.eventOutboxRelay.schedule(tenantIdentifier);
+          }
+        }
+      });
+    }
+  }
+}
@@ -36,6 +36,7 @@ import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class PayrollConfigurationService {
@@ -68,6 +69,7 @@ public class PayrollConfigurationService {
     return this.accountingAdaptor.findAccount(accountIdentifier);
   }
 
+  @Transactional(readOnly = true)
   public Optional<PayrollConfiguration> findPayrollConfiguration(final String customerIdentifier) {
     return this.payrollConfigurationRepository
         .findByCustomerIdentifier(customerIdentifier)
@@ -27,21 +27,34 @@ import org.apache.fineract.cn.payroll.service.internal.repository.PayrollCollect
 import org.apache.fineract.cn.payroll.service.internal.repository.PayrollPaymentEntity;
 import org.apache.fineract.cn.payroll.service.internal.repository.PayrollPaymentRepository;
 import org.apache.fineract.cn.payroll.service.internal.service.adaptor.AccountingAdaptor;
+import org.apache.fineract.cn.payroll.service.internal.util.ContinuationToken;
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import com.google.common.collect.ImmutableSet;
 import org.apache.fineract.cn.lang.DateConverter;
 import org.apache.fineract.cn.lang.ServiceException;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class PayrollDistributionService {
 
+  public static final String SORT_CUSTOMER_IDENTIFIER = "customerIdentifier";
+  public static final String SORT_SALARY = "salary";
+  // only columns backed by a (payroll_collection_id, column, id) index
+  public static final Set<String> PAYMENT_SORT_COLUMNS = ImmutableSet.of(SORT_CUSTOMER_IDENTIFIER, SORT_SALARY);
+
   private final Logger logger;
   private final PayrollCollectionRepository payrollCollectionRepository;
   private final PayrollPaymentRepository payrollPaymentRepository;
@@ -60,6 +73,7 @@ public class PayrollDistributionService {
   }
 
 
+  @Transactional(readOnly = true)
   public List<PayrollCollectionHistory> fetchHistory() {
     return this.payrollCollectionRepository.findAllByOrderByCreatedOnDesc()
         .stream()
@@ -67,11 +81,13 @@ public class PayrollDistributionService {
         .collect(Collectors.toList());
   }
 
+  @Transactional(readOnly = true)
   public Optional<PayrollCollectionHistory> findDistribution(final String identifier) {
     return this.payrollCollectionRepository.findByIdentifier(identifier)
         .map(this::mapPayrollCollection);
   }
 
+  @Transactional(readOnly = true)
   public PayrollPaymentPage fetchPayments(final String identifier, final Pageable pageable) {
     final PayrollPaymentPage payrollPaymentPage = new PayrollPaymentPage();
 
@@ -88,9 +104,117 @@ public class PayrollDistributionService {
         payrollPaymentEntity -> payrollPaymentPage.add(PayrollPaymentMapper.map(payrollPaymentEntity))
     );
 
+    if (pagedEntities.hasNext() && pageable.getSort() != null) {
+      final Sort.Order order = pageable.getSort().iterator().next();
+      final List<PayrollPaymentEntity> content = pagedEntities.getContent();
+      payrollPaymentPage.setContinuationToken(
+          this.paymentContinuationToken(order.getProperty(), order.getDirection(), content.get(content.size() - 1)));
+    }
+
+    return payrollPaymentPage;
+  }
+
+  @Transactional(readOnly = true)
+  public PayrollPaymentPage fetchPayments(final String identifier, final String continuationToken, final int size) {
+    final PayrollCollectionEntity payrollCollectionEntity =
+        this.payrollCollectionRepository.findByIdentifier(identifier).orElseThrow(
+            () -> ServiceException.notFound("Payroll distribution {0} not found.", identifier)
+        );
+
+    final List<String> keys = ContinuationToken.decode(continuationToken, 4);
+    final String sortColumn = keys.get(0);
+    final Sort.Direction direction;
+    try {
+      direction = Sort.Direction.valueOf(keys.get(1));
+    } catch (final IllegalArgumentException iaex) {
+      throw ContinuationToken.invalid(continuationToken);
+    }
+    final Long paymentId = ContinuationToken.decodeLong(continuationToken, keys.get(3));
+
+    // fetch one additional row to learn whether another page follows
+    final Pageable pageable = new PageRequest(0, size + 1);
+
+    final List<PayrollPaymentEntity> payrollPaymentEntities;
+    switch (sortColumn) {
+      case SORT_CUSTOMER_IDENTIFIER:
+        payrollPaymentEntities = direction == Sort.Direction.ASC
+            ? this.payrollPaymentRepository.findNextAscendingByCustomerIdentifier(payrollCollectionEntity, keys.get(2), paymentId, pageable)
+            : this.payrollPaymentRepository.findNextDescendingByCustomerIdentifier(payrollCollectionEntity, keys.get(2), paymentId, pageable);
+        break;
+      case SORT_SALARY:
+        final BigDecimal salary;
+        try {
+          salary = new BigDecimal(keys.get(2));
+        } catch (final NumberFormatException nfex) {
+          throw ContinuationToken.invalid(continuationToken);
+        }
+        payrollPaymentEntities = direction == Sort.Direction.ASC
+            ? this.payrollPaymentRepository.findNextAscendingBySalary(payrollCollectionEntity, salary, paymentId, pageable)
+            : this.payrollPaymentRepository.findNextDescendingBySalary(payrollCollectionEntity, salary, paymentId, pageable);
+        break;
+      default:
+        throw ContinuationToken.invalid(continuationToken);
+    }
+
+    final PayrollPaymentPage payrollPaymentPage = new PayrollPaymentPage();
+    payrollPaymentPage.setPayrollPayments(
+        payrollPaymentEntities.stream()
+            .limit(size)
+            .map(PayrollPaymentMapper::map)
+            .collect(Collectors.toList())
+    );
+
+    if (payrollPaymentEntities.size() > size) {
+      payrollPaymentPage.setContinuationToken(
+          this.paymentContinuationToken(sortColumn, direction, payrollPaymentEntities.get(size - 1)));
+    }
+
+    return payrollPaymentPage;
+  }
+
+  @Transactional(readOnly = true)
+  public PayrollPaymentPage fetchCustomerPayments(final String customerIdentifier,
+                                                  @Nullable final String continuationToken,
+                                                  final int size) {
+    // fetch one additional row to learn whether another page follows
+    final Pageable pageable = new PageRequest(0, size + 1);
+
+    final List<PayrollPaymentEntity> payrollPaymentEntities;
+    if (continuationToken == null) {
+      payrollPaymentEntities = this.payrollPaymentRepository.findByCustomerIdentifier(customerIdentifier, pageable);
+    } else {
+      final List<String> keys = ContinuationToken.decode(continuationToken, 2);
+      payrollPaymentEntities = this.payrollPaymentRepository.findByCustomerIdentifierBefore(customerIdentifier,
+          ContinuationToken.decodeLong(continuationToken, keys.get(0)),
+          ContinuationToken.decodeLong(continuationToken, keys.get(1)),
+          pageable);
+    }
+
+    final PayrollPaymentPage payrollPaymentPage = new PayrollPaymentPage();
+    payrollPaymentPage.setPayrollPayments(
+        payrollPaymentEntities.stream()
+            .limit(size)
+            .map(PayrollPaymentMapper::map)
+            .collect(Collectors.toList())
+    );
+
+    if (payrollPaymentEntities.size() > size) {
+      final PayrollPaymentEntity lastPayrollPaymentEntity = payrollPaymentEntities.get(size - 1);
+      payrollPaymentPage.setContinuationToken(ContinuationToken.encode(
+          lastPayrollPaymentEntity.getPayrollCollection().getId(), lastPayrollPaymentEntity.getId()));
+    }
+
     return payrollPaymentPage;
   }
 
+  private String paymentContinuationToken(final String sortColumn, final Sort.Direction direction,
+                                          final PayrollPaymentEntity lastPayrollPaymentEntity) {
+    final Object sortValue = SORT_SALARY.equals(sortColumn)
+        ? lastPayrollPaymentEntity.getSalary().toPlainString()
+        : lastPayrollPaymentEntity.getCustomerIdentifier();
+    return ContinuationToken.encode(sortColumn, direction.name(), sortValue, lastPayrollPaymentEntity.getId());
+  }
+
   private PayrollCollectionHistory mapPayrollCollection(final PayrollCollectionEntity payrollCollectionEntity) {
     final PayrollCollectionHistory payrollCollectionHistory = new PayrollCollectionHistory();
     payrollCollectionHistory.setIdentifier(payrollCollectionEntity.getIdentifier());
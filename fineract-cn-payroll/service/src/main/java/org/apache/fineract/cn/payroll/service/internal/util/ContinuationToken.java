@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.payroll.service.internal.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.apache.fineract.cn.lang.ServiceException;
+
+public class ContinuationToken {
+
+  private static final String SEPARATOR = ".";
+
+  private ContinuationToken() {
+    super();
+  }
+
+  public static String encode(final Object... keys) {
+    return Arrays.stream(keys)
+        .map(key -> Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(String.valueOf(key).getBytes(StandardCharsets.UTF_8)))
+        .collect(Collectors.joining(SEPARATOR));
+  }
+
+  public static List<String> decode(final String token, final int expectedKeys) {
+    try {
+      final List<String> keys = Arrays.stream(token.split("\\" + SEPARATOR, -1))
+          .map(key -> new String(Base64.getUrlDecoder().decode(key), StandardCharsets.UTF_8))
+          .collect(Collectors.toList());
+      if (keys.size() == expectedKeys) {
+        return keys;
+      }
+    } catch (final IllegalArgumentException iaex) {
+      // fall through, token was not created by us
+    }
+    throw ContinuationToken.invalid(token);
+  }
+
+  public static Long decodeLong(final String token, final String key) {
+    try {
+      return Long.valueOf(key);
+    } catch (final NumberFormatException nfex) {
+      throw ContinuationToken.invalid(token);
+    }
+  }
+
+  public static ServiceException invalid(final String token) {
+    return ServiceException.badRequest("Continuation token {0} is invalid.", token);
+  }
+}
@@ -18,12 +18,16 @@
  */
 package org.apache.fineract.cn.payroll.service.rest;
 
+import org.apache.fineract.cn.payroll.api.v1.PayrollMediaType;
 import org.apache.fineract.cn.payroll.api.v1.PermittableGroupIds;
 import org.apache.fineract.cn.payroll.api.v1.domain.PayrollAllocation;
 import org.apache.fineract.cn.payroll.api.v1.domain.PayrollConfiguration;
+import org.apache.fineract.cn.payroll.api.v1.domain.PayrollPaymentPage;
 import org.apache.fineract.cn.payroll.service.ServiceConstants;
 import org.apache.fineract.cn.payroll.service.internal.command.PutPayrollConfigurationCommand;
 import org.apache.fineract.cn.payroll.service.internal.service.PayrollConfigurationService;
+import org.apache.fineract.cn.payroll.service.internal.service.PayrollDistributionService;
+import org.apache.fineract.cn.payroll.service.rest.util.PageableBuilder;
 import java.util.List;
 import javax.validation.Valid;
 import org.apache.fineract.cn.anubis.annotation.AcceptedTokenType;
@@ -40,6 +44,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -50,15 +55,18 @@ public class PayrollConfigurationRestController {
   private final Logger logger;
   private final CommandGateway commandGateway;
   private final PayrollConfigurationService payrollConfigurationService;
+  private final PayrollDistributionService payrollDistributionService;
 
   @Autowired
   public PayrollConfigurationRestController(@Qualifier(ServiceConstants.LOGGER_NAME) final Logger logger,
                                             final CommandGateway commandGateway,
-                                            final PayrollConfigurationService payrollConfigurationService) {
+                                            final PayrollConfigurationService payrollConfigurationService,
+                                            final PayrollDistributionService payrollDistributionService) {
     super();
     this.logger = logger;
     this.commandGateway = commandGateway;
     this.payrollConfigurationService = payrollConfigurationService;
+    this.payrollDistributionService = payrollDistributionService;
   }
 
   @Permittables({
@@ -121,4 +129,27 @@ public class PayrollConfigurationRestController {
     return this.payrollConfigurationService.findPayrollConfiguration(customerIdentifier)
         .orElseThrow(() -> ServiceException.notFound("Payroll configuration for customer {0} not found.", customerIdentifier));
   }
+
+  @Permittables({
+      @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.DISTRIBUTION)
+  })
+  @RequestMapping(
+      value = "/payments",
+      method = RequestMethod.GET,
+      consumes = {
+          MediaType.ALL_VALUE
+      },
+      produces = {
+          MediaType.APPLICATION_JSON_VALUE,
+          PayrollMediaType.APPLICATION_SMILE_VALUE
+      }
+  )
+  @ResponseBody
+  ResponseEntity<PayrollPaymentPage> fetchCustomerPayments(
+      @PathVariable(value = "identifier") final String customerIdentifier,
+      @RequestParam(value = "continuationToken", required = false) final String continuationToken,
+      @RequestParam(value = "size", required = false) final Integer size) {
+    return ResponseEntity.ok(this.payrollDistributionService.fetchCustomerPayments(
+        customerIdentifier, continuationToken, PageableBuilder.size(size)));
+  }
 }
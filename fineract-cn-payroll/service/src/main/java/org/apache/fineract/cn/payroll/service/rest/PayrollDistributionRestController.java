@@ -18,6 +18,7 @@
  */
 package org.apache.fineract.cn.payroll.service.rest;
 
+import org.apache.fineract.cn.payroll.api.v1.PayrollMediaType;
 import org.apache.fineract.cn.payroll.api.v1.PermittableGroupIds;
 import org.apache.fineract.cn.payroll.api.v1.domain.PayrollCollectionHistory;
 import org.apache.fineract.cn.payroll.api.v1.domain.PayrollCollectionSheet;
@@ -80,7 +81,8 @@ public class PayrollDistributionRestController {
   @RequestMapping(
       method = RequestMethod.POST,
       consumes = {
-          MediaType.APPLICATION_JSON_VALUE
+          MediaType.APPLICATION_JSON_VALUE,
+          PayrollMediaType.APPLICATION_SMILE_VALUE
       },
       produces = {
           MediaType.APPLICATION_JSON_VALUE
@@ -115,7 +117,8 @@ public class PayrollDistributionRestController {
           MediaType.ALL_VALUE
       },
       produces = {
-          MediaType.APPLICATION_JSON_VALUE
+          MediaType.APPLICATION_JSON_VALUE,
+          PayrollMediaType.APPLICATION_SMILE_VALUE
       }
   )
   @ResponseBody
@@ -133,7 +136,8 @@ public class PayrollDistributionRestController {
           MediaType.ALL_VALUE
       },
       produces = {
-          MediaType.APPLICATION_JSON_VALUE
+          MediaType.APPLICATION_JSON_VALUE,
+          PayrollMediaType.APPLICATION_SMILE_VALUE
       }
   )
   @ResponseBody
@@ -142,12 +146,17 @@ public class PayrollDistributionRestController {
       @RequestParam(value = "pageIndex", required = false) final Integer pageIndex,
       @RequestParam(value = "size", required = false) final Integer size,
       @RequestParam(value = "sortColumn", required = false) final String sortColumn,
-      @RequestParam(value = "sortDirection", required = false) final String sortDirection) {
-    this.payrollDistributionService.findDistribution(identifier)
-        .orElseThrow(() -> ServiceException.notFound("Payroll distribution {0} not found."));
+      @RequestParam(value = "sortDirection", required = false) final String sortDirection,
+      @RequestParam(value = "continuationToken", required = false) final String continuationToken) {
+
+    if (continuationToken != null) {
+      return ResponseEntity.ok(
+          this.payrollDistributionService.fetchPayments(identifier, continuationToken, PageableBuilder.size(size)));
+    }
 
     return ResponseEntity.ok(this.payrollDistributionService
-        .fetchPayments(identifier, PageableBuilder.create(pageIndex, size, sortColumn, sortDirection)));
+        .fetchPayments(identifier, PageableBuilder.create(pageIndex, size, sortColumn, sortDirection,
+            PayrollDistributionService.PAYMENT_SORT_COLUMNS)));
   }
 
   private void verifyAccount(final String accountIdentifier) {
@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.payroll.service.rest.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import org.apache.fineract.cn.payroll.api.v1.PayrollMediaType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Inflates request bodies sent with {@code Content-Encoding: gzip}, the servlet container only
+ * takes care of compressing responses. Reading more than the configured number of inflated bytes
+ * fails the request with {@code 413 Payload Too Large}, a few kilobytes of gzip must not be able
+ * to expand into gigabytes.
+ *
+ * <p>Inflating reads block on the compressed body. Asynchronous servlets may still register a
+ * {@link ReadListener}: it is called back on a container thread of the started async context and
+ * finds the inflated body always ready, every read then blocks until compressed data arrived.</p>
+ */
+public class GzipRequestFilter extends OncePerRequestFilter {
+
+  private final long maxInflatedSizeInBytes;
+
+  public GzipRequestFilter(final long maxInflatedSizeInBytes) {
+    super();
+    this.maxInflatedSizeInBytes = maxInflatedSizeInBytes;
+  }
+
+  @Override
+  protected void doFilterInternal(final HttpServletRequest request,
+                                  final HttpServletResponse response,
+                                  final FilterChain filterChain) throws ServletException, IOException {
+    if (PayrollMediaType.GZIP_ENCODING.equalsIgnoreCase(request.getHeader(HttpHeaders.CONTENT_ENCODING))) {
+      try {
+        filterChain.doFilter(new GzipRequestWrapper(request, this.maxInflatedSizeInBytes), response);
+      } catch (final InflatedSizeExceededException ex) {
+        if (!response.isCommitted()) {
+          response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value(), ex.getMessage());
+        }
+      }
+    } else {
+      filterChain.doFilter(request, response);
+    }
+  }
+
+  private static class GzipRequestWrapper extends HttpServletRequestWrapper {
+
+    private final ServletInputStream inputStream;
+
+    GzipRequestWrapper(final HttpServletRequest request, final long maxInflatedSizeInBytes) throws IOException {
+      super(request);
+      this.inputStream =
+          new GzipServletInputStream(this, new GZIPInputStream(request.getInputStream()), maxInflatedSizeInBytes);
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+      return this.inputStream;
+    }
+
+    @Override
+    public int getContentLength() {
+      return -1;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+      return -1L;
+    }
+
+    @Override
+    public String getHeader(final String name) {
+      if (HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name)
+          || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+        return null;
+      }
+      return super.getHeader(name);
+    }
+  }
+
+  private static class GzipServletInputStream extends ServletInputStream {
+
+    private final HttpServletRequest request;
+    private final InputStream inputStream;
+    private final long maxInflatedSizeInBytes;
+    private long inflatedSizeInBytes;
+    private boolean finished;
+    private ReadListener readListener;
+
+    GzipServletInputStream(final HttpServletRequest request,
+                           final InputStream inputStream,
+                           final long maxInflatedSizeInBytes) {
+      super();
+      this.request = request;
+      this.inputStream = inputStream;
+      this.maxInflatedSizeInBytes = maxInflatedSizeInBytes;
+    }
+
+    @Override
+    public int read() throws IOException {
+      final int value = this.inputStream.read();
+      this.finished = value == -1;
+      if (!this.finished) {
+        this.count(1);
+      }
+      return value;
+    }
+
+    @Override
+    public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+      final int count = this.inputStream.read(buffer, offset, length);
+      this.finished = count == -1;
+      if (!this.finished) {
+        this.count(count);
+      }
+      return count;
+    }
+
+    private void count(final int count) {
+      this.inflatedSizeInBytes += count;
+      if (this.inflatedSizeInBytes > this.maxInflatedSizeInBytes) {
+        throw new InflatedSizeExceededException(this.maxInflatedSizeInBytes);
+      }
+    }
+
+    @Override
+    public boolean isFinished() {
+      return this.finished;
+    }
+
+    @Override
+    public boolean isReady() {
+      return true;
+    }
+
+    @Override
+    public void setReadListener(final ReadListener readListener) {
+      if (readListener == null) {
+        throw new NullPointerException("readListener");
+      }
+      if (this.readListener != null || !this.request.isAsyncStarted()) {
+        throw new IllegalStateException("A read listener needs a started async request and can be set once.");
+      }
+      this.readListener = readListener;
+      this.request.getAsyncContext().start(() -> {
+        try {
+          // always ready, so the listener reads until the body is finished
+          readListener.onDataAvailable();
+          if (this.finished) {
+            readListener.onAllDataRead();
+          }
+        } catch (final Throwable th) {
+          readListener.onError(th);
+        }
+      });
+    }
+
+    @Override
+    public void close() throws IOException {
+      this.inputStream.close();
+    }
+  }
+
+  // unchecked, message converters would turn an IOException into a bad request
+  @ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+  private static class InflatedSizeExceededException extends RuntimeException {
+
+    InflatedSizeExceededException(final long maxInflatedSizeInBytes) {
+      super("Inflated request body exceeds " + maxInflatedSizeInBytes + " bytes.");
+    }
+  }
+}
@@ -18,14 +18,19 @@
  */
 package org.apache.fineract.cn.payroll.service.rest.util;
 
+import org.apache.fineract.cn.lang.ServiceException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 
 import javax.annotation.Nullable;
+import java.util.Set;
 
 public class PageableBuilder {
 
+  public static final int DEFAULT_SIZE = 20;
+  public static final int MAX_SIZE = 1000;
+
   private PageableBuilder() {
     super();
   }
@@ -34,11 +39,31 @@ public class PageableBuilder {
       @Nullable final Integer pageIndex,
       @Nullable final Integer size,
       @Nullable final String sortColumn,
-      @Nullable final String sortDirection) {
+      @Nullable final String sortDirection,
+      final Set<String> sortColumns) {
     final Integer pageIndexToUse = pageIndex != null ? pageIndex : 0;
-    final Integer sizeToUse = size != null ? size : 20;
+    final int sizeToUse = PageableBuilder.size(size);
     final String sortColumnToUse = sortColumn != null ? sortColumn : "customerIdentifier";
-    final Sort.Direction direction = sortDirection != null ? Sort.Direction.valueOf(sortDirection.toUpperCase()) : Sort.Direction.ASC;
-    return new PageRequest(pageIndexToUse, sizeToUse, direction, sortColumnToUse);
+    if (!sortColumns.contains(sortColumnToUse)) {
+      throw ServiceException.badRequest("Sorting by {0} is not supported.", sortColumnToUse);
+    }
+
+    final Sort.Direction direction;
+    try {
+      direction = sortDirection != null ? Sort.Direction.valueOf(sortDirection.toUpperCase()) : Sort.Direction.ASC;
+    } catch (final IllegalArgumentException iaex) {
+      throw ServiceException.badRequest("Sort direction {0} is invalid.", sortDirection);
+    }
+
+    // id breaks ties so that page boundaries are stable
+    return new PageRequest(pageIndexToUse, sizeToUse, new Sort(direction, sortColumnToUse).and(new Sort(direction, "id")));
+  }
+
+  public static int size(@Nullable final Integer size) {
+    final int sizeToUse = size != null ? size : DEFAULT_SIZE;
+    if (sizeToUse < 1 || sizeToUse > MAX_SIZE) {
+      throw ServiceException.badRequest("Page size {0} is invalid, it must be between 1 and {1,number,#}.", sizeToUse, MAX_SIZE);
+    }
+    return sizeToUse;
   }
 }
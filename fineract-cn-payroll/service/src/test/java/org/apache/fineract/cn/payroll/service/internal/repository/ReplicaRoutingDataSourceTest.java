@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.payroll.service.internal.repository;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import com.jolbox.bonecp.BoneCPDataSource;
+import org.apache.fineract.cn.lang.TenantContextHolder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class ReplicaRoutingDataSourceTest {
+
+  private static final String TENANT_IDENTIFIER = "replica_tenant";
+
+  private DataSource primaryDataSource;
+  private Connection primaryConnection;
+  private BoneCPDataSource replicaDataSource;
+  private Connection replicaConnection;
+  private ResultSet lagResultSet;
+  private ReplicaRoutingDataSource testSubject;
+
+  public ReplicaRoutingDataSourceTest() {
+    super();
+  }
+
+  @Before
+  public void prepare() throws Exception {
+    this.primaryConnection = Mockito.mock(Connection.class);
+    Mockito.when(this.primaryConnection.getCatalog()).thenReturn(TENANT_IDENTIFIER);
+    this.primaryDataSource = Mockito.mock(DataSource.class);
+    Mockito.when(this.primaryDataSource.getConnection()).thenReturn(this.primaryConnection);
+
+    this.lagResultSet = Mockito.mock(ResultSet.class);
+    Mockito.when(this.lagResultSet.next()).thenReturn(Boolean.TRUE);
+    final Statement statement = Mockito.mock(Statement.class);
+    Mockito.when(statement.executeQuery(Matchers.anyString())).thenReturn(this.lagResultSet);
+    this.replicaConnection = Mockito.mock(Connection.class);
+    Mockito.when(this.replicaConnection.createStatement()).thenReturn(statement);
+    this.replicaDataSource = Mockito.mock(BoneCPDataSource.class);
+    Mockito.when(this.replicaDataSource.getConnection()).thenReturn(this.replicaConnection);
+
+    final MockEnvironment environment = new MockEnvironment();
+    environment.setProperty("payroll.replica.maxLagInSeconds", "5");
+    environment.setProperty("payroll.replica.lagCheckIntervalInSeconds", "60");
+
+    this.testSubject = new ReplicaRoutingDataSource(Mockito.mock(Logger.class), this.primaryDataSource, environment) {
+      @Override
+      BoneCPDataSource createReplicaDataSource(final String databaseName) {
+        Assert.assertEquals(TENANT_IDENTIFIER, databaseName);
+        return ReplicaRoutingDataSourceTest.this.replicaDataSource;
+      }
+    };
+
+    TenantContextHolder.setIdentifier(TENANT_IDENTIFIER);
+  }
+
+  @After
+  public void cleanup() {
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    TenantContextHolder.clear();
+  }
+
+  @Test
+  public void shouldRouteReadOnlyTransactionToReplica() throws Exception {
+    this.replicaLagsBehind(true, 1.0D);
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+    Assert.assertSame(this.replicaConnection, this.testSubject.getConnection());
+  }
+
+  @Test
+  public void shouldRouteWritingTransactionToPrimary() throws Exception {
+    this.replicaLagsBehind(true, 1.0D);
+
+    Assert.assertSame(this.primaryConnection, this.testSubject.getConnection());
+    Mockito.verifyZeroInteractions(this.replicaDataSource);
+  }
+
+  @Test
+  public void shouldFallBackToPrimaryIfReplicaUnavailable() throws Exception {
+    Mockito.when(this.replicaDataSource.getConnection()).thenThrow(new SQLException("connection refused"));
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+    Assert.assertSame(this.primaryConnection, this.testSubject.getConnection());
+    // the failure is remembered until the next lag check
+    Assert.assertSame(this.primaryConnection, this.testSubject.getConnection());
+    Mockito.verify(this.replicaDataSource, Mockito.times(1)).getConnection();
+  }
+
+  @Test
+  public void shouldFallBackToPrimaryIfReplicaLagsTooFarBehind() throws Exception {
+    this.replicaLagsBehind(true, 6.0D);
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+    Assert.assertSame(this.primaryConnection, this.testSubject.getConnection());
+  }
+
+  @Test
+  public void shouldFallBackToPrimaryIfReplicaNotInRecovery() throws Exception {
+    this.replicaLagsBehind(false, 0.0D);
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+    Assert.assertSame(this.primaryConnection, this.testSubject.getConnection());
+  }
+
+  @Test
+  public void shouldCheckLagOncePerInterval() throws Exception {
+    this.replicaLagsBehind(true, 1.0D);
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+    Assert.assertSame(this.replicaConnection, this.testSubject.getConnection());
+    Assert.assertSame(this.replicaConnection, this.testSubject.getConnection());
+    Mockito.verify(this.replicaConnection, Mockito.times(1)).createStatement();
+  }
+
+  private void replicaLagsBehind(final boolean inRecovery, final double lagInSeconds) throws SQLException {
+    Mockito.when(this.lagResultSet.getBoolean(1)).thenReturn(inRecovery);
+    Mockito.when(this.lagResultSet.getDouble(2)).thenReturn(lagInSeconds);
+    Mockito.when(this.lagResultSet.wasNull()).thenReturn(Boolean.FALSE);
+  }
+}
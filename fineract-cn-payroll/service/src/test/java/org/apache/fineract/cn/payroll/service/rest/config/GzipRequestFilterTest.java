@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.payroll.service.rest.config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import org.apache.fineract.cn.payroll.api.v1.PayrollMediaType;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+public class GzipRequestFilterTest {
+
+  private static final String BODY = "{\"customerIdentifier\": \"gzip\"}";
+
+  public GzipRequestFilterTest() {
+    super();
+  }
+
+  @Test
+  public void shouldInflateBody() throws Exception {
+    final GzipRequestFilter testSubject = new GzipRequestFilter(1024L);
+    final ByteArrayOutputStream inflated = new ByteArrayOutputStream();
+
+    testSubject.doFilter(GzipRequestFilterTest.gzipRequest(), new MockHttpServletResponse(),
+        (request, response) -> StreamUtils.copy(request.getInputStream(), inflated));
+
+    Assert.assertEquals(BODY, new String(inflated.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void shouldInflateBodyForReadListener() throws Exception {
+    final GzipRequestFilter testSubject = new GzipRequestFilter(1024L);
+    final ByteArrayOutputStream inflated = new ByteArrayOutputStream();
+    final AtomicBoolean allDataRead = new AtomicBoolean(false);
+
+    testSubject.doFilter(GzipRequestFilterTest.gzipRequest(), new MockHttpServletResponse(),
+        (request, response) -> {
+          request.startAsync();
+          final ServletInputStream inputStream = request.getInputStream();
+          inputStream.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+              final byte[] buffer = new byte[8];
+              while (inputStream.isReady() && !inputStream.isFinished()) {
+                final int count = inputStream.read(buffer);
+                if (count > 0) {
+                  inflated.write(buffer, 0, count);
+                }
+              }
+            }
+
+            @Override
+            public void onAllDataRead() {
+              allDataRead.set(true);
+            }
+
+            @Override
+            public void onError(final Throwable throwable) {
+              Assert.fail(throwable.getMessage());
+            }
+          });
+        });
+
+    Assert.assertTrue(allDataRead.get());
+    Assert.assertEquals(BODY, new String(inflated.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void shouldNotAcceptReadListenerOfSynchronousRequest() throws Exception {
+    final GzipRequestFilter testSubject = new GzipRequestFilter(1024L);
+
+    testSubject.doFilter(GzipRequestFilterTest.gzipRequest(), new MockHttpServletResponse(),
+        (request, response) -> request.getInputStream().setReadListener(Mockito.mock(ReadListener.class)));
+  }
+
+  @Test
+  public void shouldRejectBodyInflatingTooLarge() throws Exception {
+    final GzipRequestFilter testSubject = new GzipRequestFilter(8L);
+    final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    testSubject.doFilter(GzipRequestFilterTest.gzipRequest(), response,
+        (request, ignored) -> StreamUtils.copyToByteArray(request.getInputStream()));
+
+    Assert.assertEquals(HttpStatus.PAYLOAD_TOO_LARGE.value(), response.getStatus());
+  }
+
+  private static MockHttpServletRequest gzipRequest() throws IOException {
+    final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (final GZIPOutputStream gzipOutputStream = new GZIPOutputStream(compressed)) {
+      gzipOutputStream.write(BODY.getBytes(StandardCharsets.UTF_8));
+    }
+
+    final MockHttpServletRequest request = new MockHttpServletRequest("POST", "/payroll/distribution");
+    request.addHeader(HttpHeaders.CONTENT_ENCODING, PayrollMediaType.GZIP_ENCODING);
+    request.setContent(compressed.toByteArray());
+    request.setAsyncSupported(true);
+    return request;
+  }
+}